@@ -88,6 +88,15 @@ public class VMActuator implements Actuator2 {
   @Setter
   private boolean enableEventListener;
 
+  @Setter
+  private long constantEnergyLimit = VMConstant.ENERGY_LIMIT_IN_CONSTANT_TX;
+
+  /**
+   * The time in us, as of System.nanoTime, a constant call has to end by; 0 for none.
+   */
+  @Setter
+  private long constantDeadlineInUs;
+
   private LogInfoTriggerParser logInfoTriggerParser;
 
 
@@ -469,7 +478,7 @@ public class VMActuator implements Actuator2 {
       AccountCapsule caller = repository.getAccount(callerAddress);
       long energyLimit;
       if (isConstantCall) {
-        energyLimit = VMConstant.ENERGY_LIMIT_IN_CONSTANT_TX;
+        energyLimit = constantEnergyLimit;
       } else {
         AccountCapsule creator = repository
             .getAccount(deployedContract.getInstance().getOriginAddress().toByteArray());
@@ -482,6 +491,11 @@ public class VMActuator implements Actuator2 {
           (long) (maxCpuTimeOfOneTx * getCpuLimitInUsRatio());
       long vmStartInUs = System.nanoTime() / VMConstant.ONE_THOUSAND;
       long vmShouldEndInUs = vmStartInUs + thisTxCPULimitInUs;
+      if (isConstantCall && constantDeadlineInUs > 0) {
+        // where the cpu time is not limited the deadline of the call holds alone
+        vmShouldEndInUs = Program.isCpuTimeLimited()
+            ? Math.min(vmShouldEndInUs, constantDeadlineInUs) : constantDeadlineInUs;
+      }
       ProgramInvoke programInvoke = programInvokeFactory
           .createProgramInvoke(TrxType.TRX_CONTRACT_CALL_TYPE, executorType, trx,
               tokenValue, tokenId, blockCap.getInstance(), repository, vmStartInUs,
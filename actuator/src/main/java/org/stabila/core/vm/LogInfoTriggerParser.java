@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -52,6 +53,14 @@ public class LogInfoTriggerParser {
   }
 
   public List<ContractTrigger> parseLogInfos(List<LogInfo> logInfos, Repository deposit) {
+    return parseLogInfos(logInfos, deposit::getContract);
+  }
+
+  /**
+   * @param contracts looks the contracts up, by address
+   */
+  public List<ContractTrigger> parseLogInfos(List<LogInfo> logInfos,
+      Function<byte[], ContractCapsule> contracts) {
 
     List<ContractTrigger> list = new LinkedList<>();
     if (logInfos == null || logInfos.size() <= 0) {
@@ -69,7 +78,7 @@ public class LogInfoTriggerParser {
       if (addrMap.get(strContractAddr) != null) {
         continue;
       }
-      ContractCapsule contract = deposit.getContract(contractAddress);
+      ContractCapsule contract = contracts.apply(contractAddress);
       if (contract == null) {
         // never
         addrMap.put(strContractAddr, originAddress);
@@ -12,6 +12,7 @@ import org.springframework.util.StringUtils;
 import org.stabila.core.db.TransactionTrace;
 import org.stabila.common.runtime.vm.DataWord;
 import org.stabila.common.runtime.vm.LogInfo;
+import org.stabila.common.runtime.vm.UInt256;
 import org.stabila.core.vm.config.VMConfig;
 import org.stabila.core.vm.program.Program;
 import org.stabila.core.vm.program.Program.JVMStackOverFlowException;
@@ -19,6 +20,7 @@ import org.stabila.core.vm.program.Program.OutOfEnergyException;
 import org.stabila.core.vm.program.Program.OutOfTimeException;
 import org.stabila.core.vm.program.Program.TransferException;
 import org.stabila.core.vm.program.Stack;
+import org.stabila.core.vm.trace.VMProfiler;
 
 @Slf4j(topic = "VM")
 public class VM {
@@ -26,6 +28,10 @@ public class VM {
   private static final BigInteger _32_ = BigInteger.valueOf(32);
   private static final BigInteger MEM_LIMIT = BigInteger.valueOf(3L * 1024 * 1024); // 3MB
   private final VMConfig config;
+  // scratch registers of the arithmetic opcodes, reused across steps to avoid allocations
+  private final UInt256 reg1 = new UInt256();
+  private final UInt256 reg2 = new UInt256();
+  private final UInt256 reg3 = new UInt256();
 
   public VM() {
     config = VMConfig.getInstance();
@@ -348,7 +354,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.add(word2);
+          reg1.load(word1).add(reg2.load(word2)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -357,7 +363,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.mul(word2);
+          reg1.load(word1).mul(reg2.load(word2)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -366,7 +372,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.sub(word2);
+          reg1.load(word1).sub(reg2.load(word2)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -375,7 +381,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.div(word2);
+          reg1.load(word1).div(reg2.load(word2)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -384,7 +390,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.sDiv(word2);
+          reg1.load(word1).sdiv(reg2.load(word2), reg3).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -393,7 +399,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.mod(word2);
+          reg1.load(word1).mod(reg2.load(word2)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -402,7 +408,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.sMod(word2);
+          reg1.load(word1).smod(reg2.load(word2), reg3).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -411,7 +417,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          word1.exp(word2);
+          reg1.load(word1).exp(reg2.load(word2), reg3).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -440,7 +446,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          if (word1.value().compareTo(word2.value()) < 0) {
+          if (reg1.load(word1).compareUnsigned(reg2.load(word2)) < 0) {
             word1.and(DataWord.ZERO);
             word1.getData()[31] = 1;
           } else {
@@ -454,7 +460,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          if (word1.sValue().compareTo(word2.sValue()) < 0) {
+          if (reg1.load(word1).compareSigned(reg2.load(word2)) < 0) {
             word1.and(DataWord.ZERO);
             word1.getData()[31] = 1;
           } else {
@@ -468,7 +474,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          if (word1.sValue().compareTo(word2.sValue()) > 0) {
+          if (reg1.load(word1).compareSigned(reg2.load(word2)) > 0) {
             word1.and(DataWord.ZERO);
             word1.getData()[31] = 1;
           } else {
@@ -482,7 +488,7 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          if (word1.value().compareTo(word2.value()) > 0) {
+          if (reg1.load(word1).compareUnsigned(reg2.load(word2)) > 0) {
             word1.and(DataWord.ZERO);
             word1.getData()[31] = 1;
           } else {
@@ -571,8 +577,8 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          final DataWord result = word2.shiftLeft(word1);
-          program.stackPush(result);
+          reg1.load(word2).shiftLeft(reg2.load(word1)).store(word2);
+          program.stackPush(word2);
           program.step();
         }
         break;
@@ -580,8 +586,8 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          final DataWord result = word2.shiftRight(word1);
-          program.stackPush(result);
+          reg1.load(word2).shiftRight(reg2.load(word1)).store(word2);
+          program.stackPush(word2);
           program.step();
         }
         break;
@@ -589,8 +595,8 @@ public class VM {
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
-          final DataWord result = word2.shiftRightSigned(word1);
-          program.stackPush(result);
+          reg1.load(word2).shiftRightSigned(reg2.load(word1)).store(word2);
+          program.stackPush(word2);
           program.step();
         }
         break;
@@ -599,7 +605,7 @@ public class VM {
           DataWord word2 = program.stackPop();
           DataWord word3 = program.stackPop();
 
-          word1.addmod(word2, word3);
+          reg1.load(word1).addmod(reg2.load(word2), reg3.load(word3)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -609,7 +615,7 @@ public class VM {
           DataWord word2 = program.stackPop();
           DataWord word3 = program.stackPop();
 
-          word1.mulmod(word2, word3);
+          reg1.load(word1).mulmod(reg2.load(word2), reg3.load(word3)).store(word1);
           program.stackPush(word1);
           program.step();
         }
@@ -1253,6 +1259,11 @@ public class VM {
         return;
       }
 
+      if (VMConfig.vmProfile()) {
+        profile(program);
+        return;
+      }
+
       while (!program.isStopped()) {
         this.step(program);
       }
@@ -1273,6 +1284,28 @@ public class VM {
     }
   }
 
+  private void profile(Program program) {
+    VMProfiler.Recorder recorder = VMProfiler.getInstance().recorder();
+    VMProfiler.Frame frame = recorder.enter();
+    try {
+      while (!program.isStopped()) {
+        byte op = program.getCurrentOp();
+        if (recorder.sample()) {
+          long start = System.nanoTime();
+          this.step(program);
+          recorder.record(op, System.nanoTime() - start);
+        } else {
+          this.step(program);
+          recorder.count(op);
+        }
+      }
+    } finally {
+      recorder.exit(frame,
+          TransactionTrace.convertToStabilaAddress(program.getContractAddress().getLast20Bytes()),
+          program.getResult().getEnergyUsed());
+    }
+  }
+
   private boolean isDeadAccount(Program program, DataWord address) {
     return program.getContractState().getAccount(TransactionTrace.convertToStabilaAddress(address.getLast20Bytes()))
         == null;
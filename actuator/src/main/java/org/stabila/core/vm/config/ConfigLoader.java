@@ -17,6 +17,7 @@ public class ConfigLoader {
     if (!disable) {
       DynamicPropertiesStore ds = storeFactory.getChainBaseManager().getDynamicPropertiesStore();
       VMConfig.setVmTrace(CommonParameter.getInstance().isVmTrace());
+      VMConfig.setVmProfile(CommonParameter.getInstance().isVmProfilerEnable());
       if (ds != null) {
         VMConfig.initVmHardFork(ReceiptCapsule.checkForEnergyLimit(ds));
         VMConfig.initAllowMultiSign(ds.getAllowMultiSign());
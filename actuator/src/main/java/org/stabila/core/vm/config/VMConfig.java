@@ -35,6 +35,9 @@ public class VMConfig {
   @Setter
   private static boolean vmTrace = false;
 
+  @Setter
+  private static boolean vmProfile = false;
+
   private static boolean ALLOW_TVM_TRANSFER_TRC10 = false;
 
   private static boolean ALLOW_TVM_CONSTANTINOPLE = false;
@@ -62,6 +65,10 @@ public class VMConfig {
     return vmTrace;
   }
 
+  public static boolean vmProfile() {
+    return vmProfile;
+  }
+
   public static boolean vmTraceCompressed() {
     return vmTraceCompressed;
   }
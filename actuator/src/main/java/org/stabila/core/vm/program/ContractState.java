@@ -178,6 +178,11 @@ public class ContractState implements Repository, ProgramListenerAware {
     repository.commit();
   }
 
+  @Override
+  public void rollback() {
+    repository.rollback();
+  }
+
   @Override
   public void putAccount(Key key, Value value) {
     repository.putAccount(key, value);
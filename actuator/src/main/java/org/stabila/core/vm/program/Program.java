@@ -808,6 +808,7 @@ public class Program {
       logger.debug("contract run halted by Exception: contract: [{}], exception: [{}]",
           Hex.toHexString(newAddress),
           createResult.getException());
+      deposit.rollback();
 
       if(internalTx != null){
         internalTx.reject();
@@ -825,6 +826,8 @@ public class Program {
     } else {
       if (!byTestingSuite()) {
         deposit.commit();
+      } else {
+        deposit.rollback();
       }
 
       // IN SUCCESS PUSH THE ADDRESS INTO THE STACK
@@ -906,6 +909,7 @@ public class Program {
     if (!isTokenTransfer) {
       long senderBalance = deposit.getBalance(senderAddress);
       if (senderBalance < endowment) {
+        deposit.rollback();
         stackPushZero();
         refundEnergy(msg.getEnergy().longValue(), REFUND_ENERGY_FROM_MESSAGE_CALL);
         return;
@@ -915,6 +919,7 @@ public class Program {
       tokenId = String.valueOf(msg.getTokenId().longValue()).getBytes();
       long senderBalance = deposit.getTokenBalance(senderAddress, tokenId);
       if (senderBalance < endowment) {
+        deposit.rollback();
         stackPushZero();
         refundEnergy(msg.getEnergy().longValue(), REFUND_ENERGY_FROM_MESSAGE_CALL);
         return;
@@ -1005,6 +1010,7 @@ public class Program {
         logger.debug("contract run halted by Exception: contract: [{}], exception: [{}]",
             Hex.toHexString(contextAddress),
             callResult.getException());
+        deposit.rollback();
 
         if(internalTx != null){
           internalTx.reject();
@@ -1078,12 +1084,19 @@ public class Program {
     getResult().spendEnergy(energyValue);
   }
 
+  /**
+   * @return whether the cpu time of transactions is limited on this node, it is not on debug and
+   *     solidity nodes
+   */
+  public static boolean isCpuTimeLimited() {
+    return !CommonParameter.getInstance().isDebug()
+        && !CommonParameter.getInstance().isSolidityNode();
+  }
+
   public void checkCPUTimeLimit(String opName) {
 
-    if (CommonParameter.getInstance().isDebug()) {
-      return;
-    }
-    if (CommonParameter.getInstance().isSolidityNode()) {
+    // constant calls keep the deadline they are given everywhere
+    if (!isConstantCall() && !isCpuTimeLimited()) {
       return;
     }
     long vmNowInUs = System.nanoTime() / 1000;
@@ -1508,6 +1521,7 @@ public class Program {
       senderBalance = deposit.getTokenBalance(senderAddress, tokenId);
     }
     if (senderBalance < endowment) {
+      deposit.rollback();
       stackPushZero();
       refundEnergy(msg.getEnergy().longValue(), REFUND_ENERGY_FROM_MESSAGE_CALL);
       return;
@@ -1541,6 +1555,7 @@ public class Program {
     if (requiredEnergy > msg.getEnergy().longValue()) {
       // Not need to throw an exception, method caller needn't know that
       // regard as consumed the energy
+      deposit.rollback();
       this.refundEnergy(0, CALL_PRE_COMPILED); //matches cpp logic
       this.stackPushZero();
     } else {
@@ -1561,6 +1576,7 @@ public class Program {
         deposit.commit();
       } else {
         // spend all energy on failure, push zero and revert state changes
+        deposit.rollback();
         this.refundEnergy(0, CALL_PRE_COMPILED);
         this.stackPushZero();
         if (Objects.nonNull(this.result.getException())) {
@@ -1765,6 +1781,7 @@ public class Program {
     } catch (ArithmeticException e) {
       logger.error("TVM Freeze: frozenBalance out of long range.");
     }
+    repository.rollback();
     if (internalTx != null) {
       internalTx.reject();
     }
@@ -1796,6 +1813,7 @@ public class Program {
     } catch (ContractValidateException e) {
       logger.error("TVM Unfreeze: validate failure. Reason: {}", e.getMessage());
     }
+    repository.rollback();
     if (internalTx != null) {
       internalTx.reject();
     }
@@ -1913,6 +1931,7 @@ public class Program {
     } catch (ArithmeticException e) {
       logger.error("TVM VoteWitness: int or long out of range. caused by: {}", e.getMessage());
     }
+    repository.rollback();
     if (internalTx != null) {
       internalTx.reject();
     }
@@ -1944,6 +1963,7 @@ public class Program {
     } catch (ContractExeException e) {
       logger.error("TVM WithdrawReward: execute failure. Reason: {}", e.getMessage());
     }
+    repository.rollback();
     if (internalTx != null) {
       internalTx.reject();
     }
@@ -5,11 +5,14 @@ import static java.lang.System.arraycopy;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.Getter;
+import lombok.Setter;
 import org.stabila.core.capsule.StorageRowCapsule;
+import org.stabila.core.db.StorageRowCache;
 import org.stabila.core.store.StorageRowStore;
 import org.stabila.common.crypto.Hash;
 import org.stabila.common.runtime.vm.DataWord;
 import org.stabila.common.utils.ByteUtil;
+import org.stabila.core.vm.repository.Journal;
 
 public class Storage {
 
@@ -22,6 +25,10 @@ public class Storage {
   private StorageRowStore store;
   @Getter
   private byte[] address;
+  @Setter
+  private Journal journal;
+  @Setter
+  private StorageRowCache blockCache;
 
   public Storage(byte[] address, StorageRowStore store) {
     addrHash = addrHash(address);
@@ -33,6 +40,7 @@ public class Storage {
     this.addrHash = storage.addrHash.clone();
     this.address = storage.getAddress().clone();
     this.store = storage.store;
+    this.blockCache = storage.blockCache;
     storage.getRowCache().forEach((DataWord rowKey, StorageRowCapsule row) -> {
       StorageRowCapsule newRow = new StorageRowCapsule(row);
       this.rowCache.put(rowKey.clone(), newRow);
@@ -67,7 +75,9 @@ public class Storage {
     if (rowCache.containsKey(key)) {
       return new DataWord(rowCache.get(key).getValue());
     } else {
-      StorageRowCapsule row = store.get(compose(key.getData(), addrHash));
+      byte[] rowKey = compose(key.getData(), addrHash);
+      StorageRowCapsule row = blockCache == null ? store.get(rowKey)
+          : blockCache.get(rowKey, store);
       if (row == null || row.getInstance() == null) {
         return null;
       }
@@ -78,10 +88,17 @@ public class Storage {
 
   public void put(DataWord key, DataWord value) {
     if (rowCache.containsKey(key)) {
-      rowCache.get(key).setValue(value.getData());
+      StorageRowCapsule row = rowCache.get(key);
+      if (journal != null) {
+        journal.record(rowCache, key, new StorageRowCapsule(row));
+      }
+      row.setValue(value.getData());
     } else {
       byte[] rowKey = compose(key.getData(), addrHash);
       StorageRowCapsule row = new StorageRowCapsule(rowKey, value.getData());
+      if (journal != null) {
+        journal.record(rowCache, key, null);
+      }
       rowCache.put(key, row);
     }
   }
@@ -91,8 +108,14 @@ public class Storage {
       if (row.isDirty()) {
         if (new DataWord(row.getValue()).isZero()) {
           this.store.delete(row.getRowKey());
+          if (blockCache != null) {
+            blockCache.delete(row.getRowKey());
+          }
         } else {
           this.store.put(row.getRowKey(), row);
+          if (blockCache != null) {
+            blockCache.put(row.getRowKey(), row);
+          }
         }
       }
     });
@@ -0,0 +1,57 @@
+package org.stabila.core.vm.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Undo log shared by a root repository and all of its child frames. Every write into one of the
+ * shared caches records the mapping it replaces, so a frame is reverted by replaying the log back
+ * to the checkpoint taken when the frame was opened, and committing a frame costs nothing.
+ */
+public class Journal {
+
+  private final List<Entry<?, ?>> entries = new ArrayList<>();
+
+  public int checkpoint() {
+    return entries.size();
+  }
+
+  public <K, V> void record(Map<K, V> map, K key) {
+    record(map, key, map.get(key));
+  }
+
+  /**
+   * @param previous the value to restore on revert, null if the key was absent
+   */
+  public <K, V> void record(Map<K, V> map, K key, V previous) {
+    entries.add(new Entry<>(map, key, previous));
+  }
+
+  public void revert(int checkpoint) {
+    for (int i = entries.size() - 1; i >= checkpoint; i--) {
+      entries.remove(i).undo();
+    }
+  }
+
+  private static class Entry<K, V> {
+
+    private final Map<K, V> map;
+    private final K key;
+    private final V previous;
+
+    private Entry(Map<K, V> map, K key, V previous) {
+      this.map = map;
+      this.key = key;
+      this.previous = previous;
+    }
+
+    private void undo() {
+      if (previous == null) {
+        map.remove(key);
+      } else {
+        map.put(key, previous);
+      }
+    }
+  }
+}
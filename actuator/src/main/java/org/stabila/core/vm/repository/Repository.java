@@ -87,6 +87,8 @@ public interface Repository {
 
   void commit();
 
+  void rollback();
+
   void putAccount(Key key, Value value);
 
   void putCode(Key key, Value value);
@@ -5,6 +5,7 @@ import static org.stabila.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INT
 
 import com.google.protobuf.ByteString;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,7 @@ import org.stabila.core.config.Parameter;
 import org.stabila.core.db.BlockIndexStore;
 import org.stabila.core.db.BlockStore;
 import org.stabila.core.db.KhaosDatabase;
+import org.stabila.core.db.StorageRowCache;
 import org.stabila.core.db.TransactionTrace;
 import org.stabila.core.exception.BadItemException;
 import org.stabila.core.exception.ItemNotFoundException;
@@ -84,6 +86,7 @@ public class RepositoryImpl implements Repository {
   private ContractStore contractStore;
   @Getter
   private StorageRowStore storageRowStore;
+  private StorageRowCache storageRowCache;
   @Getter
   private BlockStore blockStore;
   @Getter
@@ -101,16 +104,21 @@ public class RepositoryImpl implements Repository {
 
   private Repository parent = null;
 
-  private HashMap<Key, Value> accountCache = new HashMap<>();
-  private HashMap<Key, Value> codeCache = new HashMap<>();
-  private HashMap<Key, Value> contractCache = new HashMap<>();
-  private HashMap<Key, Storage> storageCache = new HashMap<>();
+  // shared by the root and every child frame once the energy limit hard fork is active
+  private Journal journal;
+  private int checkpoint;
+  private boolean journalFrame;
 
-  private HashMap<Key, Value> assetIssueCache = new HashMap<>();
-  private HashMap<Key, Value> dynamicPropertiesCache = new HashMap<>();
-  private HashMap<Key, Value> delegatedResourceCache = new HashMap<>();
-  private HashMap<Key, Value> votesCache = new HashMap<>();
-  private HashMap<Key, Value> delegationCache = new HashMap<>();
+  private HashMap<Key, Value> accountCache;
+  private HashMap<Key, Value> codeCache;
+  private HashMap<Key, Value> contractCache;
+  private HashMap<Key, Storage> storageCache;
+
+  private HashMap<Key, Value> assetIssueCache;
+  private HashMap<Key, Value> dynamicPropertiesCache;
+  private HashMap<Key, Value> delegatedResourceCache;
+  private HashMap<Key, Value> votesCache;
+  private HashMap<Key, Value> delegationCache;
 
   public RepositoryImpl(StoreFactory storeFactory, RepositoryImpl repository) {
     init(storeFactory, repository);
@@ -132,6 +140,7 @@ public class RepositoryImpl implements Repository {
       assetIssueStore = manager.getAssetIssueStore();
       assetIssueV2Store = manager.getAssetIssueV2Store();
       storageRowStore = manager.getStorageRowStore();
+      storageRowCache = manager.getStorageRowCache();
       blockStore = manager.getBlockStore();
       khaosDb = manager.getKhaosDb();
       blockIndexStore = manager.getBlockIndexStore();
@@ -140,7 +149,35 @@ public class RepositoryImpl implements Repository {
       votesStore = manager.getVotesStore();
       delegationStore = manager.getDelegationStore();
     }
+    if (parent != null && parent.journal != null) {
+      // a child frame works directly on the root caches and only remembers where it started
+      journal = parent.journal;
+      checkpoint = journal.checkpoint();
+      journalFrame = true;
+      accountCache = parent.accountCache;
+      codeCache = parent.codeCache;
+      contractCache = parent.contractCache;
+      storageCache = parent.storageCache;
+      assetIssueCache = parent.assetIssueCache;
+      dynamicPropertiesCache = parent.dynamicPropertiesCache;
+      delegatedResourceCache = parent.delegatedResourceCache;
+      votesCache = parent.votesCache;
+      delegationCache = parent.delegationCache;
+      return;
+    }
+    if (parent == null && StorageUtils.getEnergyLimitHardFork()) {
+      journal = new Journal();
+    }
     this.parent = parent;
+    accountCache = new HashMap<>();
+    codeCache = new HashMap<>();
+    contractCache = new HashMap<>();
+    storageCache = new HashMap<>();
+    assetIssueCache = new HashMap<>();
+    dynamicPropertiesCache = new HashMap<>();
+    delegatedResourceCache = new HashMap<>();
+    votesCache = new HashMap<>();
+    delegationCache = new HashMap<>();
   }
 
   @Override
@@ -187,7 +224,7 @@ public class RepositoryImpl implements Repository {
   public AccountCapsule createAccount(byte[] address, Protocol.AccountType type) {
     Key key = new Key(address);
     AccountCapsule account = new AccountCapsule(ByteString.copyFrom(address), type);
-    accountCache.put(key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
+    write(accountCache, key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
     return account;
   }
 
@@ -199,7 +236,7 @@ public class RepositoryImpl implements Repository {
         ByteString.copyFromUtf8(accountName),
         type);
 
-    accountCache.put(key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
+    write(accountCache, key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
     return account;
   }
 
@@ -349,7 +386,7 @@ public class RepositoryImpl implements Repository {
   public void createContract(byte[] address, ContractCapsule contractCapsule) {
     Key key = Key.create(address);
     Value value = Value.create(contractCapsule.getData(), Type.VALUE_TYPE_CREATE);
-    contractCache.put(key, value);
+    write(contractCache, key, value);
   }
 
   @Override
@@ -376,35 +413,35 @@ public class RepositoryImpl implements Repository {
   public void updateContract(byte[] address, ContractCapsule contractCapsule) {
     Key key = Key.create(address);
     Value value = Value.create(contractCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    contractCache.put(key, value);
+    write(contractCache, key, value);
   }
 
   @Override
   public void updateAccount(byte[] address, AccountCapsule accountCapsule) {
     Key key = Key.create(address);
     Value value = Value.create(accountCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    accountCache.put(key, value);
+    write(accountCache, key, value);
   }
 
   @Override
   public void updateDynamicProperty(byte[] word, BytesCapsule bytesCapsule) {
     Key key = Key.create(word);
     Value value = Value.create(bytesCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    dynamicPropertiesCache.put(key, value);
+    write(dynamicPropertiesCache, key, value);
   }
 
   @Override
   public void updateDelegatedResource(byte[] word, DelegatedResourceCapsule delegatedResourceCapsule) {
     Key key = Key.create(word);
     Value value = Value.create(delegatedResourceCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    delegatedResourceCache.put(key, value);
+    write(delegatedResourceCache, key, value);
   }
 
   @Override
   public void updateVotes(byte[] word, VotesCapsule votesCapsule) {
     Key key = Key.create(word);
     Value value = Value.create(votesCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    votesCache.put(key, value);
+    write(votesCache, key, value);
   }
 
   @Override
@@ -431,14 +468,14 @@ public class RepositoryImpl implements Repository {
   public void updateDelegation(byte[] word, BytesCapsule bytesCapsule) {
     Key key = Key.create(word);
     Value value = Value.create(bytesCapsule.getData(), Type.VALUE_TYPE_DIRTY);
-    delegationCache.put(key, value);
+    write(delegationCache, key, value);
   }
 
   @Override
   public void saveCode(byte[] address, byte[] code) {
     Key key = Key.create(address);
     Value value = Value.create(code, Type.VALUE_TYPE_CREATE);
-    codeCache.put(key, value);
+    write(codeCache, key, value);
 
     if (VMConfig.allowTvmConstantinople()) {
       ContractCapsule contract = getContract(address);
@@ -483,7 +520,7 @@ public class RepositoryImpl implements Repository {
       storage = storageCache.get(addressKey);
     } else {
       storage = getStorage(address);
-      storageCache.put(addressKey, storage);
+      write(storageCache, addressKey, storage);
     }
     storage.put(key, value);
   }
@@ -500,7 +537,7 @@ public class RepositoryImpl implements Repository {
       storage = storageCache.get(addressKey);
     } else {
       storage = getStorage(address);
-      storageCache.put(addressKey, storage);
+      write(storageCache, addressKey, storage);
     }
     return storage.getValue(key);
   }
@@ -522,6 +559,8 @@ public class RepositoryImpl implements Repository {
       }
     } else {
       storage = new Storage(address, getStorageRowStore());
+      storage.setJournal(journal);
+      storage.setBlockCache(storageRowCache);
     }
     ContractCapsule contract = getContract(address);
     if (contract != null && !ByteUtil.isNullOrZeroArray(contract.getTrxHash())) {
@@ -557,7 +596,7 @@ public class RepositoryImpl implements Repository {
     Key key = Key.create(address);
     Value val = Value.create(accountCapsule.getData(),
         Type.VALUE_TYPE_DIRTY | accountCache.get(key).getType().getType());
-    accountCache.put(key, val);
+    write(accountCache, key, val);
     return accountCapsule.getBalance();
   }
 
@@ -568,6 +607,10 @@ public class RepositoryImpl implements Repository {
 
   @Override
   public void commit() {
+    if (journalFrame) {
+      // the writes already live in the root caches, nothing to merge
+      return;
+    }
     Repository repository = null;
     if (parent != null) {
       repository = parent;
@@ -582,50 +625,57 @@ public class RepositoryImpl implements Repository {
     commitDelegationCache(repository);
   }
 
+  @Override
+  public void rollback() {
+    if (journal != null) {
+      journal.revert(checkpoint);
+    }
+  }
+
   @Override
   public void putAccount(Key key, Value value) {
-    accountCache.put(key, value);
+    write(accountCache, key, value);
   }
 
   @Override
   public void putCode(Key key, Value value) {
-    codeCache.put(key, value);
+    write(codeCache, key, value);
   }
 
   @Override
   public void putContract(Key key, Value value) {
-    contractCache.put(key, value);
+    write(contractCache, key, value);
   }
 
   @Override
   public void putStorage(Key key, Storage cache) {
-    storageCache.put(key, cache);
+    write(storageCache, key, cache);
   }
 
   @Override
   public void putAccountValue(byte[] address, AccountCapsule accountCapsule) {
     Key key = new Key(address);
-    accountCache.put(key, new Value(accountCapsule.getData(), Type.VALUE_TYPE_CREATE));
+    write(accountCache, key, new Value(accountCapsule.getData(), Type.VALUE_TYPE_CREATE));
   }
 
   @Override
   public void putDynamicProperty(Key key, Value value) {
-    dynamicPropertiesCache.put(key, value);
+    write(dynamicPropertiesCache, key, value);
   }
 
   @Override
   public void putDelegatedResource(Key key, Value value) {
-    delegatedResourceCache.put(key, value);
+    write(delegatedResourceCache, key, value);
   }
 
   @Override
   public void putVotes(Key key, Value value) {
-    votesCache.put(key, value);
+    write(votesCache, key, value);
   }
 
   @Override
   public void putDelegation(Key key, Value value) {
-    delegationCache.put(key, value);
+    write(delegationCache, key, value);
   }
 
   @Override
@@ -657,7 +707,7 @@ public class RepositoryImpl implements Repository {
     Key key = Key.create(address);
     Value V = Value.create(accountCapsule.getData(),
         Type.VALUE_TYPE_DIRTY | accountCache.get(key).getType().getType());
-    accountCache.put(key, V);
+    write(accountCache, key, V);
     return accountCapsule.getAssetMapV2().get(new String(tokenIdWithoutLeadingZero));
   }
 
@@ -842,6 +892,13 @@ public class RepositoryImpl implements Repository {
     });
   }
 
+  private <V> void write(Map<Key, V> cache, Key key, V value) {
+    if (journal != null) {
+      journal.record(cache, key);
+    }
+    cache.put(key, value);
+  }
+
   /**
    * Get the block id from the number.
    */
@@ -858,7 +915,7 @@ public class RepositoryImpl implements Repository {
         getDynamicPropertiesStore().getLatestBlockHeaderTimestamp(), withDefaultPermission,
         getDynamicPropertiesStore());
 
-    accountCache.put(key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
+    write(accountCache, key, new Value(account.getData(), Type.VALUE_TYPE_CREATE));
     return account;
   }
 
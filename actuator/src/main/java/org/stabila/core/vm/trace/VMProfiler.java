@@ -0,0 +1,277 @@
+package org.stabila.core.vm.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.bouncycastle.util.encoders.Hex;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.core.vm.OpCode;
+
+/**
+ * Low overhead profiler of the VM. Every executed opcode is counted, one step out of
+ * vm.profiler.sampleRate is timed into a log2 histogram, and each call frame reports the cpu time
+ * and energy it spent itself, excluding the frames it called. Samples are kept per thread and
+ * merged once the outermost frame returns, memory is bounded by vm.profiler.maxContracts.
+ *
+ * <p>A timed CALL or CREATE step includes the time of the callee.
+ */
+public class VMProfiler {
+
+  public static final int BUCKETS = 32;
+
+  private static final VMProfiler INSTANCE = new VMProfiler();
+
+  private final long[] counts = new long[256];
+  private final long[] samples = new long[256];
+  private final long[] sampledNanos = new long[256];
+  private final long[][] histograms = new long[256][BUCKETS];
+  private final Map<String, ContractStat> contracts = new HashMap<>();
+
+  private final ThreadLocal<Recorder> recorders = ThreadLocal.withInitial(Recorder::new);
+
+  public static VMProfiler getInstance() {
+    return INSTANCE;
+  }
+
+  public Recorder recorder() {
+    return recorders.get();
+  }
+
+  public synchronized void reset() {
+    for (int i = 0; i < 256; i++) {
+      counts[i] = 0;
+      samples[i] = 0;
+      sampledNanos[i] = 0;
+      Arrays.fill(histograms[i], 0);
+    }
+    contracts.clear();
+  }
+
+  private synchronized void merge(Recorder recorder) {
+    for (int i = 0; i < 256; i++) {
+      if (recorder.counts[i] == 0) {
+        continue;
+      }
+      counts[i] += recorder.counts[i];
+      samples[i] += recorder.samples[i];
+      sampledNanos[i] += recorder.sampledNanos[i];
+      for (int b = 0; b < BUCKETS; b++) {
+        histograms[i][b] += recorder.histograms[i][b];
+      }
+    }
+    int maxContracts = CommonParameter.getInstance().getVmProfilerMaxContracts();
+    for (ContractStat frame : recorder.contracts.values()) {
+      ContractStat stat = contracts.get(frame.address);
+      if (stat == null) {
+        if (contracts.size() >= maxContracts && !evictBelow(frame.cpuNanos)) {
+          continue;
+        }
+        stat = new ContractStat(frame.address);
+        contracts.put(frame.address, stat);
+      }
+      stat.add(frame);
+    }
+  }
+
+  /**
+   * Makes room for a contract by dropping the cheapest one, if it is cheaper than cpuNanos.
+   */
+  private boolean evictBelow(long cpuNanos) {
+    ContractStat min = null;
+    for (ContractStat stat : contracts.values()) {
+      if (min == null || stat.cpuNanos < min.cpuNanos) {
+        min = stat;
+      }
+    }
+    if (min == null || min.cpuNanos >= cpuNanos) {
+      return false;
+    }
+    contracts.remove(min.address);
+    return true;
+  }
+
+  public synchronized List<OpStat> getOpStats() {
+    List<OpStat> stats = new ArrayList<>();
+    for (int i = 0; i < 256; i++) {
+      if (counts[i] > 0) {
+        OpCode op = OpCode.code((byte) i);
+        stats.add(new OpStat(op == null ? String.format("0x%02x", i) : op.name(), counts[i],
+            samples[i], sampledNanos[i], histograms[i].clone()));
+      }
+    }
+    return stats;
+  }
+
+  public List<ContractStat> getTopContractsByCpu(int limit) {
+    return topContracts(Comparator.comparingLong(ContractStat::getCpuNanos).reversed(), limit);
+  }
+
+  /**
+   * @return the contracts paying the least energy per millisecond of cpu, the likely underpriced
+   */
+  public List<ContractStat> getCheapestContracts(int limit) {
+    return topContracts(Comparator.comparingDouble(ContractStat::getEnergyPerMs), limit);
+  }
+
+  private synchronized List<ContractStat> topContracts(Comparator<ContractStat> comparator,
+      int limit) {
+    return contracts.values().stream()
+        .sorted(comparator)
+        .limit(limit)
+        .map(ContractStat::copy)
+        .collect(Collectors.toList());
+  }
+
+  private static int bucket(long nanos) {
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+  }
+
+  /**
+   * Per thread buffer of the frames being executed.
+   */
+  public static class Recorder {
+
+    private final long[] counts = new long[256];
+    private final long[] samples = new long[256];
+    private final long[] sampledNanos = new long[256];
+    private final long[][] histograms = new long[256][BUCKETS];
+    private final Map<String, ContractStat> contracts = new HashMap<>();
+
+    private int tick;
+    private int depth;
+    private long childNanos;
+    private long childEnergy;
+
+    /**
+     * @return true if the next step should be timed
+     */
+    public boolean sample() {
+      if (++tick >= CommonParameter.getInstance().getVmProfilerSampleRate()) {
+        tick = 0;
+        return true;
+      }
+      return false;
+    }
+
+    public void count(byte op) {
+      counts[op & 0xff]++;
+    }
+
+    public void record(byte op, long nanos) {
+      int i = op & 0xff;
+      counts[i]++;
+      samples[i]++;
+      sampledNanos[i] += nanos;
+      histograms[i][bucket(nanos)]++;
+    }
+
+    public Frame enter() {
+      Frame frame = new Frame(childNanos, childEnergy);
+      childNanos = 0;
+      childEnergy = 0;
+      depth++;
+      return frame;
+    }
+
+    public void exit(Frame frame, byte[] contractAddress, long energyUsed) {
+      long elapsed = System.nanoTime() - frame.start;
+      String address = Hex.toHexString(contractAddress);
+      ContractStat stat = contracts.computeIfAbsent(address, ContractStat::new);
+      stat.calls++;
+      stat.cpuNanos += Math.max(0, elapsed - childNanos);
+      stat.energy += Math.max(0, energyUsed - childEnergy);
+
+      childNanos = frame.childNanos + elapsed;
+      childEnergy = frame.childEnergy + energyUsed;
+      if (--depth == 0) {
+        INSTANCE.merge(this);
+        clear();
+      }
+    }
+
+    private void clear() {
+      for (int i = 0; i < 256; i++) {
+        if (counts[i] != 0) {
+          counts[i] = 0;
+          samples[i] = 0;
+          sampledNanos[i] = 0;
+          Arrays.fill(histograms[i], 0);
+        }
+      }
+      contracts.clear();
+      childNanos = 0;
+      childEnergy = 0;
+    }
+  }
+
+  public static class Frame {
+
+    private final long start = System.nanoTime();
+    private final long childNanos;
+    private final long childEnergy;
+
+    private Frame(long childNanos, long childEnergy) {
+      this.childNanos = childNanos;
+      this.childEnergy = childEnergy;
+    }
+  }
+
+  @Getter
+  public static class OpStat {
+
+    private final String op;
+    private final long count;
+    private final long samples;
+    private final long sampledNanos;
+    /**
+     * histogram[i] counts the samples that took [2^(i-1), 2^i) nanoseconds.
+     */
+    private final long[] histogram;
+
+    private OpStat(String op, long count, long samples, long sampledNanos, long[] histogram) {
+      this.op = op;
+      this.count = count;
+      this.samples = samples;
+      this.sampledNanos = sampledNanos;
+      this.histogram = histogram;
+    }
+
+    public long getAvgNanos() {
+      return samples == 0 ? 0 : sampledNanos / samples;
+    }
+  }
+
+  @Getter
+  public static class ContractStat {
+
+    private final String address;
+    private long calls;
+    private long cpuNanos;
+    private long energy;
+
+    private ContractStat(String address) {
+      this.address = address;
+    }
+
+    public double getEnergyPerMs() {
+      return cpuNanos == 0 ? 0 : energy * 1_000_000.0 / cpuNanos;
+    }
+
+    private void add(ContractStat other) {
+      calls += other.calls;
+      cpuNanos += other.cpuNanos;
+      energy += other.energy;
+    }
+
+    private ContractStat copy() {
+      ContractStat copy = new ContractStat(address);
+      copy.add(this);
+      return copy;
+    }
+  }
+}
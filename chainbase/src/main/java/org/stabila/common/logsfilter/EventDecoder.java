@@ -0,0 +1,110 @@
+package org.stabila.common.logsfilter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.stabila.common.crypto.Hash;
+import org.stabila.core.db.ByteArrayWrapper;
+import org.stabila.protos.contract.SmartContractOuterClass.SmartContract.ABI;
+
+/**
+ * The events of a contract ABI indexed by the hash of their signature, so matching a log to its
+ * event is a map lookup instead of hashing every entry. Decoders are cached per contract address
+ * and rebuilt whenever the ABI they were compiled from differs from the one in use; AbiStore drops
+ * the entry of a contract when its ABI is written. A decoder keeps the serialized ABI it was
+ * compiled from and the ABI instance it was last used with, so the logs of a transaction sharing
+ * the ABI instance of their contract skip the comparison, and another instance is compared by its
+ * serialized bytes.
+ */
+public class EventDecoder {
+
+  private static final int MAX_CONTRACTS = 10_000;
+
+  private static final Cache<ByteArrayWrapper, EventDecoder> DECODERS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CONTRACTS)
+      .build();
+
+  private final ByteString serializedAbi;
+  private volatile ABI abi;
+  private final Map<ByteArrayWrapper, Event> events = new HashMap<>();
+
+  private EventDecoder(ABI abi) {
+    this.serializedAbi = abi.toByteString();
+    this.abi = abi;
+    for (ABI.Entry entry : abi.getEntrysList()) {
+      if (entry.getType() != ABI.Entry.EntryType.Event || entry.getAnonymous()) {
+        continue;
+      }
+      Event event = new Event(entry);
+      events.putIfAbsent(new ByteArrayWrapper(Hash.sha3(event.signature.getBytes())), event);
+    }
+  }
+
+  public static EventDecoder get(byte[] contractAddress, ABI abi) {
+    ByteArrayWrapper key = new ByteArrayWrapper(contractAddress);
+    EventDecoder decoder = DECODERS.getIfPresent(key);
+    if (decoder == null || !decoder.compiledFrom(abi)) {
+      decoder = new EventDecoder(abi);
+      DECODERS.put(key, decoder);
+    }
+    return decoder;
+  }
+
+  private boolean compiledFrom(ABI abi) {
+    if (this.abi == abi) {
+      return true;
+    }
+    if (!serializedAbi.equals(abi.toByteString())) {
+      return false;
+    }
+    this.abi = abi;
+    return true;
+  }
+
+  public static void invalidate(byte[] contractAddress) {
+    DECODERS.invalidate(new ByteArrayWrapper(contractAddress));
+  }
+
+  /**
+   * @return the event whose signature hashes to topic0, null if there is none
+   */
+  public Event find(byte[] topic0) {
+    return events.get(new ByteArrayWrapper(topic0));
+  }
+
+  @Getter
+  public static class Event {
+
+    private final String signature;
+    private final String signatureFull;
+    private final ABI.Entry entry;
+
+    private Event(ABI.Entry entry) {
+      this.entry = entry;
+      StringBuilder signBuilder = new StringBuilder(entry.getName()).append("(");
+      StringBuilder signFullBuilder = new StringBuilder(entry.getName()).append("(");
+      for (int i = 0; i < entry.getInputsCount(); i++) {
+        ABI.Entry.Param param = entry.getInputs(i);
+        if (i > 0) {
+          signBuilder.append(",");
+          signFullBuilder.append(",");
+        }
+        signBuilder.append(param.getType());
+        signFullBuilder.append(param.getType());
+        if (StringUtils.isNotEmpty(param.getName())) {
+          signFullBuilder.append(" ").append(param.getName());
+        }
+      }
+      this.signature = signBuilder.append(")").toString();
+      this.signatureFull = signFullBuilder.append(")").toString();
+    }
+
+    public String getName() {
+      return entry.getName();
+    }
+  }
+}
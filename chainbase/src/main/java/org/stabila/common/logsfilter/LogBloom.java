@@ -0,0 +1,109 @@
+package org.stabila.common.logsfilter;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.stabila.common.crypto.Hash;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+/**
+ * A 2048 bits bloom filter of the addresses and topics of the logs of a block, set as ethereum
+ * does: three bits per value, taken from the first six bytes of its keccak256 hash. Log addresses
+ * are added as 20 bytes, without the 0x41 prefix of stabila addresses.
+ */
+public class LogBloom {
+
+  public static final int SIZE = 256;
+
+  private static final int ADDRESS_SIZE = 20;
+
+  private final byte[] data;
+
+  public LogBloom() {
+    this.data = new byte[SIZE];
+  }
+
+  public LogBloom(byte[] data) {
+    if (Objects.isNull(data) || data.length != SIZE) {
+      throw new IllegalArgumentException("a log bloom is " + SIZE + " bytes");
+    }
+    this.data = data;
+  }
+
+  public static LogBloom of(Iterable<TransactionInfo> infos) {
+    LogBloom bloom = new LogBloom();
+    for (TransactionInfo info : infos) {
+      for (TransactionInfo.Log log : info.getLogList()) {
+        bloom.add(bits(address(log.getAddress().toByteArray())));
+        log.getTopicsList().forEach(topic -> bloom.add(bits(topic.toByteArray())));
+      }
+    }
+    return bloom;
+  }
+
+  /**
+   * The 20 bytes of an address as logs carry it: a 21 bytes stabila address loses its prefix and
+   * a shorter one is left padded with zeros.
+   */
+  public static byte[] address(byte[] address) {
+    if (address.length == ADDRESS_SIZE) {
+      return address;
+    }
+    byte[] result = new byte[ADDRESS_SIZE];
+    if (address.length > ADDRESS_SIZE) {
+      System.arraycopy(address, address.length - ADDRESS_SIZE, result, 0, ADDRESS_SIZE);
+    } else {
+      System.arraycopy(address, 0, result, ADDRESS_SIZE - address.length, address.length);
+    }
+    return result;
+  }
+
+  /**
+   * The bits of a value, computed once per query value and tested against many blocks.
+   */
+  public static int[] bits(byte[] value) {
+    byte[] hash = Hash.sha3(value);
+    int[] bits = new int[3];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = ((hash[2 * i] & 0x07) << 8) | (hash[2 * i + 1] & 0xff);
+    }
+    return bits;
+  }
+
+  public void add(int[] bits) {
+    for (int bit : bits) {
+      data[SIZE - 1 - bit / 8] |= 1 << (bit % 8);
+    }
+  }
+
+  public boolean contains(int[] bits) {
+    for (int bit : bits) {
+      if ((data[SIZE - 1 - bit / 8] & (1 << (bit % 8))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public boolean isEmpty() {
+    for (byte b : data) {
+      if (b != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof LogBloom && Arrays.equals(data, ((LogBloom) o).data);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(data);
+  }
+}
@@ -25,6 +25,7 @@ import org.stabila.core.db.CommonStore;
 import org.stabila.core.db.KhaosDatabase;
 import org.stabila.core.db.PbftSignDataStore;
 import org.stabila.core.db.RecentBlockStore;
+import org.stabila.core.db.StorageRowCache;
 import org.stabila.core.db.TransactionStore;
 import org.stabila.core.db2.core.IStabilaChainBase;
 import org.stabila.core.exception.BadItemException;
@@ -37,6 +38,7 @@ import org.stabila.core.store.AccountIdIndexStore;
 import org.stabila.core.store.AccountIndexStore;
 import org.stabila.core.store.AccountStore;
 import org.stabila.core.store.AccountTraceStore;
+import org.stabila.core.store.AccountTransactionIndexStore;
 import org.stabila.core.store.AssetIssueStore;
 import org.stabila.core.store.AssetIssueV2Store;
 import org.stabila.core.store.BalanceTraceStore;
@@ -49,16 +51,19 @@ import org.stabila.core.store.DynamicPropertiesStore;
 import org.stabila.core.store.ExchangeStore;
 import org.stabila.core.store.ExchangeV2Store;
 import org.stabila.core.store.IncrementalMerkleTreeStore;
+import org.stabila.core.store.LogBloomStore;
 import org.stabila.core.store.MarketAccountStore;
 import org.stabila.core.store.MarketOrderStore;
 import org.stabila.core.store.MarketPairPriceToOrderStore;
 import org.stabila.core.store.MarketPairToPriceStore;
 import org.stabila.core.store.NullifierStore;
 import org.stabila.core.store.ProposalStore;
+import org.stabila.core.store.ShieldedBlockIndexStore;
 import org.stabila.core.store.StorageRowStore;
 import org.stabila.core.store.TransactionHistoryStore;
 import org.stabila.core.store.TransactionRetStore;
 import org.stabila.core.store.TreeBlockIndexStore;
+import org.stabila.core.store.VoteDeltaStore;
 import org.stabila.core.store.VotesStore;
 import org.stabila.core.store.WitnessScheduleStore;
 import org.stabila.core.store.WitnessStore;
@@ -107,6 +112,9 @@ public class ChainBaseManager {
   private VotesStore votesStore;
   @Autowired
   @Getter
+  private VoteDeltaStore voteDeltaStore;
+  @Autowired
+  @Getter
   private ProposalStore proposalStore;
   @Autowired
   @Getter
@@ -146,6 +154,9 @@ public class ChainBaseManager {
   private StorageRowStore storageRowStore;
   @Autowired
   @Getter
+  private StorageRowCache storageRowCache;
+  @Autowired
+  @Getter
   private NullifierStore nullifierStore;
   @Autowired
   @Getter
@@ -183,6 +194,15 @@ public class ChainBaseManager {
   private TransactionRetStore transactionRetStore;
   @Autowired
   @Getter
+  private LogBloomStore logBloomStore;
+  @Autowired
+  @Getter
+  private AccountTransactionIndexStore accountTransactionIndexStore;
+  @Autowired
+  @Getter
+  private ShieldedBlockIndexStore shieldedBlockIndexStore;
+  @Autowired
+  @Getter
   private RecentBlockStore recentBlockStore;
   @Autowired
   @Getter
@@ -229,6 +249,9 @@ public class ChainBaseManager {
 
   public void closeAllStore() {
     closeOneStore(transactionRetStore);
+    closeOneStore(logBloomStore);
+    closeOneStore(accountTransactionIndexStore);
+    closeOneStore(shieldedBlockIndexStore);
     closeOneStore(recentBlockStore);
     closeOneStore(transactionHistoryStore);
     closeOneStore(transactionStore);
@@ -247,6 +270,7 @@ public class ChainBaseManager {
     closeOneStore(exchangeStore);
     closeOneStore(proposalStore);
     closeOneStore(votesStore);
+    closeOneStore(voteDeltaStore);
     closeOneStore(delegatedResourceStore);
     closeOneStore(delegatedResourceAccountIndexStore);
     closeOneStore(assetIssueV2Store);
@@ -80,6 +80,7 @@ public class MarketOrderIdListCapsule implements ProtoCapsule<MarketOrderIdList>
       throws ItemNotFoundException {
     MarketOrderCapsule preCapsule = currentCapsule.getPrevCapsule(marketOrderStore);
     MarketOrderCapsule nextCapsule = currentCapsule.getNextCapsule(marketOrderStore);
+    pairPriceToOrderStore.removeOrderFromBook(pairPriceKey, currentCapsule.getID().toByteArray());
 
     // pre.next = current.next
     // current.next.prev = current.prev
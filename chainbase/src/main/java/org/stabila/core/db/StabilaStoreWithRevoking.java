@@ -191,6 +191,14 @@ public abstract class StabilaStoreWithRevoking<T extends ProtoCapsule> implement
     return getClass().getSimpleName();
   }
 
+  /**
+   * @return whether this thread reads the head of the store, not its solidified view
+   */
+  protected boolean isHeadCursor() {
+    return revokingDB instanceof Chainbase
+        && ((Chainbase) revokingDB).getCursor() == Chainbase.Cursor.HEAD;
+  }
+
   @Override
   public void close() {
     revokingDB.close();
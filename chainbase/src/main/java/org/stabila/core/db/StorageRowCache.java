@@ -0,0 +1,105 @@
+package org.stabila.core.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.stabila.core.capsule.StorageRowCapsule;
+import org.stabila.core.db2.core.SnapshotListener;
+import org.stabila.core.store.StorageRowStore;
+
+/**
+ * Block scoped cache of contract storage rows, shared by every transaction of the block being
+ * pushed or generated. Rows are cached when read from the StorageRowStore and refreshed when a
+ * transaction commits its storage, so consecutive transactions touching the same slots skip the
+ * snapshot stack. The cache only serves the thread that opened the block. It listens to the
+ * snapshots of the revoking database and is cleared whenever one of them is revoked or popped, as
+ * the rows it holds may have been written within it.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class StorageRowCache implements SnapshotListener {
+
+  private static final StorageRowCapsule ABSENT = new StorageRowCapsule(new byte[0]);
+
+  private final Map<ByteArrayWrapper, StorageRowCapsule> rows = new ConcurrentHashMap<>();
+
+  private volatile Thread owner;
+
+  private long hits;
+  private long misses;
+
+  public void begin() {
+    rows.clear();
+    hits = 0;
+    misses = 0;
+    owner = Thread.currentThread();
+  }
+
+  public void end() {
+    if (owner != null) {
+      logger.debug("Storage row cache closed, rows: {}, hits: {}, misses: {}",
+          rows.size(), hits, misses);
+    }
+    owner = null;
+    rows.clear();
+  }
+
+  public void clear() {
+    rows.clear();
+  }
+
+  @Override
+  public void advance(int size) {
+  }
+
+  @Override
+  public void merge() {
+  }
+
+  @Override
+  public void revoke() {
+    clear();
+  }
+
+  private boolean isActive() {
+    return owner == Thread.currentThread();
+  }
+
+  /**
+   * @return a private copy of the row, or null if the row does not exist
+   */
+  public StorageRowCapsule get(byte[] rowKey, StorageRowStore store) {
+    if (!isActive()) {
+      return existing(store.get(rowKey));
+    }
+    ByteArrayWrapper key = new ByteArrayWrapper(rowKey);
+    StorageRowCapsule row = rows.get(key);
+    if (row == null) {
+      misses++;
+      row = existing(store.get(rowKey));
+      rows.put(key, row == null ? ABSENT : new StorageRowCapsule(row));
+      return row;
+    }
+    hits++;
+    return row == ABSENT ? null : new StorageRowCapsule(row);
+  }
+
+  public void put(byte[] rowKey, StorageRowCapsule row) {
+    if (isActive()) {
+      StorageRowCapsule copy = new StorageRowCapsule(row.getValue().clone());
+      copy.setRowKey(rowKey.clone());
+      rows.put(new ByteArrayWrapper(copy.getRowKey()), copy);
+    }
+  }
+
+  public void delete(byte[] rowKey) {
+    if (isActive()) {
+      rows.put(new ByteArrayWrapper(rowKey.clone()), ABSENT);
+    }
+  }
+
+  private static StorageRowCapsule existing(StorageRowCapsule row) {
+    return row == null || row.getInstance() == null ? null : row;
+  }
+}
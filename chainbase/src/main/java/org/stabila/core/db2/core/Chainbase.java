@@ -56,6 +56,10 @@ public class Chainbase implements IRevokingDB {
     this.offset.set(offset);
   }
 
+  public Cursor getCursor() {
+    return cursor.get() == null ? Cursor.HEAD : cursor.get();
+  }
+
   private Snapshot head() {
     if (cursor.get() == null) {
       return head;
@@ -323,6 +327,8 @@ public class Chainbase implements IRevokingDB {
 
     return levelDBMap.entrySet().stream()
         .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
+        // keys deleted in a snapshot are collected with no value
+        .filter(e -> e.getValue() != null)
         .sorted((e1, e2) -> ByteUtil.compare(e1.getKey(), e2.getKey()))
         .filter(e -> ByteUtil.greaterOrEquals(e.getKey(), key))
         .limit(limit)
@@ -0,0 +1,23 @@
+package org.stabila.core.db2.core;
+
+/**
+ * Told of the snapshots stacked on the dbs, for in memory state derived from them that has to be
+ * stacked and revoked alike.
+ */
+public interface SnapshotListener {
+
+  /**
+   * A snapshot is stacked; only the top size snapshots can be revoked from here on.
+   */
+  void advance(int size);
+
+  /**
+   * The top snapshot is merged into the one below.
+   */
+  void merge();
+
+  /**
+   * The top snapshot is dropped.
+   */
+  void revoke();
+}
@@ -12,6 +12,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -57,6 +58,8 @@ public class SnapshotManager implements RevokingDatabase {
 
   private Map<String, ListeningExecutorService> flushServices = new HashMap<>();
 
+  private List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+
   @Autowired
   @Setter
   @Getter
@@ -98,9 +101,14 @@ public class SnapshotManager implements RevokingDatabase {
 
     advance();
     ++activeSession;
+    listeners.forEach(listener -> listener.advance(size));
     return new Session(this, disableOnExit);
   }
 
+  public void addListener(SnapshotListener listener) {
+    listeners.add(listener);
+  }
+
   @Override
   public void setCursor(Chainbase.Cursor cursor) {
     dbs.forEach(db -> db.setCursor(cursor));
@@ -141,6 +149,7 @@ public class SnapshotManager implements RevokingDatabase {
     dbs.forEach(db -> db.getHead().getPrevious().merge(db.getHead()));
     retreat();
     --activeSession;
+    listeners.forEach(SnapshotListener::merge);
   }
 
   public synchronized void revoke() {
@@ -164,6 +173,7 @@ public class SnapshotManager implements RevokingDatabase {
       disabled = false;
     }
     --activeSession;
+    listeners.forEach(SnapshotListener::revoke);
   }
 
   public synchronized void commit() {
@@ -190,6 +200,7 @@ public class SnapshotManager implements RevokingDatabase {
     } finally {
       disabled = false;
     }
+    listeners.forEach(SnapshotListener::revoke);
   }
 
   @Override
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.stabila.common.logsfilter.EventDecoder;
 import org.stabila.core.db.StabilaStoreWithRevoking;
 import org.stabila.core.capsule.AbiCapsule;
 
@@ -24,12 +25,27 @@ public class AbiStore extends StabilaStoreWithRevoking<AbiCapsule> {
     return getUnchecked(key);
   }
 
+  @Override
+  public void put(byte[] key, AbiCapsule item) {
+    super.put(key, item);
+    if (Objects.nonNull(key)) {
+      EventDecoder.invalidate(key);
+    }
+  }
+
   public void put(byte[] key, byte[] value) {
     if (Objects.isNull(key) || Objects.isNull(value)) {
       return;
     }
 
     revokingDB.put(key, value);
+    EventDecoder.invalidate(key);
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    super.delete(key);
+    EventDecoder.invalidate(key);
   }
 
   public long getTotalABIs() {
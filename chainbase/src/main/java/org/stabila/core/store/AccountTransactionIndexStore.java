@@ -0,0 +1,131 @@
+package org.stabila.core.store;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.ByteUtil;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.BytesCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.db.StabilaStoreWithRevoking;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * The transactions touching each account, keyed by address, block number and index of the
+ * transaction in its block, so that the transactions of an account are one range of keys in
+ * chain order. An account is touched by the transactions it owns, receives coins or assets
+ * from, and the contract calls it is the contract of. The value is the transaction id. Kept when
+ * storage.accountIndex.switch is on.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class AccountTransactionIndexStore extends StabilaStoreWithRevoking<BytesCapsule> {
+
+  public static final String DB_NAME = "account-transaction-index";
+
+  private static final int POSITION_LENGTH = Long.BYTES + Integer.BYTES;
+  private static final int TX_ID_LENGTH = 32;
+
+  @Autowired
+  public AccountTransactionIndexStore(@Value("account-transaction-index") String dbName) {
+    super(dbName);
+  }
+
+  public static boolean isEnabled() {
+    return BooleanUtils.toBoolean(CommonParameter.getInstance()
+        .getStorage().getAccountIndexSwitch());
+  }
+
+  public void put(BlockCapsule block) {
+    if (isEnabled()) {
+      index(block, (key, value) -> put(key, new BytesCapsule(value)));
+    }
+  }
+
+  /**
+   * Hands the entries of the block to the writer, for the store and for offline rebuilds.
+   */
+  public static void index(BlockCapsule block, BiConsumer<byte[], byte[]> writer) {
+    List<TransactionCapsule> transactions = block.getTransactions();
+    for (int i = 0; i < transactions.size(); i++) {
+      byte[] txId = transactions.get(i).getTransactionId().getBytes();
+      for (ByteString address : getAddresses(transactions.get(i).getInstance())) {
+        byte[] key = key(address.toByteArray(), block.getNum(), i);
+        writer.accept(key, txId);
+      }
+    }
+  }
+
+  public static Set<ByteString> getAddresses(Transaction transaction) {
+    Set<ByteString> addresses = new LinkedHashSet<>();
+    for (Transaction.Contract contract : transaction.getRawData().getContractList()) {
+      addresses.add(ByteString.copyFrom(TransactionCapsule.getOwner(contract)));
+      addresses.add(ByteString.copyFrom(TransactionCapsule.getToAddress(contract)));
+      if (contract.getType() == ContractType.TriggerSmartContract) {
+        try {
+          addresses.add(contract.getParameter().unpack(TriggerSmartContract.class)
+              .getContractAddress());
+        } catch (Exception e) {
+          logger.warn("bad trigger smart contract: {}", e.getMessage());
+        }
+      }
+    }
+    addresses.remove(ByteString.EMPTY);
+    return addresses;
+  }
+
+  public static byte[] key(byte[] address, long blockNum, int index) {
+    return Bytes.concat(address, Longs.toByteArray(blockNum), Ints.toByteArray(index));
+  }
+
+  /**
+   * The transactions of the account from the position on, the position included, in chain order.
+   */
+  public List<Entry> getTransactions(byte[] address, long blockNum, int index, int limit) {
+    if (limit <= 0) {
+      return Collections.emptyList();
+    }
+    int length = address.length + POSITION_LENGTH;
+    return revokingDB.getNext(key(address, blockNum, index), limit).entrySet().stream()
+        // the scan runs on past the account when it has fewer entries than the limit
+        .filter(entry -> entry.getKey().length == length
+            && ByteUtil.equals(Arrays.copyOf(entry.getKey(), address.length), address)
+            && entry.getValue().length == TX_ID_LENGTH)
+        .map(entry -> new Entry(
+            Longs.fromByteArray(Arrays.copyOfRange(entry.getKey(), address.length,
+                address.length + Long.BYTES)),
+            Ints.fromByteArray(Arrays.copyOfRange(entry.getKey(), address.length + Long.BYTES,
+                length)),
+            entry.getValue()))
+        .sorted(Comparator.comparingLong(Entry::getBlockNum).thenComparingInt(Entry::getIndex))
+        .collect(Collectors.toList());
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Entry {
+
+    private final long blockNum;
+    private final int index;
+    private final byte[] txId;
+  }
+}
@@ -0,0 +1,191 @@
+package org.stabila.core.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.stabila.core.capsule.AssetIssueCapsule;
+import org.stabila.core.db.ByteArrayWrapper;
+import org.stabila.core.db2.core.SnapshotListener;
+
+/**
+ * The keys of an asset issue store sorted by asset name, then by key, kept in memory so that a
+ * page of assets is read without loading and sorting all of them. It follows the puts and
+ * deletes of the store; the changes made within a snapshot are undone if it is revoked.
+ */
+@Slf4j(topic = "DB")
+class AssetIssueNameIndex implements SnapshotListener {
+
+  private static final Comparator<Entry> ORDER = Comparator
+      .comparing((Entry entry) -> entry.name)
+      .thenComparing(entry -> entry.key);
+
+  private final AssetIssueStore assetIssueStore;
+
+  // sorted, so that a page is a sub list
+  private final List<Entry> entries = new ArrayList<>();
+  private final Map<ByteArrayWrapper, Entry> entriesByKey = new HashMap<>();
+  // per revocable snapshot, the changes it made in their order
+  private final Deque<List<Change>> journal = new ArrayDeque<>();
+  private volatile boolean ready;
+
+  AssetIssueNameIndex(AssetIssueStore assetIssueStore) {
+    this.assetIssueStore = assetIssueStore;
+  }
+
+  boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Loads the index from the store, to be called while no snapshot can be revoked.
+   */
+  synchronized void load() {
+    entries.clear();
+    entriesByKey.clear();
+    journal.clear();
+    assetIssueStore.forEach(e -> {
+      Entry entry = new Entry(e.getValue().getName().toStringUtf8(), e.getKey());
+      entries.add(entry);
+      entriesByKey.put(entry.key, entry);
+    });
+    entries.sort(ORDER);
+    ready = true;
+    logger.info("Asset issue index of {} loaded, assets: {}.", assetIssueStore.getName(),
+        entries.size());
+  }
+
+  synchronized void put(byte[] key, AssetIssueCapsule assetIssue) {
+    if (!ready) {
+      return;
+    }
+    String name = assetIssue.getName().toStringUtf8();
+    Entry entry = entriesByKey.get(new ByteArrayWrapper(key));
+    if (entry != null && entry.name.equals(name)) {
+      return;
+    }
+    if (entry != null) {
+      remove(entry);
+      record(new Change(entry, false));
+    }
+    entry = new Entry(name, key.clone());
+    insert(entry);
+    record(new Change(entry, true));
+  }
+
+  synchronized void delete(byte[] key) {
+    if (!ready) {
+      return;
+    }
+    Entry entry = entriesByKey.get(new ByteArrayWrapper(key));
+    if (entry != null) {
+      remove(entry);
+      record(new Change(entry, false));
+    }
+  }
+
+  /**
+   * @return the keys of the assets from offset on, at most limit of them, in name order
+   */
+  synchronized List<byte[]> getKeys(long offset, long limit) {
+    if (offset >= entries.size() || limit <= 0) {
+      return Collections.emptyList();
+    }
+    int end = (int) Math.min(entries.size(), offset + limit);
+    List<byte[]> keys = new ArrayList<>(end - (int) offset);
+    for (Entry entry : entries.subList((int) offset, end)) {
+      keys.add(entry.key.getData());
+    }
+    return keys;
+  }
+
+  @Override
+  public synchronized void advance(int size) {
+    if (!ready) {
+      return;
+    }
+    journal.push(new ArrayList<>());
+    while (journal.size() > size) {
+      journal.removeLast();
+    }
+  }
+
+  @Override
+  public synchronized void merge() {
+    if (!ready || journal.isEmpty()) {
+      return;
+    }
+    List<Change> top = journal.pop();
+    if (!journal.isEmpty()) {
+      journal.peek().addAll(top);
+    }
+  }
+
+  @Override
+  public synchronized void revoke() {
+    if (!ready) {
+      return;
+    }
+    if (journal.isEmpty()) {
+      // the snapshot was there before the index, it is read again
+      load();
+      return;
+    }
+    List<Change> changes = journal.pop();
+    for (int i = changes.size() - 1; i >= 0; i--) {
+      Change change = changes.get(i);
+      if (change.added) {
+        remove(change.entry);
+      } else {
+        insert(change.entry);
+      }
+    }
+  }
+
+  private void record(Change change) {
+    if (!journal.isEmpty()) {
+      journal.peek().add(change);
+    }
+  }
+
+  private void insert(Entry entry) {
+    int index = Collections.binarySearch(entries, entry, ORDER);
+    entries.add(index < 0 ? -index - 1 : index, entry);
+    entriesByKey.put(entry.key, entry);
+  }
+
+  private void remove(Entry entry) {
+    int index = Collections.binarySearch(entries, entry, ORDER);
+    if (index >= 0) {
+      entries.remove(index);
+    }
+    entriesByKey.remove(entry.key);
+  }
+
+  private static class Entry {
+
+    private final String name;
+    private final ByteArrayWrapper key;
+
+    private Entry(String name, byte[] key) {
+      this.name = name;
+      this.key = new ByteArrayWrapper(key);
+    }
+  }
+
+  private static class Change {
+
+    private final Entry entry;
+    private final boolean added;
+
+    private Change(Entry entry, boolean added) {
+      this.entry = entry;
+      this.added = added;
+    }
+  }
+}
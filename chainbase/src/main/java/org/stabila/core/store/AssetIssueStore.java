@@ -5,18 +5,23 @@ import static org.stabila.common.utils.Commons.ASSET_ISSUE_COUNT_LIMIT_MAX;
 import com.google.common.collect.Streams;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.stabila.core.db.RevokingDatabase;
 import org.stabila.core.db.StabilaStoreWithRevoking;
 import org.stabila.core.capsule.AssetIssueCapsule;
+import org.stabila.core.db2.core.SnapshotManager;
 
 @Slf4j(topic = "DB")
 @Component
 public class AssetIssueStore extends StabilaStoreWithRevoking<AssetIssueCapsule> {
 
+  private final AssetIssueNameIndex nameIndex = new AssetIssueNameIndex(this);
+
   @Autowired
   protected AssetIssueStore(@Value("asset-issue") String dbName) {
     super(dbName);
@@ -28,6 +33,39 @@ public class AssetIssueStore extends StabilaStoreWithRevoking<AssetIssueCapsule>
     return super.getUnchecked(key);
   }
 
+  @Override
+  public void put(byte[] key, AssetIssueCapsule item) {
+    super.put(key, item);
+    if (key != null && item != null) {
+      nameIndex.put(key, item);
+    }
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    super.delete(key);
+    nameIndex.delete(key);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    if (nameIndex.isReady()) {
+      nameIndex.load();
+    }
+  }
+
+  /**
+   * Loads the name index, which then serves the pages of the head view. Left unloaded when the
+   * revoking database does not report its snapshots.
+   */
+  public void initNameIndex(RevokingDatabase revokingDatabase) {
+    if (revokingDatabase instanceof SnapshotManager) {
+      nameIndex.load();
+      ((SnapshotManager) revokingDatabase).addListener(nameIndex);
+    }
+  }
+
   /**
    * get all asset issues.
    */
@@ -66,6 +104,19 @@ public class AssetIssueStore extends StabilaStoreWithRevoking<AssetIssueCapsule>
   }
 
   public List<AssetIssueCapsule> getAssetIssuesPaginated(long offset, long limit) {
-    return getAssetIssuesPaginated(getAllAssetIssues(), offset, limit);
+    if (!nameIndex.isReady() || !isHeadCursor()) {
+      return getAssetIssuesPaginated(getAllAssetIssues(), offset, limit);
+    }
+    if (limit < 0 || offset < 0) {
+      return null;
+    }
+    List<byte[]> keys = nameIndex.getKeys(offset, Math.min(limit, ASSET_ISSUE_COUNT_LIMIT_MAX));
+    if (keys.isEmpty()) {
+      return null;
+    }
+    return keys.stream()
+        .map(this::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
   }
 }
@@ -0,0 +1,47 @@
+package org.stabila.core.store;
+
+import java.util.Objects;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.stabila.common.logsfilter.LogBloom;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.capsule.BytesCapsule;
+import org.stabila.core.capsule.TransactionRetCapsule;
+import org.stabila.core.db.StabilaStoreWithRevoking;
+
+/**
+ * The log bloom of each block with logs, by block number. Like the transaction infos the blooms
+ * index, they are kept when storage.transHistory.switch is on.
+ */
+@Component
+public class LogBloomStore extends StabilaStoreWithRevoking<BytesCapsule> {
+
+  @Autowired
+  public LogBloomStore(@Value("log-bloom") String dbName) {
+    super(dbName);
+  }
+
+  public void put(long number, TransactionRetCapsule result) {
+    if (Objects.isNull(result) || Objects.isNull(result.getInstance())
+        || !BooleanUtils.toBoolean(CommonParameter.getInstance()
+        .getStorage().getTransactionHistorySwitch())) {
+      return;
+    }
+    LogBloom bloom = LogBloom.of(result.getInstance().getTransactioninfoList());
+    if (!bloom.isEmpty()) {
+      put(ByteArray.fromLong(number), new BytesCapsule(bloom.getData()));
+    }
+  }
+
+  /**
+   * @return the bloom of the block, empty when the block has no logs
+   */
+  public LogBloom getBloom(long number) {
+    byte[] value = revokingDB.getUnchecked(ByteArray.fromLong(number));
+    return ArrayUtils.isEmpty(value) ? new LogBloom() : new LogBloom(value);
+  }
+}
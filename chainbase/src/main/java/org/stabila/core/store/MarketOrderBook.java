@@ -0,0 +1,285 @@
+package org.stabila.core.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.capsule.MarketOrderCapsule;
+import org.stabila.core.capsule.MarketOrderIdListCapsule;
+import org.stabila.core.capsule.utils.MarketUtils;
+import org.stabila.core.db.ByteArrayWrapper;
+import org.stabila.core.db2.core.SnapshotListener;
+import org.stabila.core.exception.ItemNotFoundException;
+import org.stabila.protos.Protocol.MarketPrice;
+
+/**
+ * The head view of MarketPairPriceToOrderStore kept in memory: the price keys of each pair sorted
+ * as the store sorts them, and the order ids queued at each price in their order. It follows the
+ * writes to the store; a level is copied the first time it changes within a snapshot and the
+ * copy is put back if the snapshot is revoked. The orders queued at a level are unknown when the
+ * level was written without going through the order queue, readers walk the store then.
+ */
+@Slf4j(topic = "DB")
+class MarketOrderBook implements SnapshotListener {
+
+  private static final int PRICE_KEY_LENGTH = MarketUtils.TOKEN_ID_LENGTH * 2 + Long.BYTES * 2;
+  private static final Level ABSENT = new Level(null);
+
+  private final MarketPairPriceToOrderStore pairPriceToOrderStore;
+  private MarketOrderStore orderStore;
+
+  private final Map<ByteArrayWrapper, TreeMap<byte[], Level>> pairs = new HashMap<>();
+  // per revocable snapshot, the levels as they were before it changed them
+  private final Deque<Map<ByteArrayWrapper, Level>> journal = new ArrayDeque<>();
+  private volatile boolean ready;
+
+  MarketOrderBook(MarketPairPriceToOrderStore pairPriceToOrderStore) {
+    this.pairPriceToOrderStore = pairPriceToOrderStore;
+  }
+
+  boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Loads the book from the stores, to be called while no snapshot can be revoked.
+   */
+  synchronized void load(MarketOrderStore orderStore) {
+    this.orderStore = orderStore;
+    pairs.clear();
+    journal.clear();
+    long count = 0;
+    for (Entry<byte[], MarketOrderIdListCapsule> entry : pairPriceToOrderStore) {
+      byte[] key = entry.getKey();
+      if (!isPriceKey(key)) {
+        continue;
+      }
+      Level level = new Level(new LinkedHashSet<>());
+      try {
+        for (MarketOrderCapsule order : entry.getValue().getAllOrder(orderStore,
+            Long.MAX_VALUE)) {
+          level.orderIds.add(new ByteArrayWrapper(order.getID().toByteArray()));
+        }
+      } catch (ItemNotFoundException e) {
+        level = new Level(null);
+      }
+      levels(key, true).put(key, level);
+      count++;
+    }
+    ready = true;
+    logger.info("Market order book loaded, pairs: {}, prices: {}.", pairs.size(), count);
+  }
+
+  synchronized void reload() {
+    load(orderStore);
+  }
+
+  synchronized void put(byte[] key, MarketOrderIdListCapsule orderIdList) {
+    if (!ready || !isPriceKey(key)) {
+      return;
+    }
+    key = key.clone();
+    Level level = touch(key);
+    byte[] head = orderIdList.getHead();
+    byte[] tail = orderIdList.getTail();
+    if (level == null) {
+      level = new Level(new LinkedHashSet<>());
+      if (!ByteArray.isEmpty(head)) {
+        level.orderIds.add(new ByteArrayWrapper(head));
+      }
+      // a list of several orders written at once is not followed
+      if (!ByteArray.isEmpty(tail) && !level.orderIds.contains(new ByteArrayWrapper(tail))) {
+        level.orderIds = null;
+      }
+      levels(key, true).put(key, level);
+      return;
+    }
+    if (level.orderIds == null) {
+      return;
+    }
+    if (orderIdList.isOrderEmpty()) {
+      level.orderIds.clear();
+      return;
+    }
+    // orders join at the tail and are removed through removeOrder before the list is written
+    level.orderIds.add(new ByteArrayWrapper(tail));
+    if (!level.orderIds.iterator().next().equals(new ByteArrayWrapper(head))) {
+      level.orderIds = null;
+    }
+  }
+
+  synchronized void removeOrder(byte[] key, byte[] orderId) {
+    if (!ready || !isPriceKey(key)) {
+      return;
+    }
+    Level level = get(key);
+    if (level == null || level.orderIds == null) {
+      return;
+    }
+    touch(key).orderIds.remove(new ByteArrayWrapper(orderId));
+  }
+
+  synchronized void delete(byte[] key) {
+    if (!ready || !isPriceKey(key) || get(key) == null) {
+      return;
+    }
+    touch(key);
+    remove(key);
+  }
+
+  /**
+   * @return the first count price keys of the pair, best price first
+   */
+  synchronized List<byte[]> getPriceKeys(byte[] pairKey, long count) {
+    TreeMap<byte[], Level> levels = pairs.get(new ByteArrayWrapper(pairKey));
+    if (levels == null || count <= 0) {
+      return new ArrayList<>();
+    }
+    List<byte[]> keys = new ArrayList<>();
+    Iterator<byte[]> iterator = levels.keySet().iterator();
+    while (iterator.hasNext() && keys.size() < count) {
+      keys.add(iterator.next().clone());
+    }
+    return keys;
+  }
+
+  /**
+   * @return the ids of the first count orders of the price, or null if they are not known here
+   */
+  synchronized List<byte[]> getOrderIds(byte[] key, long count) {
+    Level level = get(key);
+    if (level == null) {
+      return Collections.emptyList();
+    }
+    if (level.orderIds == null) {
+      return null;
+    }
+    List<byte[]> orderIds = new ArrayList<>();
+    Iterator<ByteArrayWrapper> iterator = level.orderIds.iterator();
+    while (iterator.hasNext() && orderIds.size() < count) {
+      orderIds.add(iterator.next().getData());
+    }
+    return orderIds;
+  }
+
+  @Override
+  public synchronized void advance(int size) {
+    if (!ready) {
+      return;
+    }
+    journal.push(new HashMap<>());
+    while (journal.size() > size) {
+      journal.removeLast();
+    }
+  }
+
+  @Override
+  public synchronized void merge() {
+    if (!ready || journal.isEmpty()) {
+      return;
+    }
+    Map<ByteArrayWrapper, Level> top = journal.pop();
+    if (!journal.isEmpty()) {
+      top.forEach(journal.peek()::putIfAbsent);
+    }
+  }
+
+  @Override
+  public synchronized void revoke() {
+    if (!ready) {
+      return;
+    }
+    if (journal.isEmpty()) {
+      // the snapshot was there before the book, it is read again
+      reload();
+      return;
+    }
+    journal.pop().forEach((key, level) -> {
+      if (level == ABSENT) {
+        remove(key.getData());
+      } else {
+        levels(key.getData(), true).put(key.getData(), level);
+      }
+    });
+  }
+
+  /**
+   * @return the level to change, a copy if the level is first changed in this snapshot
+   */
+  private Level touch(byte[] key) {
+    Level level = get(key);
+    if (journal.isEmpty()) {
+      return level;
+    }
+    Map<ByteArrayWrapper, Level> top = journal.peek();
+    ByteArrayWrapper wrapper = new ByteArrayWrapper(key.clone());
+    if (top.containsKey(wrapper)) {
+      return level;
+    }
+    top.put(wrapper, level == null ? ABSENT : level);
+    if (level == null) {
+      return null;
+    }
+    Level copy = level.copy();
+    levels(key, true).put(key, copy);
+    return copy;
+  }
+
+  private Level get(byte[] key) {
+    TreeMap<byte[], Level> levels = levels(key, false);
+    return levels == null ? null : levels.get(key);
+  }
+
+  private void remove(byte[] key) {
+    TreeMap<byte[], Level> levels = levels(key, false);
+    if (levels != null) {
+      levels.remove(key);
+      if (levels.isEmpty()) {
+        pairs.remove(new ByteArrayWrapper(MarketUtils.decodeKeyToMarketPairKey(key)));
+      }
+    }
+  }
+
+  private TreeMap<byte[], Level> levels(byte[] key, boolean create) {
+    ByteArrayWrapper pairKey = new ByteArrayWrapper(MarketUtils.decodeKeyToMarketPairKey(key));
+    TreeMap<byte[], Level> levels = pairs.get(pairKey);
+    if (levels == null && create) {
+      levels = new TreeMap<>(MarketUtils::comparePriceKey);
+      pairs.put(pairKey, levels);
+    }
+    return levels;
+  }
+
+  /**
+   * @return whether the key is of a price, not the head key of a pair
+   */
+  private static boolean isPriceKey(byte[] key) {
+    if (key == null || key.length != PRICE_KEY_LENGTH) {
+      return false;
+    }
+    MarketPrice price = MarketUtils.decodeKeyToMarketPrice(key);
+    return price.getSellTokenQuantity() != 0 && price.getBuyTokenQuantity() != 0;
+  }
+
+  private static class Level {
+
+    private LinkedHashSet<ByteArrayWrapper> orderIds;
+
+    private Level(LinkedHashSet<ByteArrayWrapper> orderIds) {
+      this.orderIds = orderIds;
+    }
+
+    private Level copy() {
+      return new Level(orderIds == null ? null : new LinkedHashSet<>(orderIds));
+    }
+  }
+}
@@ -9,6 +9,7 @@ import org.rocksdb.DirectComparator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.stabila.core.db.RevokingDatabase;
 import org.stabila.core.db.StabilaStoreWithRevoking;
 import org.stabila.common.utils.ByteUtil;
 import org.stabila.common.utils.MarketOrderPriceComparatorForLevelDB;
@@ -16,11 +17,14 @@ import org.stabila.common.utils.MarketOrderPriceComparatorForRockDB;
 import org.stabila.common.utils.StorageUtils;
 import org.stabila.core.capsule.MarketOrderIdListCapsule;
 import org.stabila.core.capsule.utils.MarketUtils;
+import org.stabila.core.db2.core.SnapshotManager;
 import org.stabila.core.exception.ItemNotFoundException;
 
 @Component
 public class MarketPairPriceToOrderStore extends StabilaStoreWithRevoking<MarketOrderIdListCapsule> {
 
+  private final MarketOrderBook orderBook = new MarketOrderBook(this);
+
   @Autowired
   protected MarketPairPriceToOrderStore(@Value("market_pair_price_to_order") String dbName) {
     super(dbName);
@@ -46,6 +50,58 @@ public class MarketPairPriceToOrderStore extends StabilaStoreWithRevoking<Market
     return new MarketOrderIdListCapsule(value);
   }
 
+  @Override
+  public void put(byte[] key, MarketOrderIdListCapsule item) {
+    super.put(key, item);
+    if (key != null && item != null) {
+      orderBook.put(key, item);
+    }
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    super.delete(key);
+    orderBook.delete(key);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    if (orderBook.isReady()) {
+      orderBook.reload();
+    }
+  }
+
+  /**
+   * Loads the order book, which then serves the price keys and the order ids of the head view.
+   * Left unloaded when the revoking database does not report its snapshots.
+   */
+  public void initOrderBook(MarketOrderStore orderStore, RevokingDatabase revokingDatabase) {
+    if (revokingDatabase instanceof SnapshotManager) {
+      orderBook.load(orderStore);
+      ((SnapshotManager) revokingDatabase).addListener(orderBook);
+    }
+  }
+
+  /**
+   * To be called before the order is unlinked from the order list of the price.
+   */
+  public void removeOrderFromBook(byte[] pairPriceKey, byte[] orderId) {
+    orderBook.removeOrder(pairPriceKey, orderId);
+  }
+
+  /**
+   * @return the ids of the first count orders of the price in their order, or null if the order
+   *     book can not tell and the order list has to be walked
+   */
+  public List<byte[]> getOrderIdList(byte[] pairPriceKey, long count) {
+    return useOrderBook() ? orderBook.getOrderIds(pairPriceKey, count) : null;
+  }
+
+  private boolean useOrderBook() {
+    return orderBook.isReady() && isHeadCursor();
+  }
+
   public List<byte[]> getKeysNext(byte[] key, long limit) {
     if (limit <= 0) {
       return Collections.emptyList();
@@ -69,6 +125,11 @@ public class MarketPairPriceToOrderStore extends StabilaStoreWithRevoking<Market
   public List<byte[]> getPriceKeysList(byte[] headKey, long count, long totalCount, boolean skip) {
     List<byte[]> result = new ArrayList<>();
 
+    if (skip && useOrderBook()) {
+      return orderBook.getPriceKeys(MarketUtils.decodeKeyToMarketPairKey(headKey),
+          Math.min(count, totalCount));
+    }
+
     if (has(headKey)) {
       long limit = count > totalCount ? totalCount : count;
       if (skip) {
@@ -0,0 +1,162 @@
+package org.stabila.core.store;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.stabila.common.crypto.Hash;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.common.utils.ByteUtil;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.BytesCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.capsule.TransactionRetCapsule;
+import org.stabila.core.db.StabilaStoreWithRevoking;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+/**
+ * The blocks with shielded data, so that note scans skip the blocks without any. Blocks with
+ * shielded transfers are filed under an address of zeros, blocks with shielded trc20 logs under
+ * the address of the logging contract; the key is the address followed by the block number and
+ * the value is a marker byte. Kept when the shielded apis are on, from the block recorded under
+ * the from key onwards.
+ */
+@Component
+public class ShieldedBlockIndexStore extends StabilaStoreWithRevoking<BytesCapsule> {
+
+  public static final String DB_NAME = "shielded-block-index";
+
+  public static final byte[] SHIELDED_TRC20_LOG_TOPICS_MINT = Hash.sha3(ByteArray.fromString(
+      "MintNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
+  public static final byte[] SHIELDED_TRC20_LOG_TOPICS_TRANSFER = Hash.sha3(ByteArray.fromString(
+      "TransferNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
+  public static final byte[] SHIELDED_TRC20_LOG_TOPICS_BURN_LEAF = Hash.sha3(ByteArray.fromString(
+      "BurnNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
+  public static final byte[] SHIELDED_TRC20_LOG_TOPICS_BURN_TOKEN = Hash.sha3(ByteArray
+      .fromString("TokenBurn(address,uint256,bytes32[3])"));
+
+  private static final int ADDRESS_LENGTH = 20;
+  private static final byte[] SHIELDED_TRANSFER_ADDRESS = new byte[ADDRESS_LENGTH];
+  private static final byte[] FROM_KEY = "from".getBytes();
+  // an empty value reads as absent
+  private static final byte[] INDEXED = {1};
+
+  @Autowired
+  public ShieldedBlockIndexStore(@Value("shielded-block-index") String dbName) {
+    super(dbName);
+  }
+
+  public static boolean isEnabled() {
+    return CommonParameter.getInstance().isFullNodeAllowShieldedTransactionArgs();
+  }
+
+  public void put(BlockCapsule block) {
+    if (!isEnabled()) {
+      // blocks are missed from here, the index starts over once it is kept again
+      if (has(FROM_KEY)) {
+        delete(FROM_KEY);
+      }
+      return;
+    }
+    if (!has(FROM_KEY)) {
+      put(FROM_KEY, new BytesCapsule(ByteArray.fromLong(block.getNum())));
+    }
+    index(block, block.getResult(), key -> put(key, new BytesCapsule(INDEXED)));
+  }
+
+  /**
+   * Hands the keys of the block to the writer, for the store and for offline tools.
+   */
+  public static void index(BlockCapsule block, TransactionRetCapsule result,
+      Consumer<byte[]> writer) {
+    Set<ByteString> addresses = new LinkedHashSet<>();
+    for (TransactionCapsule trx : block.getTransactions()) {
+      List<Transaction.Contract> contracts = trx.getInstance().getRawData().getContractList();
+      if (!contracts.isEmpty()
+          && contracts.get(0).getType() == ContractType.ShieldedTransferContract) {
+        addresses.add(ByteString.copyFrom(SHIELDED_TRANSFER_ADDRESS));
+        break;
+      }
+    }
+    if (!Objects.isNull(result) && !Objects.isNull(result.getInstance())) {
+      for (TransactionInfo info : result.getInstance().getTransactioninfoList()) {
+        for (TransactionInfo.Log log : info.getLogList()) {
+          if (log.getAddress().size() == ADDRESS_LENGTH && isShieldedTrc20Log(log)) {
+            addresses.add(log.getAddress());
+          }
+        }
+      }
+    }
+    addresses.forEach(address -> writer.accept(key(address.toByteArray(), block.getNum())));
+  }
+
+  /**
+   * @return whether the log has the topics of a shielded trc20 contract event
+   */
+  public static boolean isShieldedTrc20Log(TransactionInfo.Log log) {
+    byte[] topics = new byte[0];
+    for (ByteString topic : log.getTopicsList()) {
+      topics = ByteUtil.merge(topics, topic.toByteArray());
+    }
+    return Arrays.equals(topics, SHIELDED_TRC20_LOG_TOPICS_MINT)
+        || Arrays.equals(topics, SHIELDED_TRC20_LOG_TOPICS_TRANSFER)
+        || Arrays.equals(topics, SHIELDED_TRC20_LOG_TOPICS_BURN_LEAF)
+        || Arrays.equals(topics, SHIELDED_TRC20_LOG_TOPICS_BURN_TOKEN);
+  }
+
+  /**
+   * The blocks of [start, end) with shielded transfers.
+   */
+  public List<Long> getShieldedTransferBlocks(long start, long end) {
+    return getBlocks(SHIELDED_TRANSFER_ADDRESS, start, end);
+  }
+
+  /**
+   * The blocks of [start, end) with shielded trc20 logs of the contract, given without its
+   * address prefix.
+   */
+  public List<Long> getShieldedTrc20Blocks(byte[] contractAddress, long start, long end) {
+    return getBlocks(contractAddress, start, end);
+  }
+
+  /**
+   * Blocks before the index was kept are all returned, they may hold anything.
+   */
+  private List<Long> getBlocks(byte[] address, long start, long end) {
+    List<Long> blocks = new ArrayList<>();
+    byte[] from = isEnabled() ? revokingDB.getUnchecked(FROM_KEY) : null;
+    long indexed = from == null || from.length == 0
+        ? end : Math.max(start, ByteArray.toLong(from));
+    for (long num = start; num < Math.min(indexed, end); num++) {
+      blocks.add(num);
+    }
+    if (indexed >= end) {
+      return blocks;
+    }
+    int length = ADDRESS_LENGTH + Long.BYTES;
+    revokingDB.getNext(key(address, indexed), end - indexed).keySet().stream()
+        .filter(key -> key.length == length
+            && ByteUtil.equals(Arrays.copyOf(key, ADDRESS_LENGTH), address))
+        .map(key -> Longs.fromByteArray(Arrays.copyOfRange(key, ADDRESS_LENGTH, length)))
+        .filter(num -> num < end)
+        .sorted()
+        .forEach(blocks::add);
+    return blocks;
+  }
+
+  private static byte[] key(byte[] address, long blockNum) {
+    return Bytes.concat(address, Longs.toByteArray(blockNum));
+  }
+}
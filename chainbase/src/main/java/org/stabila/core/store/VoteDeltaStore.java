@@ -0,0 +1,131 @@
+package org.stabila.core.store;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.capsule.BytesCapsule;
+import org.stabila.core.capsule.VotesCapsule;
+import org.stabila.core.db.StabilaStoreWithRevoking;
+import org.stabila.protos.Protocol.Vote;
+
+/**
+ * The votes of the current maintenance epoch tallied per witness as they are cast, so that the
+ * maintenance applies them without reading every vote change. The value of a witness is the sum
+ * of its new votes less its old votes over the vote changes of the epoch, followed by the number
+ * of those changes naming the witness. The epoch key holds the number of the current epoch; until
+ * it is written, the vote changes made before the tally was kept are read at the maintenance.
+ */
+@Component
+public class VoteDeltaStore extends StabilaStoreWithRevoking<BytesCapsule> {
+
+  private static final byte[] EPOCH_KEY = "epoch".getBytes();
+
+  @Autowired
+  public VoteDeltaStore(@Value("vote-delta") String dbName) {
+    super(dbName);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+
+  /**
+   * @return whether every vote change of the epoch is tallied here
+   */
+  public boolean isTallied() {
+    return has(EPOCH_KEY);
+  }
+
+  public long getEpoch() {
+    BytesCapsule epoch = get(EPOCH_KEY);
+    return epoch == null ? 0 : ByteArray.toLong(epoch.getData());
+  }
+
+  /**
+   * Tallies the vote change of an account replacing the previous one of the epoch, if any.
+   */
+  public void count(VotesCapsule previous, VotesCapsule current) {
+    Map<ByteString, long[]> changes = new HashMap<>();
+    if (previous != null) {
+      count(changes, previous, -1);
+    }
+    count(changes, current, 1);
+    changes.forEach((witness, change) -> {
+      if (change[0] == 0 && change[1] == 0) {
+        return;
+      }
+      byte[] key = witness.toByteArray();
+      long[] tally = getTally(key);
+      long votes = tally[0] + change[0];
+      long changeCount = tally[1] + change[1];
+      if (changeCount == 0) {
+        delete(key);
+      } else {
+        put(key, new BytesCapsule(Bytes.concat(Longs.toByteArray(votes),
+            Longs.toByteArray(changeCount))));
+      }
+    });
+  }
+
+  /**
+   * Ends the epoch: the tally is handed back and cleared, and the vote changes from here on
+   * belong to the next epoch.
+   *
+   * @return the votes won or lost by each witness named in the vote changes of the epoch
+   */
+  public Map<ByteString, Long> takeVotes() {
+    Map<ByteString, Long> votes = new HashMap<>();
+    List<byte[]> keys = new ArrayList<>();
+    for (Entry<byte[], BytesCapsule> entry : this) {
+      if (Arrays.equals(entry.getKey(), EPOCH_KEY)) {
+        continue;
+      }
+      keys.add(entry.getKey());
+      votes.put(ByteString.copyFrom(entry.getKey()), Longs.fromByteArray(entry.getValue()
+          .getData()));
+    }
+    keys.forEach(this::delete);
+    put(EPOCH_KEY, new BytesCapsule(ByteArray.fromLong(getEpoch() + 1)));
+    return votes;
+  }
+
+  private long[] getTally(byte[] key) {
+    BytesCapsule tally = get(key);
+    if (tally == null) {
+      return new long[2];
+    }
+    byte[] data = tally.getData();
+    return new long[]{Longs.fromByteArray(data),
+        Longs.fromByteArray(Arrays.copyOfRange(data, Long.BYTES, Long.BYTES * 2))};
+  }
+
+  private static void count(Map<ByteString, long[]> changes, VotesCapsule votes, int sign) {
+    Set<ByteString> witnesses = new HashSet<>();
+    for (Vote vote : votes.getOldVotes()) {
+      changes.computeIfAbsent(vote.getVoteAddress(), k -> new long[2])[0] -=
+          sign * vote.getVoteCount();
+      witnesses.add(vote.getVoteAddress());
+    }
+    for (Vote vote : votes.getNewVotes()) {
+      changes.computeIfAbsent(vote.getVoteAddress(), k -> new long[2])[0] +=
+          sign * vote.getVoteCount();
+      witnesses.add(vote.getVoteAddress());
+    }
+    witnesses.forEach(witness -> changes.get(witness)[1] += sign);
+  }
+}
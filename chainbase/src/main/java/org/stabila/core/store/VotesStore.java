@@ -7,9 +7,17 @@ import org.springframework.stereotype.Component;
 import org.stabila.core.db.StabilaStoreWithRevoking;
 import org.stabila.core.capsule.VotesCapsule;
 
+/**
+ * The vote change of each account in the current maintenance epoch. The changes are tallied into
+ * VoteDeltaStore as they are written; the changes of earlier epochs are counted already and read
+ * as absent, they are overwritten by the next change of the account.
+ */
 @Component
 public class VotesStore extends StabilaStoreWithRevoking<VotesCapsule> {
 
+  @Autowired
+  private VoteDeltaStore voteDeltaStore;
+
   @Autowired
   public VotesStore(@Value("votes") String dbName) {
     super(dbName);
@@ -18,6 +26,25 @@ public class VotesStore extends StabilaStoreWithRevoking<VotesCapsule> {
   @Override
   public VotesCapsule get(byte[] key) {
     byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new VotesCapsule(value);
+    if (ArrayUtils.isEmpty(value)) {
+      return null;
+    }
+    VotesCapsule votes = new VotesCapsule(value);
+    return votes.getEpoch() == voteDeltaStore.getEpoch() ? votes : null;
+  }
+
+  @Override
+  public boolean has(byte[] key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public void put(byte[] key, VotesCapsule item) {
+    if (key == null || item == null) {
+      return;
+    }
+    item.setEpoch(voteDeltaStore.getEpoch());
+    voteDeltaStore.count(get(key), item);
+    super.put(key, item);
   }
-}
\ No newline at end of file
+}
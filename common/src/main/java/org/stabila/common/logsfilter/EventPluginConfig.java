@@ -14,6 +14,8 @@ public class EventPluginConfig {
   public static final String SOLIDITY_TRIGGER_NAME = "solidity";
   public static final String SOLIDITY_EVENT_NAME = "solidityevent";
   public static final String SOLIDITY_LOG_NAME = "soliditylog";
+  public static final String JSON_ENCODING = "json";
+  public static final String PROTOBUF_ENCODING = "protobuf";
 
   @Getter
   @Setter
@@ -39,6 +41,45 @@ public class EventPluginConfig {
   @Setter
   private int sendQueueLength;
 
+  @Getter
+  @Setter
+  private String encoding;
+
+  @Getter
+  @Setter
+  private int shards;
+
+  @Getter
+  @Setter
+  private boolean sequence;
+
+  @Getter
+  @Setter
+  private int processThreads;
+
+  @Getter
+  @Setter
+  private int processQueueSize;
+
+  @Getter
+  @Setter
+  private boolean spoolEnable;
+
+  @Getter
+  @Setter
+  private String spoolPath;
+
+  @Getter
+  @Setter
+  private long spoolSegmentSize;
+
+  @Getter
+  @Setter
+  private long spoolRetentionSize;
+
+  @Getter
+  @Setter
+  private boolean replayEnable;
 
   @Getter
   @Setter
@@ -51,6 +92,16 @@ public class EventPluginConfig {
     useNativeQueue = false;
     bindPort = 0;
     sendQueueLength = 0;
+    encoding = JSON_ENCODING;
+    shards = 1;
+    sequence = false;
+    processThreads = Runtime.getRuntime().availableProcessors();
+    processQueueSize = 10000;
+    spoolEnable = false;
+    spoolPath = "";
+    spoolSegmentSize = 64L * 1024 * 1024;
+    spoolRetentionSize = 4L * 1024 * 1024 * 1024;
+    replayEnable = false;
     triggerConfigList = new ArrayList<>();
   }
 }
@@ -0,0 +1,56 @@
+package org.stabila.common.parameter;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
+import javax.annotation.Nullable;
+import lombok.Getter;
+
+/**
+ * The pool a servlet runs on when served asynchronously: the threads, the requests waiting for
+ * them, and the milliseconds a request may wait before being turned away.
+ */
+public class AsyncServletItem {
+
+  public static final int DEFAULT_THREADS = 4;
+  public static final int DEFAULT_QUEUE_SIZE = 64;
+  public static final long DEFAULT_TIMEOUT = 10_000L;
+
+  @Getter
+  private String servlet;
+
+  @Getter
+  private int threads;
+
+  @Getter
+  private int queueSize;
+
+  @Getter
+  private long timeout;
+
+  public AsyncServletItem(String servlet, int threads, int queueSize, long timeout) {
+    this.servlet = servlet;
+    this.threads = threads;
+    this.queueSize = queueSize;
+    this.timeout = timeout;
+  }
+
+  public AsyncServletItem(ConfigObject asset) {
+    Config config = asset.toConfig();
+    servlet = config.getString("servlet");
+    threads = config.hasPath("threads") ? config.getInt("threads") : DEFAULT_THREADS;
+    queueSize = config.hasPath("queueSize") ? config.getInt("queueSize") : DEFAULT_QUEUE_SIZE;
+    timeout = config.hasPath("timeout") ? config.getLong("timeout") : DEFAULT_TIMEOUT;
+    if (threads <= 0 || queueSize <= 0 || timeout <= 0) {
+      throw new IllegalArgumentException("threads, queueSize and timeout must be positive");
+    }
+  }
+
+  @Nullable
+  public static AsyncServletItem createItem(final ConfigObject asset) {
+    try {
+      return new AsyncServletItem(asset);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
@@ -61,6 +61,30 @@ public class CommonParameter {
   public int longRunningTime = 10;
   @Getter
   @Setter
+  public int constantCallThreads = Runtime.getRuntime().availableProcessors();
+  @Getter
+  @Setter
+  public int constantCallQueueSize = 1000;
+  @Getter
+  @Setter
+  public long constantCallTimeout = 3000;
+  @Getter
+  @Setter
+  public long constantCallEnergyLimit = Constant.ENERGY_LIMIT_IN_CONSTANT_TX;
+  @Getter
+  @Setter
+  public long constantCallCacheSize = 0;
+  @Getter
+  @Setter
+  public boolean vmProfilerEnable = false;
+  @Getter
+  @Setter
+  public int vmProfilerSampleRate = 64;
+  @Getter
+  @Setter
+  public int vmProfilerMaxContracts = 1000;
+  @Getter
+  @Setter
   @Parameter(names = {"--max-connect-number"})
   public int maxHttpConnectNumber = 50;
   @Getter
@@ -178,6 +202,12 @@ public class CommonParameter {
   public int solidityThreads;
   @Getter
   @Setter
+  public int solidityFetchWindow = 8;
+  @Getter
+  @Setter
+  public int solidityFetchBatchSize = 20;
+  @Getter
+  @Setter
   public int maxConcurrentCallsPerConnection;
   @Getter
   @Setter
@@ -202,6 +232,12 @@ public class CommonParameter {
   public int maxHeaderListSize;
   @Getter
   @Setter
+  public int maxSubscriptions;
+  @Getter
+  @Setter
+  public int subscriptionBufferSize;
+  @Getter
+  @Setter
   @Parameter(names = {"--validate-sign-thread"}, description = "Num of validate thread")
   public int validateSignThreadNum;
   @Getter
@@ -349,6 +385,9 @@ public class CommonParameter {
   public int shieldedTransInPendingMaxCounts;
   @Getter
   @Setter
+  public int shieldedScanThreads = Runtime.getRuntime().availableProcessors();
+  @Getter
+  @Setter
   public long changedDelegation;
   @Getter
   @Setter
@@ -381,6 +420,8 @@ public class CommonParameter {
   @Getter
   public FilterQuery eventFilter;
   @Getter
+  public List<FilterQuery> eventFilters = new ArrayList<>();
+  @Getter
   @Setter
   public String cryptoEngine = Constant.ECKey_ENGINE;
   @Getter
@@ -434,6 +475,18 @@ public class CommonParameter {
   public int pBFTHttpPort;
   @Getter
   @Setter
+  public long httpResponseCacheSize;
+  @Getter
+  @Setter
+  public List<AsyncServletItem> httpAsyncServlets = new ArrayList<>();
+  @Getter
+  @Setter
+  public int batchQueryMaxSize;
+  @Getter
+  @Setter
+  public long batchQueryMaxBytes;
+  @Getter
+  @Setter
   public long oldSolidityBlockNum = -1;
 
   @Getter/**/
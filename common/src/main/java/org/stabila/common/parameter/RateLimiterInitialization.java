@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import lombok.Getter;
+import lombok.Setter;
 
 
 public class RateLimiterInitialization {
@@ -22,6 +23,15 @@ public class RateLimiterInitialization {
   @Getter
   private Map<String, RpcRateLimiterItem> rpcMap = new HashMap();
 
+  @Getter
+  @Setter
+  private String costParams = "";
+
+  // seconds between two checks of the config file for new cost limits, 0 to never check
+  @Getter
+  @Setter
+  private int reloadInterval;
+
   @Nullable
   public static HttpRateLimiterItem createHttpItem(final ConfigObject asset) {
     try {
@@ -157,6 +157,10 @@ public class DataWord implements Comparable<DataWord> {
     return data;
   }
 
+  void setData(byte[] data) {
+    this.data = data;
+  }
+
   /**
    * be careful, this one will not throw Exception when data.length > WORD_SIZE
    */
@@ -0,0 +1,741 @@
+package org.stabila.common.runtime.vm;
+
+/**
+ * Mutable 256-bit integer made of four primitive 64-bit limbs. All arithmetic wraps modulo 2^256
+ * and is performed in place, so the VM can run arithmetic opcodes without allocating BigIntegers
+ * or new DataWords. Semantics match the corresponding DataWord operations. Instances are not
+ * thread safe; keep them as per-VM scratch registers.
+ */
+public final class UInt256 {
+
+  // limbs, u0 is the least significant
+  private long u0;
+  private long u1;
+  private long u2;
+  private long u3;
+
+  // 32-bit digit scratch space for division, little-endian
+  private final int[] num = new int[17];
+  private final int[] den = new int[8];
+  private final int[] quot = new int[17];
+  private final int[] rem = new int[8];
+
+  public UInt256() {
+  }
+
+  public UInt256(long value) {
+    this.u0 = value;
+  }
+
+  public long getLimb(int i) {
+    switch (i) {
+      case 0:
+        return u0;
+      case 1:
+        return u1;
+      case 2:
+        return u2;
+      case 3:
+        return u3;
+      default:
+        throw new IndexOutOfBoundsException();
+    }
+  }
+
+  public UInt256 set(UInt256 other) {
+    this.u0 = other.u0;
+    this.u1 = other.u1;
+    this.u2 = other.u2;
+    this.u3 = other.u3;
+    return this;
+  }
+
+  public UInt256 set(long value) {
+    this.u0 = value;
+    this.u1 = 0;
+    this.u2 = 0;
+    this.u3 = 0;
+    return this;
+  }
+
+  public UInt256 setZero() {
+    return set(0L);
+  }
+
+  /**
+   * Loads the big-endian content of the word, shorter arrays are treated as right aligned.
+   */
+  public UInt256 load(DataWord word) {
+    return load(word.getData());
+  }
+
+  public UInt256 load(byte[] data) {
+    int offset = DataWord.WORD_SIZE - data.length;
+    if (offset == 0) {
+      u3 = readLong(data, 0);
+      u2 = readLong(data, 8);
+      u1 = readLong(data, 16);
+      u0 = readLong(data, 24);
+      return this;
+    }
+    setZero();
+    for (int i = 0; i < data.length; i++) {
+      setByte(offset + i, data[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Writes this value into the word's backing array, replacing its content.
+   */
+  public DataWord store(DataWord word) {
+    byte[] data = word.getData();
+    if (data.length != DataWord.WORD_SIZE) {
+      data = new byte[DataWord.WORD_SIZE];
+      word.setData(data);
+    }
+    writeLong(data, 0, u3);
+    writeLong(data, 8, u2);
+    writeLong(data, 16, u1);
+    writeLong(data, 24, u0);
+    return word;
+  }
+
+  public DataWord toDataWord() {
+    return store(new DataWord());
+  }
+
+  public boolean isZero() {
+    return (u0 | u1 | u2 | u3) == 0;
+  }
+
+  public boolean isNegative() {
+    return u3 < 0;
+  }
+
+  /**
+   * @return true if the value is below the given non-negative bound.
+   */
+  public boolean lessThan(int bound) {
+    return (u1 | u2 | u3) == 0 && u0 >= 0 && u0 < bound;
+  }
+
+  public int compareUnsigned(UInt256 other) {
+    int c = Long.compareUnsigned(u3, other.u3);
+    if (c != 0) {
+      return c;
+    }
+    c = Long.compareUnsigned(u2, other.u2);
+    if (c != 0) {
+      return c;
+    }
+    c = Long.compareUnsigned(u1, other.u1);
+    if (c != 0) {
+      return c;
+    }
+    return Long.compareUnsigned(u0, other.u0);
+  }
+
+  public int compareSigned(UInt256 other) {
+    int c = Long.compare(u3, other.u3);
+    if (c != 0) {
+      return c;
+    }
+    c = Long.compareUnsigned(u2, other.u2);
+    if (c != 0) {
+      return c;
+    }
+    c = Long.compareUnsigned(u1, other.u1);
+    if (c != 0) {
+      return c;
+    }
+    return Long.compareUnsigned(u0, other.u0);
+  }
+
+  public boolean equalsValue(UInt256 other) {
+    return u0 == other.u0 && u1 == other.u1 && u2 == other.u2 && u3 == other.u3;
+  }
+
+  public UInt256 add(UInt256 other) {
+    long r0 = u0 + other.u0;
+    long c = Long.compareUnsigned(r0, u0) < 0 ? 1 : 0;
+    long r1 = u1 + other.u1 + c;
+    c = carry(u1, other.u1, r1, c);
+    long r2 = u2 + other.u2 + c;
+    c = carry(u2, other.u2, r2, c);
+    u3 = u3 + other.u3 + c;
+    u0 = r0;
+    u1 = r1;
+    u2 = r2;
+    return this;
+  }
+
+  public UInt256 sub(UInt256 other) {
+    long r0 = u0 - other.u0;
+    long b = Long.compareUnsigned(u0, other.u0) < 0 ? 1 : 0;
+    long r1 = u1 - other.u1 - b;
+    b = borrow(u1, other.u1, b);
+    long r2 = u2 - other.u2 - b;
+    b = borrow(u2, other.u2, b);
+    u3 = u3 - other.u3 - b;
+    u0 = r0;
+    u1 = r1;
+    u2 = r2;
+    return this;
+  }
+
+  public UInt256 negate() {
+    u0 = ~u0;
+    u1 = ~u1;
+    u2 = ~u2;
+    u3 = ~u3;
+    if (++u0 == 0 && ++u1 == 0 && ++u2 == 0) {
+      ++u3;
+    }
+    return this;
+  }
+
+  public UInt256 not() {
+    u0 = ~u0;
+    u1 = ~u1;
+    u2 = ~u2;
+    u3 = ~u3;
+    return this;
+  }
+
+  public UInt256 mul(UInt256 other) {
+    long a0 = u0;
+    long a1 = u1;
+    long a2 = u2;
+    long a3 = u3;
+    long b0 = other.u0;
+    long b1 = other.u1;
+    long b2 = other.u2;
+    long b3 = other.u3;
+
+    // column 0
+    long r0 = a0 * b0;
+    long carry = multiplyHighUnsigned(a0, b0);
+
+    // column 1: carry + a0*b1 + a1*b0, tracking overflow into column 2
+    long r1 = carry;
+    long c2 = 0;
+    long lo = a0 * b1;
+    long hi = multiplyHighUnsigned(a0, b1);
+    r1 += lo;
+    hi += Long.compareUnsigned(r1, lo) < 0 ? 1 : 0;
+    c2 += hi;
+    long c3 = Long.compareUnsigned(c2, hi) < 0 ? 1 : 0;
+    lo = a1 * b0;
+    hi = multiplyHighUnsigned(a1, b0);
+    r1 += lo;
+    hi += Long.compareUnsigned(r1, lo) < 0 ? 1 : 0;
+    c2 += hi;
+    c3 += Long.compareUnsigned(c2, hi) < 0 ? 1 : 0;
+
+    // column 2: c2 + a0*b2 + a1*b1 + a2*b0, overflow into column 3
+    long r2 = c2;
+    long r3 = c3;
+    lo = a0 * b2;
+    r2 += lo;
+    r3 += multiplyHighUnsigned(a0, b2) + (Long.compareUnsigned(r2, lo) < 0 ? 1 : 0);
+    lo = a1 * b1;
+    r2 += lo;
+    r3 += multiplyHighUnsigned(a1, b1) + (Long.compareUnsigned(r2, lo) < 0 ? 1 : 0);
+    lo = a2 * b0;
+    r2 += lo;
+    r3 += multiplyHighUnsigned(a2, b0) + (Long.compareUnsigned(r2, lo) < 0 ? 1 : 0);
+
+    // column 3 only needs the low halves
+    r3 += a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+
+    u0 = r0;
+    u1 = r1;
+    u2 = r2;
+    u3 = r3;
+    return this;
+  }
+
+  /**
+   * Unsigned division, x / 0 = 0.
+   */
+  public UInt256 div(UInt256 divisor) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    if ((u1 | u2 | u3 | divisor.u1 | divisor.u2 | divisor.u3) == 0) {
+      return set(Long.divideUnsigned(u0, divisor.u0));
+    }
+    if (compareUnsigned(divisor) < 0) {
+      return setZero();
+    }
+    divRem(divisor, true);
+    return this;
+  }
+
+  /**
+   * Unsigned modulo, x % 0 = 0.
+   */
+  public UInt256 mod(UInt256 divisor) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    if ((u1 | u2 | u3 | divisor.u1 | divisor.u2 | divisor.u3) == 0) {
+      return set(Long.remainderUnsigned(u0, divisor.u0));
+    }
+    if (compareUnsigned(divisor) < 0) {
+      return this;
+    }
+    divRem(divisor, false);
+    return this;
+  }
+
+  /**
+   * Signed division truncating toward zero, x / 0 = 0.
+   */
+  public UInt256 sdiv(UInt256 divisor, UInt256 scratch) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    boolean negative = isNegative() != divisor.isNegative();
+    if (isNegative()) {
+      negate();
+    }
+    scratch.set(divisor);
+    if (scratch.isNegative()) {
+      scratch.negate();
+    }
+    div(scratch);
+    if (negative) {
+      negate();
+    }
+    return this;
+  }
+
+  /**
+   * Signed modulo, the result takes the sign of the dividend, x % 0 = 0.
+   */
+  public UInt256 smod(UInt256 divisor, UInt256 scratch) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    boolean negative = isNegative();
+    if (negative) {
+      negate();
+    }
+    scratch.set(divisor);
+    if (scratch.isNegative()) {
+      scratch.negate();
+    }
+    mod(scratch);
+    if (negative) {
+      negate();
+    }
+    return this;
+  }
+
+  /**
+   * this = (this + addend) % modulus computed without truncating the 257-bit sum.
+   */
+  public UInt256 addmod(UInt256 addend, UInt256 modulus) {
+    if (modulus.isZero()) {
+      return setZero();
+    }
+    long carry = 0;
+    for (int i = 0; i < 8; i++) {
+      long t = (digit(i) & 0xFFFFFFFFL) + (addend.digit(i) & 0xFFFFFFFFL) + carry;
+      num[i] = (int) t;
+      carry = t >>> 32;
+    }
+    if (carry == 0) {
+      fromDigits(num);
+      return mod(modulus);
+    }
+    num[8] = 1;
+    for (int i = 9; i < num.length; i++) {
+      num[i] = 0;
+    }
+    modWide(9, modulus);
+    return this;
+  }
+
+  /**
+   * this = (this * factor) % modulus computed over the full 512-bit product.
+   */
+  public UInt256 mulmod(UInt256 factor, UInt256 modulus) {
+    if (isZero() || factor.isZero() || modulus.isZero()) {
+      return setZero();
+    }
+    for (int i = 0; i < num.length; i++) {
+      num[i] = 0;
+    }
+    for (int i = 0; i < 8; i++) {
+      long a = digit(i) & 0xFFFFFFFFL;
+      if (a == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; j < 8; j++) {
+        long t = a * (factor.digit(j) & 0xFFFFFFFFL) + (num[i + j] & 0xFFFFFFFFL) + carry;
+        num[i + j] = (int) t;
+        carry = t >>> 32;
+      }
+      num[i + 8] = (int) carry;
+    }
+    modWide(16, modulus);
+    return this;
+  }
+
+  /**
+   * this = this ^ exponent mod 2^256, base is used as scratch register.
+   */
+  public UInt256 exp(UInt256 exponent, UInt256 base) {
+    base.set(this);
+    set(1L);
+    int bits = exponent.bitLength();
+    for (int i = 0; i < bits; i++) {
+      if (exponent.testBit(i)) {
+        mul(base);
+      }
+      if (i + 1 < bits) {
+        base.mul(base);
+      }
+    }
+    return this;
+  }
+
+  public UInt256 and(UInt256 other) {
+    u0 &= other.u0;
+    u1 &= other.u1;
+    u2 &= other.u2;
+    u3 &= other.u3;
+    return this;
+  }
+
+  public UInt256 or(UInt256 other) {
+    u0 |= other.u0;
+    u1 |= other.u1;
+    u2 |= other.u2;
+    u3 |= other.u3;
+    return this;
+  }
+
+  public UInt256 xor(UInt256 other) {
+    u0 ^= other.u0;
+    u1 ^= other.u1;
+    u2 ^= other.u2;
+    u3 ^= other.u3;
+    return this;
+  }
+
+  /**
+   * Shift left, shift amounts of 256 or more yield zero.
+   */
+  public UInt256 shiftLeft(UInt256 shift) {
+    if (!shift.lessThan(DataWord.MAX_POW)) {
+      return setZero();
+    }
+    return shiftLeft((int) shift.u0);
+  }
+
+  public UInt256 shiftLeft(int n) {
+    int limbs = n >>> 6;
+    int bits = n & 63;
+    for (int i = 3; i >= 0; i--) {
+      int src = i - limbs;
+      long v = src >= 0 ? limb(src) << bits : 0;
+      if (bits != 0 && src - 1 >= 0) {
+        v |= limb(src - 1) >>> (64 - bits);
+      }
+      setLimb(i, v);
+    }
+    return this;
+  }
+
+  /**
+   * Logical shift right, shift amounts of 256 or more yield zero.
+   */
+  public UInt256 shiftRight(UInt256 shift) {
+    if (!shift.lessThan(DataWord.MAX_POW)) {
+      return setZero();
+    }
+    return shiftRight((int) shift.u0, 0L);
+  }
+
+  /**
+   * Arithmetic shift right, shift amounts of 256 or more yield 0 or -1 depending on the sign.
+   */
+  public UInt256 shiftRightSigned(UInt256 shift) {
+    long fill = isNegative() ? -1L : 0L;
+    if (!shift.lessThan(DataWord.MAX_POW)) {
+      u0 = fill;
+      u1 = fill;
+      u2 = fill;
+      u3 = fill;
+      return this;
+    }
+    return shiftRight((int) shift.u0, fill);
+  }
+
+  private UInt256 shiftRight(int n, long fill) {
+    int limbs = n >>> 6;
+    int bits = n & 63;
+    for (int i = 0; i < 4; i++) {
+      int src = i + limbs;
+      long lo = src < 4 ? limb(src) : fill;
+      long hi = src + 1 < 4 ? limb(src + 1) : fill;
+      long v = bits == 0 ? lo : (lo >>> bits) | (hi << (64 - bits));
+      setLimb(i, v);
+    }
+    return this;
+  }
+
+  public int bitLength() {
+    if (u3 != 0) {
+      return 256 - Long.numberOfLeadingZeros(u3);
+    }
+    if (u2 != 0) {
+      return 192 - Long.numberOfLeadingZeros(u2);
+    }
+    if (u1 != 0) {
+      return 128 - Long.numberOfLeadingZeros(u1);
+    }
+    return 64 - Long.numberOfLeadingZeros(u0);
+  }
+
+  public boolean testBit(int n) {
+    return ((limb(n >>> 6) >>> (n & 63)) & 1) != 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%016x%016x%016x%016x", u3, u2, u1, u0);
+  }
+
+  private void divRem(UInt256 divisor, boolean keepQuotient) {
+    toDigits(num);
+    for (int i = 8; i < num.length; i++) {
+      num[i] = 0;
+    }
+    int n = divisor.toDigits(den);
+    divideDigits(num, 8, den, n, quot, rem);
+    if (keepQuotient) {
+      fromDigits(quot);
+    } else {
+      fromDigits(rem);
+    }
+  }
+
+  private void modWide(int length, UInt256 modulus) {
+    int n = modulus.toDigits(den);
+    divideDigits(num, length, den, n, quot, rem);
+    fromDigits(rem);
+  }
+
+  /**
+   * Knuth, TAOCP vol. 2, 4.3.1 algorithm D over unsigned 32-bit digits. u holds m digits and has
+   * room for one extra, v holds n significant digits. Quotient digits go to q, remainder to r.
+   */
+  private static void divideDigits(int[] u, int m, int[] v, int n, int[] q, int[] r) {
+    for (int i = 0; i < q.length; i++) {
+      q[i] = 0;
+    }
+    for (int i = 0; i < r.length; i++) {
+      r[i] = 0;
+    }
+    while (m > 0 && u[m - 1] == 0) {
+      m--;
+    }
+    if (m < n) {
+      System.arraycopy(u, 0, r, 0, m);
+      return;
+    }
+    if (n == 1) {
+      long d = v[0] & 0xFFFFFFFFL;
+      long k = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long t = (k << 32) | (u[j] & 0xFFFFFFFFL);
+        q[j] = (int) Long.divideUnsigned(t, d);
+        k = Long.remainderUnsigned(t, d);
+      }
+      r[0] = (int) k;
+      return;
+    }
+
+    // normalize so that the top divisor digit has its high bit set, in place
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+    shiftDigitsLeft(v, n, s);
+    u[m] = 0;
+    shiftDigitsLeft(u, m + 1, s);
+
+    long b = 1L << 32;
+    long vTop = v[n - 1] & 0xFFFFFFFFL;
+    long vNext = v[n - 2] & 0xFFFFFFFFL;
+    for (int j = m - n; j >= 0; j--) {
+      long num = ((u[j + n] & 0xFFFFFFFFL) << 32) | (u[j + n - 1] & 0xFFFFFFFFL);
+      long qhat = Long.divideUnsigned(num, vTop);
+      long rhat = Long.remainderUnsigned(num, vTop);
+      while (qhat >= b || Long.compareUnsigned(qhat * vNext,
+          (rhat << 32) | (u[j + n - 2] & 0xFFFFFFFFL)) > 0) {
+        qhat--;
+        rhat += vTop;
+        if (rhat >= b) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long borrow = 0;
+      long carry = 0;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (v[i] & 0xFFFFFFFFL) + carry;
+        carry = p >>> 32;
+        long t = (u[i + j] & 0xFFFFFFFFL) - (p & 0xFFFFFFFFL) - borrow;
+        u[i + j] = (int) t;
+        borrow = (t >>> 63);
+      }
+      long t = (u[j + n] & 0xFFFFFFFFL) - carry - borrow;
+      u[j + n] = (int) t;
+
+      if (t < 0) {
+        // add back
+        qhat--;
+        long c = 0;
+        for (int i = 0; i < n; i++) {
+          long sum = (u[i + j] & 0xFFFFFFFFL) + (v[i] & 0xFFFFFFFFL) + c;
+          u[i + j] = (int) sum;
+          c = sum >>> 32;
+        }
+        u[j + n] += (int) c;
+      }
+      q[j] = (int) qhat;
+    }
+
+    // denormalize the remainder and restore the divisor
+    for (int i = 0; i < n; i++) {
+      r[i] = s == 0 ? u[i]
+          : (u[i] >>> s) | (u[i + 1] << (32 - s));
+    }
+    shiftDigitsRight(v, n, s);
+  }
+
+  private static void shiftDigitsLeft(int[] d, int len, int s) {
+    if (s == 0) {
+      return;
+    }
+    for (int i = len - 1; i > 0; i--) {
+      d[i] = (d[i] << s) | (d[i - 1] >>> (32 - s));
+    }
+    d[0] <<= s;
+  }
+
+  private static void shiftDigitsRight(int[] d, int len, int s) {
+    if (s == 0) {
+      return;
+    }
+    for (int i = 0; i < len - 1; i++) {
+      d[i] = (d[i] >>> s) | (d[i + 1] << (32 - s));
+    }
+    d[len - 1] >>>= s;
+  }
+
+  /**
+   * @return the number of significant digits written
+   */
+  private int toDigits(int[] d) {
+    for (int i = 0; i < 4; i++) {
+      long l = limb(i);
+      d[2 * i] = (int) l;
+      d[2 * i + 1] = (int) (l >>> 32);
+    }
+    int n = 8;
+    while (n > 0 && d[n - 1] == 0) {
+      n--;
+    }
+    return n;
+  }
+
+  private void fromDigits(int[] d) {
+    for (int i = 0; i < 4; i++) {
+      setLimb(i, ((long) d[2 * i + 1] << 32) | (d[2 * i] & 0xFFFFFFFFL));
+    }
+  }
+
+  private int digit(int i) {
+    long l = limb(i >>> 1);
+    return (i & 1) == 0 ? (int) l : (int) (l >>> 32);
+  }
+
+  private long limb(int i) {
+    switch (i) {
+      case 0:
+        return u0;
+      case 1:
+        return u1;
+      case 2:
+        return u2;
+      default:
+        return u3;
+    }
+  }
+
+  private void setLimb(int i, long v) {
+    switch (i) {
+      case 0:
+        u0 = v;
+        break;
+      case 1:
+        u1 = v;
+        break;
+      case 2:
+        u2 = v;
+        break;
+      default:
+        u3 = v;
+        break;
+    }
+  }
+
+  private void setByte(int index, byte b) {
+    int limb = 3 - (index >>> 3);
+    int shift = (7 - (index & 7)) << 3;
+    setLimb(limb, limb(limb) | ((b & 0xFFL) << shift));
+  }
+
+  private static long carry(long a, long b, long sum, long carryIn) {
+    return (Long.compareUnsigned(sum, a) < 0 || (carryIn == 1 && sum == a)) ? 1 : 0;
+  }
+
+  private static long borrow(long a, long b, long borrowIn) {
+    return (Long.compareUnsigned(a, b) < 0 || (borrowIn == 1 && a == b)) ? 1 : 0;
+  }
+
+  private static long multiplyHighUnsigned(long x, long y) {
+    long x0 = x & 0xFFFFFFFFL;
+    long x1 = x >>> 32;
+    long y0 = y & 0xFFFFFFFFL;
+    long y1 = y >>> 32;
+    long w0 = x0 * y0;
+    long t = x1 * y0 + (w0 >>> 32);
+    long w1 = (t & 0xFFFFFFFFL) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+
+  private static long readLong(byte[] b, int off) {
+    return ((long) b[off] << 56)
+        | ((b[off + 1] & 0xFFL) << 48)
+        | ((b[off + 2] & 0xFFL) << 40)
+        | ((b[off + 3] & 0xFFL) << 32)
+        | ((b[off + 4] & 0xFFL) << 24)
+        | ((b[off + 5] & 0xFFL) << 16)
+        | ((b[off + 6] & 0xFFL) << 8)
+        | (b[off + 7] & 0xFFL);
+  }
+
+  private static void writeLong(byte[] b, int off, long v) {
+    for (int i = 7; i >= 0; i--) {
+      b[off + i] = (byte) v;
+      v >>>= 8;
+    }
+  }
+}
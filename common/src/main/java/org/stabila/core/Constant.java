@@ -62,6 +62,14 @@ public class Constant {
   public static final String VM_MIN_TIME_RATIO = "vm.minTimeRatio";
   public static final String VM_MAX_TIME_RATIO = "vm.maxTimeRatio";
   public static final String VM_LONG_RUNNING_TIME = "vm.longRunningTime";
+  public static final String VM_CONSTANT_CALL_THREADS = "vm.constantCall.threads";
+  public static final String VM_CONSTANT_CALL_QUEUE_SIZE = "vm.constantCall.queueSize";
+  public static final String VM_CONSTANT_CALL_TIMEOUT = "vm.constantCall.timeout";
+  public static final String VM_CONSTANT_CALL_ENERGY_LIMIT = "vm.constantCall.energyLimit";
+  public static final String VM_CONSTANT_CALL_CACHE_SIZE = "vm.constantCall.cacheSize";
+  public static final String VM_PROFILER_ENABLE = "vm.profiler.enable";
+  public static final String VM_PROFILER_SAMPLE_RATE = "vm.profiler.sampleRate";
+  public static final String VM_PROFILER_MAX_CONTRACTS = "vm.profiler.maxContracts";
 
   public static final String ROCKSDB = "ROCKSDB";
 
@@ -93,9 +101,15 @@ public class Constant {
   public static final String NODE_HTTP_FULLNODE_ENABLE = "node.http.fullNodeEnable";
   public static final String NODE_HTTP_SOLIDITY_ENABLE = "node.http.solidityEnable";
   public static final String NODE_HTTP_PBFT_PORT = "node.http.PBFTPort";
+  public static final String NODE_HTTP_RESPONSE_CACHE_SIZE = "node.http.responseCacheSize";
+  public static final String NODE_HTTP_ASYNC_SERVLETS = "node.http.asyncServlets";
+  public static final String NODE_BATCH_QUERY_MAX_SIZE = "node.batchQuery.maxSize";
+  public static final String NODE_BATCH_QUERY_MAX_BYTES = "node.batchQuery.maxBytes";
 
   public static final String NODE_RPC_THREAD = "node.rpc.thread";
   public static final String NODE_SOLIDITY_THREADS = "node.solidity.threads";
+  public static final String NODE_SOLIDITY_FETCH_WINDOW = "node.solidity.fetchWindow";
+  public static final String NODE_SOLIDITY_FETCH_BATCH_SIZE = "node.solidity.fetchBatchSize";
 
   public static final String NODE_RPC_MAX_CONCURRENT_CALLS_PER_CONNECTION = "node.rpc.maxConcurrentCallsPerConnection";
   public static final String NODE_RPC_FLOW_CONTROL_WINDOW = "node.rpc.flowControlWindow";
@@ -108,6 +122,8 @@ public class Constant {
   public static final String NODE_RPC_MAX_MESSAGE_SIZE = "node.rpc.maxMessageSize";
 
   public static final String NODE_RPC_MAX_HEADER_LIST_SIZE = "node.rpc.maxHeaderListSize";
+  public static final String NODE_RPC_MAX_SUBSCRIPTIONS = "node.rpc.maxSubscriptions";
+  public static final String NODE_RPC_SUBSCRIPTION_BUFFER_SIZE = "node.rpc.subscriptionBufferSize";
 
   public static final String NODE_OPEN_HISTORY_QUERY_WHEN_LITEFN = "node.openHistoryQueryWhenLiteFN";
 
@@ -189,6 +205,8 @@ public class Constant {
 
   public static final String EVENT_SUBSCRIBE_FILTER = "event.subscribe.filter";
 
+  public static final String EVENT_SUBSCRIBE_FILTERS = "event.subscribe.filters";
+
   public static final String NODE_FULLNODE_ALLOW_SHIELDED_TRANSACTION = "node"
       + ".fullNodeAllowShieldedTransaction";
 
@@ -208,6 +226,8 @@ public class Constant {
 
   public static final String NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS = "node.shieldedTransInPendingMaxCounts";
 
+  public static final String NODE_SHIELDED_SCAN_THREADS = "node.shieldedScan.threads";
+
   public static final String RATE_LIMITER = "rate.limiter";
 
   public static final String COMMITTEE_CHANGED_DELEGATION = "committee.changedDelegation";
@@ -221,8 +241,21 @@ public class Constant {
   public static final String NATIVE_QUEUE_BIND_PORT = "event.subscribe.native.bindport";
 
   public static final String NATIVE_QUEUE_SEND_LENGTH = "event.subscribe.native.sendqueuelength";
+  public static final String NATIVE_QUEUE_ENCODING = "event.subscribe.native.encoding";
+  public static final String NATIVE_QUEUE_SHARDS = "event.subscribe.native.shards";
+  public static final String NATIVE_QUEUE_SEQUENCE = "event.subscribe.native.sequence";
 
   public static final String EVENT_SUBSCRIBE_PATH = "event.subscribe.path";
+  public static final String EVENT_SUBSCRIBE_PROCESS_THREADS = "event.subscribe.processThreads";
+  public static final String EVENT_SUBSCRIBE_PROCESS_QUEUE_SIZE =
+      "event.subscribe.processQueueSize";
+  public static final String EVENT_SUBSCRIBE_SPOOL_ENABLE = "event.subscribe.spool.enable";
+  public static final String EVENT_SUBSCRIBE_SPOOL_PATH = "event.subscribe.spool.path";
+  public static final String EVENT_SUBSCRIBE_SPOOL_SEGMENT_SIZE =
+      "event.subscribe.spool.segmentSize";
+  public static final String EVENT_SUBSCRIBE_SPOOL_RETENTION_SIZE =
+      "event.subscribe.spool.retentionSize";
+  public static final String EVENT_SUBSCRIBE_REPLAY_ENABLE = "event.subscribe.replay.enable";
   public static final String EVENT_SUBSCRIBE_SERVER = "event.subscribe.server";
   public static final String EVENT_SUBSCRIBE_DB_CONFIG = "event.subscribe.dbconfig";
   public static final String EVENT_SUBSCRIBE_TOPICS = "event.subscribe.topics";
@@ -252,6 +285,8 @@ public class Constant {
 
   public static final String RATE_LIMITER_HTTP = "rate.limiter.http";
   public static final String RATE_LIMITER_RPC = "rate.limiter.rpc";
+  public static final String RATE_LIMITER_COST = "rate.limiter.cost";
+  public static final String RATE_LIMITER_RELOAD_INTERVAL = "rate.limiter.reloadInterval";
 
   public static final String SEED_NODE_IP_LIST = "seed.node.ip.list";
   public static final String NODE_METRICS_ENABLE = "node.metricsEnable";
@@ -51,6 +51,8 @@ public class Storage {
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
   private static final String DEFAULT_TRANSACTIONHISTORY_SWITCH = "on";
+  private static final String ACCOUNT_INDEX_SWITCH_CONFIG_KEY = "storage.accountIndex.switch";
+  private static final String DEFAULT_ACCOUNT_INDEX_SWITCH = "off";
 
   private static final String NAME_CONFIG_KEY = "name";
   private static final String PATH_CONFIG_KEY = "path";
@@ -113,6 +115,10 @@ public class Storage {
   @Setter
   private String transactionHistorySwitch;
 
+  @Getter
+  @Setter
+  private String accountIndexSwitch;
+
   /**
    * Key: dbName, Value: Property object of that database
    */
@@ -162,6 +168,12 @@ public class Storage {
         : DEFAULT_TRANSACTIONHISTORY_SWITCH;
   }
 
+  public static String getAccountIndexSwitchFromConfig(final Config config) {
+    return config.hasPath(ACCOUNT_INDEX_SWITCH_CONFIG_KEY)
+        ? config.getString(ACCOUNT_INDEX_SWITCH_CONFIG_KEY)
+        : DEFAULT_ACCOUNT_INDEX_SWITCH;
+  }
+
   private static Property createProperty(final ConfigObject conf) {
 
     Property property = new Property();
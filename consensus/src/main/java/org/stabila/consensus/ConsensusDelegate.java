@@ -10,6 +10,7 @@ import org.stabila.core.capsule.WitnessCapsule;
 import org.stabila.core.store.AccountStore;
 import org.stabila.core.store.DelegationStore;
 import org.stabila.core.store.DynamicPropertiesStore;
+import org.stabila.core.store.VoteDeltaStore;
 import org.stabila.core.store.VotesStore;
 import org.stabila.core.store.WitnessScheduleStore;
 import org.stabila.core.store.WitnessStore;
@@ -36,6 +37,9 @@ public class ConsensusDelegate {
   @Autowired
   private VotesStore votesStore;
 
+  @Autowired
+  private VoteDeltaStore voteDeltaStore;
+
   public DynamicPropertiesStore getDynamicPropertiesStore() {
     return dynamicPropertiesStore;
   }
@@ -48,6 +52,10 @@ public class ConsensusDelegate {
     return votesStore;
   }
 
+  public VoteDeltaStore getVoteDeltaStore() {
+    return voteDeltaStore;
+  }
+
   public int calculateFilledSlotsCount() {
     return dynamicPropertiesStore.calculateFilledSlotsCount();
   }
@@ -24,6 +24,7 @@ import org.stabila.core.capsule.VotesCapsule;
 import org.stabila.core.capsule.WitnessCapsule;
 import org.stabila.core.store.DelegationStore;
 import org.stabila.core.store.DynamicPropertiesStore;
+import org.stabila.core.store.VoteDeltaStore;
 import org.stabila.core.store.VotesStore;
 
 @Slf4j(topic = "consensus")
@@ -87,6 +88,7 @@ public class MaintenanceManager {
 
   public void doMaintenance() {
     VotesStore votesStore = consensusDelegate.getVotesStore();
+    VoteDeltaStore voteDeltaStore = consensusDelegate.getVoteDeltaStore();
 
     tryRemoveThePowerOfTheGr();
 
@@ -99,7 +101,7 @@ public class MaintenanceManager {
       });
     }
 
-    Map<ByteString, Long> countWitness = countVote(votesStore);
+    Map<ByteString, Long> countWitness = countVote(votesStore, voteDeltaStore);
     if (!countWitness.isEmpty()) {
       List<ByteString> currentWits = consensusDelegate.getActiveWitnesses();
 
@@ -159,13 +161,24 @@ public class MaintenanceManager {
     }
   }
 
-  private Map<ByteString, Long> countVote(VotesStore votesStore) {
+  private Map<ByteString, Long> countVote(VotesStore votesStore, VoteDeltaStore voteDeltaStore) {
+    if (voteDeltaStore.isTallied()) {
+      Map<ByteString, Long> countWitness = voteDeltaStore.takeVotes();
+      logger.info("There is {} witnesses with new votes in this epoch", countWitness.size());
+      return countWitness;
+    }
+    // the votes cast before the tally was kept are read once, the tally starts afresh after
     final Map<ByteString, Long> countWitness = Maps.newHashMap();
     Iterator<Entry<byte[], VotesCapsule>> dbIterator = votesStore.iterator();
+    long epoch = voteDeltaStore.getEpoch();
     long sizeCount = 0;
     while (dbIterator.hasNext()) {
       Entry<byte[], VotesCapsule> next = dbIterator.next();
       VotesCapsule votes = next.getValue();
+      if (votes.getEpoch() != epoch) {
+        // counted in an earlier epoch, read as absent like VotesStore.get does
+        continue;
+      }
       votes.getOldVotes().forEach(vote -> {
         ByteString voteAddress = vote.getVoteAddress();
         long voteCount = vote.getVoteCount();
@@ -188,6 +201,7 @@ public class MaintenanceManager {
       votesStore.delete(next.getKey());
     }
     logger.info("There is {} new votes in this epoch", sizeCount);
+    voteDeltaStore.takeVotes();
     return countWitness;
   }
 
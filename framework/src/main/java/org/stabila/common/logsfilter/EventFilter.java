@@ -0,0 +1,198 @@
+package org.stabila.common.logsfilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.util.encoders.DecoderException;
+import org.bouncycastle.util.encoders.Hex;
+import org.stabila.common.logsfilter.trigger.ContractEventTrigger;
+import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
+import org.stabila.common.logsfilter.trigger.ContractTrigger;
+import org.stabila.common.runtime.vm.DataWord;
+import org.stabila.common.runtime.vm.LogInfo;
+import org.stabila.common.utils.Commons;
+import org.stabila.core.db.ByteArrayWrapper;
+
+/**
+ * The filter queries of the node compiled for matching: queries are indexed by contract address
+ * and their topics kept in hash sets, as strings for decoded triggers and as bytes for raw logs,
+ * so a trigger only meets the queries of its own contract. A trigger matches when any query
+ * matches it. The bits of the addresses and raw topics are kept too, to pass over the blocks
+ * whose log bloom no query can match.
+ */
+@Slf4j
+public class EventFilter {
+
+  private final List<FilterQuery> queries;
+
+  private final Map<String, List<Query>> byAddress = new HashMap<>();
+
+  private final List<Query> anyAddress = new ArrayList<>();
+
+  private final List<Query> all = new ArrayList<>();
+
+  public EventFilter(List<FilterQuery> queries) {
+    this.queries = Collections.unmodifiableList(new ArrayList<>(queries));
+    for (FilterQuery filterQuery : queries) {
+      Query query = new Query(filterQuery);
+      Set<String> addresses = new HashSet<>();
+      if (Objects.nonNull(filterQuery.getContractAddressList())) {
+        for (String address : filterQuery.getContractAddressList()) {
+          if (StringUtils.isNotEmpty(address) && addresses.add(address.toLowerCase())) {
+            query.addAddressBits(address);
+          }
+        }
+      }
+      if (addresses.isEmpty()) {
+        anyAddress.add(query);
+      } else {
+        addresses.forEach(address ->
+            byAddress.computeIfAbsent(address, k -> new ArrayList<>()).add(query));
+      }
+      all.add(query);
+    }
+  }
+
+  /**
+   * @return false when no query can match a log of the block, true when one may
+   */
+  public boolean mayMatch(long blockNumber, LogBloom bloom) {
+    for (Query query : all) {
+      if (query.mayMatch(blockNumber, bloom)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public List<FilterQuery> getQueries() {
+    return queries;
+  }
+
+  public boolean match(ContractTrigger trigger) {
+    long blockNumber = trigger.getBlockNumber();
+    for (Query query : anyAddress) {
+      if (query.match(blockNumber, trigger)) {
+        return true;
+      }
+    }
+    String contractAddress = trigger.getContractAddress();
+    if (byAddress.isEmpty() || Objects.isNull(contractAddress)) {
+      return false;
+    }
+    List<Query> candidates = byAddress.get(contractAddress.toLowerCase());
+    if (Objects.isNull(candidates)) {
+      return false;
+    }
+    for (Query query : candidates) {
+      if (query.match(blockNumber, trigger)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class Query {
+
+    private final long fromBlock;
+    private final long toBlock;
+    private final boolean valid;
+    private final Set<String> topics = new HashSet<>();
+    private final Set<ByteArrayWrapper> topicBytes = new HashSet<>();
+    private final List<int[]> addressBits = new ArrayList<>();
+    private final List<int[]> topicBits = new ArrayList<>();
+    private boolean anyAddressBits;
+
+    private Query(FilterQuery filterQuery) {
+      fromBlock = filterQuery.getFromBlock();
+      toBlock = filterQuery.getToBlock();
+      valid = fromBlock != FilterQuery.LATEST_BLOCK_NUM
+          && toBlock != FilterQuery.EARLIEST_BLOCK_NUM;
+      if (!valid) {
+        logger.error("invalid filter: fromBlockNumber: {}, toBlockNumber: {}",
+            fromBlock, toBlock);
+      }
+      if (Objects.nonNull(filterQuery.getContractTopicList())) {
+        for (String topic : filterQuery.getContractTopicList()) {
+          if (StringUtils.isEmpty(topic)) {
+            continue;
+          }
+          topics.add(topic);
+          try {
+            byte[] raw = Hex.decode(topic);
+            if (raw.length == DataWord.WORD_SIZE && topicBytes.add(new ByteArrayWrapper(raw))) {
+              topicBits.add(LogBloom.bits(raw));
+            }
+          } catch (DecoderException e) {
+            // not a raw topic, only matches decoded event values
+          }
+        }
+      }
+    }
+
+    private void addAddressBits(String address) {
+      byte[] raw = Commons.decodeFromBase58Check(address);
+      if (Objects.isNull(raw)) {
+        // not a base58 address, the bloom can not rule it out
+        anyAddressBits = true;
+      } else {
+        addressBits.add(LogBloom.bits(LogBloom.address(raw)));
+      }
+    }
+
+    private boolean matchRange(long blockNumber) {
+      if (!valid) {
+        return false;
+      }
+      if (fromBlock != FilterQuery.EARLIEST_BLOCK_NUM && blockNumber < fromBlock) {
+        return false;
+      }
+      return toBlock == FilterQuery.LATEST_BLOCK_NUM || blockNumber <= toBlock;
+    }
+
+    private boolean match(long blockNumber, ContractTrigger trigger) {
+      return matchRange(blockNumber) && (topics.isEmpty() || matchTopics(trigger));
+    }
+
+    private boolean mayMatch(long blockNumber, LogBloom bloom) {
+      if (!matchRange(blockNumber)) {
+        return false;
+      }
+      if (!anyAddressBits && !addressBits.isEmpty()
+          && addressBits.stream().noneMatch(bloom::contains)) {
+        return false;
+      }
+      // decoded topic values are not in the bloom, only raw topics can rule a block out
+      return topics.isEmpty() || topics.size() != topicBytes.size()
+          || topicBits.stream().anyMatch(bloom::contains);
+    }
+
+    private boolean matchTopics(ContractTrigger trigger) {
+      if (trigger instanceof ContractLogTrigger) {
+        List<String> topicList = ((ContractLogTrigger) trigger).getTopicList();
+        return Objects.nonNull(topicList) && topicList.stream().anyMatch(topics::contains);
+      }
+      if (trigger instanceof ContractEventTrigger) {
+        Map<String, String> topicMap = ((ContractEventTrigger) trigger).getTopicMap();
+        return Objects.nonNull(topicMap) && topicMap.values().stream().anyMatch(topics::contains);
+      }
+      LogInfo logInfo = trigger.getLogInfo();
+      if (Objects.isNull(logInfo) || Objects.isNull(logInfo.getTopics())) {
+        return false;
+      }
+      for (DataWord topic : logInfo.getTopics()) {
+        if (topicBytes.contains(new ByteArrayWrapper(topic.getData()))) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -1,22 +1,21 @@
 package org.stabila.common.logsfilter;
 
-import com.beust.jcommander.internal.Sets;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.bouncycastle.util.encoders.Hex;
 import org.pf4j.CompoundPluginDescriptorFinder;
 import org.pf4j.DefaultPluginManager;
 import org.pf4j.ManifestPluginDescriptorFinder;
 import org.pf4j.PluginManager;
 import org.springframework.util.StringUtils;
 import org.stabila.common.logsfilter.nativequeue.NativeMessageQueue;
+import org.stabila.common.logsfilter.nativequeue.TriggerEncoder;
 import org.stabila.common.logsfilter.trigger.BlockLogTrigger;
 import org.stabila.common.logsfilter.trigger.ContractEventTrigger;
 import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
@@ -56,10 +55,16 @@ public class EventPluginLoader {
 
   private boolean solidityTriggerEnable = false;
 
-  private FilterQuery filterQuery;
+  private volatile EventFilter eventFilter;
 
   private boolean useNativeQueue = false;
 
+  private boolean protobufEncoding = false;
+
+  private TriggerSpool spool;
+
+  private final Object deliveryLock = new Object();
+
   public static EventPluginLoader getInstance() {
     if (Objects.isNull(instance)) {
       synchronized (EventPluginLoader.class) {
@@ -72,105 +77,27 @@ public class EventPluginLoader {
   }
 
   public static boolean matchFilter(ContractTrigger trigger) {
-    long blockNumber = trigger.getBlockNumber();
-
-    FilterQuery filterQuery = EventPluginLoader.getInstance().getFilterQuery();
-    if (Objects.isNull(filterQuery)) {
-      return true;
-    }
-
-    long fromBlockNumber = filterQuery.getFromBlock();
-    long toBlockNumber = filterQuery.getToBlock();
-
-    boolean matched = false;
-    if (fromBlockNumber == FilterQuery.LATEST_BLOCK_NUM
-        || toBlockNumber == FilterQuery.EARLIEST_BLOCK_NUM) {
-      logger.error("invalid filter: fromBlockNumber: {}, toBlockNumber: {}",
-          fromBlockNumber, toBlockNumber);
-      return false;
-    }
-
-    if (toBlockNumber == FilterQuery.LATEST_BLOCK_NUM) {
-      if (fromBlockNumber == FilterQuery.EARLIEST_BLOCK_NUM) {
-        matched = true;
-      } else {
-        if (blockNumber >= fromBlockNumber) {
-          matched = true;
-        }
-      }
-    } else {
-      if (fromBlockNumber == FilterQuery.EARLIEST_BLOCK_NUM) {
-        if (blockNumber <= toBlockNumber) {
-          matched = true;
-        }
-      } else {
-        if (blockNumber >= fromBlockNumber && blockNumber <= toBlockNumber) {
-          matched = true;
-        }
-      }
-    }
-
-    if (!matched) {
-      return false;
-    }
-
-    return filterContractAddress(trigger, filterQuery.getContractAddressList())
-        && filterContractTopicList(trigger, filterQuery.getContractTopicList());
-  }
-
-  private static boolean filterContractAddress(ContractTrigger trigger, List<String> addressList) {
-    addressList = addressList.stream().filter(item ->
-        org.apache.commons.lang3.StringUtils.isNotEmpty(item))
-        .collect(Collectors.toList());
-    if (Objects.isNull(addressList) || addressList.isEmpty()) {
-      return true;
-    }
-
-    String contractAddress = trigger.getContractAddress();
-    if (Objects.isNull(contractAddress)) {
-      return false;
-    }
-
-    for (String address : addressList) {
-      if (contractAddress.equalsIgnoreCase(address)) {
-        return true;
-      }
-    }
-    return false;
+    EventFilter eventFilter = EventPluginLoader.getInstance().eventFilter;
+    return Objects.isNull(eventFilter) || eventFilter.match(trigger);
   }
 
-  private static boolean filterContractTopicList(ContractTrigger trigger, List<String> topList) {
-    topList = topList.stream().filter(item -> org.apache.commons.lang3.StringUtils.isNotEmpty(item))
-        .collect(Collectors.toList());
-    if (Objects.isNull(topList) || topList.isEmpty()) {
-      return true;
-    }
-
-    Set<String> hset = Sets.newHashSet();
-    if (trigger instanceof ContractLogTrigger) {
-      hset = ((ContractLogTrigger) trigger).getTopicList().stream().collect(Collectors.toSet());
-    } else if (trigger instanceof ContractEventTrigger) {
-      hset = new HashSet<>(((ContractEventTrigger) trigger).getTopicMap().values());
-    } else if (trigger != null) {
-      hset = trigger.getLogInfo().getClonedTopics()
-              .stream().map(Hex::toHexString).collect(Collectors.toSet());
-    }
-
-    for (String top : topList) {
-      if (hset.contains(top)) {
-        return true;
-      }
-    }
-    return false;
+  /**
+   * @return false when the filter queries rule out every log of the block
+   */
+  public static boolean matchBloom(long blockNumber, LogBloom bloom) {
+    EventFilter eventFilter = EventPluginLoader.getInstance().eventFilter;
+    return Objects.isNull(eventFilter) || eventFilter.mayMatch(blockNumber, bloom);
   }
 
   private boolean launchNativeQueue(EventPluginConfig config) {
 
-    if (!NativeMessageQueue.getInstance()
-        .start(config.getBindPort(), config.getSendQueueLength())) {
+    if (!NativeMessageQueue.getInstance().start(config.getBindPort(),
+        config.getSendQueueLength(), config.getShards(), config.isSequence())) {
       return false;
     }
 
+    protobufEncoding = EventPluginConfig.PROTOBUF_ENCODING.equals(config.getEncoding());
+
     if (Objects.isNull(triggerConfigList)) {
       logger.error("trigger config is null");
       return false;
@@ -213,11 +140,35 @@ public class EventPluginLoader {
 
     useNativeQueue = config.isUseNativeQueue();
 
-    if (config.isUseNativeQueue()) {
-      return launchNativeQueue(config);
+    boolean launched = config.isUseNativeQueue()
+        ? launchNativeQueue(config) : launchEventPlugin(config);
+
+    if (launched && config.isSpoolEnable()) {
+      return launchSpool(config);
     }
 
-    return launchEventPlugin(config);
+    return launched;
+  }
+
+  private boolean launchSpool(EventPluginConfig config) {
+    try {
+      TriggerSpool triggerSpool = new TriggerSpool(new File(config.getSpoolPath()),
+          config.getSpoolSegmentSize(), config.getSpoolRetentionSize());
+      if (useNativeQueue) {
+        triggerSpool.subscribe("nativequeue", (triggerName, key, data) ->
+            NativeMessageQueue.getInstance().publishTrigger(triggerName, key, data));
+      } else {
+        for (IPluginEventListener listener : eventListeners) {
+          triggerSpool.subscribe(listener.getClass().getName(), (triggerName, key, data) ->
+              deliverTrigger(listener, triggerName, new String(data, StandardCharsets.UTF_8)));
+        }
+      }
+      spool = triggerSpool;
+    } catch (IOException e) {
+      logger.error("failed to open trigger spool '{}'", config.getSpoolPath(), e);
+      return false;
+    }
+    return true;
   }
 
   private void setPluginConfig() {
@@ -319,13 +270,7 @@ public class EventPluginLoader {
   }
 
   public void postSolidityTrigger(SolidityTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityTrigger(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public synchronized boolean isBlockLogTriggerEnable() {
@@ -402,6 +347,10 @@ public class EventPluginLoader {
   }
 
   public void stopPlugin() {
+    if (Objects.nonNull(spool)) {
+      spool.close();
+    }
+
     if (Objects.nonNull(pluginManager)) {
       pluginManager.stopPlugins();
     }
@@ -412,61 +361,94 @@ public class EventPluginLoader {
   }
 
   public void postBlockTrigger(BlockLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleBlockEvent(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public void postSolidityLogTrigger(ContractLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityLogTrigger(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public void postSolidityEventTrigger(ContractEventTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityEventTrigger(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public void postTransactionTrigger(TransactionLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener -> listener.handleTransactionTrigger(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public void postContractLogTrigger(ContractLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractLogTrigger(toJsonString(trigger)));
-    }
+    prepareTrigger(trigger).run();
   }
 
   public void postContractEventTrigger(ContractEventTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+    prepareTrigger(trigger).run();
+  }
+
+  /**
+   * Serializes the trigger on the calling thread and returns its delivery, so the serialization
+   * can run in parallel while the deliveries are run in order.
+   */
+  public Runnable prepareTrigger(Trigger trigger) {
+    String key = shardKey(trigger);
+    byte[] data = protobufEncoding ? TriggerEncoder.encode(trigger)
+        : toJsonString(trigger).getBytes(StandardCharsets.UTF_8);
+    return () -> postTrigger(trigger.getTriggerName(), key, data);
+  }
+
+  private static String shardKey(Trigger trigger) {
+    if (trigger instanceof ContractTrigger) {
+      return ((ContractTrigger) trigger).getContractAddress();
+    }
+    if (trigger instanceof TransactionLogTrigger) {
+      TransactionLogTrigger transaction = (TransactionLogTrigger) trigger;
+      return StringUtils.isEmpty(transaction.getContractAddress())
+          ? transaction.getFromAddress() : transaction.getContractAddress();
+    }
+    return null;
+  }
+
+  /**
+   * Called by the live trigger sequencer and the replay one at the same time; the spool and the
+   * native queue serialize their appends, the plugins are handed one trigger at a time here.
+   */
+  private void postTrigger(String triggerName, String key, byte[] data) {
+    if (Objects.nonNull(spool)) {
+      spool.append(triggerName, key, data);
+    } else if (useNativeQueue) {
+      NativeMessageQueue.getInstance().publishTrigger(triggerName, key, data);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractEventTrigger(toJsonString(trigger)));
+      String json = new String(data, StandardCharsets.UTF_8);
+      synchronized (deliveryLock) {
+        eventListeners.forEach(listener -> deliverTrigger(listener, triggerName, json));
+      }
+    }
+  }
+
+  private void deliverTrigger(IPluginEventListener listener, String triggerName, String data) {
+    switch (triggerName) {
+      case Trigger.BLOCK_TRIGGER_NAME:
+        listener.handleBlockEvent(data);
+        break;
+      case Trigger.TRANSACTION_TRIGGER_NAME:
+        listener.handleTransactionTrigger(data);
+        break;
+      case Trigger.CONTRACTLOG_TRIGGER_NAME:
+        listener.handleContractLogTrigger(data);
+        break;
+      case Trigger.CONTRACTEVENT_TRIGGER_NAME:
+        listener.handleContractEventTrigger(data);
+        break;
+      case Trigger.SOLIDITY_TRIGGER_NAME:
+        listener.handleSolidityTrigger(data);
+        break;
+      case Trigger.SOLIDITYLOG_TRIGGER_NAME:
+        listener.handleSolidityLogTrigger(data);
+        break;
+      case Trigger.SOLIDITYEVENT_TRIGGER_NAME:
+        listener.handleSolidityEventTrigger(data);
+        break;
+      default:
+        logger.warn("unknown trigger {}", triggerName);
     }
   }
 
@@ -482,11 +464,27 @@ public class EventPluginLoader {
     return jsonData;
   }
 
-  public synchronized FilterQuery getFilterQuery() {
-    return filterQuery;
+  public FilterQuery getFilterQuery() {
+    EventFilter filter = eventFilter;
+    return Objects.isNull(filter) || filter.getQueries().isEmpty()
+        ? null : filter.getQueries().get(0);
+  }
+
+  public void setFilterQuery(FilterQuery filterQuery) {
+    setFilterQueries(Objects.isNull(filterQuery)
+        ? Collections.emptyList() : Collections.singletonList(filterQuery));
+  }
+
+  public List<FilterQuery> getFilterQueries() {
+    EventFilter filter = eventFilter;
+    return Objects.isNull(filter) ? Collections.emptyList() : filter.getQueries();
   }
 
-  public synchronized void setFilterQuery(FilterQuery filterQuery) {
-    this.filterQuery = filterQuery;
+  /**
+   * Replaces the filter queries, a contract trigger is posted when any of them matches it and
+   * every trigger is posted when there is none.
+   */
+  public void setFilterQueries(List<FilterQuery> filterQueries) {
+    eventFilter = filterQueries.isEmpty() ? null : new EventFilter(filterQueries);
   }
 }
@@ -0,0 +1,73 @@
+package org.stabila.common.logsfilter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.stabila.common.logsfilter.capsule.TriggerCapsule;
+
+/**
+ * Processes triggers in two stages. Decoding and serialization run on a pool of workers, the
+ * deliveries they produce are run by a single sequencer thread in submission order, so plugins
+ * and the native queue see blocks, transactions and logs in the order they were produced.
+ */
+@Slf4j(topic = "DB")
+public class TriggerPipeline {
+
+  private final ExecutorService workers;
+  private final BlockingQueue<Future<Runnable>> inFlight;
+  private final Thread sequencer;
+  private volatile boolean running = true;
+
+  public TriggerPipeline(int threads, int capacity) {
+    this("trigger", threads, capacity);
+  }
+
+  public TriggerPipeline(String name, int threads, int capacity) {
+    workers = Executors.newFixedThreadPool(Math.max(1, threads),
+        new ThreadFactoryBuilder().setNameFormat(name + "-worker-%d").build());
+    inFlight = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    sequencer = new Thread(this::deliver, name + "-sequencer");
+    sequencer.start();
+  }
+
+  /**
+   * Blocks while capacity triggers are already in flight.
+   */
+  public void submit(TriggerCapsule triggerCapsule) throws InterruptedException {
+    inFlight.put(workers.submit(triggerCapsule::prepareTrigger));
+  }
+
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private void deliver() {
+    while (running || !inFlight.isEmpty()) {
+      try {
+        Future<Runnable> future = inFlight.poll(1, TimeUnit.SECONDS);
+        if (future != null) {
+          future.get().run();
+        }
+      } catch (InterruptedException ex) {
+        logger.info(ex.getMessage());
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        logger.error("prepare trigger failed", e.getCause());
+      } catch (Throwable throwable) {
+        logger.error("unknown throwable happened in trigger sequencer", throwable);
+      }
+    }
+  }
+
+  public void shutdown() {
+    running = false;
+    workers.shutdown();
+  }
+}
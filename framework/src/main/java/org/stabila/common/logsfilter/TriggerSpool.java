@@ -0,0 +1,328 @@
+package org.stabila.common.logsfilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append only log of serialized triggers on local disk, between the trigger pipeline and the
+ * plugin or native queue. The log is split in memory mapped segments of segmentSize bytes named
+ * after the offset of their first byte; segments are dropped once every consumer has read them,
+ * or when the spool outgrows retentionSize, oldest first.
+ *
+ * <p>Each consumer reads on a thread of its own and keeps its offset in {@code <name>.cursor},
+ * advanced only after a record is delivered, so a consumer that is down or throwing resumes where
+ * it stopped, also after a restart. A consumer that falls behind the retention skips to the
+ * oldest record left.
+ *
+ * <p>Record layout: length (4), crc32 of the payload (4), payload; a zero length ends a segment.
+ * The payload is the trigger name, a zero byte, the shard key, a zero byte, and the data.
+ */
+@Slf4j(topic = "event")
+public class TriggerSpool {
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String CURSOR_SUFFIX = ".cursor";
+  private static final int HEADER = 8;
+  private static final long RETRY_INTERVAL = 1000;
+
+  private final File dir;
+  private final int segmentSize;
+  private final long retentionSize;
+
+  private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments =
+      new ConcurrentSkipListMap<>();
+  private final Map<String, Consumer> consumers = new ConcurrentHashMap<>();
+  private final Object signal = new Object();
+
+  private MappedByteBuffer head;
+  private long headBase;
+  private volatile long end;
+  private volatile boolean running = true;
+
+  public TriggerSpool(File dir, long segmentSize, long retentionSize) throws IOException {
+    this.dir = dir;
+    this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(segmentSize, 1024));
+    this.retentionSize = Math.max(retentionSize, this.segmentSize);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("can not create spool directory " + dir);
+    }
+    recover();
+  }
+
+  private void recover() throws IOException {
+    File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())),
+            map(file, file.length()));
+      }
+    }
+    if (segments.isEmpty()) {
+      roll(0);
+      return;
+    }
+    headBase = segments.lastKey();
+    head = segments.lastEntry().getValue();
+    // the last complete record marks the end, a torn write is overwritten
+    int position = 0;
+    while (true) {
+      int length = recordLength(head, position);
+      if (length <= 0 || !verify(head, position, length)) {
+        break;
+      }
+      position += HEADER + length;
+    }
+    if (position + Integer.BYTES <= head.capacity()) {
+      head.putInt(position, 0);
+    }
+    end = headBase + position;
+    logger.info("Trigger spool recovered, segments: {}, end: {}", segments.size(), end);
+  }
+
+  /**
+   * Appends a trigger. Both the trigger sequencer and the block thread posting solidity triggers
+   * append, so the appends are serialized on the spool.
+   */
+  public synchronized void append(String triggerName, String key, byte[] data) {
+    byte[] name = triggerName.getBytes(StandardCharsets.UTF_8);
+    byte[] shard = key == null ? new byte[0] : key.getBytes(StandardCharsets.UTF_8);
+    int length = name.length + 1 + shard.length + 1 + data.length;
+    if (HEADER + length + Integer.BYTES > segmentSize) {
+      logger.error("Trigger of {} bytes exceeds the spool segment, dropped", length);
+      return;
+    }
+    int position = (int) (end - headBase);
+    try {
+      if (position + HEADER + length + Integer.BYTES > head.capacity()) {
+        roll(end);
+        position = 0;
+      }
+    } catch (IOException e) {
+      logger.error("Trigger spool roll failed, trigger dropped", e);
+      return;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(name);
+    crc.update(0);
+    crc.update(shard);
+    crc.update(0);
+    crc.update(data);
+    ByteBuffer buffer = head.duplicate();
+    buffer.position(position + HEADER);
+    buffer.put(name).put((byte) 0).put(shard).put((byte) 0).put(data);
+    buffer.putInt(0);
+    head.putInt(position + 4, (int) crc.getValue());
+    head.putInt(position, length);
+    end += HEADER + length;
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+  }
+
+  private void roll(long base) throws IOException {
+    File file = new File(dir, String.format("%020d%s", base, SEGMENT_SUFFIX));
+    MappedByteBuffer segment = map(file, segmentSize);
+    segments.put(base, segment);
+    head = segment;
+    headBase = base;
+    end = base;
+    trim();
+  }
+
+  /**
+   * Drops the segments read by every consumer, then the oldest ones beyond the retention size.
+   */
+  private void trim() {
+    long consumed = Long.MAX_VALUE;
+    for (Consumer consumer : consumers.values()) {
+      consumed = Math.min(consumed, consumer.offset);
+    }
+    while (segments.size() > 1) {
+      long first = segments.firstKey();
+      long next = segments.higherKey(first);
+      boolean read = !consumers.isEmpty() && next <= consumed;
+      if (!read && (long) segments.size() * segmentSize <= retentionSize) {
+        break;
+      }
+      if (!read) {
+        logger.warn("Trigger spool exceeds {} bytes, dropping segment {}", retentionSize, first);
+      }
+      segments.remove(first);
+      if (!new File(dir, String.format("%020d%s", first, SEGMENT_SUFFIX)).delete()) {
+        logger.warn("Failed to delete spool segment {}", first);
+      }
+    }
+  }
+
+  /**
+   * Starts delivering the spooled triggers to handler from the last offset saved under name. A
+   * handler that throws gets the same trigger again.
+   */
+  public void subscribe(String name, Handler handler) throws IOException {
+    Consumer consumer = new Consumer(name, handler);
+    consumers.put(name, consumer);
+    consumer.start();
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  public long getLag(String name) {
+    Consumer consumer = consumers.get(name);
+    return consumer == null ? 0 : end - consumer.offset;
+  }
+
+  public void close() {
+    running = false;
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+    for (Consumer consumer : consumers.values()) {
+      try {
+        consumer.join(RETRY_INTERVAL);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      consumer.cursor.force();
+    }
+    for (MappedByteBuffer segment : segments.values()) {
+      segment.force();
+    }
+  }
+
+  private static MappedByteBuffer map(File file, long size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  private static int recordLength(ByteBuffer segment, int position) {
+    return position + HEADER > segment.capacity() ? 0 : segment.getInt(position);
+  }
+
+  private static boolean verify(ByteBuffer segment, int position, int length) {
+    if (position + HEADER + length > segment.capacity()) {
+      return false;
+    }
+    CRC32 crc = new CRC32();
+    ByteBuffer payload = segment.duplicate();
+    payload.position(position + HEADER).limit(position + HEADER + length);
+    crc.update(payload);
+    return (int) crc.getValue() == segment.getInt(position + 4);
+  }
+
+  private static int indexOf(byte[] payload, int from) {
+    int i = from;
+    while (payload[i] != 0) {
+      i++;
+    }
+    return i;
+  }
+
+  public interface Handler {
+
+    void deliver(String triggerName, String key, byte[] data);
+  }
+
+  private class Consumer extends Thread {
+
+    private final Handler handler;
+    private final MappedByteBuffer cursor;
+    private volatile long offset;
+
+    private Consumer(String name, Handler handler) throws IOException {
+      super("trigger-spool-" + name);
+      setDaemon(true);
+      this.handler = handler;
+      this.cursor = map(new File(dir, name + CURSOR_SUFFIX), Long.BYTES);
+      this.offset = cursor.getLong(0);
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        try {
+          if (poll() == 0) {
+            synchronized (signal) {
+              if (running && offset >= end) {
+                signal.wait(RETRY_INTERVAL);
+              }
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (Exception e) {
+          logger.warn("Trigger delivery to {} failed, retrying: {}", getName(), e.getMessage());
+          try {
+            Thread.sleep(RETRY_INTERVAL);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+
+    /**
+     * Delivers the records available in the segment of the current offset.
+     */
+    private int poll() {
+      int delivered = 0;
+      long limit = end;
+      Map.Entry<Long, MappedByteBuffer> entry = segments.floorEntry(offset);
+      if (entry == null) {
+        long first = segments.firstKey();
+        if (offset > 0) {
+          logger.warn("{} fell behind the spool retention, skipping {} bytes", getName(),
+              first - offset);
+        }
+        save(first);
+        return delivered;
+      }
+      ByteBuffer segment = entry.getValue();
+      while (running && offset < limit) {
+        int position = (int) (offset - entry.getKey());
+        int length = recordLength(segment, position);
+        if (length <= 0) {
+          Long next = segments.higherKey(entry.getKey());
+          if (next != null) {
+            save(next);
+          }
+          break;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer buffer = segment.duplicate();
+        buffer.position(position + HEADER);
+        buffer.get(payload);
+        int split = indexOf(payload, 0);
+        int keySplit = indexOf(payload, split + 1);
+        handler.deliver(new String(payload, 0, split, StandardCharsets.UTF_8),
+            keySplit == split + 1 ? null
+                : new String(payload, split + 1, keySplit - split - 1, StandardCharsets.UTF_8),
+            Arrays.copyOfRange(payload, keySplit + 1, length));
+        delivered++;
+        save(offset + HEADER + length);
+      }
+      return delivered;
+    }
+
+    private void save(long value) {
+      offset = value;
+      cursor.putLong(0, value);
+    }
+  }
+}
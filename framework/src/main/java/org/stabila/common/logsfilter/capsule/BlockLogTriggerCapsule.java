@@ -31,4 +31,9 @@ public class BlockLogTriggerCapsule extends TriggerCapsule {
   public void processTrigger() {
     EventPluginLoader.getInstance().postBlockTrigger(blockLogTrigger);
   }
+
+  @Override
+  public Runnable prepareTrigger() {
+    return EventPluginLoader.getInstance().prepareTrigger(blockLogTrigger);
+  }
 }
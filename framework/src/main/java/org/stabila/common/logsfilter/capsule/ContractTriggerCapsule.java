@@ -8,10 +8,8 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
-import org.bouncycastle.util.encoders.Hex;
-import org.pf4j.util.StringUtils;
-import org.stabila.common.crypto.Hash;
 import org.stabila.common.logsfilter.ContractEventParserAbi;
+import org.stabila.common.logsfilter.EventDecoder;
 import org.stabila.common.logsfilter.EventPluginLoader;
 import org.stabila.common.logsfilter.trigger.ContractEventTrigger;
 import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
@@ -19,6 +17,7 @@ import org.stabila.common.logsfilter.trigger.ContractTrigger;
 import org.stabila.common.runtime.vm.DataWord;
 import org.stabila.common.runtime.vm.LogInfo;
 import org.stabila.core.config.args.Args;
+import org.stabila.core.db.TransactionTrace;
 import org.stabila.protos.contract.SmartContractOuterClass.SmartContract.ABI;
 
 @Slf4j(topic = "DB")
@@ -28,6 +27,12 @@ public class ContractTriggerCapsule extends TriggerCapsule {
   @Setter
   private ContractTrigger contractTrigger;
 
+  /**
+   * false to skip the solidity log and event triggers, replayed blocks are already solidified.
+   */
+  @Setter
+  private boolean postSolidity = true;
+
   public ContractTriggerCapsule(ContractTrigger contractTrigger) {
     this.contractTrigger = contractTrigger;
   }
@@ -38,6 +43,17 @@ public class ContractTriggerCapsule extends TriggerCapsule {
 
   @Override
   public void processTrigger() {
+    prepareTrigger().run();
+  }
+
+  @Override
+  public Runnable prepareTrigger() {
+    // the filter works on the raw log, skip decoding what nobody listens to
+    if (!matchFilter(contractTrigger)) {
+      return () -> {
+      };
+    }
+
     ContractTrigger event;
     boolean isEvent = false;
     LogInfo logInfo = contractTrigger.getLogInfo();
@@ -52,41 +68,15 @@ public class ContractTriggerCapsule extends TriggerCapsule {
     if (abi != null && abi.getEntrysCount() > 0 && topics != null && !topics.isEmpty()
         && !ArrayUtils.isEmpty(topics.get(0).getData()) && Args.getInstance().getStorage()
         .isContractParseSwitch()) {
-      String logHash = topics.get(0).toString();
-
-      for (ABI.Entry entry : abi.getEntrysList()) {
-        if (entry.getType() != ABI.Entry.EntryType.Event || entry.getAnonymous()) {
-          continue;
-        }
-
-        String signature = entry.getName() + "(";
-        String signatureFull = entry.getName() + "(";
-        StringBuilder signBuilder = new StringBuilder();
-        StringBuilder signFullBuilder = new StringBuilder();
-        for (ABI.Entry.Param param : entry.getInputsList()) {
-          if (signBuilder.length() > 0) {
-            signBuilder.append(",");
-            signFullBuilder.append(",");
-          }
-          String type = param.getType();
-          String name = param.getName();
-          signBuilder.append(type);
-          signFullBuilder.append(type);
-          if (StringUtils.isNotNullOrEmpty(name)) {
-            signFullBuilder.append(" ").append(name);
-          }
-        }
-        signature += signBuilder.toString() + ")";
-        signatureFull += signFullBuilder.toString() + ")";
-        String sha3 = Hex.toHexString(Hash.sha3(signature.getBytes()));
-        if (sha3.equals(logHash)) {
-          eventSignature = signature;
-          eventSignatureFull = signatureFull;
-          entryName = entry.getName();
-          eventEntry = entry;
-          isEvent = true;
-          break;
-        }
+      EventDecoder.Event decoded = EventDecoder
+          .get(TransactionTrace.convertToStabilaAddress(logInfo.getAddress()), abi)
+          .find(topics.get(0).getData());
+      if (decoded != null) {
+        eventSignature = decoded.getSignature();
+        eventSignatureFull = decoded.getSignatureFull();
+        entryName = decoded.getName();
+        eventEntry = decoded.getEntry();
+        isEvent = true;
       }
     }
 
@@ -124,29 +114,28 @@ public class ContractTriggerCapsule extends TriggerCapsule {
     event.setBlockNumber(contractTrigger.getBlockNumber());
     event.setTimeStamp(contractTrigger.getTimeStamp());
 
-    if (matchFilter(contractTrigger)) {
-      if (isEvent) {
-        if (EventPluginLoader.getInstance().isContractEventTriggerEnable()) {
-          EventPluginLoader.getInstance().postContractEventTrigger((ContractEventTrigger) event);
-        }
-
-        if (EventPluginLoader.getInstance().isSolidityEventTriggerEnable()) {
-          Args.getSolidityContractEventTriggerMap().computeIfAbsent(event
-              .getBlockNumber(), listBlk -> new LinkedBlockingQueue())
-                  .offer((ContractEventTrigger) event);
-        }
-
-      } else {
-        if (EventPluginLoader.getInstance().isContractLogTriggerEnable()) {
-          EventPluginLoader.getInstance().postContractLogTrigger((ContractLogTrigger) event);
-        }
-
-        if (EventPluginLoader.getInstance().isSolidityLogTriggerEnable()) {
-          Args.getSolidityContractLogTriggerMap().computeIfAbsent(event
-              .getBlockNumber(), listBlk -> new LinkedBlockingQueue())
-                  .offer((ContractLogTrigger) event);
-        }
-      }
+    EventPluginLoader loader = EventPluginLoader.getInstance();
+    Runnable post = null;
+    if (isEvent ? loader.isContractEventTriggerEnable() : loader.isContractLogTriggerEnable()) {
+      post = loader.prepareTrigger(event);
     }
+    boolean toSolidity = postSolidity && (isEvent ? loader.isSolidityEventTriggerEnable()
+        : loader.isSolidityLogTriggerEnable());
+    Runnable contractPost = post;
+    boolean isContractEvent = isEvent;
+    return () -> {
+      if (contractPost != null) {
+        contractPost.run();
+      }
+      if (toSolidity && isContractEvent) {
+        Args.getSolidityContractEventTriggerMap().computeIfAbsent(event
+            .getBlockNumber(), listBlk -> new LinkedBlockingQueue<>())
+            .offer((ContractEventTrigger) event);
+      } else if (toSolidity) {
+        Args.getSolidityContractLogTriggerMap().computeIfAbsent(event
+            .getBlockNumber(), listBlk -> new LinkedBlockingQueue<>())
+            .offer((ContractLogTrigger) event);
+      }
+    };
   }
 }
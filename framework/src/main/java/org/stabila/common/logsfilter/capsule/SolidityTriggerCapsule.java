@@ -20,5 +20,9 @@ public class SolidityTriggerCapsule extends TriggerCapsule {
   public void processTrigger() {
     EventPluginLoader.getInstance().postSolidityTrigger(solidityTrigger);
   }
-}
 
+  @Override
+  public Runnable prepareTrigger() {
+    return EventPluginLoader.getInstance().prepareTrigger(solidityTrigger);
+  }
+}
@@ -22,6 +22,8 @@ import org.stabila.core.capsule.BlockCapsule;
 import org.stabila.core.capsule.TransactionCapsule;
 import org.stabila.core.db.TransactionTrace;
 import org.stabila.protos.Protocol;
+import org.stabila.protos.Protocol.ResourceReceipt;
+import org.stabila.protos.Protocol.TransactionInfo;
 import org.stabila.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
 import org.stabila.protos.contract.BalanceContract.TransferContract;
 
@@ -148,6 +150,62 @@ public class TransactionLogTriggerCapsule extends TriggerCapsule {
     }
   }
 
+  /**
+   * Rebuilds the trigger of a stored transaction, the receipt and results coming from its
+   * TransactionInfo instead of the trace of its execution.
+   */
+  public TransactionLogTriggerCapsule(TransactionCapsule trxCapsule, BlockCapsule blockCapsule,
+      TransactionInfo transactionInfo) {
+    this(trxCapsule, blockCapsule);
+    transactionLogTrigger.setBlockNumber(blockCapsule.getNum());
+    if (Objects.isNull(transactionInfo)) {
+      return;
+    }
+
+    ResourceReceipt receipt = transactionInfo.getReceipt();
+    transactionLogTrigger.setEnergyFee(receipt.getEnergyFee());
+    transactionLogTrigger.setOriginEnergyUsage(receipt.getOriginEnergyUsage());
+    transactionLogTrigger.setEnergyUsageTotal(receipt.getEnergyUsageTotal());
+    transactionLogTrigger.setNetUsage(receipt.getNetUsage());
+    transactionLogTrigger.setNetFee(receipt.getNetFee());
+    transactionLogTrigger.setEnergyUsage(receipt.getEnergyUsage());
+
+    if (transactionInfo.getContractResultCount() > 0
+        && !transactionInfo.getContractResult(0).isEmpty()) {
+      transactionLogTrigger.setContractResult(
+          Hex.toHexString(transactionInfo.getContractResult(0).toByteArray()));
+    }
+
+    if (!transactionInfo.getContractAddress().isEmpty()) {
+      transactionLogTrigger.setContractAddress(
+          StringUtil.encode58Check(transactionInfo.getContractAddress().toByteArray()));
+    }
+
+    List<InternalTransactionPojo> pojoList = new ArrayList<>();
+    for (Protocol.InternalTransaction internalTransaction
+        : transactionInfo.getInternalTransactionsList()) {
+      InternalTransactionPojo item = new InternalTransactionPojo();
+      item.setHash(Hex.toHexString(internalTransaction.getHash().toByteArray()));
+      for (Protocol.InternalTransaction.CallValueInfo callValueInfo
+          : internalTransaction.getCallValueInfoList()) {
+        if (callValueInfo.getTokenId().isEmpty()) {
+          item.setCallValue(callValueInfo.getCallValue());
+        } else {
+          item.getTokenInfo().put(callValueInfo.getTokenId(), callValueInfo.getCallValue());
+        }
+      }
+      item.setCaller_address(Hex.toHexString(internalTransaction.getCallerAddress().toByteArray()));
+      item.setTransferTo_address(
+          Hex.toHexString(internalTransaction.getTransferToAddress().toByteArray()));
+      item.setData("");
+      item.setRejected(internalTransaction.getRejected());
+      item.setNote(internalTransaction.getNote().toStringUtf8());
+      item.setExtra(internalTransaction.getExtra());
+      pojoList.add(item);
+    }
+    transactionLogTrigger.setInternalTransactionList(pojoList);
+  }
+
   public void setLatestSolidifiedBlockNumber(long latestSolidifiedBlockNumber) {
     transactionLogTrigger.setLatestSolidifiedBlockNumber(latestSolidifiedBlockNumber);
   }
@@ -179,4 +237,9 @@ public class TransactionLogTriggerCapsule extends TriggerCapsule {
   public void processTrigger() {
     EventPluginLoader.getInstance().postTransactionTrigger(transactionLogTrigger);
   }
+
+  @Override
+  public Runnable prepareTrigger() {
+    return EventPluginLoader.getInstance().prepareTrigger(transactionLogTrigger);
+  }
 }
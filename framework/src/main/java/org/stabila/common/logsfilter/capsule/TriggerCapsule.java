@@ -5,4 +5,12 @@ public class TriggerCapsule {
   public void processTrigger() {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Does the part of processTrigger that may run on any thread, out of order, and returns the
+   * part that has to run in the order the triggers were produced.
+   */
+  public Runnable prepareTrigger() {
+    return this::processTrigger;
+  }
 }
@@ -1,10 +1,26 @@
 package org.stabila.common.logsfilter.nativequeue;
 
+import com.google.common.primitives.Longs;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.zip.CRC32;
 import org.zeromq.SocketType;
 import org.zeromq.ZContext;
 import org.zeromq.ZMQ;
 
+/**
+ * Publishes triggers on ZeroMQ PUB sockets bound to bindPort, bindPort + 1, ... one per shard.
+ * A trigger goes to the shard crc32(key) % shards, the key being the contract address of the
+ * trigger, or the from address of a transaction not calling a contract. Keyless triggers, blocks
+ * and solidity, go to shard 0 only, so every trigger is published once. A message is the topic
+ * frame, the payload frame, and with sequence numbers enabled an 8 bytes big endian frame
+ * counting the messages of the topic on the shard, from 1, so a subscriber can tell when the high
+ * water mark dropped some.
+ */
 public class NativeMessageQueue {
 
   private static final int DEFAULT_BIND_PORT = 5555;
@@ -12,6 +28,9 @@ public class NativeMessageQueue {
   private static NativeMessageQueue instance;
   private ZContext context = null;
   private ZMQ.Socket publisher = null;
+  private final List<ZMQ.Socket> publishers = new ArrayList<>();
+  private final List<Map<String, Long>> sequences = new ArrayList<>();
+  private boolean sequence = false;
 
   public static NativeMessageQueue getInstance() {
     if (Objects.isNull(instance)) {
@@ -25,12 +44,12 @@ public class NativeMessageQueue {
   }
 
   public boolean start(int bindPort, int sendQueueLength) {
-    context = new ZContext();
-    publisher = context.createSocket(SocketType.PUB);
+    return start(bindPort, sendQueueLength, 1, false);
+  }
 
-    if (Objects.isNull(publisher)) {
-      return false;
-    }
+  public synchronized boolean start(int bindPort, int sendQueueLength, int shards,
+      boolean sequence) {
+    context = new ZContext();
 
     if (bindPort == 0 || bindPort < 0) {
       bindPort = DEFAULT_BIND_PORT;
@@ -41,15 +60,41 @@ public class NativeMessageQueue {
     }
 
     context.setSndHWM(sendQueueLength);
+    this.sequence = sequence;
 
-    String bindAddress = String.format("tcp://*:%d", bindPort);
-    return publisher.bind(bindAddress);
+    boolean started = false;
+    try {
+      for (int i = 0; i < Math.max(1, shards); i++) {
+        if (!bind(bindPort + i)) {
+          return false;
+        }
+      }
+      publisher = publishers.get(0);
+      started = true;
+      return true;
+    } finally {
+      if (!started) {
+        // a shard failed to bind, the shards bound before it are closed
+        stop();
+      }
+    }
   }
 
-  public void stop() {
-    if (Objects.nonNull(publisher)) {
-      publisher.close();
+  private boolean bind(int port) {
+    ZMQ.Socket socket = context.createSocket(SocketType.PUB);
+    if (Objects.isNull(socket)) {
+      return false;
     }
+    publishers.add(socket);
+    sequences.add(new HashMap<>());
+    return socket.bind(String.format("tcp://*:%d", port));
+  }
+
+  public synchronized void stop() {
+    publishers.forEach(ZMQ.Socket::close);
+    publishers.clear();
+    sequences.clear();
+    publisher = null;
 
     if (Objects.nonNull(context)) {
       context.close();
@@ -57,11 +102,34 @@ public class NativeMessageQueue {
   }
 
   public void publishTrigger(String data, String topic) {
+    publishTrigger(topic, null, data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param key the shard key of the trigger, null to publish on shard 0
+   */
+  public synchronized void publishTrigger(String topic, String key, byte[] data) {
     if (Objects.isNull(publisher) || Objects.isNull(context.isClosed()) || context.isClosed()) {
       return;
     }
 
-    publisher.sendMore(topic);
-    publisher.send(data);
+    send(Objects.isNull(key) ? 0 : shard(key, publishers.size()), topic, data);
+  }
+
+  private void send(int shard, String topic, byte[] data) {
+    ZMQ.Socket socket = publishers.get(shard);
+    socket.sendMore(topic);
+    if (sequence) {
+      socket.sendMore(data);
+      socket.send(Longs.toByteArray(sequences.get(shard).merge(topic, 1L, Long::sum)));
+    } else {
+      socket.send(data);
+    }
+  }
+
+  public static int shard(String key, int shards) {
+    CRC32 crc = new CRC32();
+    crc.update(key.getBytes(StandardCharsets.UTF_8));
+    return (int) (crc.getValue() % shards);
   }
 }
@@ -0,0 +1,154 @@
+package org.stabila.common.logsfilter.nativequeue;
+
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+import org.stabila.common.logsfilter.trigger.BlockLogTrigger;
+import org.stabila.common.logsfilter.trigger.ContractEventTrigger;
+import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
+import org.stabila.common.logsfilter.trigger.ContractTrigger;
+import org.stabila.common.logsfilter.trigger.InternalTransactionPojo;
+import org.stabila.common.logsfilter.trigger.SolidityTrigger;
+import org.stabila.common.logsfilter.trigger.TransactionLogTrigger;
+import org.stabila.common.logsfilter.trigger.Trigger;
+import org.stabila.protos.Event;
+import org.stabila.protos.Event.TriggerMessage;
+
+/**
+ * Encodes triggers as length delimited {@link TriggerMessage}s, the binary format of the native
+ * queue. The raw log, raw data and abi carried by contract triggers are left out, their content is
+ * already in the decoded fields.
+ */
+public class TriggerEncoder {
+
+  private TriggerEncoder() {
+  }
+
+  public static byte[] encode(Trigger trigger) {
+    TriggerMessage message = toMessage(trigger);
+    int size = message.getSerializedSize();
+    byte[] bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    try {
+      output.writeUInt32NoTag(size);
+      message.writeTo(output);
+      output.checkNoSpaceLeft();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return bytes;
+  }
+
+  public static TriggerMessage toMessage(Trigger trigger) {
+    TriggerMessage.Builder builder = TriggerMessage.newBuilder()
+        .setTriggerName(str(trigger.getTriggerName()))
+        .setTimestamp(trigger.getTimeStamp());
+    if (trigger instanceof BlockLogTrigger) {
+      builder.setBlock(block((BlockLogTrigger) trigger));
+    } else if (trigger instanceof TransactionLogTrigger) {
+      builder.setTransaction(transaction((TransactionLogTrigger) trigger));
+    } else if (trigger instanceof ContractLogTrigger) {
+      ContractLogTrigger log = (ContractLogTrigger) trigger;
+      Event.ContractLogTrigger.Builder logBuilder = Event.ContractLogTrigger.newBuilder()
+          .setContract(contract(log))
+          .setData(str(log.getData()));
+      if (Objects.nonNull(log.getTopicList())) {
+        logBuilder.addAllTopicList(log.getTopicList());
+      }
+      builder.setContractLog(logBuilder);
+    } else if (trigger instanceof ContractEventTrigger) {
+      ContractEventTrigger event = (ContractEventTrigger) trigger;
+      Event.ContractEventTrigger.Builder eventBuilder = Event.ContractEventTrigger.newBuilder()
+          .setContract(contract(event))
+          .setEventSignature(str(event.getEventSignature()))
+          .setEventSignatureFull(str(event.getEventSignatureFull()))
+          .setEventName(str(event.getEventName()));
+      if (Objects.nonNull(event.getTopicMap())) {
+        event.getTopicMap().forEach((k, v) -> eventBuilder.putTopicMap(str(k), str(v)));
+      }
+      if (Objects.nonNull(event.getDataMap())) {
+        event.getDataMap().forEach((k, v) -> eventBuilder.putDataMap(str(k), str(v)));
+      }
+      builder.setContractEvent(eventBuilder);
+    } else if (trigger instanceof SolidityTrigger) {
+      builder.setSolidity(Event.SolidityTrigger.newBuilder()
+          .setLatestSolidifiedBlockNumber(
+              ((SolidityTrigger) trigger).getLatestSolidifiedBlockNumber()));
+    }
+    return builder.build();
+  }
+
+  private static Event.BlockLogTrigger block(BlockLogTrigger trigger) {
+    Event.BlockLogTrigger.Builder builder = Event.BlockLogTrigger.newBuilder()
+        .setBlockNumber(trigger.getBlockNumber())
+        .setBlockHash(str(trigger.getBlockHash()))
+        .setTransactionSize(trigger.getTransactionSize())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber());
+    if (Objects.nonNull(trigger.getTransactionList())) {
+      builder.addAllTransactionList(trigger.getTransactionList());
+    }
+    return builder.build();
+  }
+
+  private static Event.TransactionLogTrigger transaction(TransactionLogTrigger trigger) {
+    Event.TransactionLogTrigger.Builder builder = Event.TransactionLogTrigger.newBuilder()
+        .setTransactionId(str(trigger.getTransactionId()))
+        .setBlockHash(str(trigger.getBlockHash()))
+        .setBlockNumber(trigger.getBlockNumber())
+        .setEnergyUsage(trigger.getEnergyUsage())
+        .setEnergyFee(trigger.getEnergyFee())
+        .setOriginEnergyUsage(trigger.getOriginEnergyUsage())
+        .setEnergyUsageTotal(trigger.getEnergyUsageTotal())
+        .setNetUsage(trigger.getNetUsage())
+        .setNetFee(trigger.getNetFee())
+        .setResult(str(trigger.getResult()))
+        .setContractAddress(str(trigger.getContractAddress()))
+        .setContractType(str(trigger.getContractType()))
+        .setFeeLimit(trigger.getFeeLimit())
+        .setContractCallValue(trigger.getContractCallValue())
+        .setContractResult(str(trigger.getContractResult()))
+        .setFromAddress(str(trigger.getFromAddress()))
+        .setToAddress(str(trigger.getToAddress()))
+        .setAssetName(str(trigger.getAssetName()))
+        .setAssetAmount(trigger.getAssetAmount())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber())
+        .setData(str(trigger.getData()));
+    if (Objects.nonNull(trigger.getInternalTransactionList())) {
+      for (InternalTransactionPojo internal : trigger.getInternalTransactionList()) {
+        Event.TriggerInternalTransaction.Builder internalBuilder =
+            Event.TriggerInternalTransaction.newBuilder()
+            .setHash(str(internal.getHash()))
+            .setCallValue(internal.getCallValue())
+            .setTransferToAddress(str(internal.getTransferTo_address()))
+            .setData(str(internal.getData()))
+            .setCallerAddress(str(internal.getCaller_address()))
+            .setRejected(internal.isRejected())
+            .setNote(str(internal.getNote()))
+            .setExtra(str(internal.getExtra()));
+        if (Objects.nonNull(internal.getTokenInfo())) {
+          internalBuilder.putAllTokenInfo(internal.getTokenInfo());
+        }
+        builder.addInternalTransactionList(internalBuilder);
+      }
+    }
+    return builder.build();
+  }
+
+  private static Event.ContractTrigger contract(ContractTrigger trigger) {
+    return Event.ContractTrigger.newBuilder()
+        .setUniqueId(str(trigger.getUniqueId()))
+        .setTransactionId(str(trigger.getTransactionId()))
+        .setContractAddress(str(trigger.getContractAddress()))
+        .setCallerAddress(str(trigger.getCallerAddress()))
+        .setOriginAddress(str(trigger.getOriginAddress()))
+        .setCreatorAddress(str(trigger.getCreatorAddress()))
+        .setBlockNumber(Objects.isNull(trigger.getBlockNumber()) ? 0 : trigger.getBlockNumber())
+        .setRemoved(trigger.isRemoved())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber())
+        .build();
+  }
+
+  private static String str(String value) {
+    return Objects.isNull(value) ? "" : value;
+  }
+}
@@ -2,9 +2,12 @@ package org.stabila.common.overlay.client;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import java.util.Iterator;
 import org.stabila.api.DatabaseGrpc;
+import org.stabila.api.GrpcAPI.BlockLimit;
 import org.stabila.api.GrpcAPI.EmptyMessage;
 import org.stabila.api.GrpcAPI.NumberMessage;
+import org.stabila.api.WalletGrpc;
 import org.stabila.protos.Protocol.Block;
 import org.stabila.protos.Protocol.DynamicProperties;
 
@@ -12,12 +15,14 @@ public class DatabaseGrpcClient {
 
   private final ManagedChannel channel;
   private final DatabaseGrpc.DatabaseBlockingStub databaseBlockingStub;
+  private final WalletGrpc.WalletBlockingStub walletBlockingStub;
 
   public DatabaseGrpcClient(String host, int port) {
     channel = ManagedChannelBuilder.forAddress(host, port)
         .usePlaintext(true)
         .build();
     databaseBlockingStub = DatabaseGrpc.newBlockingStub(channel);
+    walletBlockingStub = WalletGrpc.newBlockingStub(channel);
   }
 
   public DatabaseGrpcClient(String host) {
@@ -25,6 +30,7 @@ public class DatabaseGrpcClient {
         .usePlaintext(true)
         .build();
     databaseBlockingStub = DatabaseGrpc.newBlockingStub(channel);
+    walletBlockingStub = WalletGrpc.newBlockingStub(channel);
   }
 
 
@@ -37,6 +43,15 @@ public class DatabaseGrpcClient {
     return databaseBlockingStub.getBlockByNum(builder.build());
   }
 
+  /**
+   * Streams the blocks of [startNum, endNum) from the wallet api of the same node, which may end
+   * early when the node caps the size of a response.
+   */
+  public Iterator<Block> getBlocksByRange(long startNum, long endNum) {
+    return walletBlockingStub.getBlocksByRange(BlockLimit.newBuilder()
+        .setStartNum(startNum).setEndNum(endNum).build());
+  }
+
   public void shutdown() {
     channel.shutdown();
   }
@@ -26,29 +26,53 @@ import static org.stabila.core.config.Parameter.ChainConstant.TRX_PRECISION;
 import static org.stabila.core.config.Parameter.DatabaseConstants.EXCHANGE_COUNT_LIMIT_MAX;
 import static org.stabila.core.config.Parameter.DatabaseConstants.MARKET_COUNT_LIMIT_MAX;
 import static org.stabila.core.config.Parameter.DatabaseConstants.PROPOSAL_COUNT_LIMIT_MAX;
+import static org.stabila.core.store.ShieldedBlockIndexStore.SHIELDED_TRC20_LOG_TOPICS_BURN_LEAF;
+import static org.stabila.core.store.ShieldedBlockIndexStore.SHIELDED_TRC20_LOG_TOPICS_BURN_TOKEN;
+import static org.stabila.core.store.ShieldedBlockIndexStore.SHIELDED_TRC20_LOG_TOPICS_MINT;
+import static org.stabila.core.store.ShieldedBlockIndexStore.SHIELDED_TRC20_LOG_TOPICS_TRANSFER;
 
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.GeneratedMessageV3;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.ProtocolStringList;
 import java.math.BigInteger;
 import java.security.SignatureException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.bouncycastle.util.encoders.Hex;
@@ -56,10 +80,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.stabila.api.GrpcAPI;
+import org.stabila.api.GrpcAPI.AccountList;
 import org.stabila.api.GrpcAPI.AccountNetMessage;
 import org.stabila.api.GrpcAPI.AccountResourceMessage;
+import org.stabila.api.GrpcAPI.AccountTransactionList;
+import org.stabila.api.GrpcAPI.AccountTransactionList.AccountTransaction;
+import org.stabila.api.GrpcAPI.AccountTransactionsRequest;
 import org.stabila.api.GrpcAPI.Address;
 import org.stabila.api.GrpcAPI.AssetIssueList;
+import org.stabila.api.GrpcAPI.AddressList;
 import org.stabila.api.GrpcAPI.BlockList;
 import org.stabila.api.GrpcAPI.BytesMessage;
 import org.stabila.api.GrpcAPI.DecryptNotes;
@@ -70,6 +99,8 @@ import org.stabila.api.GrpcAPI.DiversifierMessage;
 import org.stabila.api.GrpcAPI.ExchangeList;
 import org.stabila.api.GrpcAPI.ExpandedSpendingKeyMessage;
 import org.stabila.api.GrpcAPI.IncomingViewingKeyMessage;
+import org.stabila.api.GrpcAPI.LogFilter;
+import org.stabila.api.GrpcAPI.LogResult;
 import org.stabila.api.GrpcAPI.NfParameters;
 import org.stabila.api.GrpcAPI.NfTRC20Parameters;
 import org.stabila.api.GrpcAPI.Node;
@@ -94,11 +125,13 @@ import org.stabila.api.GrpcAPI.SpendResult;
 import org.stabila.api.GrpcAPI.TransactionApprovedList;
 import org.stabila.api.GrpcAPI.TransactionExtention;
 import org.stabila.api.GrpcAPI.TransactionExtention.Builder;
+import org.stabila.api.GrpcAPI.TransactionIdList;
 import org.stabila.api.GrpcAPI.TransactionInfoList;
 import org.stabila.api.GrpcAPI.WitnessList;
 import org.stabila.common.crypto.Hash;
 import org.stabila.common.crypto.SignInterface;
 import org.stabila.common.crypto.SignUtils;
+import org.stabila.common.logsfilter.LogBloom;
 import org.stabila.common.overlay.discover.node.NodeHandler;
 import org.stabila.common.overlay.discover.node.NodeManager;
 import org.stabila.common.overlay.message.Message;
@@ -120,7 +153,6 @@ import org.stabila.common.zksnark.LibrustzcashParam.SpendSigParams;
 import org.stabila.consensus.ConsensusDelegate;
 import org.stabila.core.actuator.Actuator;
 import org.stabila.core.actuator.ActuatorFactory;
-import org.stabila.core.actuator.VMActuator;
 import org.stabila.core.capsule.AbiCapsule;
 import org.stabila.core.capsule.AccountCapsule;
 import org.stabila.core.capsule.AssetIssueCapsule;
@@ -151,7 +183,7 @@ import org.stabila.core.db.BandwidthProcessor;
 import org.stabila.core.db.BlockIndexStore;
 import org.stabila.core.db.EnergyProcessor;
 import org.stabila.core.db.Manager;
-import org.stabila.core.db.TransactionContext;
+import org.stabila.core.db2.core.Chainbase;
 import org.stabila.core.exception.AccountResourceInsufficientException;
 import org.stabila.core.exception.BadItemException;
 import org.stabila.core.exception.ContractExeException;
@@ -172,15 +204,17 @@ import org.stabila.core.exception.ZksnarkException;
 import org.stabila.core.net.StabilaNetDelegate;
 import org.stabila.core.net.StabilaNetService;
 import org.stabila.core.net.message.TransactionMessage;
+import org.stabila.core.services.ConstantCallService;
+import org.stabila.core.services.SubscriptionService;
 import org.stabila.core.store.AccountIdIndexStore;
 import org.stabila.core.store.AccountStore;
 import org.stabila.core.store.AccountTraceStore;
+import org.stabila.core.store.AccountTransactionIndexStore;
 import org.stabila.core.store.BalanceTraceStore;
 import org.stabila.core.store.ContractStore;
 import org.stabila.core.store.MarketOrderStore;
 import org.stabila.core.store.MarketPairPriceToOrderStore;
 import org.stabila.core.store.MarketPairToPriceStore;
-import org.stabila.core.store.StoreFactory;
 import org.stabila.core.utils.TransactionUtil;
 import org.stabila.core.zen.ShieldedTRC20ParametersBuilder;
 import org.stabila.core.zen.ShieldedTRC20ParametersBuilder.ShieldedTRC20ParametersType;
@@ -236,15 +270,13 @@ public class Wallet {
   private static final String SHIELDED_TRANSACTION_SCAN_RANGE =
       "request requires start_block_index >= 0 && end_block_index > "
           + "start_block_index && end_block_index - start_block_index <= 1000";
+  private static final long LOG_QUERY_BLOCK_RANGE = 10_000;
+  private static final String LOG_QUERY_RANGE =
+      "request requires fromBlock >= 0 && toBlock >= fromBlock && toBlock - fromBlock < "
+          + LOG_QUERY_BLOCK_RANGE;
+  // lookups of a batch in flight at once, which bounds the results held before they are sent
+  private static final int BATCH_QUERY_WINDOW = 64;
   private static String addressPreFixString = Constant.ADD_PRE_FIX_STRING_MAINNET;//default testnet
-  private static final byte[] SHIELDED_TRC20_LOG_TOPICS_MINT = Hash.sha3(ByteArray.fromString(
-      "MintNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
-  private static final byte[] SHIELDED_TRC20_LOG_TOPICS_TRANSFER = Hash.sha3(ByteArray.fromString(
-      "TransferNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
-  private static final byte[] SHIELDED_TRC20_LOG_TOPICS_BURN_LEAF = Hash.sha3(ByteArray.fromString(
-      "BurnNewLeaf(uint256,bytes32,bytes32,bytes32,bytes32[21])"));
-  private static final byte[] SHIELDED_TRC20_LOG_TOPICS_BURN_TOKEN = Hash.sha3(ByteArray
-      .fromString("TokenBurn(address,uint256,bytes32[3])"));
   private static final String BROADCAST_TRANS_FAILED = "Broadcast transaction {} failed, {}.";
   @Getter
   private final SignInterface cryptoEngine;
@@ -259,6 +291,21 @@ public class Wallet {
 
   @Autowired
   private ChainBaseManager chainBaseManager;
+  @Autowired
+  private SubscriptionService subscriptionService;
+
+  private final ExecutorService batchQueryExecutor = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      new ThreadFactoryBuilder().setNameFormat("batch-query-%d").setDaemon(true).build());
+
+  private final ForkJoinPool shieldedScanPool = new ForkJoinPool(
+      Math.max(1, CommonParameter.getInstance().getShieldedScanThreads()),
+      pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+            .newThread(pool);
+        thread.setName("shielded-scan-" + thread.getPoolIndex());
+        return thread;
+      }, null, false);
 
   @Autowired
   private NodeManager nodeManager;
@@ -269,6 +316,9 @@ public class Wallet {
   @Autowired
   private TransactionUtil transactionUtil;
 
+  @Autowired
+  private ConstantCallService constantCallService;
+
   /**
    * Creates a new Wallet with a random ECKey.
    */
@@ -519,7 +569,9 @@ public class Wallet {
       if (chainBaseManager.getDynamicPropertiesStore().supportVM()) {
         trx.resetResult();
       }
-      dbManager.pushTransaction(trx);
+      if (dbManager.pushTransaction(trx)) {
+        subscriptionService.onPendingTransaction(trx);
+      }
       stabilaNetService.broadcast(message);
       logger.info("Broadcast transaction {} successfully.", trx.getTransactionId());
       return builder.setResult(true).setCode(response_code.SUCCESS).build();
@@ -2285,6 +2337,202 @@ public class Wallet {
     return transactionInfoList.build();
   }
 
+  /**
+   * The accounts of the addresses, leaving out addresses without one.
+   */
+  public AccountList getAccounts(AddressList addresses) throws BadItemException {
+    checkBatchSize(addresses.getAddressesCount());
+    AccountList.Builder builder = AccountList.newBuilder();
+    batchQuery(addresses.getAddressesList(),
+        address -> getAccount(Account.newBuilder().setAddress(address).build()),
+        builder::addAccounts, false);
+    return builder.build();
+  }
+
+  /**
+   * The infos of the transactions, leaving out unknown ones.
+   */
+  public TransactionInfoList getTransactionInfosByIds(TransactionIdList ids)
+      throws BadItemException {
+    checkBatchSize(ids.getTxIdCount());
+    List<ByteString> txIds = ids.getTxIdList().stream()
+        .map(txId -> ByteString.copyFrom(ByteArray.fromHexString(txId)))
+        .collect(Collectors.toList());
+    TransactionInfoList.Builder builder = TransactionInfoList.newBuilder();
+    batchQuery(txIds, this::getTransactionInfoById, builder::addTransactionInfo, false);
+    return builder.build();
+  }
+
+  /**
+   * Streams the blocks from startNum up to endNum excluded, in order, stopping at the head block.
+   */
+  public void getBlocksByRange(long startNum, long endNum, Consumer<Block> consumer)
+      throws BadItemException {
+    if (startNum < 0 || endNum <= startNum) {
+      throw new BadItemException("request requires startNum >= 0 && endNum > startNum");
+    }
+    checkBatchSize(endNum - startNum);
+    List<Long> nums = LongStream.range(startNum, endNum).boxed().collect(Collectors.toList());
+    batchQuery(nums, this::getBlockByNum, consumer, true);
+  }
+
+  /**
+   * A page of the transactions touching the account, in chain order from the requested position.
+   * Answers from the account index, so only blocks applied while storage.accountIndex.switch was
+   * on, or indexed offline, are covered.
+   */
+  public AccountTransactionList getTransactionsByAccount(AccountTransactionsRequest request)
+      throws BadItemException {
+    if (!AccountTransactionIndexStore.isEnabled()) {
+      throw new BadItemException(
+          "getTransactionsByAccount requires storage.accountIndex.switch on");
+    }
+    if (request.getAddress().isEmpty() || request.getFromBlock() < 0
+        || request.getFromIndex() < 0 || request.getLimit() <= 0) {
+      throw new BadItemException(
+          "request requires address, fromBlock >= 0, fromIndex >= 0 and limit > 0");
+    }
+    checkBatchSize(request.getLimit());
+    // one entry more tells whether there is a next page
+    List<AccountTransactionIndexStore.Entry> entries = chainBaseManager
+        .getAccountTransactionIndexStore().getTransactions(request.getAddress().toByteArray(),
+            request.getFromBlock(), request.getFromIndex(), request.getLimit() + 1);
+    AccountTransactionList.Builder builder = AccountTransactionList.newBuilder();
+    batchQuery(entries.subList(0, Math.min(entries.size(), request.getLimit())), entry -> {
+      ByteString txId = ByteString.copyFrom(entry.getTxId());
+      AccountTransaction.Builder transaction = AccountTransaction.newBuilder()
+          .setTxid(txId)
+          .setBlockNumber(entry.getBlockNum())
+          .setIndex(entry.getIndex());
+      Transaction instance = getTransactionById(txId);
+      if (instance != null) {
+        transaction.setTransaction(instance);
+      }
+      return transaction.build();
+    }, builder::addTransactions, false);
+    // the page is cut short by the limit or by node.batchQuery.maxBytes
+    if (builder.getTransactionsCount() < entries.size()) {
+      AccountTransactionIndexStore.Entry next = entries.get(builder.getTransactionsCount());
+      builder.setMore(true)
+          .setNextBlock(next.getBlockNum())
+          .setNextIndex(next.getIndex());
+    }
+    return builder.build();
+  }
+
+  private void checkBatchSize(long size) throws BadItemException {
+    int maxSize = CommonParameter.getInstance().getBatchQueryMaxSize();
+    if (size > maxSize) {
+      throw new BadItemException("a batch holds at most " + maxSize + " items");
+    }
+  }
+
+  /**
+   * Looks the keys up in parallel and hands their results on in key order, skipping keys without
+   * one or stopping at the first of them. The results stop once their serialized size passes
+   * node.batchQuery.maxBytes, the first one is always given, so that a client can go on with the
+   * keys after its last result.
+   */
+  private <K, V extends GeneratedMessageV3> void batchQuery(List<K> keys, Function<K, V> lookup,
+      Consumer<V> consumer, boolean stopAtMissing) throws BadItemException {
+    long maxBytes = CommonParameter.getInstance().getBatchQueryMaxBytes();
+    Iterator<K> iterator = keys.iterator();
+    Deque<Future<V>> window = new ArrayDeque<>();
+    long bytes = 0;
+    boolean first = true;
+    try {
+      while (iterator.hasNext() || !window.isEmpty()) {
+        while (iterator.hasNext() && window.size() < BATCH_QUERY_WINDOW) {
+          K key = iterator.next();
+          window.add(batchQueryExecutor.submit(() -> lookup.apply(key)));
+        }
+        V value = window.poll().get();
+        if (value == null) {
+          if (stopAtMissing) {
+            return;
+          }
+          continue;
+        }
+        bytes += value.getSerializedSize();
+        if (bytes > maxBytes && !first) {
+          return;
+        }
+        first = false;
+        consumer.accept(value);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BadItemException("batch query interrupted");
+    } catch (ExecutionException e) {
+      throw new BadItemException(e.getCause().getMessage());
+    } finally {
+      window.forEach(future -> future.cancel(false));
+    }
+  }
+
+  /**
+   * Streams the logs of a block range matching the filter, in block order. Blocks whose log bloom
+   * contains none of the addresses or none of the topics are skipped without reading their
+   * transaction infos. Blocks applied before the node kept log blooms have none and are skipped.
+   */
+  public void getLogs(LogFilter filter, Consumer<LogResult> consumer) throws BadItemException {
+    long fromBlock = filter.getFromBlock();
+    long toBlock = filter.getToBlock();
+    if (!(fromBlock >= 0 && toBlock >= fromBlock && toBlock - fromBlock < LOG_QUERY_BLOCK_RANGE)) {
+      throw new BadItemException(LOG_QUERY_RANGE);
+    }
+    if (!BooleanUtils.toBoolean(CommonParameter.getInstance()
+        .getStorage().getTransactionHistorySwitch())) {
+      throw new BadItemException("getLogs requires storage.transHistory.switch on");
+    }
+
+    Set<ByteString> addresses = new HashSet<>();
+    List<int[]> addressBits = new ArrayList<>();
+    for (ByteString address : filter.getAddressesList()) {
+      byte[] logAddress = LogBloom.address(address.toByteArray());
+      if (addresses.add(ByteString.copyFrom(logAddress))) {
+        addressBits.add(LogBloom.bits(logAddress));
+      }
+    }
+    Set<ByteString> topics = new HashSet<>(filter.getTopicsList());
+    List<int[]> topicBits = new ArrayList<>();
+    topics.forEach(topic -> topicBits.add(LogBloom.bits(topic.toByteArray())));
+
+    toBlock = Math.min(toBlock, chainBaseManager.getHeadBlockNum());
+    for (long num = fromBlock; num <= toBlock; num++) {
+      LogBloom bloom = chainBaseManager.getLogBloomStore().getBloom(num);
+      if (bloom.isEmpty() || !mayContain(bloom, addressBits) || !mayContain(bloom, topicBits)) {
+        continue;
+      }
+      TransactionRetCapsule result = dbManager.getTransactionRetStore()
+          .getTransactionInfoByBlockNum(ByteArray.fromLong(num));
+      if (Objects.isNull(result) || Objects.isNull(result.getInstance())) {
+        continue;
+      }
+      int logIndex = 0;
+      for (TransactionInfo info : result.getInstance().getTransactioninfoList()) {
+        for (TransactionInfo.Log log : info.getLogList()) {
+          if ((addresses.isEmpty() || addresses.contains(
+              ByteString.copyFrom(LogBloom.address(log.getAddress().toByteArray()))))
+              && (topics.isEmpty() || log.getTopicsList().stream().anyMatch(topics::contains))) {
+            consumer.accept(LogResult.newBuilder()
+                .setBlockNumber(num)
+                .setBlockTimeStamp(info.getBlockTimeStamp())
+                .setTransactionId(info.getId())
+                .setLogIndex(logIndex)
+                .setLog(log)
+                .build());
+          }
+          logIndex++;
+        }
+      }
+    }
+  }
+
+  private static boolean mayContain(LogBloom bloom, List<int[]> bits) {
+    return bits.isEmpty() || bits.stream().anyMatch(bloom::contains);
+  }
+
   public NodeList listNodes() {
     List<NodeHandler> handlerList = nodeManager.dumpActiveNodes();
 
@@ -2446,11 +2694,24 @@ public class Wallet {
 
     long countForOrder = 0;
     for (byte[] pairPriceKey : priceKeysList) {
-      MarketOrderIdListCapsule orderIdListCapsule = pairPriceToOrderStore
-          .getUnchecked(pairPriceKey);
       if (MARKET_COUNT_LIMIT_MAX - countForOrder <= 0) {
         break;
       }
+      // the order book knows the queue, getAllOrder returns one order beyond its limit
+      List<byte[]> orderIdList = pairPriceToOrderStore
+          .getOrderIdList(pairPriceKey, MARKET_COUNT_LIMIT_MAX - countForOrder + 1);
+      if (orderIdList != null) {
+        for (byte[] orderId : orderIdList) {
+          MarketOrderCapsule orderCapsule = orderStore.get(orderId);
+          orderCapsule.setPrev(new byte[0]);
+          orderCapsule.setNext(new byte[0]);
+          builder.addOrders(orderCapsule.getInstance());
+        }
+        countForOrder += orderIdList.size();
+        continue;
+      }
+      MarketOrderIdListCapsule orderIdListCapsule = pairPriceToOrderStore
+          .getUnchecked(pairPriceKey);
       if (orderIdListCapsule != null) {
         List<MarketOrderCapsule> orderList = orderIdListCapsule
             .getAllOrder(orderStore, MARKET_COUNT_LIMIT_MAX - countForOrder);
@@ -2550,15 +2811,7 @@ public class Wallet {
       headBlock = blockCapsuleList.get(0).getInstance();
     }
 
-    TransactionContext context = new TransactionContext(new BlockCapsule(headBlock), trxCap,
-        StoreFactory.getInstance(), true,
-        false);
-    VMActuator vmActuator = new VMActuator(true);
-
-    vmActuator.validate(context);
-    vmActuator.execute(context);
-
-    ProgramResult result = context.getProgramResult();
+    ProgramResult result = constantCallService.call(new BlockCapsule(headBlock), trxCap);
     if (result.getException() != null) {
       RuntimeException e = result.getException();
       logger.warn("Constant call has an error {}", e.getMessage());
@@ -2738,61 +2991,119 @@ public class Wallet {
       throw new BadItemException(
           SHIELDED_TRANSACTION_SCAN_RANGE);
     }
-    BlockList blockList = this.getBlocksByLimitNext(startNum, endNum - startNum);
-    for (Block block : blockList.getBlockList()) {
-      for (Transaction transaction : block.getTransactionsList()) {
-        TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
-        byte[] txid = transactionCapsule.getTransactionId().getBytes();
-        List<Transaction.Contract> contracts = transaction.getRawData().getContractList();
-        if (contracts.isEmpty()) {
-          continue;
-        }
-        Transaction.Contract c = contracts.get(0);
-        if (c.getType() != Contract.ContractType.ShieldedTransferContract) {
-          continue;
-        }
-        ShieldedTransferContract stContract;
-        try {
-          stContract = c.getParameter().unpack(ShieldedTransferContract.class);
-        } catch (InvalidProtocolBufferException e) {
-          throw new ZksnarkException(
-              "unpack ShieldedTransferContract failed.");
-        }
+    List<Long> blockNums = chainBaseManager.getShieldedBlockIndexStore()
+        .getShieldedTransferBlocks(startNum, endNum);
+    builder.addAllNoteTxs(scanShieldedBlocks(blockNums, block -> queryNoteByIvk(block, ivk)));
+    return builder.build();
+  }
 
-        for (int index = 0; index < stContract.getReceiveDescriptionList().size(); index++) {
-          ReceiveDescription r = stContract.getReceiveDescription(index);
-          Optional<Note> notePlaintext = Note.decrypt(r.getCEnc().toByteArray(),//ciphertext
-              ivk,
-              r.getEpk().toByteArray(),//epk
-              r.getNoteCommitment().toByteArray() //cmu
-          );
-
-          if (notePlaintext.isPresent()) {
-            Note noteText = notePlaintext.get();
-            byte[] pkD = new byte[32];
-            if (!JLibrustzcash
-                .librustzcashIvkToPkd(new IvkToPkdParams(ivk, noteText.getD().getData(),
-                    pkD))) {
-              continue;
-            }
+  private List<DecryptNotes.NoteTx> queryNoteByIvk(Block block, byte[] ivk)
+      throws ZksnarkException {
+    List<DecryptNotes.NoteTx> noteTxs = new ArrayList<>();
+    for (Transaction transaction : block.getTransactionsList()) {
+      TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
+      byte[] txid = transactionCapsule.getTransactionId().getBytes();
+      List<Transaction.Contract> contracts = transaction.getRawData().getContractList();
+      if (contracts.isEmpty()) {
+        continue;
+      }
+      Transaction.Contract c = contracts.get(0);
+      if (c.getType() != Contract.ContractType.ShieldedTransferContract) {
+        continue;
+      }
+      ShieldedTransferContract stContract;
+      try {
+        stContract = c.getParameter().unpack(ShieldedTransferContract.class);
+      } catch (InvalidProtocolBufferException e) {
+        throw new ZksnarkException(
+            "unpack ShieldedTransferContract failed.");
+      }
 
-            String paymentAddress = KeyIo
-                .encodePaymentAddress(new PaymentAddress(noteText.getD(), pkD));
-            GrpcAPI.Note note = GrpcAPI.Note.newBuilder()
-                .setPaymentAddress(paymentAddress)
-                .setValue(noteText.getValue())
-                .setRcm(ByteString.copyFrom(noteText.getRcm()))
-                .setMemo(ByteString.copyFrom(stripRightZero(noteText.getMemo())))
-                .build();
-            DecryptNotes.NoteTx noteTx = DecryptNotes.NoteTx.newBuilder().setNote(note)
-                .setTxid(ByteString.copyFrom(txid)).setIndex(index).build();
+      for (int index = 0; index < stContract.getReceiveDescriptionList().size(); index++) {
+        ReceiveDescription r = stContract.getReceiveDescription(index);
+        Optional<Note> notePlaintext = Note.decrypt(r.getCEnc().toByteArray(),//ciphertext
+            ivk,
+            r.getEpk().toByteArray(),//epk
+            r.getNoteCommitment().toByteArray() //cmu
+        );
 
-            builder.addNoteTxs(noteTx);
+        if (notePlaintext.isPresent()) {
+          Note noteText = notePlaintext.get();
+          byte[] pkD = new byte[32];
+          if (!JLibrustzcash
+              .librustzcashIvkToPkd(new IvkToPkdParams(ivk, noteText.getD().getData(),
+                  pkD))) {
+            continue;
           }
-        } // end of ReceiveDescriptionList
-      } // end of transaction
-    } //end of block list
-    return builder.build();
+
+          String paymentAddress = KeyIo
+              .encodePaymentAddress(new PaymentAddress(noteText.getD(), pkD));
+          GrpcAPI.Note note = GrpcAPI.Note.newBuilder()
+              .setPaymentAddress(paymentAddress)
+              .setValue(noteText.getValue())
+              .setRcm(ByteString.copyFrom(noteText.getRcm()))
+              .setMemo(ByteString.copyFrom(stripRightZero(noteText.getMemo())))
+              .build();
+          DecryptNotes.NoteTx noteTx = DecryptNotes.NoteTx.newBuilder().setNote(note)
+              .setTxid(ByteString.copyFrom(txid)).setIndex(index).build();
+
+          noteTxs.add(noteTx);
+        }
+      } // end of ReceiveDescriptionList
+    } // end of transaction
+    return noteTxs;
+  }
+
+  /**
+   * Scans the blocks on the shielded scan pool, each one read under the cursor of the calling
+   * thread, and returns what the scanner found in block order. Blocks missing from the store are
+   * skipped.
+   */
+  private <T> List<T> scanShieldedBlocks(List<Long> blockNums, ShieldedBlockScanner<T> scanner)
+      throws ZksnarkException {
+    Chainbase.Cursor cursor = dbManager.getCursor();
+    ForkJoinTask<List<T>> task = shieldedScanPool.submit(() -> blockNums.parallelStream()
+        .flatMap(num -> scanShieldedBlock(cursor, num, scanner).stream())
+        .collect(Collectors.toList()));
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      task.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ZksnarkException("shielded scan interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      while (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof ZksnarkException) {
+        throw (ZksnarkException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ZksnarkException(String.valueOf(cause));
+    }
+  }
+
+  private <T> List<T> scanShieldedBlock(Chainbase.Cursor cursor, long num,
+      ShieldedBlockScanner<T> scanner) {
+    try {
+      dbManager.setCursor(cursor);
+      return scanner.scan(chainBaseManager.getBlockByNum(num).getInstance());
+    } catch (ItemNotFoundException | BadItemException e) {
+      return Collections.emptyList();
+    } catch (ZksnarkException e) {
+      throw new CompletionException(e);
+    } finally {
+      dbManager.resetCursor();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ShieldedBlockScanner<T> {
+
+    List<T> scan(Block block) throws ZksnarkException;
   }
 
   /**
@@ -2851,76 +3162,82 @@ public class Wallet {
       throw new BadItemException(
           SHIELDED_TRANSACTION_SCAN_RANGE);
     }
-    BlockList blockList = this.getBlocksByLimitNext(startNum, endNum - startNum);
-    for (Block block : blockList.getBlockList()) {
-      for (Transaction transaction : block.getTransactionsList()) {
-        TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
-        byte[] txid = transactionCapsule.getTransactionId().getBytes();
-        List<Transaction.Contract> contracts = transaction.getRawData().getContractList();
-        if (contracts.isEmpty()) {
-          continue;
-        }
-        Transaction.Contract c = contracts.get(0);
-        if (c.getType() != Protocol.Transaction.Contract.ContractType.ShieldedTransferContract) {
-          continue;
-        }
-        ShieldedTransferContract stContract;
-        try {
-          stContract = c.getParameter().unpack(
-              ShieldedTransferContract.class);
-        } catch (InvalidProtocolBufferException e) {
-          throw new RuntimeException(
-              "unpack ShieldedTransferContract failed.");
-        }
-        for (int index = 0; index < stContract.getReceiveDescriptionList().size(); index++) {
-          ReceiveDescription r = stContract.getReceiveDescription(index);
-          Encryption.OutCiphertext cOut = new Encryption.OutCiphertext();
-          cOut.setData(r.getCOut().toByteArray());
-          Optional<OutgoingPlaintext> notePlaintext = OutgoingPlaintext.decrypt(cOut,//ciphertext
-              ovk,
-              r.getValueCommitment().toByteArray(), //cv
-              r.getNoteCommitment().toByteArray(), //cmu
-              r.getEpk().toByteArray() //epk
-          );
-
-          if (notePlaintext.isPresent()) {
-            OutgoingPlaintext decryptedOutCtUnwrapped = notePlaintext.get();
-            //decode c_enc with pkd、esk
-            Encryption.EncCiphertext cipherText = new Encryption.EncCiphertext();
-            cipherText.setData(r.getCEnc().toByteArray());
-            Optional<Note> foo = Note.decrypt(cipherText,
-                r.getEpk().toByteArray(),
-                decryptedOutCtUnwrapped.getEsk(),
-                decryptedOutCtUnwrapped.getPkD(),
-                r.getNoteCommitment().toByteArray());
-
-            if (foo.isPresent()) {
-              Note bar = foo.get();
-              String paymentAddress = KeyIo.encodePaymentAddress(
-                  new PaymentAddress(bar.getD(), decryptedOutCtUnwrapped.getPkD()));
-              GrpcAPI.Note note = GrpcAPI.Note.newBuilder()
-                  .setPaymentAddress(paymentAddress)
-                  .setValue(bar.getValue())
-                  .setRcm(ByteString.copyFrom(bar.getRcm()))
-                  .setMemo(ByteString.copyFrom(stripRightZero(bar.getMemo())))
-                  .build();
-
-              DecryptNotes.NoteTx noteTx = DecryptNotes.NoteTx
-                  .newBuilder()
-                  .setNote(note)
-                  .setTxid(ByteString.copyFrom(txid))
-                  .setIndex(index)
-                  .build();
-
-              builder.addNoteTxs(noteTx);
-            }
-          }
-        } // end of ReceiveDescriptionList
-      } // end of transaction
-    } //end of block list
+    List<Long> blockNums = chainBaseManager.getShieldedBlockIndexStore()
+        .getShieldedTransferBlocks(startNum, endNum);
+    builder.addAllNoteTxs(scanShieldedBlocks(blockNums, block -> queryNoteByOvk(block, ovk)));
     return builder.build();
   }
 
+  private List<DecryptNotes.NoteTx> queryNoteByOvk(Block block, byte[] ovk)
+      throws ZksnarkException {
+    List<DecryptNotes.NoteTx> noteTxs = new ArrayList<>();
+    for (Transaction transaction : block.getTransactionsList()) {
+      TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
+      byte[] txid = transactionCapsule.getTransactionId().getBytes();
+      List<Transaction.Contract> contracts = transaction.getRawData().getContractList();
+      if (contracts.isEmpty()) {
+        continue;
+      }
+      Transaction.Contract c = contracts.get(0);
+      if (c.getType() != Protocol.Transaction.Contract.ContractType.ShieldedTransferContract) {
+        continue;
+      }
+      ShieldedTransferContract stContract;
+      try {
+        stContract = c.getParameter().unpack(
+            ShieldedTransferContract.class);
+      } catch (InvalidProtocolBufferException e) {
+        throw new RuntimeException(
+            "unpack ShieldedTransferContract failed.");
+      }
+      for (int index = 0; index < stContract.getReceiveDescriptionList().size(); index++) {
+        ReceiveDescription r = stContract.getReceiveDescription(index);
+        Encryption.OutCiphertext cOut = new Encryption.OutCiphertext();
+        cOut.setData(r.getCOut().toByteArray());
+        Optional<OutgoingPlaintext> notePlaintext = OutgoingPlaintext.decrypt(cOut,//ciphertext
+            ovk,
+            r.getValueCommitment().toByteArray(), //cv
+            r.getNoteCommitment().toByteArray(), //cmu
+            r.getEpk().toByteArray() //epk
+        );
+
+        if (notePlaintext.isPresent()) {
+          OutgoingPlaintext decryptedOutCtUnwrapped = notePlaintext.get();
+          //decode c_enc with pkd、esk
+          Encryption.EncCiphertext cipherText = new Encryption.EncCiphertext();
+          cipherText.setData(r.getCEnc().toByteArray());
+          Optional<Note> foo = Note.decrypt(cipherText,
+              r.getEpk().toByteArray(),
+              decryptedOutCtUnwrapped.getEsk(),
+              decryptedOutCtUnwrapped.getPkD(),
+              r.getNoteCommitment().toByteArray());
+
+          if (foo.isPresent()) {
+            Note bar = foo.get();
+            String paymentAddress = KeyIo.encodePaymentAddress(
+                new PaymentAddress(bar.getD(), decryptedOutCtUnwrapped.getPkD()));
+            GrpcAPI.Note note = GrpcAPI.Note.newBuilder()
+                .setPaymentAddress(paymentAddress)
+                .setValue(bar.getValue())
+                .setRcm(ByteString.copyFrom(bar.getRcm()))
+                .setMemo(ByteString.copyFrom(stripRightZero(bar.getMemo())))
+                .build();
+
+            DecryptNotes.NoteTx noteTx = DecryptNotes.NoteTx
+                .newBuilder()
+                .setNote(note)
+                .setTxid(ByteString.copyFrom(txid))
+                .setIndex(index)
+                .build();
+
+            noteTxs.add(noteTx);
+          }
+        }
+      } // end of ReceiveDescriptionList
+    } // end of transaction
+    return noteTxs;
+  }
+
   private void checkShieldedTRC20NoteValue(
       List<GrpcAPI.SpendNoteTRC20> spendNoteTRC20s, List<ReceiveNote> receiveNotes)
       throws ContractValidateException {
@@ -3259,9 +3576,7 @@ public class Wallet {
 
   private Optional<DecryptNotesTRC20.NoteTx> getNoteTxFromLogListByIvk(
       DecryptNotesTRC20.NoteTx.Builder builder,
-      TransactionInfo.Log log, byte[] ivk, byte[] ak, byte[] nk, byte[] contractAddress,
-      int logType)
-      throws ZksnarkException, ContractExeException {
+      TransactionInfo.Log log, byte[] ivk, int logType) throws ZksnarkException {
     byte[] logData = log.getData().toByteArray();
     if (!ArrayUtils.isEmpty(logData) && logType > 0 && logType < 4) {
       // Data = pos(32) + cm(32) + cv(32) + epk(32) + c_enc(580) + c_out(80)
@@ -3288,11 +3603,6 @@ public class Wallet {
             .setRcm(ByteString.copyFrom(noteText.getRcm()))
             .setMemo(ByteString.copyFrom(stripRightZero(noteText.getMemo())))
             .build();
-
-        if (!(ArrayUtils.isEmpty(ak) || ArrayUtils.isEmpty(nk))) {
-          builder.setIsSpent(isShieldedTRC20NoteSpent(note, pos, ak, nk, contractAddress));
-        }
-
         return Optional.of(builder.setNote(note).setPosition(pos).build());
       }
     }
@@ -3310,35 +3620,67 @@ public class Wallet {
     }
 
     DecryptNotesTRC20.Builder builder = DecryptNotesTRC20.newBuilder();
-    BlockList blockList = this.getBlocksByLimitNext(startNum, endNum - startNum);
-    for (Block block : blockList.getBlockList()) {
-      for (Transaction transaction : block.getTransactionsList()) {
-        TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
-        byte[] txId = transactionCapsule.getTransactionId().getBytes();
-        TransactionInfo info = this.getTransactionInfoById(ByteString.copyFrom(txId));
-        DecryptNotesTRC20.NoteTx.Builder noteBuilder;
-        if (!Objects.isNull(info)) {
-          List<TransactionInfo.Log> logList = info.getLogList();
-          if (!Objects.isNull(logList)) {
-            Optional<DecryptNotesTRC20.NoteTx> noteTx;
-            int index = 0;
-            for (TransactionInfo.Log log : logList) {
-              int logType = getShieldedTRC20LogType(log, shieldedTRC20ContractAddress, topicsList);
-              if (logType > 0) {
-                noteBuilder = DecryptNotesTRC20.NoteTx.newBuilder();
-                noteBuilder.setTxid(ByteString.copyFrom(txId));
-                noteBuilder.setIndex(index);
-                index += 1;
-                noteTx = getNoteTxFromLogListByIvk(noteBuilder, log, ivk, ak, nk,
-                    shieldedTRC20ContractAddress, logType);
-                noteTx.ifPresent(builder::addNoteTxs);
-              }
+    List<Long> blockNums = getShieldedTRC20Blocks(startNum, endNum,
+        shieldedTRC20ContractAddress, topicsList);
+    List<DecryptNotesTRC20.NoteTx> noteTxs = scanShieldedBlocks(blockNums,
+        block -> queryTRC20NoteByIvk(block, shieldedTRC20ContractAddress, ivk, topicsList));
+    // the spent checks are constant calls, they run here rather than on the scan pool
+    boolean checkSpent = !(ArrayUtils.isEmpty(ak) || ArrayUtils.isEmpty(nk));
+    for (DecryptNotesTRC20.NoteTx noteTx : noteTxs) {
+      if (checkSpent) {
+        noteTx = noteTx.toBuilder().setIsSpent(isShieldedTRC20NoteSpent(noteTx.getNote(),
+            noteTx.getPosition(), ak, nk, shieldedTRC20ContractAddress)).build();
+      }
+      builder.addNoteTxs(noteTx);
+    }
+    return builder.build();
+  }
+
+  private List<DecryptNotesTRC20.NoteTx> queryTRC20NoteByIvk(Block block,
+      byte[] shieldedTRC20ContractAddress, byte[] ivk, ProtocolStringList topicsList)
+      throws ZksnarkException {
+    List<DecryptNotesTRC20.NoteTx> noteTxs = new ArrayList<>();
+    for (Transaction transaction : block.getTransactionsList()) {
+      TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
+      byte[] txId = transactionCapsule.getTransactionId().getBytes();
+      TransactionInfo info = this.getTransactionInfoById(ByteString.copyFrom(txId));
+      DecryptNotesTRC20.NoteTx.Builder noteBuilder;
+      if (!Objects.isNull(info)) {
+        List<TransactionInfo.Log> logList = info.getLogList();
+        if (!Objects.isNull(logList)) {
+          Optional<DecryptNotesTRC20.NoteTx> noteTx;
+          int index = 0;
+          for (TransactionInfo.Log log : logList) {
+            int logType = getShieldedTRC20LogType(log, shieldedTRC20ContractAddress, topicsList);
+            if (logType > 0) {
+              noteBuilder = DecryptNotesTRC20.NoteTx.newBuilder();
+              noteBuilder.setTxid(ByteString.copyFrom(txId));
+              noteBuilder.setIndex(index);
+              index += 1;
+              noteTx = getNoteTxFromLogListByIvk(noteBuilder, log, ivk, logType);
+              noteTx.ifPresent(noteTxs::add);
             }
           }
         }
-      } //end of transaction
-    } //end of blocklist
-    return builder.build();
+      }
+    } //end of transaction
+    return noteTxs;
+  }
+
+  /**
+   * The blocks of the range that may hold logs of the shielded trc20 contract. Logs with topics
+   * of the caller's own are not indexed, every block of the range may hold them.
+   */
+  private List<Long> getShieldedTRC20Blocks(long startNum, long endNum, byte[] contractAddress,
+      ProtocolStringList topicsList) throws ZksnarkException {
+    if (ArrayUtils.isEmpty(contractAddress) || contractAddress.length != 21) {
+      throw new ZksnarkException("invalid contract address");
+    }
+    if (!(Objects.isNull(topicsList) || topicsList.isEmpty())) {
+      return LongStream.range(startNum, endNum).boxed().collect(Collectors.toList());
+    }
+    return chainBaseManager.getShieldedBlockIndexStore().getShieldedTrc20Blocks(
+        Arrays.copyOfRange(contractAddress, 1, 21), startNum, endNum);
   }
 
   private boolean isShieldedTRC20NoteSpent(GrpcAPI.Note note, long pos, byte[] ak,
@@ -3495,34 +3837,42 @@ public class Wallet {
       throw new BadItemException(
           SHIELDED_TRANSACTION_SCAN_RANGE);
     }
-    BlockList blockList = this.getBlocksByLimitNext(startNum, endNum - startNum);
-    for (Block block : blockList.getBlockList()) {
-      for (Transaction transaction : block.getTransactionsList()) {
-        TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
-        byte[] txid = transactionCapsule.getTransactionId().getBytes();
-        TransactionInfo info = this.getTransactionInfoById(ByteString.copyFrom(txid));
-        DecryptNotesTRC20.NoteTx.Builder noteBuilder;
-        if (!Objects.isNull(info)) {
-          List<TransactionInfo.Log> logList = info.getLogList();
-          if (!Objects.isNull(logList)) {
-            Optional<DecryptNotesTRC20.NoteTx> noteTx;
-            int index = 0;
-            for (TransactionInfo.Log log : logList) {
-              int logType = getShieldedTRC20LogType(log, shieldedTRC20ContractAddress, topicsList);
-              if (logType > 0) {
-                noteBuilder = DecryptNotesTRC20.NoteTx.newBuilder();
-                noteBuilder.setTxid(ByteString.copyFrom(txid));
-                noteBuilder.setIndex(index);
-                index += 1;
-                noteTx = getNoteTxFromLogListByOvk(noteBuilder, log, ovk, logType);
-                noteTx.ifPresent(builder::addNoteTxs);
-              }
+    List<Long> blockNums = getShieldedTRC20Blocks(startNum, endNum,
+        shieldedTRC20ContractAddress, topicsList);
+    builder.addAllNoteTxs(scanShieldedBlocks(blockNums,
+        block -> queryTRC20NoteByOvk(block, ovk, shieldedTRC20ContractAddress, topicsList)));
+    return builder.build();
+  }
+
+  private List<DecryptNotesTRC20.NoteTx> queryTRC20NoteByOvk(Block block, byte[] ovk,
+      byte[] shieldedTRC20ContractAddress, ProtocolStringList topicsList)
+      throws ZksnarkException {
+    List<DecryptNotesTRC20.NoteTx> noteTxs = new ArrayList<>();
+    for (Transaction transaction : block.getTransactionsList()) {
+      TransactionCapsule transactionCapsule = new TransactionCapsule(transaction);
+      byte[] txid = transactionCapsule.getTransactionId().getBytes();
+      TransactionInfo info = this.getTransactionInfoById(ByteString.copyFrom(txid));
+      DecryptNotesTRC20.NoteTx.Builder noteBuilder;
+      if (!Objects.isNull(info)) {
+        List<TransactionInfo.Log> logList = info.getLogList();
+        if (!Objects.isNull(logList)) {
+          Optional<DecryptNotesTRC20.NoteTx> noteTx;
+          int index = 0;
+          for (TransactionInfo.Log log : logList) {
+            int logType = getShieldedTRC20LogType(log, shieldedTRC20ContractAddress, topicsList);
+            if (logType > 0) {
+              noteBuilder = DecryptNotesTRC20.NoteTx.newBuilder();
+              noteBuilder.setTxid(ByteString.copyFrom(txid));
+              noteBuilder.setIndex(index);
+              index += 1;
+              noteTx = getNoteTxFromLogListByOvk(noteBuilder, log, ovk, logType);
+              noteTx.ifPresent(noteTxs::add);
             }
           }
         }
-      } // end of transaction
-    } // end of blocklist
-    return builder.build();
+      }
+    } // end of transaction
+    return noteTxs;
   }
 
   private byte[] getShieldedTRC20Nullifier(GrpcAPI.Note note, long pos, byte[] ak,
@@ -8,6 +8,7 @@ import static org.stabila.core.config.Parameter.ChainConstant.MAX_ACTIVE_WITNESS
 
 import com.beust.jcommander.JCommander;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigObject;
 import io.grpc.internal.GrpcUtil;
 import io.grpc.netty.NettyServerBuilder;
@@ -47,6 +48,7 @@ import org.stabila.common.logsfilter.TriggerConfig;
 import org.stabila.common.logsfilter.trigger.ContractEventTrigger;
 import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
 import org.stabila.common.overlay.discover.node.Node;
+import org.stabila.common.parameter.AsyncServletItem;
 import org.stabila.common.parameter.CommonParameter;
 import org.stabila.common.parameter.RateLimiterInitialization;
 import org.stabila.common.setting.RocksDbSettings;
@@ -75,6 +77,8 @@ public class Args extends CommonParameter {
   @Setter
   private static LocalWitnesses localWitnesses = new LocalWitnesses();
 
+  private static String confFileName;
+
   @Autowired(required = false)
   @Getter
   private static ConcurrentHashMap<Long, BlockingQueue<ContractLogTrigger>>
@@ -160,6 +164,14 @@ public class Args extends CommonParameter {
     PARAMETER.minTimeRatio = 0.0;
     PARAMETER.maxTimeRatio = 5.0;
     PARAMETER.longRunningTime = 10;
+    PARAMETER.constantCallThreads = Runtime.getRuntime().availableProcessors();
+    PARAMETER.constantCallQueueSize = 1000;
+    PARAMETER.constantCallTimeout = 3000;
+    PARAMETER.constantCallEnergyLimit = Constant.ENERGY_LIMIT_IN_CONSTANT_TX;
+    PARAMETER.constantCallCacheSize = 0;
+    PARAMETER.vmProfilerEnable = false;
+    PARAMETER.vmProfilerSampleRate = 64;
+    PARAMETER.vmProfilerMaxContracts = 1000;
     // PARAMETER.allowShieldedTransaction = 0;
     PARAMETER.maxHttpConnectNumber = 50;
     PARAMETER.allowMultiSign = 0;
@@ -170,6 +182,7 @@ public class Args extends CommonParameter {
     PARAMETER.allowAccountStateRoot = 0;
     PARAMETER.validContractProtoThreadNum = 1;
     PARAMETER.shieldedTransInPendingMaxCounts = 10;
+    PARAMETER.shieldedScanThreads = Runtime.getRuntime().availableProcessors();
     PARAMETER.changedDelegation = 0;
     PARAMETER.fullNodeHttpEnable = true;
     PARAMETER.solidityNodeHttpEnable = true;
@@ -195,6 +208,7 @@ public class Args extends CommonParameter {
    * set parameters.
    */
   public static void setParam(final String[] args, final String confFileName) {
+    Args.confFileName = confFileName;
     JCommander.newBuilder().addObject(PARAMETER).build().parse(args);
     if (PARAMETER.version) {
       JCommander.getConsole()
@@ -302,6 +316,38 @@ public class Args extends CommonParameter {
       PARAMETER.longRunningTime = config.getInt(Constant.VM_LONG_RUNNING_TIME);
     }
 
+    if (config.hasPath(Constant.VM_CONSTANT_CALL_THREADS)) {
+      PARAMETER.constantCallThreads = config.getInt(Constant.VM_CONSTANT_CALL_THREADS);
+    }
+
+    if (config.hasPath(Constant.VM_CONSTANT_CALL_QUEUE_SIZE)) {
+      PARAMETER.constantCallQueueSize = config.getInt(Constant.VM_CONSTANT_CALL_QUEUE_SIZE);
+    }
+
+    if (config.hasPath(Constant.VM_CONSTANT_CALL_TIMEOUT)) {
+      PARAMETER.constantCallTimeout = config.getLong(Constant.VM_CONSTANT_CALL_TIMEOUT);
+    }
+
+    if (config.hasPath(Constant.VM_CONSTANT_CALL_ENERGY_LIMIT)) {
+      PARAMETER.constantCallEnergyLimit = config.getLong(Constant.VM_CONSTANT_CALL_ENERGY_LIMIT);
+    }
+
+    if (config.hasPath(Constant.VM_CONSTANT_CALL_CACHE_SIZE)) {
+      PARAMETER.constantCallCacheSize = config.getBytes(Constant.VM_CONSTANT_CALL_CACHE_SIZE);
+    }
+
+    if (config.hasPath(Constant.VM_PROFILER_ENABLE)) {
+      PARAMETER.vmProfilerEnable = config.getBoolean(Constant.VM_PROFILER_ENABLE);
+    }
+
+    if (config.hasPath(Constant.VM_PROFILER_SAMPLE_RATE)) {
+      PARAMETER.vmProfilerSampleRate = Math.max(1, config.getInt(Constant.VM_PROFILER_SAMPLE_RATE));
+    }
+
+    if (config.hasPath(Constant.VM_PROFILER_MAX_CONTRACTS)) {
+      PARAMETER.vmProfilerMaxContracts = config.getInt(Constant.VM_PROFILER_MAX_CONTRACTS);
+    }
+
     PARAMETER.storage = new Storage();
     PARAMETER.storage.setDbVersion(Optional.ofNullable(PARAMETER.storageDbVersion)
         .filter(StringUtils::isNotEmpty)
@@ -345,6 +391,8 @@ public class Args extends CommonParameter {
                 .filter(StringUtils::isNotEmpty)
                 .orElse(Storage.getTransactionHistorySwitchFromConfig(config)));
 
+    PARAMETER.storage.setAccountIndexSwitch(Storage.getAccountIndexSwitchFromConfig(config));
+
     PARAMETER.storage.setPropertyMapFromConfig(config);
 
     PARAMETER.seedNode = new SeedNode();
@@ -451,6 +499,26 @@ public class Args extends CommonParameter {
         config.hasPath(Constant.NODE_HTTP_PBFT_PORT)
             ? config.getInt(Constant.NODE_HTTP_PBFT_PORT) : 8092;
 
+    PARAMETER.httpResponseCacheSize =
+        config.hasPath(Constant.NODE_HTTP_RESPONSE_CACHE_SIZE)
+            ? config.getBytes(Constant.NODE_HTTP_RESPONSE_CACHE_SIZE) : 64L * 1024 * 1024;
+
+    if (config.hasPath(Constant.NODE_HTTP_ASYNC_SERVLETS)) {
+      PARAMETER.httpAsyncServlets = config.getObjectList(Constant.NODE_HTTP_ASYNC_SERVLETS)
+          .stream()
+          .map(AsyncServletItem::createItem)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    PARAMETER.batchQueryMaxSize =
+        config.hasPath(Constant.NODE_BATCH_QUERY_MAX_SIZE)
+            ? config.getInt(Constant.NODE_BATCH_QUERY_MAX_SIZE) : 1000;
+
+    PARAMETER.batchQueryMaxBytes =
+        config.hasPath(Constant.NODE_BATCH_QUERY_MAX_BYTES)
+            ? config.getBytes(Constant.NODE_BATCH_QUERY_MAX_BYTES) : 4L * 1024 * 1024;
+
     PARAMETER.rpcThreadNum =
         config.hasPath(Constant.NODE_RPC_THREAD) ? config.getInt(Constant.NODE_RPC_THREAD)
             : (Runtime.getRuntime().availableProcessors() + 1) / 2;
@@ -460,6 +528,14 @@ public class Args extends CommonParameter {
             ? config.getInt(Constant.NODE_SOLIDITY_THREADS)
             : Runtime.getRuntime().availableProcessors();
 
+    PARAMETER.solidityFetchWindow =
+        config.hasPath(Constant.NODE_SOLIDITY_FETCH_WINDOW)
+            ? config.getInt(Constant.NODE_SOLIDITY_FETCH_WINDOW) : 8;
+
+    PARAMETER.solidityFetchBatchSize =
+        config.hasPath(Constant.NODE_SOLIDITY_FETCH_BATCH_SIZE)
+            ? config.getInt(Constant.NODE_SOLIDITY_FETCH_BATCH_SIZE) : 20;
+
     PARAMETER.maxConcurrentCallsPerConnection =
         config.hasPath(Constant.NODE_RPC_MAX_CONCURRENT_CALLS_PER_CONNECTION)
             ? config.getInt(Constant.NODE_RPC_MAX_CONCURRENT_CALLS_PER_CONNECTION)
@@ -504,6 +580,12 @@ public class Args extends CommonParameter {
         ? config.getInt(Constant.NODE_RPC_MAX_HEADER_LIST_SIZE)
         : GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
 
+    PARAMETER.maxSubscriptions = config.hasPath(Constant.NODE_RPC_MAX_SUBSCRIPTIONS)
+        ? config.getInt(Constant.NODE_RPC_MAX_SUBSCRIPTIONS) : 1000;
+
+    PARAMETER.subscriptionBufferSize = config.hasPath(Constant.NODE_RPC_SUBSCRIPTION_BUFFER_SIZE)
+        ? config.getInt(Constant.NODE_RPC_SUBSCRIPTION_BUFFER_SIZE) : 256;
+
     PARAMETER.maintenanceTimeInterval =
         config.hasPath(Constant.BLOCK_MAINTENANCE_TIME_INTERVAL) ? config
             .getInt(Constant.BLOCK_MAINTENANCE_TIME_INTERVAL) : 21600000L;
@@ -656,6 +738,10 @@ public class Args extends CommonParameter {
     PARAMETER.eventFilter =
         config.hasPath(Constant.EVENT_SUBSCRIBE_FILTER) ? getEventFilter(config) : null;
 
+    PARAMETER.eventFilters =
+        config.hasPath(Constant.EVENT_SUBSCRIBE_FILTERS) ? getEventFilters(config)
+            : new ArrayList<>();
+
     PARAMETER.fullNodeAllowShieldedTransactionArgs =
         !config.hasPath(Constant.NODE_FULLNODE_ALLOW_SHIELDED_TRANSACTION)
             || config.getBoolean(Constant.NODE_FULLNODE_ALLOW_SHIELDED_TRANSACTION);
@@ -685,6 +771,11 @@ public class Args extends CommonParameter {
         config.hasPath(Constant.NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS) ? config
             .getInt(Constant.NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS) : 10;
 
+    PARAMETER.shieldedScanThreads =
+        config.hasPath(Constant.NODE_SHIELDED_SCAN_THREADS) ? config
+            .getInt(Constant.NODE_SHIELDED_SCAN_THREADS)
+            : Runtime.getRuntime().availableProcessors();
+
     if (PARAMETER.isWitness()) {
       PARAMETER.fullNodeAllowShieldedTransactionArgs = true;
     }
@@ -811,9 +902,34 @@ public class Args extends CommonParameter {
         .collect(Collectors.toCollection(ArrayList::new));
 
     initialization.setRpcMap(list2);
+
+    if (config.hasPath(Constant.RATE_LIMITER_COST)) {
+      initialization.setCostParams(config.getString(Constant.RATE_LIMITER_COST));
+    }
+    if (config.hasPath(Constant.RATE_LIMITER_RELOAD_INTERVAL)) {
+      initialization.setReloadInterval(config.getInt(Constant.RATE_LIMITER_RELOAD_INTERVAL));
+    }
     return initialization;
   }
 
+  /**
+   * The config file the node was started with, null when it was read from the classpath.
+   */
+  public static File getConfFile() {
+    File confFile = new File(StringUtils.isNoneBlank(PARAMETER.shellConfFileName)
+        ? PARAMETER.shellConfFileName : StringUtils.defaultString(confFileName));
+    return confFile.isFile() ? confFile : null;
+  }
+
+  /**
+   * Reads the rate limiter config from the config file again.
+   */
+  public static RateLimiterInitialization loadRateLimiterInitialization() {
+    Config config = Configuration.getByFileName(PARAMETER.shellConfFileName, confFileName);
+    return config.hasPath(Constant.RATE_LIMITER) ? getRateLimiterFromConfig(config)
+        : new RateLimiterInitialization();
+  }
+
   private static List<Node> getNodes(final Config config, String path) {
     if (!config.hasPath(path)) {
       return Collections.emptyList();
@@ -852,6 +968,53 @@ public class Args extends CommonParameter {
       eventPluginConfig.setUseNativeQueue(useNativeQueue);
       eventPluginConfig.setBindPort(bindPort);
       eventPluginConfig.setSendQueueLength(sendQueueLength);
+
+      if (config.hasPath(Constant.NATIVE_QUEUE_ENCODING)) {
+        eventPluginConfig.setEncoding(config.getString(Constant.NATIVE_QUEUE_ENCODING).trim());
+      }
+
+      if (config.hasPath(Constant.NATIVE_QUEUE_SHARDS)) {
+        eventPluginConfig.setShards(config.getInt(Constant.NATIVE_QUEUE_SHARDS));
+      }
+
+      // protobuf messages always carry a sequence number
+      eventPluginConfig.setSequence(
+          EventPluginConfig.PROTOBUF_ENCODING.equals(eventPluginConfig.getEncoding())
+              || config.hasPath(Constant.NATIVE_QUEUE_SEQUENCE)
+              && config.getBoolean(Constant.NATIVE_QUEUE_SEQUENCE));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_PROCESS_THREADS)) {
+      eventPluginConfig.setProcessThreads(
+          config.getInt(Constant.EVENT_SUBSCRIBE_PROCESS_THREADS));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_PROCESS_QUEUE_SIZE)) {
+      eventPluginConfig.setProcessQueueSize(
+          config.getInt(Constant.EVENT_SUBSCRIBE_PROCESS_QUEUE_SIZE));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_SPOOL_ENABLE)) {
+      eventPluginConfig.setSpoolEnable(config.getBoolean(Constant.EVENT_SUBSCRIBE_SPOOL_ENABLE));
+    }
+
+    eventPluginConfig.setSpoolPath(config.hasPath(Constant.EVENT_SUBSCRIBE_SPOOL_PATH)
+        ? config.getString(Constant.EVENT_SUBSCRIBE_SPOOL_PATH)
+        : Paths.get(PARAMETER.outputDirectory, "event-spool").toString());
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_SPOOL_SEGMENT_SIZE)) {
+      eventPluginConfig.setSpoolSegmentSize(
+          config.getBytes(Constant.EVENT_SUBSCRIBE_SPOOL_SEGMENT_SIZE));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_SPOOL_RETENTION_SIZE)) {
+      eventPluginConfig.setSpoolRetentionSize(
+          config.getBytes(Constant.EVENT_SUBSCRIBE_SPOOL_RETENTION_SIZE));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_REPLAY_ENABLE)) {
+      eventPluginConfig.setReplayEnable(
+          config.getBoolean(Constant.EVENT_SUBSCRIBE_REPLAY_ENABLE));
     }
 
     // use event plugin
@@ -945,6 +1108,16 @@ public class Args extends CommonParameter {
     return filter;
   }
 
+  private static List<FilterQuery> getEventFilters(final Config config) {
+    Config defaults = ConfigFactory.parseString(
+        "fromblock = \"\", toblock = \"\", contractAddress = [], contractTopic = []");
+    return config.getConfigList(Constant.EVENT_SUBSCRIBE_FILTERS).stream()
+        .map(filter -> getEventFilter(
+            filter.withFallback(defaults).atPath(Constant.EVENT_SUBSCRIBE_FILTER)))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
   private static void bindIp(final Config config) {
     if (!config.hasPath(Constant.NODE_DISCOVERY_BIND_IP)
         || config.getString(Constant.NODE_DISCOVERY_BIND_IP)
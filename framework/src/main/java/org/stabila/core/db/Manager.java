@@ -49,8 +49,10 @@ import org.bouncycastle.util.encoders.Hex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.stabila.common.args.GenesisBlock;
+import org.stabila.common.logsfilter.EventPluginConfig;
 import org.stabila.common.logsfilter.EventPluginLoader;
 import org.stabila.common.logsfilter.FilterQuery;
+import org.stabila.common.logsfilter.TriggerPipeline;
 import org.stabila.common.logsfilter.capsule.BlockLogTriggerCapsule;
 import org.stabila.common.logsfilter.capsule.ContractTriggerCapsule;
 import org.stabila.common.logsfilter.capsule.SolidityTriggerCapsule;
@@ -119,6 +121,7 @@ import org.stabila.core.exception.ZksnarkException;
 import org.stabila.core.metrics.MetricsKey;
 import org.stabila.core.metrics.MetricsUtil;
 import org.stabila.core.service.MortgageService;
+import org.stabila.core.services.SubscriptionService;
 import org.stabila.core.store.AccountAssetStore;
 import org.stabila.core.store.AccountIdIndexStore;
 import org.stabila.core.store.AccountIndexStore;
@@ -175,6 +178,8 @@ public class Manager {
   private RevokingDatabase revokingStore;
   @Getter
   private SessionOptional session = SessionOptional.instance();
+  private final ThreadLocal<Chainbase.Cursor> cursor =
+      ThreadLocal.withInitial(() -> Chainbase.Cursor.HEAD);
   @Getter
   @Setter
   private boolean isSyncMode;
@@ -205,6 +210,8 @@ public class Manager {
   @Autowired
   private MortgageService mortgageService;
   @Autowired
+  private SubscriptionService subscriptionService;
+  @Autowired
   private Consensus consensus;
   @Autowired
   @Getter
@@ -219,6 +226,7 @@ public class Manager {
   // the capacity is equal to Integer.MAX_VALUE default
   private BlockingQueue<TransactionCapsule> rePushTransactions;
   private BlockingQueue<TriggerCapsule> triggerCapsuleQueue;
+  private TriggerPipeline triggerPipeline;
 
   /**
    * Cycle thread to rePush Transactions
@@ -252,7 +260,9 @@ public class Manager {
           try {
             TriggerCapsule triggerCapsule = triggerCapsuleQueue.poll(1, TimeUnit.SECONDS);
             if (triggerCapsule != null) {
-              triggerCapsule.processTrigger();
+              MetricsUtil.histogramUpdate(MetricsKey.EVENT_TRIGGER_QUEUE_DEPTH,
+                  triggerCapsuleQueue.size() + triggerPipeline.inFlight());
+              triggerPipeline.submit(triggerCapsule);
             }
           } catch (InterruptedException ex) {
             logger.info(ex.getMessage());
@@ -349,6 +359,9 @@ public class Manager {
 
   public void stopRePushTriggerThread() {
     isRunTriggerCapsuleProcessThread = false;
+    if (triggerPipeline != null) {
+      triggerPipeline.shutdown();
+    }
   }
 
   private Comparator downComparator = (Comparator<TransactionCapsule>) (o1, o2) -> Long
@@ -364,6 +377,13 @@ public class Manager {
     trieService.setChainBaseManager(chainBaseManager);
     revokingStore.disable();
     revokingStore.check();
+    chainBaseManager.getMarketPairPriceToOrderStore()
+        .initOrderBook(chainBaseManager.getMarketOrderStore(), revokingStore);
+    chainBaseManager.getAssetIssueStore().initNameIndex(revokingStore);
+    chainBaseManager.getAssetIssueV2Store().initNameIndex(revokingStore);
+    if (revokingStore instanceof SnapshotManager) {
+      ((SnapshotManager) revokingStore).addListener(chainBaseManager.getStorageRowCache());
+    }
     this.setProposalController(ProposalController.createInstance(this));
     this.setMerkleContainer(
         merkleContainer.createInstance(chainBaseManager.getMerkleTreeStore(),
@@ -422,6 +442,10 @@ public class Manager {
     // add contract event listener for subscribing
     if (Args.getInstance().isEventSubscribe()) {
       startEventSubscribing();
+      EventPluginConfig eventPluginConfig = Args.getInstance().getEventPluginConfig();
+      triggerPipeline = eventPluginConfig == null ? new TriggerPipeline(1, 1)
+          : new TriggerPipeline(eventPluginConfig.getProcessThreads(),
+              eventPluginConfig.getProcessQueueSize());
       Thread triggerCapsuleProcessThread = new Thread(triggerCapsuleProcessLoop);
       triggerCapsuleProcessThread.start();
     }
@@ -778,6 +802,7 @@ public class Manager {
    */
   public synchronized void eraseBlock() {
     session.reset();
+    chainBaseManager.getStorageRowCache().clear();
     try {
       BlockCapsule oldHeadBlock = chainBaseManager.getBlockById(
           getDynamicPropertiesStore().getLatestBlockHeaderHash());
@@ -829,6 +854,9 @@ public class Manager {
     if (block.getTransactions().size() != 0) {
       chainBaseManager.getTransactionRetStore()
           .put(ByteArray.fromLong(block.getNum()), block.getResult());
+      chainBaseManager.getLogBloomStore().put(block.getNum(), block.getResult());
+      chainBaseManager.getAccountTransactionIndexStore().put(block);
+      chainBaseManager.getShieldedBlockIndexStore().put(block);
     }
 
     updateFork(block);
@@ -996,6 +1024,7 @@ public class Manager {
             block.getNum(), rePushTransactions.size(), pendingTransactions.size(),
             block.getTransactions().size(), txs.size());
     try (PendingManager pm = new PendingManager(this)) {
+      chainBaseManager.getStorageRowCache().begin();
 
       if (!block.generatedByMyself) {
         if (!block.validateSignature(chainBaseManager.getDynamicPropertiesStore(),
@@ -1101,6 +1130,7 @@ public class Manager {
           postSolidityTrigger(getDynamicPropertiesStore().getLatestSolidifiedBlockNum());
           // if event subscribe is enabled, post block trigger to queue
           postBlockTrigger(newBlock);
+          subscriptionService.onBlock();
         } catch (Throwable throwable) {
           logger.error(throwable.getMessage(), throwable);
           khaosDb.removeBlk(block.getBlockId());
@@ -1108,6 +1138,8 @@ public class Manager {
         }
       }
       logger.info(SAVE_BLOCK + newBlock);
+    } finally {
+      chainBaseManager.getStorageRowCache().end();
     }
     //clear ownerAddressSet
     if (CollectionUtils.isNotEmpty(ownerAddressSet)) {
@@ -1299,76 +1331,80 @@ public class Manager {
 
     Set<String> accountSet = new HashSet<>();
     AtomicInteger shieldedTransCounts = new AtomicInteger(0);
-    while (pendingTransactions.size() > 0 || rePushTransactions.size() > 0) {
-      boolean fromPending = false;
-      TransactionCapsule trx;
-      if (pendingTransactions.size() > 0) {
-        trx = pendingTransactions.peek();
-        if (Args.getInstance().isOpenTransactionSort()) {
-          TransactionCapsule trxRepush = rePushTransactions.peek();
-          if (trxRepush == null || trx.getOrder() >= trxRepush.getOrder()) {
-            fromPending = true;
+    chainBaseManager.getStorageRowCache().begin();
+    try {
+      while (pendingTransactions.size() > 0 || rePushTransactions.size() > 0) {
+        boolean fromPending = false;
+        TransactionCapsule trx;
+        if (pendingTransactions.size() > 0) {
+          trx = pendingTransactions.peek();
+          if (Args.getInstance().isOpenTransactionSort()) {
+            TransactionCapsule trxRepush = rePushTransactions.peek();
+            if (trxRepush == null || trx.getOrder() >= trxRepush.getOrder()) {
+              fromPending = true;
+            } else {
+              trx = rePushTransactions.poll();
+            }
           } else {
-            trx = rePushTransactions.poll();
+            fromPending = true;
           }
         } else {
-          fromPending = true;
+          trx = rePushTransactions.poll();
         }
-      } else {
-        trx = rePushTransactions.poll();
-      }
 
-      if (System.currentTimeMillis() > timeout) {
-        logger.warn("Processing transaction time exceeds the producing time.");
-        break;
-      }
+        if (System.currentTimeMillis() > timeout) {
+          logger.warn("Processing transaction time exceeds the producing time.");
+          break;
+        }
 
-      // check the block size
-      if ((blockCapsule.getInstance().getSerializedSize() + trx.getSerializedSize() + 3)
-          > ChainConstant.BLOCK_SIZE) {
-        postponedTrxCount++;
-        continue;
-      }
-      //shielded transaction
-      if (isShieldedTransaction(trx.getInstance())
-          && shieldedTransCounts.incrementAndGet() > SHIELDED_TRANS_IN_BLOCK_COUNTS) {
-        continue;
-      }
-      //multi sign transaction
-      Contract contract = trx.getInstance().getRawData().getContract(0);
-      byte[] owner = TransactionCapsule.getOwner(contract);
-      String ownerAddress = ByteArray.toHexString(owner);
-      if (accountSet.contains(ownerAddress)) {
-        continue;
-      } else {
-        if (isMultiSignTransaction(trx.getInstance())) {
-          accountSet.add(ownerAddress);
+        // check the block size
+        if ((blockCapsule.getInstance().getSerializedSize() + trx.getSerializedSize() + 3)
+            > ChainConstant.BLOCK_SIZE) {
+          postponedTrxCount++;
+          continue;
         }
-      }
-      if (ownerAddressSet.contains(ownerAddress)) {
-        trx.setVerified(false);
-      }
-      // apply transaction
-      try (ISession tmpSession = revokingStore.buildSession()) {
-        accountStateCallBack.preExeTrans();
-        TransactionInfo result = processTransaction(trx, blockCapsule);
-        accountStateCallBack.exeTransFinish();
-        tmpSession.merge();
-        blockCapsule.addTransaction(trx);
-        if (Objects.nonNull(result)) {
-          transactionRetCapsule.addTransactionInfo(result);
+        //shielded transaction
+        if (isShieldedTransaction(trx.getInstance())
+            && shieldedTransCounts.incrementAndGet() > SHIELDED_TRANS_IN_BLOCK_COUNTS) {
+          continue;
+        }
+        //multi sign transaction
+        Contract contract = trx.getInstance().getRawData().getContract(0);
+        byte[] owner = TransactionCapsule.getOwner(contract);
+        String ownerAddress = ByteArray.toHexString(owner);
+        if (accountSet.contains(ownerAddress)) {
+          continue;
+        } else {
+          if (isMultiSignTransaction(trx.getInstance())) {
+            accountSet.add(ownerAddress);
+          }
         }
-        if (fromPending) {
-          pendingTransactions.poll();
+        if (ownerAddressSet.contains(ownerAddress)) {
+          trx.setVerified(false);
+        }
+        // apply transaction
+        try (ISession tmpSession = revokingStore.buildSession()) {
+          accountStateCallBack.preExeTrans();
+          TransactionInfo result = processTransaction(trx, blockCapsule);
+          accountStateCallBack.exeTransFinish();
+          tmpSession.merge();
+          blockCapsule.addTransaction(trx);
+          if (Objects.nonNull(result)) {
+            transactionRetCapsule.addTransactionInfo(result);
+          }
+          if (fromPending) {
+            pendingTransactions.poll();
+          }
+        } catch (Exception e) {
+          logger.error("Process trx {} failed when generating block: {}", trx.getTransactionId(),
+              e.getMessage());
         }
-      } catch (Exception e) {
-        logger.error("Process trx {} failed when generating block: {}", trx.getTransactionId(),
-            e.getMessage());
       }
-    }
-
-    accountStateCallBack.executeGenerateFinish();
 
+      accountStateCallBack.executeGenerateFinish();
+    } finally {
+      chainBaseManager.getStorageRowCache().end();
+    }
     session.reset();
 
     logger.info("Generate block success, pendingCount: {}, rePushCount: {}, postponedCount: {}",
@@ -1715,6 +1751,7 @@ public class Manager {
   }
 
   public void setCursor(Chainbase.Cursor cursor) {
+    this.cursor.set(cursor);
     if (cursor == Chainbase.Cursor.PBFT) {
       long headNum = getHeadBlockNum();
       long pbftNum = chainBaseManager.getCommonDataBase().getLatestPbftBlockNum();
@@ -1724,7 +1761,15 @@ public class Manager {
     }
   }
 
+  /**
+   * @return the cursor the calling thread reads the stores with
+   */
+  public Chainbase.Cursor getCursor() {
+    return cursor.get();
+  }
+
   public void resetCursor() {
+    cursor.set(Chainbase.Cursor.HEAD);
     revokingStore.setCursor(Chainbase.Cursor.HEAD, 0L);
   }
 
@@ -1738,21 +1783,31 @@ public class Manager {
         logger.error("failed to load eventPlugin");
       }
 
+      List<FilterQuery> eventFilters = new ArrayList<>(Args.getInstance().getEventFilters());
       FilterQuery eventFilter = Args.getInstance().getEventFilter();
       if (!Objects.isNull(eventFilter)) {
-        EventPluginLoader.getInstance().setFilterQuery(eventFilter);
+        eventFilters.add(0, eventFilter);
       }
+      EventPluginLoader.getInstance().setFilterQueries(eventFilters);
 
     } catch (Exception e) {
       logger.error("{}", e);
     }
   }
 
+  private boolean offerTrigger(TriggerCapsule triggerCapsule) {
+    if (triggerCapsuleQueue.offer(triggerCapsule)) {
+      return true;
+    }
+    MetricsUtil.counterInc(MetricsKey.EVENT_TRIGGER_DROP);
+    return false;
+  }
+
   private void postSolidityTrigger(final long latestSolidifiedBlockNumber) {
     if (eventPluginLoaded && EventPluginLoader.getInstance().isSolidityTriggerEnable()) {
       SolidityTriggerCapsule solidityTriggerCapsule
           = new SolidityTriggerCapsule(latestSolidifiedBlockNumber);
-      boolean result = triggerCapsuleQueue.offer(solidityTriggerCapsule);
+      boolean result = offerTrigger(solidityTriggerCapsule);
       if (!result) {
         logger.info("too many trigger, lost solidified trigger, "
             + "block number: {}", latestSolidifiedBlockNumber);
@@ -1775,7 +1830,7 @@ public class Manager {
       BlockLogTriggerCapsule blockLogTriggerCapsule = new BlockLogTriggerCapsule(newBlock);
       blockLogTriggerCapsule.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
           .getLatestSolidifiedBlockNum());
-      if (!triggerCapsuleQueue.offer(blockLogTriggerCapsule)) {
+      if (!offerTrigger(blockLogTriggerCapsule)) {
         logger.info("too many triggers, block trigger lost: {}", newBlock.getBlockId());
       }
     }
@@ -1791,7 +1846,7 @@ public class Manager {
       TransactionLogTriggerCapsule trx = new TransactionLogTriggerCapsule(trxCap, blockCap);
       trx.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
           .getLatestSolidifiedBlockNum());
-      if (!triggerCapsuleQueue.offer(trx)) {
+      if (!offerTrigger(trx)) {
         logger.info("too many triggers, transaction trigger lost: {}", trxCap.getTransactionId());
       }
     }
@@ -1830,7 +1885,7 @@ public class Manager {
         contractTriggerCapsule.getContractTrigger().setRemoved(remove);
         contractTriggerCapsule.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
             .getLatestSolidifiedBlockNum());
-        if (!triggerCapsuleQueue.offer(contractTriggerCapsule)) {
+        if (!offerTrigger(contractTriggerCapsule)) {
           logger
               .info("too many triggers, contract log trigger lost: {}", trigger.getTransactionId());
         }
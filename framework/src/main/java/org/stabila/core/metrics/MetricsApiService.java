@@ -3,6 +3,7 @@ package org.stabila.core.metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.CommonParameter;
 import org.stabila.core.Constant;
 import org.stabila.core.metrics.blockchain.BlockChainInfo;
 import org.stabila.core.metrics.blockchain.BlockChainMetricManager;
@@ -10,6 +11,9 @@ import org.stabila.core.metrics.net.NetInfo;
 import org.stabila.core.metrics.net.NetMetricManager;
 import org.stabila.core.metrics.node.NodeInfo;
 import org.stabila.core.metrics.node.NodeMetricManager;
+import org.stabila.core.metrics.vm.VmProfileInfo;
+import org.stabila.core.services.http.AsyncServletExecutor;
+import org.stabila.core.vm.trace.VMProfiler;
 import org.stabila.protos.Protocol;
 
 @Slf4j(topic = "metrics")
@@ -27,6 +31,9 @@ public class MetricsApiService {
   @Autowired
   private NodeMetricManager nodeMetricManager;
 
+  @Autowired
+  private AsyncServletExecutor asyncServletExecutor;
+
   /**
    * get metrics info.
    *
@@ -45,11 +52,29 @@ public class MetricsApiService {
     metricsInfo.setBlockchain(blockChainInfo);
 
     NetInfo netInfo = netMetricManager.getNetInfo();
+    netInfo.getApi().setAsyncPools(asyncServletExecutor.getPoolInfos());
     metricsInfo.setNet(netInfo);
 
     return metricsInfo;
   }
 
+  /**
+   * get vm profile info.
+   *
+   * @param limit max number of contracts in each top list
+   * @return VmProfileInfo
+   */
+  public VmProfileInfo getVmProfileInfo(int limit) {
+    VMProfiler profiler = VMProfiler.getInstance();
+    VmProfileInfo info = new VmProfileInfo();
+    info.setEnable(CommonParameter.getInstance().isVmProfilerEnable());
+    info.setSampleRate(CommonParameter.getInstance().getVmProfilerSampleRate());
+    info.setOpcodes(profiler.getOpStats());
+    info.setTopCpuContracts(profiler.getTopContractsByCpu(limit));
+    info.setCheapestContracts(profiler.getCheapestContracts(limit));
+    return info;
+  }
+
   public Protocol.MetricsInfo getMetricProtoInfo() {
 
     Protocol.MetricsInfo.Builder builder = Protocol.MetricsInfo.newBuilder();
@@ -23,5 +23,13 @@ public class MetricsKey {
   public static final String NET_API_DETAIL_QPS = "net.api.detail.qps.";
   public static final String NET_API_DETAIL_FAIL_QPS = "net.api.detail.failQps.";
   public static final String NET_API_DETAIL_OUT_TRAFFIC = "net.api.detail.outTraffic.";
+  public static final String NET_API_ASYNC_QUEUE_WAIT = "net.api.async.queueWait.";
+  public static final String NET_API_ASYNC_LATENCY = "net.api.async.latency.";
+  public static final String NET_API_ASYNC_REJECT = "net.api.async.reject.";
+  public static final String NET_API_ASYNC_TIMEOUT = "net.api.async.timeout.";
+  public static final String VM_CONSTANT_CALL_CACHE_HIT = "vm.constantCall.cacheHit";
+  public static final String VM_CONSTANT_CALL_CACHE_MISS = "vm.constantCall.cacheMiss";
+  public static final String EVENT_TRIGGER_QUEUE_DEPTH = "event.trigger.queueDepth";
+  public static final String EVENT_TRIGGER_DROP = "event.trigger.drop";
 
 }
@@ -10,4 +10,5 @@ public class ApiInfo {
   private RateInfo failQps;
   private RateInfo outTraffic;
   private List<ApiDetailInfo> detail = new ArrayList<>();
+  private List<AsyncPoolInfo> asyncPools = new ArrayList<>();
 }
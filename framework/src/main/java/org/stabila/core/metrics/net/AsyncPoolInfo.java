@@ -0,0 +1,22 @@
+package org.stabila.core.metrics.net;
+
+import lombok.Data;
+
+@Data
+public class AsyncPoolInfo {
+  private String name;
+  private int threads;
+  private int activeCount;
+  private int queueSize;
+  private int queueCapacity;
+  private long timeout;
+  private RateInfo rejectQps;
+  private RateInfo timeoutQps;
+  // milliseconds waited in the queue, and from queueing to the end of the response
+  private int queueWaitTop99;
+  private int queueWaitTop95;
+  private int latencyTop99;
+  private int latencyTop95;
+  private int latencyTop75;
+  private long count;
+}
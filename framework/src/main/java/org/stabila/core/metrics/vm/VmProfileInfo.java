@@ -0,0 +1,15 @@
+package org.stabila.core.metrics.vm;
+
+import java.util.List;
+import lombok.Data;
+import org.stabila.core.vm.trace.VMProfiler.ContractStat;
+import org.stabila.core.vm.trace.VMProfiler.OpStat;
+
+@Data
+public class VmProfileInfo {
+  private boolean enable;
+  private int sampleRate;
+  private List<OpStat> opcodes;
+  private List<ContractStat> topCpuContracts;
+  private List<ContractStat> cheapestContracts;
+}
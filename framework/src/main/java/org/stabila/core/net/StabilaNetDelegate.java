@@ -50,6 +50,7 @@ import org.stabila.core.net.message.BlockMessage;
 import org.stabila.core.net.message.MessageTypes;
 import org.stabila.core.net.message.TransactionMessage;
 import org.stabila.core.net.peer.PeerConnection;
+import org.stabila.core.services.SubscriptionService;
 import org.stabila.core.store.WitnessScheduleStore;
 import org.stabila.protos.Protocol.Inventory.InventoryType;
 
@@ -72,6 +73,9 @@ public class StabilaNetDelegate {
   @Autowired
   private WitnessScheduleStore witnessScheduleStore;
 
+  @Autowired
+  private SubscriptionService subscriptionService;
+
   @Getter
   private Object blockLock = new Object();
 
@@ -243,7 +247,9 @@ public class StabilaNetDelegate {
   public void pushTransaction(TransactionCapsule trx) throws P2pException {
     try {
       trx.setTime(System.currentTimeMillis());
-      dbManager.pushTransaction(trx);
+      if (dbManager.pushTransaction(trx)) {
+        subscriptionService.onPendingTransaction(trx);
+      }
     } catch (ContractSizeNotEqualToOneException
         | VMIllegalException e) {
       throw new P2pException(TypeEnum.BAD_TRX, e);
@@ -0,0 +1,233 @@
+package org.stabila.core.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.runtime.ProgramResult;
+import org.stabila.core.actuator.VMActuator;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.BlockCapsule.BlockId;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.db.Manager;
+import org.stabila.core.db.TransactionContext;
+import org.stabila.core.db2.core.Chainbase;
+import org.stabila.core.exception.ContractExeException;
+import org.stabila.core.exception.ContractValidateException;
+import org.stabila.core.metrics.MetricsKey;
+import org.stabila.core.metrics.MetricsUtil;
+import org.stabila.core.store.StoreFactory;
+
+/**
+ * Runs constant calls on a bounded pool of its own, away from the threads serving the api and
+ * from block processing. A call never opens a revoking session: it reads the stores through the
+ * cursor of the submitting thread and its writes stay in the root repository, which is dropped.
+ * The timeout of a call is a deadline the VM keeps, so a call that runs out of time frees its
+ * worker rather than running on behind the caller.
+ *
+ * <p>When vm.constantCall.cacheSize is set, successful results are cached per block, keyed by
+ * the trigger (caller, contract, call data and value) and the cursor, and served without
+ * entering the VM. The cache is dropped as soon as a call arrives for a new head block.
+ */
+@Slf4j(topic = "API")
+@Component
+public class ConstantCallService {
+
+  @Autowired
+  private Manager dbManager;
+
+  private ThreadPoolExecutor executor;
+
+  private long timeout;
+
+  private long energyLimit;
+
+  private Cache<CacheKey, ProgramResult> resultCache;
+
+  private volatile BlockId cachedHead;
+
+  @PostConstruct
+  public void init() {
+    CommonParameter parameter = CommonParameter.getInstance();
+    int threads = Math.max(1, parameter.getConstantCallThreads());
+    timeout = parameter.getConstantCallTimeout();
+    energyLimit = parameter.getConstantCallEnergyLimit();
+    executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, parameter.getConstantCallQueueSize())),
+        new ThreadFactoryBuilder().setNameFormat("constant-call-%d").setDaemon(true).build());
+    long cacheSize = parameter.getConstantCallCacheSize();
+    if (cacheSize > 0) {
+      resultCache = CacheBuilder.newBuilder()
+          .maximumWeight(cacheSize)
+          .<CacheKey, ProgramResult>weigher((key, result) -> key.weight() + weight(result))
+          .recordStats()
+          .build();
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  public ProgramResult call(BlockCapsule headBlock, TransactionCapsule trxCap)
+      throws ContractValidateException, ContractExeException {
+    Chainbase.Cursor cursor = dbManager.getCursor();
+    CacheKey key = null;
+    if (resultCache != null) {
+      key = new CacheKey(cursor, headBlock.getBlockId(),
+          trxCap.getInstance().getRawData().getContract(0).getParameter().getValue());
+      ProgramResult cached = lookup(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    ProgramResult result = submit(cursor, headBlock, trxCap);
+    if (key != null && result.getException() == null) {
+      resultCache.put(key, strip(result));
+    }
+    return result;
+  }
+
+  private ProgramResult lookup(CacheKey key) {
+    if (key.cursor == Chainbase.Cursor.HEAD && !key.blockId.equals(cachedHead)) {
+      if (cachedHead != null) {
+        logger.debug("Constant call cache invalidated at block {}, hit rate: {}",
+            key.blockId.getString(), resultCache.stats().hitRate());
+      }
+      cachedHead = key.blockId;
+      resultCache.invalidateAll();
+      MetricsUtil.meterMark(MetricsKey.VM_CONSTANT_CALL_CACHE_MISS);
+      return null;
+    }
+    ProgramResult cached = resultCache.getIfPresent(key);
+    MetricsUtil.meterMark(cached == null ? MetricsKey.VM_CONSTANT_CALL_CACHE_MISS
+        : MetricsKey.VM_CONSTANT_CALL_CACHE_HIT);
+    return cached;
+  }
+
+  private ProgramResult submit(Chainbase.Cursor cursor, BlockCapsule headBlock,
+      TransactionCapsule trxCap) throws ContractValidateException, ContractExeException {
+    // the vm ends the call by the deadline, a call timed out here does not keep its worker
+    long deadlineInUs = System.nanoTime() / 1000 + TimeUnit.MILLISECONDS.toMicros(timeout);
+    Future<ProgramResult> future;
+    try {
+      future = executor.submit(() -> execute(cursor, headBlock, trxCap, deadlineInUs));
+    } catch (RejectedExecutionException e) {
+      throw new ContractValidateException("too many constant calls, please try again later");
+    }
+
+    try {
+      return future.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new ContractExeException("constant call timeout after " + timeout + " ms");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ContractExeException("constant call interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ContractValidateException) {
+        throw (ContractValidateException) cause;
+      }
+      if (cause instanceof ContractExeException) {
+        throw (ContractExeException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ContractExeException(String.valueOf(cause));
+    }
+  }
+
+  private ProgramResult execute(Chainbase.Cursor cursor, BlockCapsule headBlock,
+      TransactionCapsule trxCap, long deadlineInUs)
+      throws ContractValidateException, ContractExeException {
+    if (System.nanoTime() / 1000 > deadlineInUs) {
+      throw new ContractExeException("constant call timeout after " + timeout + " ms");
+    }
+    try {
+      dbManager.setCursor(cursor);
+      TransactionContext context = new TransactionContext(headBlock, trxCap,
+          StoreFactory.getInstance(), true, false);
+      VMActuator vmActuator = new VMActuator(true);
+      vmActuator.setConstantEnergyLimit(energyLimit);
+      vmActuator.setConstantDeadlineInUs(deadlineInUs);
+      vmActuator.validate(context);
+      vmActuator.execute(context);
+      return context.getProgramResult();
+    } finally {
+      dbManager.resetCursor();
+    }
+  }
+
+  /**
+   * Keeps only what the api reports, the logs and internal transactions of a constant call are
+   * never returned.
+   */
+  private static ProgramResult strip(ProgramResult result) {
+    ProgramResult stripped = ProgramResult.createEmpty();
+    stripped.spendEnergy(result.getEnergyUsed());
+    stripped.setHReturn(result.getHReturn());
+    stripped.setRuntimeError(result.getRuntimeError());
+    if (result.isRevert()) {
+      stripped.setRevert();
+    }
+    return stripped;
+  }
+
+  private static int weight(ProgramResult result) {
+    String error = result.getRuntimeError();
+    return 64 + result.getHReturn().length + (error == null ? 0 : error.length() * 2);
+  }
+
+  private static class CacheKey {
+
+    private final Chainbase.Cursor cursor;
+    private final BlockId blockId;
+    private final ByteString trigger;
+
+    private CacheKey(Chainbase.Cursor cursor, BlockId blockId, ByteString trigger) {
+      this.cursor = cursor;
+      this.blockId = blockId;
+      this.trigger = trigger;
+    }
+
+    private int weight() {
+      return 64 + trigger.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) o;
+      return cursor == other.cursor && blockId.equals(other.blockId)
+          && trigger.equals(other.trigger);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * cursor.hashCode() + blockId.hashCode()) + trigger.hashCode();
+    }
+  }
+}
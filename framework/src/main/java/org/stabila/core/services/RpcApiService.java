@@ -24,9 +24,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.stabila.api.DatabaseGrpc.DatabaseImplBase;
 import org.stabila.api.GrpcAPI;
+import org.stabila.api.GrpcAPI.AccountList;
 import org.stabila.api.GrpcAPI.AccountNetMessage;
 import org.stabila.api.GrpcAPI.AccountResourceMessage;
+import org.stabila.api.GrpcAPI.AccountTransactionList;
+import org.stabila.api.GrpcAPI.AccountTransactionsRequest;
 import org.stabila.api.GrpcAPI.Address;
+import org.stabila.api.GrpcAPI.AddressList;
 import org.stabila.api.GrpcAPI.AddressPrKeyPairMessage;
 import org.stabila.api.GrpcAPI.AssetIssueList;
 import org.stabila.api.GrpcAPI.BlockExtention;
@@ -34,6 +38,7 @@ import org.stabila.api.GrpcAPI.BlockLimit;
 import org.stabila.api.GrpcAPI.BlockList;
 import org.stabila.api.GrpcAPI.BlockListExtention;
 import org.stabila.api.GrpcAPI.BlockReference;
+import org.stabila.api.GrpcAPI.BlockSubscription;
 import org.stabila.api.GrpcAPI.BytesMessage;
 import org.stabila.api.GrpcAPI.DecryptNotes;
 import org.stabila.api.GrpcAPI.DecryptNotesMarked;
@@ -52,6 +57,8 @@ import org.stabila.api.GrpcAPI.ExpandedSpendingKeyMessage;
 import org.stabila.api.GrpcAPI.IncomingViewingKeyDiversifierMessage;
 import org.stabila.api.GrpcAPI.IncomingViewingKeyMessage;
 import org.stabila.api.GrpcAPI.IvkDecryptTRC20Parameters;
+import org.stabila.api.GrpcAPI.LogFilter;
+import org.stabila.api.GrpcAPI.LogResult;
 import org.stabila.api.GrpcAPI.NfTRC20Parameters;
 import org.stabila.api.GrpcAPI.Node;
 import org.stabila.api.GrpcAPI.NodeList;
@@ -111,6 +118,7 @@ import org.stabila.core.exception.StoreException;
 import org.stabila.core.exception.VMIllegalException;
 import org.stabila.core.exception.ZksnarkException;
 import org.stabila.core.metrics.MetricsApiService;
+import org.stabila.core.services.SubscriptionService.BlockSource;
 import org.stabila.core.services.filter.LiteFnQueryGrpcInterceptor;
 import org.stabila.core.services.ratelimiter.RateLimiterInterceptor;
 import org.stabila.core.utils.TransactionUtil;
@@ -204,6 +212,8 @@ public class RpcApiService implements Service {
 
   @Autowired
   private MetricsApiService metricsApiService;
+  @Autowired
+  private SubscriptionService subscriptionService;
 
   @Getter
   private DatabaseApi databaseApi = new DatabaseApi();
@@ -675,6 +685,11 @@ public class RpcApiService implements Service {
       getBurnTrxCommon(request, responseObserver);
     }
 
+    @Override
+    public void subscribeBlocks(BlockSubscription request, StreamObserver<Block> responseObserver) {
+      subscriptionService.subscribeBlocks(request, BlockSource.SOLIDIFIED, responseObserver);
+    }
+
     @Override
     public void getMerkleTreeVoucherInfo(OutputPointInfo request,
         StreamObserver<IncrementalMerkleVoucherInfo> responseObserver) {
@@ -2651,6 +2666,75 @@ public class RpcApiService implements Service {
         StreamObserver<NumberMessage> responseObserver) {
       getPendingSizeCommon(request, responseObserver);
     }
+
+    @Override
+    public void getLogs(LogFilter request, StreamObserver<LogResult> responseObserver) {
+      try {
+        wallet.getLogs(request, responseObserver::onNext);
+      } catch (Exception e) {
+        responseObserver.onError(getRunTimeException(e));
+        return;
+      }
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getAccounts(AddressList request, StreamObserver<AccountList> responseObserver) {
+      try {
+        responseObserver.onNext(wallet.getAccounts(request));
+      } catch (Exception e) {
+        responseObserver.onError(getRunTimeException(e));
+        return;
+      }
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getTransactionInfosByIds(TransactionIdList request,
+        StreamObserver<TransactionInfoList> responseObserver) {
+      try {
+        responseObserver.onNext(wallet.getTransactionInfosByIds(request));
+      } catch (Exception e) {
+        responseObserver.onError(getRunTimeException(e));
+        return;
+      }
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getBlocksByRange(BlockLimit request, StreamObserver<Block> responseObserver) {
+      try {
+        wallet.getBlocksByRange(request.getStartNum(), request.getEndNum(),
+            responseObserver::onNext);
+      } catch (Exception e) {
+        responseObserver.onError(getRunTimeException(e));
+        return;
+      }
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void subscribeBlocks(BlockSubscription request, StreamObserver<Block> responseObserver) {
+      subscriptionService.subscribeBlocks(request, BlockSource.HEAD, responseObserver);
+    }
+
+    @Override
+    public void subscribePendingTransactions(AddressList request,
+        StreamObserver<Transaction> responseObserver) {
+      subscriptionService.subscribePendingTransactions(request, responseObserver);
+    }
+
+    @Override
+    public void getTransactionsByAccount(AccountTransactionsRequest request,
+        StreamObserver<AccountTransactionList> responseObserver) {
+      try {
+        responseObserver.onNext(wallet.getTransactionsByAccount(request));
+      } catch (Exception e) {
+        responseObserver.onError(getRunTimeException(e));
+        return;
+      }
+      responseObserver.onCompleted();
+    }
   }
 
   public class MonitorApi extends MonitorGrpc.MonitorImplBase {
@@ -0,0 +1,261 @@
+package org.stabila.core.services;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.AddressList;
+import org.stabila.api.GrpcAPI.BlockSubscription;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.exception.StoreException;
+import org.stabila.protos.Protocol.Block;
+import org.stabila.protos.Protocol.Transaction;
+
+/**
+ * Streams new blocks and pending transactions to grpc subscribers, so that clients do not poll
+ * getNowBlock. A block subscriber keeps a cursor on the block store and is sent the blocks up to
+ * the head of its source as the call is ready for them, which also resumes a subscription from a
+ * given block. A transaction subscriber has a queue of its matching pending transactions. A
+ * subscriber falling more than node.rpc.subscriptionBufferSize blocks or transactions behind is
+ * disconnected.
+ */
+@Slf4j(topic = "API")
+@Component
+public class SubscriptionService {
+
+  public enum BlockSource {
+    HEAD, SOLIDIFIED, PBFT
+  }
+
+  private final Set<Subscriber<?>> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      new ThreadFactoryBuilder().setNameFormat("subscription-%d").setDaemon(true).build());
+
+  @Autowired
+  private ChainBaseManager chainBaseManager;
+
+  public void subscribeBlocks(BlockSubscription request, BlockSource source,
+      StreamObserver<Block> observer) {
+    LongSupplier head;
+    switch (source) {
+      case SOLIDIFIED:
+        head = chainBaseManager.getDynamicPropertiesStore()::getLatestSolidifiedBlockNum;
+        break;
+      case PBFT:
+        head = chainBaseManager.getCommonDataBase()::getLatestPbftBlockNum;
+        break;
+      default:
+        head = chainBaseManager.getDynamicPropertiesStore()::getLatestBlockHeaderNumber;
+    }
+    long next = request.getFromBlock() > 0 ? request.getFromBlock() : head.getAsLong() + 1;
+    add(new BlockSubscriber(observer, head, next));
+  }
+
+  public void subscribePendingTransactions(AddressList request,
+      StreamObserver<Transaction> observer) {
+    add(new TransactionSubscriber(observer, new HashSet<>(request.getAddressesList())));
+  }
+
+  /**
+   * Called once a block is applied. Solidification happens while applying blocks and PBFT commits
+   * arrive about as often, so block subscribers of every source catch up from here.
+   */
+  public void onBlock() {
+    subscribers.forEach(subscriber -> {
+      if (subscriber instanceof BlockSubscriber) {
+        subscriber.schedule();
+      }
+    });
+  }
+
+  /**
+   * Called once a new transaction is accepted into the pending pool. The addresses of the
+   * transaction are read once, when a subscriber filters by address.
+   */
+  public void onPendingTransaction(TransactionCapsule trx) {
+    Supplier<Set<ByteString>> addresses = Suppliers.memoize(() -> getAddresses(trx));
+    subscribers.forEach(subscriber -> {
+      if (subscriber instanceof TransactionSubscriber) {
+        ((TransactionSubscriber) subscriber).offer(trx.getInstance(), addresses);
+      }
+    });
+  }
+
+  private static Set<ByteString> getAddresses(TransactionCapsule trx) {
+    Set<ByteString> addresses = new HashSet<>();
+    for (Transaction.Contract contract : trx.getInstance().getRawData().getContractList()) {
+      addresses.add(ByteString.copyFrom(TransactionCapsule.getOwner(contract)));
+      addresses.add(ByteString.copyFrom(TransactionCapsule.getToAddress(contract)));
+    }
+    addresses.remove(ByteString.EMPTY);
+    return addresses;
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  private void add(Subscriber<?> subscriber) {
+    // adds are serialized so that concurrent ones do not pass the cap, removals only lower it
+    synchronized (subscribers) {
+      if (subscribers.size() >= CommonParameter.getInstance().getMaxSubscriptions()) {
+        subscriber.observer.onError(Status.RESOURCE_EXHAUSTED
+            .withDescription("too many subscriptions").asRuntimeException());
+        return;
+      }
+      subscribers.add(subscriber);
+    }
+    subscriber.schedule();
+  }
+
+  /**
+   * Sends on a single thread at a time: schedule only submits a drain when none is running, and a
+   * running drain goes round again for the schedules it missed.
+   */
+  private abstract class Subscriber<T> implements Runnable {
+
+    protected final ServerCallStreamObserver<T> observer;
+    protected final int bufferSize = CommonParameter.getInstance().getSubscriptionBufferSize();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Status failure;
+    private volatile boolean closed;
+
+    Subscriber(StreamObserver<T> observer) {
+      this.observer = (ServerCallStreamObserver<T>) observer;
+      this.observer.setOnCancelHandler(this::close);
+      this.observer.setOnReadyHandler(this::schedule);
+    }
+
+    void schedule() {
+      if (!closed && pending.getAndIncrement() == 0) {
+        executor.execute(this);
+      }
+    }
+
+    void fail(Status status) {
+      failure = status;
+      schedule();
+    }
+
+    void close() {
+      closed = true;
+      subscribers.remove(this);
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        if (closed) {
+          return;
+        }
+        try {
+          if (failure == null) {
+            drain();
+          }
+          if (failure != null) {
+            close();
+            observer.onError(failure.asRuntimeException());
+            return;
+          }
+        } catch (Exception e) {
+          logger.debug("subscription closed, {}", e.getMessage());
+          close();
+          return;
+        }
+        missed = pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Sends what the call is ready for, calling fail when the subscriber is too far behind.
+     */
+    abstract void drain();
+  }
+
+  private class BlockSubscriber extends Subscriber<Block> {
+
+    private final LongSupplier head;
+    private long next;
+    private boolean live;
+
+    BlockSubscriber(StreamObserver<Block> observer, LongSupplier head, long next) {
+      super(observer);
+      this.head = head;
+      this.next = next;
+    }
+
+    @Override
+    void drain() {
+      long headNum = head.getAsLong();
+      try {
+        while (next <= headNum && observer.isReady()) {
+          observer.onNext(chainBaseManager.getBlockByNum(next).getInstance());
+          next++;
+        }
+      } catch (StoreException e) {
+        fail(Status.NOT_FOUND.withDescription("block " + next + " not found"));
+        return;
+      }
+      // a resumed subscriber catches up first, only then may it lag
+      if (next > headNum) {
+        live = true;
+      } else if (live && headNum - next >= bufferSize) {
+        fail(Status.RESOURCE_EXHAUSTED.withDescription(
+            "subscriber is " + (headNum - next + 1) + " blocks behind"));
+      }
+    }
+  }
+
+  private class TransactionSubscriber extends Subscriber<Transaction> {
+
+    private final Set<ByteString> addresses;
+    private final BlockingQueue<Transaction> queue;
+
+    TransactionSubscriber(StreamObserver<Transaction> observer, Set<ByteString> addresses) {
+      super(observer);
+      this.addresses = addresses;
+      this.queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+    }
+
+    void offer(Transaction trx, Supplier<Set<ByteString>> trxAddresses) {
+      if (!addresses.isEmpty() && Collections.disjoint(addresses, trxAddresses.get())) {
+        return;
+      }
+      if (queue.offer(trx)) {
+        schedule();
+      } else {
+        fail(Status.RESOURCE_EXHAUSTED.withDescription(
+            "subscriber is " + queue.size() + " transactions behind"));
+      }
+    }
+
+    @Override
+    void drain() {
+      Transaction trx;
+      while (observer.isReady() && (trx = queue.poll()) != null) {
+        observer.onNext(trx);
+      }
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package org.stabila.core.services;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.common.logsfilter.EventPluginConfig;
+import org.stabila.common.logsfilter.EventPluginLoader;
+import org.stabila.common.logsfilter.LogBloom;
+import org.stabila.common.logsfilter.TriggerPipeline;
+import org.stabila.common.logsfilter.capsule.BlockLogTriggerCapsule;
+import org.stabila.common.logsfilter.capsule.ContractTriggerCapsule;
+import org.stabila.common.logsfilter.capsule.TransactionLogTriggerCapsule;
+import org.stabila.common.logsfilter.capsule.TriggerCapsule;
+import org.stabila.common.logsfilter.trigger.ContractTrigger;
+import org.stabila.common.runtime.vm.DataWord;
+import org.stabila.common.runtime.vm.LogInfo;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.capsule.TransactionRetCapsule;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
+import org.stabila.core.vm.LogInfoTriggerParser;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+/**
+ * Regenerates the block, transaction and contract log/event triggers of past blocks from the
+ * BlockStore and the TransactionRetStore, without executing anything, and posts them to the
+ * event plugin, native queue or spool like live triggers. Blocks are rebuilt in parallel and
+ * delivered in order, through a pipeline of their own.
+ *
+ * <p>Only solidified blocks are replayed, their solidity triggers went out with the live blocks,
+ * so the replayed contract triggers are not posted again as solidity triggers. Contract triggers
+ * need the stored transaction infos, kept when storage.transHistory.switch is on, and are decoded
+ * with the current abi of the contract.
+ *
+ * <p>The replay delivers through its own sequencer while the live one keeps delivering new
+ * blocks, so a consumer sees the replayed triggers interleaved with the live ones, each stream
+ * in block order.
+ */
+@Slf4j(topic = "event")
+@Component
+public class TriggerReplayService {
+
+  @Autowired
+  private Manager dbManager;
+
+  @Autowired
+  private ChainBaseManager chainBaseManager;
+
+  private volatile Replay replay;
+
+  public synchronized Replay start(long fromBlock, long toBlock) {
+    if (!dbManager.eventPluginLoaded) {
+      throw new IllegalStateException("event subscription is not enabled");
+    }
+    if (Objects.nonNull(replay) && !replay.isDone()) {
+      throw new IllegalStateException("a replay is running, blocks " + replay.getFromBlock()
+          + " to " + replay.getToBlock());
+    }
+    long solidified = chainBaseManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
+    if (fromBlock < 0 || fromBlock > toBlock || toBlock > solidified) {
+      throw new IllegalArgumentException("invalid range [" + fromBlock + ", " + toBlock
+          + "], latest solidified block is " + solidified);
+    }
+    Replay started = new Replay(fromBlock, toBlock);
+    replay = started;
+    Thread thread = new Thread(() -> run(started), "trigger-replay");
+    thread.setDaemon(true);
+    thread.start();
+    return started;
+  }
+
+  public Replay getReplay() {
+    return replay;
+  }
+
+  public void cancel() {
+    Replay current = replay;
+    if (Objects.nonNull(current)) {
+      current.cancelled = true;
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    cancel();
+  }
+
+  private void run(Replay replay) {
+    EventPluginConfig config = Args.getInstance().getEventPluginConfig();
+    TriggerPipeline pipeline = new TriggerPipeline("trigger-replay",
+        config.getProcessThreads(), config.getProcessQueueSize());
+    logger.info("Replay triggers of blocks {} to {}", replay.fromBlock, replay.toBlock);
+    try {
+      for (long num = replay.fromBlock; num <= replay.toBlock && !replay.cancelled; num++) {
+        pipeline.submit(new BlockReplay(num, replay));
+      }
+      CountDownLatch delivered = new CountDownLatch(1);
+      pipeline.submit(new TriggerCapsule() {
+        @Override
+        public Runnable prepareTrigger() {
+          return delivered::countDown;
+        }
+      });
+      delivered.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      pipeline.shutdown();
+      replay.done = true;
+    }
+    logger.info("Replay of blocks {} to {} {} at block {}", replay.fromBlock, replay.toBlock,
+        replay.cancelled ? "cancelled" : "finished", replay.lastBlock);
+  }
+
+  /**
+   * Rebuilds the triggers of a block on a worker, in the order the block posted them live:
+   * contract triggers of each transaction, then the block, then its transactions.
+   */
+  private class BlockReplay extends TriggerCapsule {
+
+    private final long num;
+    private final Replay replay;
+
+    private BlockReplay(long num, Replay replay) {
+      this.num = num;
+      this.replay = replay;
+    }
+
+    @Override
+    public Runnable prepareTrigger() {
+      if (replay.cancelled) {
+        return () -> {
+        };
+      }
+      try {
+        List<Runnable> deliveries = prepare();
+        return () -> {
+          deliveries.forEach(Runnable::run);
+          replay.lastBlock = num;
+        };
+      } catch (Exception e) {
+        logger.error("Replay of block {} failed", num, e);
+        replay.failed.incrementAndGet();
+        return () -> {
+        };
+      }
+    }
+
+    private List<Runnable> prepare() throws Exception {
+      EventPluginLoader loader = EventPluginLoader.getInstance();
+      long solidified = chainBaseManager.getDynamicPropertiesStore()
+          .getLatestSolidifiedBlockNum();
+      BlockCapsule block = chainBaseManager.getBlockByNum(num);
+
+      Map<ByteString, TransactionInfo> infos = new HashMap<>();
+      TransactionRetCapsule ret = chainBaseManager.getTransactionRetStore()
+          .getTransactionInfoByBlockNum(ByteArray.fromLong(num));
+      if (Objects.nonNull(ret) && Objects.nonNull(ret.getInstance())) {
+        ret.getInstance().getTransactioninfoList().forEach(info -> infos.put(info.getId(), info));
+      }
+
+      List<Runnable> deliveries = new ArrayList<>();
+      if ((loader.isContractEventTriggerEnable() || loader.isContractLogTriggerEnable())
+          && EventPluginLoader.matchBloom(num, bloom(infos.values()))) {
+        for (TransactionCapsule trx : block.getTransactions()) {
+          TransactionInfo info = infos.get(ByteString.copyFrom(trx.getTransactionId().getBytes()));
+          if (Objects.isNull(info) || info.getLogCount() == 0) {
+            continue;
+          }
+          for (ContractTrigger trigger : contractTriggers(block, trx, info)) {
+            ContractTriggerCapsule capsule = new ContractTriggerCapsule(trigger);
+            capsule.setPostSolidity(false);
+            capsule.setLatestSolidifiedBlockNumber(solidified);
+            deliveries.add(capsule.prepareTrigger());
+          }
+        }
+      }
+
+      if (loader.isBlockLogTriggerEnable()) {
+        BlockLogTriggerCapsule capsule = new BlockLogTriggerCapsule(block);
+        capsule.setLatestSolidifiedBlockNumber(solidified);
+        deliveries.add(capsule.prepareTrigger());
+      }
+
+      if (loader.isTransactionLogTriggerEnable()) {
+        for (TransactionCapsule trx : block.getTransactions()) {
+          TransactionLogTriggerCapsule capsule = new TransactionLogTriggerCapsule(trx, block,
+              infos.get(ByteString.copyFrom(trx.getTransactionId().getBytes())));
+          capsule.setLatestSolidifiedBlockNumber(solidified);
+          deliveries.add(capsule.prepareTrigger());
+        }
+      }
+      return deliveries;
+    }
+
+    /**
+     * The stored bloom of the block, rebuilt from its infos for blocks applied before the node
+     * kept blooms.
+     */
+    private LogBloom bloom(Collection<TransactionInfo> infos) {
+      LogBloom bloom = chainBaseManager.getLogBloomStore().getBloom(num);
+      return bloom.isEmpty() ? LogBloom.of(infos) : bloom;
+    }
+
+    private List<ContractTrigger> contractTriggers(BlockCapsule block, TransactionCapsule trx,
+        TransactionInfo info) {
+      List<LogInfo> logInfos = new ArrayList<>();
+      for (TransactionInfo.Log log : info.getLogList()) {
+        List<DataWord> topics = new ArrayList<>();
+        log.getTopicsList().forEach(topic -> topics.add(new DataWord(topic.toByteArray())));
+        logInfos.add(new LogInfo(log.getAddress().toByteArray(), topics,
+            log.getData().toByteArray()));
+      }
+      LogInfoTriggerParser parser = new LogInfoTriggerParser(block.getNum(), block.getTimeStamp(),
+          trx.getTransactionId().getBytes(),
+          TransactionCapsule.getOwner(trx.getInstance().getRawData().getContract(0)));
+      return parser.parseLogInfos(logInfos, chainBaseManager.getContractStore()::get);
+    }
+  }
+
+  @Getter
+  public static class Replay {
+
+    private final long fromBlock;
+    private final long toBlock;
+    private volatile long lastBlock = -1;
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean done;
+    private volatile boolean cancelled;
+
+    private Replay(long fromBlock, long toBlock) {
+      this.fromBlock = fromBlock;
+      this.toBlock = toBlock;
+    }
+
+    public long getFailed() {
+      return failed.get();
+    }
+  }
+}
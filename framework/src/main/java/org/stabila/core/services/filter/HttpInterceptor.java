@@ -1,5 +1,7 @@
 package org.stabila.core.services.filter;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -32,27 +34,29 @@ public class HttpInterceptor implements Filter {
             (HttpServletResponse) response);
         chain.doFilter(request, responseWrapper);
 
-        HttpServletResponse resp = (HttpServletResponse) response;
-
-        if (resp.getStatus() != HTTP_NOT_FOUND) {  // correct endpoint
-          String endpointQPS = MetricsKey.NET_API_DETAIL_QPS + endpoint;
-          MetricsUtil.meterMark(MetricsKey.NET_API_QPS);
-          MetricsUtil.meterMark(endpointQPS);
-
-          int reposeContentSize = responseWrapper.getByteSize();
-          String endpointOutTraffic = MetricsKey.NET_API_DETAIL_OUT_TRAFFIC + endpoint;
-          MetricsUtil.meterMark(MetricsKey.NET_API_OUT_TRAFFIC,
-              reposeContentSize);
-          MetricsUtil.meterMark(endpointOutTraffic, reposeContentSize);
-
-          if (resp.getStatus() != HTTP_SUCCESS) {  //http fail
-            String endpointFailQPS = MetricsKey.NET_API_DETAIL_FAIL_QPS + endpoint;
-            MetricsUtil.meterMark(MetricsKey.NET_API_FAIL_QPS);
-            MetricsUtil.meterMark(endpointFailQPS);
-          }
-        } else { // wrong endpoint
-          MetricsUtil.meterMark(MetricsKey.NET_API_QPS);
-          MetricsUtil.meterMark(MetricsKey.NET_API_FAIL_QPS);
+        if (request.isAsyncStarted()) {
+          // served on a pool, the response is known once the request completes
+          String asyncEndpoint = endpoint;
+          request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+              record(asyncEndpoint, (HttpServletResponse) response, responseWrapper);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+          });
+        } else {
+          record(endpoint, (HttpServletResponse) response, responseWrapper);
         }
 
       } else {
@@ -75,6 +79,30 @@ public class HttpInterceptor implements Filter {
 
   }
 
+  private void record(String uri, HttpServletResponse resp,
+      CharResponseWrapper responseWrapper) {
+    if (resp.getStatus() != HTTP_NOT_FOUND) {  // correct endpoint
+      String endpointQPS = MetricsKey.NET_API_DETAIL_QPS + uri;
+      MetricsUtil.meterMark(MetricsKey.NET_API_QPS);
+      MetricsUtil.meterMark(endpointQPS);
+
+      int reposeContentSize = responseWrapper.getByteSize();
+      String endpointOutTraffic = MetricsKey.NET_API_DETAIL_OUT_TRAFFIC + uri;
+      MetricsUtil.meterMark(MetricsKey.NET_API_OUT_TRAFFIC,
+          reposeContentSize);
+      MetricsUtil.meterMark(endpointOutTraffic, reposeContentSize);
+
+      if (resp.getStatus() != HTTP_SUCCESS) {  //http fail
+        String endpointFailQPS = MetricsKey.NET_API_DETAIL_FAIL_QPS + uri;
+        MetricsUtil.meterMark(MetricsKey.NET_API_FAIL_QPS);
+        MetricsUtil.meterMark(endpointFailQPS);
+      }
+    } else { // wrong endpoint
+      MetricsUtil.meterMark(MetricsKey.NET_API_QPS);
+      MetricsUtil.meterMark(MetricsKey.NET_API_FAIL_QPS);
+    }
+  }
+
   @Override
   public void destroy() {
 
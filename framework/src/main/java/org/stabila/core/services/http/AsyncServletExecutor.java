@@ -0,0 +1,171 @@
+package org.stabila.core.services.http;
+
+import com.codahale.metrics.Snapshot;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.AsyncServletItem;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.core.metrics.MetricsKey;
+import org.stabila.core.metrics.MetricsUtil;
+import org.stabila.core.metrics.net.AsyncPoolInfo;
+
+/**
+ * Serves the servlets listed in node.http.asyncServlets off the jetty threads. Each servlet has a
+ * pool of its own with a bounded queue, so that slow apis such as triggerconstantcontract only
+ * hold up their own callers. A request is answered with 503 when the queue of its servlet is full
+ * or when it waited longer than the timeout of the servlet.
+ */
+@Slf4j(topic = "API")
+@Component
+public class AsyncServletExecutor {
+
+  private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+  public AsyncServletExecutor() {
+    for (AsyncServletItem item : CommonParameter.getInstance().getHttpAsyncServlets()) {
+      pools.put(item.getServlet(), new Pool(item));
+    }
+  }
+
+  /**
+   * Lets the servlets and filters of the context go asynchronous, jetty refuses startAsync
+   * otherwise.
+   */
+  public static void enableAsync(ServletContextHandler context) {
+    for (ServletHolder holder : context.getServletHandler().getServlets()) {
+      holder.setAsyncSupported(true);
+    }
+    for (FilterHolder holder : context.getServletHandler().getFilters()) {
+      holder.setAsyncSupported(true);
+    }
+  }
+
+  public boolean isAsync(String servlet) {
+    return pools.containsKey(servlet);
+  }
+
+  /**
+   * Runs the handler on the pool of the servlet and completes the request after it.
+   */
+  public void execute(String servlet, HttpServletRequest request, HttpServletResponse response,
+      Handler handler) {
+    Pool pool = pools.get(servlet);
+    AsyncContext context = request.startAsync(request, response);
+    // the pool bounds the wait, a running request is never cut short
+    context.setTimeout(0);
+    long queued = System.nanoTime();
+    try {
+      pool.executor.execute(() -> {
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued);
+        MetricsUtil.histogramUpdate(MetricsKey.NET_API_ASYNC_QUEUE_WAIT + servlet, waited);
+        try {
+          if (waited > pool.item.getTimeout()) {
+            MetricsUtil.meterMark(MetricsKey.NET_API_ASYNC_TIMEOUT + servlet);
+            reject(response, "request timed out in the queue");
+          } else {
+            handler.handle();
+          }
+        } catch (Exception e) {
+          logger.warn("async servlet {} failed: {}", servlet, e.getMessage());
+        } finally {
+          complete(context);
+          MetricsUtil.histogramUpdate(MetricsKey.NET_API_ASYNC_LATENCY + servlet,
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued));
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      MetricsUtil.meterMark(MetricsKey.NET_API_ASYNC_REJECT + servlet);
+      reject(response, "too many queued requests");
+      complete(context);
+    }
+  }
+
+  public List<AsyncPoolInfo> getPoolInfos() {
+    List<AsyncPoolInfo> infos = new ArrayList<>();
+    pools.forEach((servlet, pool) -> {
+      AsyncPoolInfo info = new AsyncPoolInfo();
+      info.setName(servlet);
+      info.setThreads(pool.item.getThreads());
+      info.setActiveCount(pool.executor.getActiveCount());
+      info.setQueueSize(pool.executor.getQueue().size());
+      info.setQueueCapacity(pool.item.getQueueSize());
+      info.setTimeout(pool.item.getTimeout());
+      info.setRejectQps(MetricsUtil.getRateInfo(MetricsKey.NET_API_ASYNC_REJECT + servlet));
+      info.setTimeoutQps(MetricsUtil.getRateInfo(MetricsKey.NET_API_ASYNC_TIMEOUT + servlet));
+      Snapshot queueWait = MetricsUtil
+          .getHistogram(MetricsKey.NET_API_ASYNC_QUEUE_WAIT + servlet).getSnapshot();
+      info.setQueueWaitTop99((int) queueWait.get99thPercentile());
+      info.setQueueWaitTop95((int) queueWait.get95thPercentile());
+      Snapshot latency = MetricsUtil
+          .getHistogram(MetricsKey.NET_API_ASYNC_LATENCY + servlet).getSnapshot();
+      info.setLatencyTop99((int) latency.get99thPercentile());
+      info.setLatencyTop95((int) latency.get95thPercentile());
+      info.setLatencyTop75((int) latency.get75thPercentile());
+      info.setCount(MetricsUtil.getHistogram(MetricsKey.NET_API_ASYNC_LATENCY + servlet)
+          .getCount());
+      infos.add(info);
+    });
+    return infos;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pools.values().forEach(pool -> pool.executor.shutdownNow());
+  }
+
+  private static void reject(HttpServletResponse response, String reason) {
+    try {
+      response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      response.getWriter().println(Util.printErrorMsg(new IllegalAccessException(reason)));
+    } catch (IOException | IllegalStateException e) {
+      logger.debug("failed to reject the request: {}", e.getMessage());
+    }
+  }
+
+  private static void complete(AsyncContext context) {
+    try {
+      // the writers of the filters buffer, flush them before the response is closed
+      context.getResponse().flushBuffer();
+    } catch (IOException e) {
+      logger.debug("failed to flush the response: {}", e.getMessage());
+    }
+    context.complete();
+  }
+
+  public interface Handler {
+
+    void handle() throws ServletException, IOException;
+  }
+
+  private static class Pool {
+
+    private final AsyncServletItem item;
+    private final ThreadPoolExecutor executor;
+
+    private Pool(AsyncServletItem item) {
+      this.item = item;
+      this.executor = new ThreadPoolExecutor(item.getThreads(), item.getThreads(),
+          0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(item.getQueueSize()),
+          new ThreadFactoryBuilder().setNameFormat("http-" + item.getServlet() + "-%d")
+              .setDaemon(true).build());
+    }
+  }
+}
@@ -17,6 +17,7 @@ import org.eclipse.jetty.servlet.ServletHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.stabila.common.application.Service;
+import org.stabila.common.logsfilter.EventPluginConfig;
 import org.stabila.common.parameter.CommonParameter;
 import org.stabila.common.zksnark.JLibrustzcash;
 import org.stabila.common.zksnark.LibrustzcashParam.InitZksnarkParams;
@@ -240,6 +241,16 @@ public class FullNodeHttpApiService implements Service {
   @Autowired
   private GetTransactionInfoByBlockNumServlet getTransactionInfoByBlockNumServlet;
   @Autowired
+  private GetLogsServlet getLogsServlet;
+  @Autowired
+  private GetAccountsServlet getAccountsServlet;
+  @Autowired
+  private GetTransactionsByAccountServlet getTransactionsByAccountServlet;
+  @Autowired
+  private GetTransactionInfosByIdsServlet getTransactionInfosByIdsServlet;
+  @Autowired
+  private GetBlocksByRangeServlet getBlocksByRangeServlet;
+  @Autowired
   private IsShieldedTRC20ContractNoteSpentServlet isShieldedTRC20ContractNoteSpentServlet;
   @Autowired
   private CreateShieldedContractParametersServlet createShieldedContractParametersServlet;
@@ -256,6 +267,10 @@ public class FullNodeHttpApiService implements Service {
   @Autowired
   private MetricsServlet metricsServlet;
   @Autowired
+  private GetVmProfileServlet getVmProfileServlet;
+  @Autowired
+  private ReplayTriggersServlet replayTriggersServlet;
+  @Autowired
   private MarketSellAssetServlet marketSellAssetServlet;
   @Autowired
   private MarketCancelOrderServlet marketCancelOrderServlet;
@@ -502,9 +517,21 @@ public class FullNodeHttpApiService implements Service {
           "/wallet/createCommonTransaction");
       context.addServlet(new ServletHolder(getTransactionInfoByBlockNumServlet),
           "/wallet/gettransactioninfobyblocknum");
+      context.addServlet(new ServletHolder(getLogsServlet), "/wallet/getlogs");
+      context.addServlet(new ServletHolder(getAccountsServlet), "/wallet/getaccounts");
+      context.addServlet(new ServletHolder(getTransactionsByAccountServlet),
+          "/wallet/gettransactionsbyaccount");
+      context.addServlet(new ServletHolder(getTransactionInfosByIdsServlet),
+          "/wallet/gettransactioninfosbyids");
+      context.addServlet(new ServletHolder(getBlocksByRangeServlet), "/wallet/getblocksbyrange");
       context.addServlet(new ServletHolder(listNodesServlet), "/net/listnodes");
 
       context.addServlet(new ServletHolder(metricsServlet), "/monitor/getstatsinfo");
+      context.addServlet(new ServletHolder(getVmProfileServlet), "/monitor/getvmprofile");
+      EventPluginConfig eventPluginConfig = Args.getInstance().getEventPluginConfig();
+      if (eventPluginConfig != null && eventPluginConfig.isReplayEnable()) {
+        context.addServlet(new ServletHolder(replayTriggersServlet), "/monitor/replaytriggers");
+      }
       context.addServlet(new ServletHolder(getNodeInfoServlet), "/monitor/getnodeinfo");
       context.addServlet(new ServletHolder(marketSellAssetServlet), "/wallet/marketsellasset");
       context.addServlet(new ServletHolder(marketCancelOrderServlet), "/wallet/marketcancelorder");
@@ -547,6 +574,7 @@ public class FullNodeHttpApiService implements Service {
               EnumSet.of(DispatcherType.REQUEST));
       context.addFilter(fh, "/*", EnumSet.of(DispatcherType.REQUEST));
 
+      AsyncServletExecutor.enableAsync(context);
       server.start();
     } catch (Exception e) {
       logger.debug("IOException: {}", e.getMessage());
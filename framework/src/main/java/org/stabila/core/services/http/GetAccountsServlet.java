@@ -0,0 +1,39 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.AccountList;
+import org.stabila.api.GrpcAPI.AddressList;
+import org.stabila.core.Wallet;
+import org.stabila.protos.Protocol.Account;
+
+
+@Component
+@Slf4j(topic = "API")
+public class GetAccountsServlet extends RateLimiterServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      AddressList.Builder build = AddressList.newBuilder();
+      JsonFormat.merge(params.getParams(), build, params.isVisible());
+      AccountList reply = wallet.getAccounts(build.build());
+      JSONArray accounts = new JSONArray();
+      for (Account account : reply.getAccountsList()) {
+        accounts.add(JSONObject.parseObject(params.isVisible()
+            ? JsonFormat.printToString(account, true) : Util.convertOutput(account)));
+      }
+      response.getWriter().println(accounts.toJSONString());
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+}
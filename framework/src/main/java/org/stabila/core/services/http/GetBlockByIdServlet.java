@@ -26,7 +26,7 @@ public class GetBlockByIdServlet extends RateLimiterServlet {
       String input = request.getParameter("value");
       fillResponse(visible, ByteString.copyFrom(ByteArray.fromHexString(input)), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -37,7 +37,7 @@ public class GetBlockByIdServlet extends RateLimiterServlet {
       JsonFormat.merge(params.getParams(), build, params.isVisible());
       fillResponse(params.isVisible(), build.getValue(), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -45,7 +45,7 @@ public class GetBlockByIdServlet extends RateLimiterServlet {
       throws IOException {
     Block reply = wallet.getBlockById(blockId);
     if (reply != null) {
-      response.getWriter().println(Util.printBlock(reply, visible));
+      JsonStreamPrinter.printBlock(reply, visible, response.getOutputStream());
     } else {
       response.getWriter().println("{}");
     }
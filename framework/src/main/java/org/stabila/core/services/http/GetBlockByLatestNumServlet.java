@@ -23,7 +23,7 @@ public class GetBlockByLatestNumServlet extends RateLimiterServlet {
     try {
       fillResponse(Util.getVisible(request), Long.parseLong(request.getParameter("num")), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -34,7 +34,7 @@ public class GetBlockByLatestNumServlet extends RateLimiterServlet {
       JsonFormat.merge(params.getParams(), build, params.isVisible());
       fillResponse(params.isVisible(), build.getNum(), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -43,7 +43,7 @@ public class GetBlockByLatestNumServlet extends RateLimiterServlet {
     if (num > 0 && num < BLOCK_LIMIT_NUM) {
       BlockList reply = wallet.getBlockByLatestNum(num);
       if (reply != null) {
-        response.getWriter().println(Util.printBlockList(reply, visible));
+        JsonStreamPrinter.printBlockList(reply, visible, response.getOutputStream());
         return;
       }
     }
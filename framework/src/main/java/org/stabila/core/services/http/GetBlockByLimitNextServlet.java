@@ -24,7 +24,7 @@ public class GetBlockByLimitNextServlet extends RateLimiterServlet {
       fillResponse(Util.getVisible(request), Long.parseLong(request.getParameter("startNum")),
           Long.parseLong(request.getParameter("endNum")), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -35,7 +35,7 @@ public class GetBlockByLimitNextServlet extends RateLimiterServlet {
       JsonFormat.merge(params.getParams(), build, params.isVisible());
       fillResponse(params.isVisible(), build.getStartNum(), build.getEndNum(), response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -45,7 +45,7 @@ public class GetBlockByLimitNextServlet extends RateLimiterServlet {
     if (endNum > 0 && endNum > startNum && endNum - startNum <= BLOCK_LIMIT_NUM) {
       BlockList reply = wallet.getBlocksByLimitNext(startNum, endNum - startNum);
       if (reply != null) {
-        response.getWriter().println(Util.printBlockList(reply, visible));
+        JsonStreamPrinter.printBlockList(reply, visible, response.getOutputStream());
         return;
       }
     }
@@ -1,5 +1,6 @@
 package org.stabila.core.services.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -17,12 +18,15 @@ public class GetBlockByNumServlet extends RateLimiterServlet {
 
   @Autowired
   private Wallet wallet;
+  @Autowired
+  private ResponseCache responseCache;
 
   protected void doGet(HttpServletRequest request, HttpServletResponse response) {
     try {
-      fillResponse(Util.getVisible(request), Long.parseLong(request.getParameter("num")), response);
+      fillResponse(Util.getVisible(request), Long.parseLong(request.getParameter("num")), request,
+          response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -31,17 +35,25 @@ public class GetBlockByNumServlet extends RateLimiterServlet {
       PostParams params = PostParams.getPostParams(request);
       NumberMessage.Builder build = NumberMessage.newBuilder();
       JsonFormat.merge(params.getParams(), build, params.isVisible());
-      fillResponse(params.isVisible(), build.getNum(), response);
+      fillResponse(params.isVisible(), build.getNum(), request, response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
-  private void fillResponse(boolean visible, long num, HttpServletResponse response)
-      throws IOException {
+  private void fillResponse(boolean visible, long num, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    String key = ResponseCache.key("getblockbynum", String.valueOf(num), visible);
+    if (responseCache.serve(key, request, response)) {
+      return;
+    }
     Block reply = wallet.getBlockByNum(num);
-    if (reply != null) {
-      response.getWriter().println(Util.printBlock(reply, visible));
+    if (reply != null && responseCache.isSolidified(num)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      JsonStreamPrinter.printBlock(reply, visible, out);
+      responseCache.write(key, out.toByteArray(), true, request, response);
+    } else if (reply != null) {
+      JsonStreamPrinter.printBlock(reply, visible, response.getOutputStream());
     } else {
       response.getWriter().println("{}");
     }
@@ -0,0 +1,61 @@
+package org.stabila.core.services.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.BlockLimit;
+import org.stabila.core.Wallet;
+
+/**
+ * Writes the blocks as a json array, one block at a time as they are read.
+ */
+@Component
+@Slf4j(topic = "API")
+public class GetBlocksByRangeServlet extends RateLimiterServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      fillResponse(Util.getVisible(request), Long.parseLong(request.getParameter("startNum")),
+          Long.parseLong(request.getParameter("endNum")), response);
+    } catch (Exception e) {
+      Util.processStreamError(e, response);
+    }
+  }
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      BlockLimit.Builder build = BlockLimit.newBuilder();
+      JsonFormat.merge(params.getParams(), build, params.isVisible());
+      fillResponse(params.isVisible(), build.getStartNum(), build.getEndNum(), response);
+    } catch (Exception e) {
+      Util.processStreamError(e, response);
+    }
+  }
+
+  private void fillResponse(boolean visible, long startNum, long endNum,
+      HttpServletResponse response) throws Exception {
+    boolean[] first = {true};
+    wallet.getBlocksByRange(startNum, endNum, block -> {
+      try {
+        OutputStream out = response.getOutputStream();
+        out.write(first[0] ? '[' : ',');
+        first[0] = false;
+        JsonStreamPrinter.printBlock(block, visible, out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    response.getOutputStream()
+        .write((first[0] ? "[]\n" : "]\n").getBytes(StandardCharsets.UTF_8));
+  }
+}
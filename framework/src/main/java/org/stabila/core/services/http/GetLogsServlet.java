@@ -0,0 +1,70 @@
+package org.stabila.core.services.http;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.LogFilter;
+import org.stabila.api.GrpcAPI.LogResult;
+import org.stabila.core.Wallet;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+/**
+ * Writes the matching logs as a json array, one log at a time as the blocks are scanned. The
+ * filter is checked before the array is started; a failure after that ends the array with an
+ * error element.
+ */
+@Component
+@Slf4j(topic = "API")
+public class GetLogsServlet extends RateLimiterServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    boolean[] first = {true};
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      LogFilter.Builder build = LogFilter.newBuilder();
+      JsonFormat.merge(params.getParams(), build, params.isVisible());
+      boolean visible = params.isVisible();
+      PrintWriter writer = response.getWriter();
+      wallet.getLogs(build.build(), result -> {
+        writer.print(first[0] ? "[" : ",");
+        first[0] = false;
+        writer.println(JsonFormat.printToString(convertLogAddress(result, visible), visible));
+      });
+      writer.println(first[0] ? "[]" : "]");
+    } catch (Exception e) {
+      if (first[0]) {
+        Util.processError(e, response);
+      } else {
+        closeArrayWithError(e, response);
+      }
+    }
+  }
+
+  /**
+   * Ends the array already started with the error as its last element, so that the body stays
+   * valid json.
+   */
+  private static void closeArrayWithError(Exception e, HttpServletResponse response) {
+    logger.debug("Exception: {}", e.getMessage());
+    try {
+      response.getWriter().println("," + Util.printErrorMsg(e) + "]");
+    } catch (IOException ioe) {
+      logger.debug("IOException: {}", ioe.getMessage());
+    }
+  }
+
+  private LogResult convertLogAddress(LogResult result, boolean visible) {
+    if (!visible) {
+      return result;
+    }
+    TransactionInfo info = TransactionInfo.newBuilder().addLog(result.getLog()).build();
+    return result.toBuilder().setLog(Util.convertLogAddressToStabilaAddress(info).get(0)).build();
+  }
+}
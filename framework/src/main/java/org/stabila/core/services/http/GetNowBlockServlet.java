@@ -21,12 +21,12 @@ public class GetNowBlockServlet extends RateLimiterServlet {
       boolean visible = Util.getVisible(request);
       Block reply = wallet.getNowBlock();
       if (reply != null) {
-        response.getWriter().println(Util.printBlock(reply, visible));
+        JsonStreamPrinter.printBlock(reply, visible, response.getOutputStream());
       } else {
         response.getWriter().println("{}");
       }
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -1,8 +1,8 @@
 package org.stabila.core.services.http;
 
 import com.google.protobuf.ByteString;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -20,14 +20,17 @@ public class GetTransactionByIdServlet extends RateLimiterServlet {
 
   @Autowired
   private Wallet wallet;
+  @Autowired
+  private ResponseCache responseCache;
 
   protected void doGet(HttpServletRequest request, HttpServletResponse response) {
     try {
       boolean visible = Util.getVisible(request);
       String input = request.getParameter("value");
-      fillResponse(ByteString.copyFrom(ByteArray.fromHexString(input)), visible, response);
+      fillResponse(ByteString.copyFrom(ByteArray.fromHexString(input)), visible, request,
+          response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -36,17 +39,25 @@ public class GetTransactionByIdServlet extends RateLimiterServlet {
       PostParams params = PostParams.getPostParams(request);
       BytesMessage.Builder build = BytesMessage.newBuilder();
       JsonFormat.merge(params.getParams(), build, params.isVisible());
-      fillResponse(build.getValue(), params.isVisible(), response);
+      fillResponse(build.getValue(), params.isVisible(), request, response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
-  private void fillResponse(ByteString txId, boolean visible, HttpServletResponse response)
-      throws IOException {
+  private void fillResponse(ByteString txId, boolean visible, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    String key = ResponseCache.key("gettransactionbyid", ByteArray.toHexString(txId.toByteArray()),
+        visible);
+    if (responseCache.serve(key, request, response)) {
+      return;
+    }
     Transaction reply = wallet.getTransactionById(txId);
     if (reply != null) {
-      response.getWriter().println(Util.printTransaction(reply, visible));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      JsonStreamPrinter.printTransaction(reply, visible, out);
+      responseCache.write(key, out.toByteArray(), responseCache.isSolidified(txId), request,
+          response);
     } else {
       response.getWriter().println("{}");
     }
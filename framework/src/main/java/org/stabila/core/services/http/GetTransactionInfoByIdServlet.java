@@ -1,6 +1,8 @@
 package org.stabila.core.services.http;
 
 import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
@@ -21,6 +23,8 @@ public class GetTransactionInfoByIdServlet extends RateLimiterServlet {
 
   @Autowired
   private Wallet wallet;
+  @Autowired
+  private ResponseCache responseCache;
 
   private static String convertLogAddressToStabilaAddress(TransactionInfo transactionInfo,
       boolean visible) {
@@ -35,15 +39,10 @@ public class GetTransactionInfoByIdServlet extends RateLimiterServlet {
     try {
       boolean visible = Util.getVisible(request);
       String input = request.getParameter("value");
-      TransactionInfo reply = wallet
-          .getTransactionInfoById(ByteString.copyFrom(ByteArray.fromHexString(input)));
-      if (reply != null) {
-        response.getWriter().println(convertLogAddressToStabilaAddress(reply, visible));
-      } else {
-        response.getWriter().println("{}");
-      }
+      fillResponse(ByteString.copyFrom(ByteArray.fromHexString(input)), visible, request,
+          response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
     }
   }
 
@@ -52,14 +51,27 @@ public class GetTransactionInfoByIdServlet extends RateLimiterServlet {
       PostParams params = PostParams.getPostParams(request);
       BytesMessage.Builder build = BytesMessage.newBuilder();
       JsonFormat.merge(params.getParams(), build, params.isVisible());
-      TransactionInfo reply = wallet.getTransactionInfoById(build.getValue());
-      if (reply != null) {
-        response.getWriter().println(convertLogAddressToStabilaAddress(reply, params.isVisible()));
-      } else {
-        response.getWriter().println("{}");
-      }
+      fillResponse(build.getValue(), params.isVisible(), request, response);
     } catch (Exception e) {
-      Util.processError(e, response);
+      Util.processStreamError(e, response);
+    }
+  }
+
+  private void fillResponse(ByteString txId, boolean visible, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    String key = ResponseCache.key("gettransactioninfobyid",
+        ByteArray.toHexString(txId.toByteArray()), visible);
+    if (responseCache.serve(key, request, response)) {
+      return;
+    }
+    TransactionInfo reply = wallet.getTransactionInfoById(txId);
+    if (reply != null) {
+      byte[] body = (convertLogAddressToStabilaAddress(reply, visible) + "\n")
+          .getBytes(StandardCharsets.UTF_8);
+      responseCache.write(key, body, responseCache.isSolidified(reply.getBlockNumber()), request,
+          response);
+    } else {
+      response.getWriter().println("{}");
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.TransactionIdList;
+import org.stabila.api.GrpcAPI.TransactionInfoList;
+import org.stabila.core.Wallet;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+
+@Component
+@Slf4j(topic = "API")
+public class GetTransactionInfosByIdsServlet extends RateLimiterServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      TransactionIdList.Builder build = TransactionIdList.newBuilder();
+      JsonFormat.merge(params.getParams(), build, params.isVisible());
+      TransactionInfoList reply = wallet.getTransactionInfosByIds(build.build());
+      JSONArray infos = new JSONArray();
+      for (TransactionInfo info : reply.getTransactionInfoList()) {
+        if (params.isVisible()) {
+          info = info.toBuilder().clearLog()
+              .addAllLog(Util.convertLogAddressToStabilaAddress(info)).build();
+        }
+        infos.add(JSONObject.parseObject(JsonFormat.printToString(info, params.isVisible())));
+      }
+      response.getWriter().println(infos.toJSONString());
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+}
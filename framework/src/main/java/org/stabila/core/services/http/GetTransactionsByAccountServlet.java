@@ -0,0 +1,54 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.api.GrpcAPI.AccountTransactionList;
+import org.stabila.api.GrpcAPI.AccountTransactionList.AccountTransaction;
+import org.stabila.api.GrpcAPI.AccountTransactionsRequest;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.Wallet;
+
+
+@Component
+@Slf4j(topic = "API")
+public class GetTransactionsByAccountServlet extends RateLimiterServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      AccountTransactionsRequest.Builder build = AccountTransactionsRequest.newBuilder();
+      JsonFormat.merge(params.getParams(), build, params.isVisible());
+      AccountTransactionList reply = wallet.getTransactionsByAccount(build.build());
+      JSONArray transactions = new JSONArray();
+      for (AccountTransaction transaction : reply.getTransactionsList()) {
+        JSONObject item = new JSONObject();
+        item.put("txID", ByteArray.toHexString(transaction.getTxid().toByteArray()));
+        item.put("blockNumber", transaction.getBlockNumber());
+        item.put("index", transaction.getIndex());
+        if (transaction.hasTransaction()) {
+          item.put("transaction",
+              Util.printTransactionToJSON(transaction.getTransaction(), params.isVisible()));
+        }
+        transactions.add(item);
+      }
+      JSONObject result = new JSONObject();
+      result.put("transactions", transactions);
+      if (reply.getMore()) {
+        result.put("more", true);
+        result.put("nextBlock", reply.getNextBlock());
+        result.put("nextIndex", reply.getNextIndex());
+      }
+      response.getWriter().println(result.toJSONString());
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+}
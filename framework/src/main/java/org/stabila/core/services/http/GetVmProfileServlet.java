@@ -0,0 +1,32 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSON;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.core.metrics.MetricsApiService;
+
+@Component
+@Slf4j(topic = "API")
+public class GetVmProfileServlet extends RateLimiterServlet {
+
+  private static final int DEFAULT_LIMIT = 20;
+
+  @Autowired
+  private MetricsApiService metricsApiService;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      String limit = request.getParameter("limit");
+      int top = StringUtils.isNumeric(limit)
+          ? Integer.parseInt(limit) : DEFAULT_LIMIT;
+      response.getWriter().println(JSON.toJSONString(metricsApiService.getVmProfileInfo(top),
+          true));
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+}
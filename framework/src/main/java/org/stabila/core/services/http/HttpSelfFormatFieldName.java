@@ -23,6 +23,10 @@ public class HttpSelfFormatFieldName {
     AddressFieldNameMap.put("protocol.EasyTransferAssetByPrivateMessage.toAddress", 1);
     //TransactionSignWeight
     AddressFieldNameMap.put("protocol.TransactionSignWeight.approved_list", 1);
+    //LogFilter
+    AddressFieldNameMap.put("protocol.LogFilter.addresses", 1);
+    AddressFieldNameMap.put("protocol.AddressList.addresses", 1);
+    AddressFieldNameMap.put("protocol.AccountTransactionsRequest.address", 1);
     //TransactionApprovedList
     AddressFieldNameMap.put("protocol.TransactionApprovedList.approved_list", 1);
     //PrivateParameters
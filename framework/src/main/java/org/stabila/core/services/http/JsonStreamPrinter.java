@@ -0,0 +1,535 @@
+package org.stabila.core.services.http;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.stabila.api.GrpcAPI.BlockList;
+import org.stabila.common.crypto.Hash;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.Sha256Hash;
+import org.stabila.common.utils.StringUtil;
+import org.stabila.core.actuator.TransactionFactory;
+import org.stabila.core.capsule.BlockCapsule.BlockId;
+import org.stabila.protos.Protocol.Block;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.contract.SmartContractOuterClass.CreateSmartContract;
+
+/**
+ * Prints blocks and transactions as json straight to an output stream, in the format of
+ * {@link Util#printBlock} and {@link Util#printTransaction}: contracts with their unpacked
+ * parameter, raw_data_hex, txID, contract_address and blockID.
+ *
+ * <p>Instead of building a string with {@link JsonFormat}, parsing it with fastjson and
+ * serializing it again, the fields are read once from the serialized message and written by
+ * writers compiled per message type from its descriptor, with the field name and the visible
+ * encoding of bytes fields resolved ahead. Fields are written in field number order, unknown
+ * fields are left out.
+ */
+public class JsonStreamPrinter {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private static final Map<Descriptor, MessageWriter> WRITERS = new ConcurrentHashMap<>();
+
+  private static final Map<ContractType, MessageWriter> CONTRACT_WRITERS =
+      new ConcurrentHashMap<>();
+
+  private JsonStreamPrinter() {
+  }
+
+  public static void printBlock(Block block, boolean selfType, OutputStream out)
+      throws IOException {
+    JsonOutput output = new JsonOutput(out);
+    new Printer(output, selfType).block(block);
+    output.write('\n');
+    output.flush();
+  }
+
+  public static void printBlockList(BlockList list, boolean selfType, OutputStream out)
+      throws IOException {
+    JsonOutput output = new JsonOutput(out);
+    Printer printer = new Printer(output, selfType);
+    output.ascii("{\"block\":[");
+    for (int i = 0; i < list.getBlockCount(); i++) {
+      if (i > 0) {
+        output.write(',');
+      }
+      printer.block(list.getBlock(i));
+    }
+    output.ascii("]}\n");
+    output.flush();
+  }
+
+  public static void printTransaction(Transaction transaction, boolean selfType,
+      OutputStream out) throws IOException {
+    JsonOutput output = new JsonOutput(out);
+    new Printer(output, selfType).transaction(transaction.toByteArray());
+    output.write('\n');
+    output.flush();
+  }
+
+  private static MessageWriter writerOf(Descriptor descriptor) {
+    MessageWriter writer = WRITERS.get(descriptor);
+    if (Objects.isNull(writer)) {
+      writer = new MessageWriter(descriptor);
+      MessageWriter existing = WRITERS.putIfAbsent(descriptor, writer);
+      if (Objects.nonNull(existing)) {
+        writer = existing;
+      }
+    }
+    return writer;
+  }
+
+  private static MessageWriter contractWriterOf(ContractType type) {
+    // types without a registered contract class are not cached, they may be registered later
+    return CONTRACT_WRITERS.computeIfAbsent(type, t -> {
+      Class<?> clazz = TransactionFactory.getContract(t);
+      if (Objects.isNull(clazz)) {
+        return null;
+      }
+      try {
+        Message instance = (Message) clazz.getMethod("getDefaultInstance").invoke(null);
+        return writerOf(instance.getDescriptorForType());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  private static final class MessageWriter {
+
+    private final Descriptor descriptor;
+    private final FieldWriter[] fields;
+
+    private MessageWriter(Descriptor descriptor) {
+      this.descriptor = descriptor;
+      int max = 0;
+      for (FieldDescriptor field : descriptor.getFields()) {
+        max = Math.max(max, field.getNumber());
+      }
+      fields = new FieldWriter[max + 1];
+      for (FieldDescriptor field : descriptor.getFields()) {
+        fields[field.getNumber()] = new FieldWriter(field);
+      }
+    }
+
+    private FieldWriter field(int number) {
+      return number < fields.length ? fields[number] : null;
+    }
+  }
+
+  private static final class FieldWriter {
+
+    private final FieldDescriptor descriptor;
+    private final byte[] name;
+    private final boolean address;
+    private final boolean nameString;
+    private volatile MessageWriter message;
+
+    private FieldWriter(FieldDescriptor descriptor) {
+      this.descriptor = descriptor;
+      String fieldName = descriptor.getType() == FieldDescriptor.Type.GROUP
+          ? descriptor.getMessageType().getName() : descriptor.getName();
+      this.name = ("\"" + fieldName + "\":").getBytes(StandardCharsets.UTF_8);
+      this.address = HttpSelfFormatFieldName.isAddressFormat(descriptor.getFullName());
+      this.nameString = HttpSelfFormatFieldName.isNameStringFormat(descriptor.getFullName());
+    }
+
+    private boolean isPackable() {
+      return descriptor.isRepeated() && descriptor.isPackable();
+    }
+
+    private MessageWriter message() {
+      if (Objects.isNull(message)) {
+        message = writerOf(descriptor.getMessageType());
+      }
+      return message;
+    }
+  }
+
+  private static final class Printer {
+
+    private final JsonOutput out;
+    private final boolean selfType;
+    private final boolean ecKey = CommonParameter.getInstance().isECKeyCryptoEngine();
+    // state of the transaction being printed
+    private byte[] rawData;
+    private byte[] contractAddress;
+    private boolean contractWritten;
+
+    private Printer(JsonOutput out, boolean selfType) {
+      this.out = out;
+      this.selfType = selfType;
+    }
+
+    private void block(Block block) throws IOException {
+      out.write('{');
+      boolean any = fields(writerOf(Block.getDescriptor()),
+          CodedInputStream.newInstance(block.toByteArray()));
+      if (any) {
+        out.write(',');
+      }
+      BlockId blockId = new BlockId(Sha256Hash.of(ecKey,
+          block.getBlockHeader().getRawData().toByteArray()),
+          block.getBlockHeader().getRawData().getNumber());
+      out.ascii("\"blockID\":");
+      out.hexString(blockId.getBytes());
+      out.write('}');
+    }
+
+    private void transaction(byte[] bytes) throws IOException {
+      rawData = null;
+      contractAddress = null;
+      out.write('{');
+      boolean any = fields(writerOf(Transaction.getDescriptor()),
+          CodedInputStream.newInstance(bytes));
+      if (any) {
+        out.write(',');
+      }
+      if (Objects.isNull(rawData)) {
+        rawData = new byte[0];
+        out.ascii("\"raw_data\":{\"contract\":[]},");
+      }
+      out.ascii("\"raw_data_hex\":");
+      out.hexString(rawData);
+      out.ascii(",\"txID\":");
+      out.hexString(Sha256Hash.hash(ecKey, rawData));
+      if (Objects.nonNull(contractAddress)) {
+        out.ascii(",\"contract_address\":");
+        out.hexString(contractAddress);
+      }
+      out.write('}');
+    }
+
+    private void raw(byte[] bytes) throws IOException {
+      rawData = bytes;
+      contractWritten = false;
+      out.write('{');
+      boolean any = fields(writerOf(Transaction.raw.getDescriptor()),
+          CodedInputStream.newInstance(bytes));
+      if (!contractWritten) {
+        out.ascii(any ? ",\"contract\":[]" : "\"contract\":[]");
+      }
+      out.write('}');
+    }
+
+    /**
+     * Writes a contract as {"parameter":{"value":...,"type_url":...},"type":...} with its
+     * Permission_id when set, like Util.printTransactionToJSON, or nothing when its parameter
+     * does not unpack to the contract type.
+     *
+     * @return whether the contract was written
+     */
+    private boolean contract(CodedInputStream in, boolean first) throws IOException {
+      int typeNumber = 0;
+      int permissionId = 0;
+      String typeUrl = "";
+      byte[] value = null;
+      int tag;
+      while ((tag = in.readTag()) != 0) {
+        switch (WireFormat.getTagFieldNumber(tag)) {
+          case Transaction.Contract.TYPE_FIELD_NUMBER:
+            typeNumber = in.readEnum();
+            break;
+          case Transaction.Contract.PARAMETER_FIELD_NUMBER:
+            int limit = in.pushLimit(in.readRawVarint32());
+            int anyTag;
+            while ((anyTag = in.readTag()) != 0) {
+              if (WireFormat.getTagFieldNumber(anyTag) == 1) {
+                typeUrl = in.readStringRequireUtf8();
+              } else if (WireFormat.getTagFieldNumber(anyTag) == 2) {
+                value = in.readByteArray();
+              } else {
+                in.skipField(anyTag);
+              }
+            }
+            in.popLimit(limit);
+            break;
+          case Transaction.Contract.PERMISSION_ID_FIELD_NUMBER:
+            permissionId = in.readInt32();
+            break;
+          default:
+            in.skipField(tag);
+        }
+      }
+
+      ContractType type = ContractType.forNumber(typeNumber);
+      MessageWriter writer = Objects.isNull(type) ? null : contractWriterOf(type);
+      // Any.unpack fails on a type url of another type, the contract is left out then
+      int slash = typeUrl.lastIndexOf('/');
+      if (Objects.nonNull(writer) && (slash < 0
+          || !typeUrl.substring(slash + 1).equals(writer.descriptor.getFullName()))) {
+        return false;
+      }
+      if (!first) {
+        out.write(',');
+      }
+      out.ascii("{\"parameter\":{");
+      if (Objects.nonNull(writer)) {
+        byte[] parameter = Objects.isNull(value) ? new byte[0] : value;
+        out.ascii("\"value\":{");
+        fields(writer, CodedInputStream.newInstance(parameter));
+        out.ascii("},");
+        if (type == ContractType.CreateSmartContract) {
+          byte[] owner = CreateSmartContract.parseFrom(parameter).getOwnerAddress().toByteArray();
+          byte[] rawHash = Sha256Hash.of(ecKey, rawData).getBytes();
+          byte[] combined = new byte[rawHash.length + owner.length];
+          System.arraycopy(rawHash, 0, combined, 0, rawHash.length);
+          System.arraycopy(owner, 0, combined, rawHash.length, owner.length);
+          contractAddress = Hash.sha3omit12(combined);
+        }
+      }
+      out.ascii("\"type_url\":");
+      out.string(typeUrl);
+      out.ascii("},\"type\":\"");
+      out.ascii(Objects.isNull(type) ? "UNRECOGNIZED" : type.name());
+      out.write('"');
+      if (permissionId > 0) {
+        out.ascii(",\"Permission_id\":");
+        out.ascii(Integer.toString(permissionId));
+      }
+      out.write('}');
+      return true;
+    }
+
+    /**
+     * Writes the fields read from {@code in} as comma separated json members, the elements of
+     * repeated fields, contiguous on the wire, gathered in an array.
+     *
+     * @return whether any field was written
+     */
+    private boolean fields(MessageWriter writer, CodedInputStream in) throws IOException {
+      boolean any = false;
+      FieldWriter open = null;
+      boolean empty = true;
+      int tag;
+      while ((tag = in.readTag()) != 0) {
+        FieldWriter field = writer.field(WireFormat.getTagFieldNumber(tag));
+        if (Objects.isNull(field)) {
+          in.skipField(tag);
+          continue;
+        }
+        if (field != open) {
+          if (Objects.nonNull(open)) {
+            out.write(']');
+          }
+          if (any) {
+            out.write(',');
+          }
+          any = true;
+          out.write(field.name);
+          open = null;
+          if (field.descriptor.isRepeated()) {
+            out.write('[');
+            open = field;
+            empty = true;
+          }
+        }
+        if (Objects.isNull(open)) {
+          value(field, in, true);
+        } else if (field.isPackable()
+            && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          int limit = in.pushLimit(in.readRawVarint32());
+          while (in.getBytesUntilLimit() > 0) {
+            value(field, in, empty);
+            empty = false;
+          }
+          in.popLimit(limit);
+        } else {
+          empty = !value(field, in, empty) && empty;
+        }
+      }
+      if (Objects.nonNull(open)) {
+        out.write(']');
+      }
+      return any;
+    }
+
+    /**
+     * @param first false when the value follows another element of its array
+     * @return whether a value was written
+     */
+    private boolean value(FieldWriter field, CodedInputStream in, boolean first)
+        throws IOException {
+      FieldDescriptor descriptor = field.descriptor;
+      if (descriptor.getType() == FieldDescriptor.Type.MESSAGE
+          && descriptor.getMessageType() == Transaction.Contract.getDescriptor()) {
+        int limit = in.pushLimit(in.readRawVarint32());
+        boolean written = contract(in, first);
+        contractWritten = true;
+        in.popLimit(limit);
+        return written;
+      }
+      if (!first) {
+        out.write(',');
+      }
+      switch (descriptor.getType()) {
+        case INT32:
+          out.ascii(Integer.toString(in.readInt32()));
+          break;
+        case INT64:
+          out.ascii(Long.toString(in.readInt64()));
+          break;
+        case SINT32:
+          out.ascii(Integer.toString(in.readSInt32()));
+          break;
+        case SINT64:
+          out.ascii(Long.toString(in.readSInt64()));
+          break;
+        case SFIXED32:
+          out.ascii(Integer.toString(in.readSFixed32()));
+          break;
+        case SFIXED64:
+          out.ascii(Long.toString(in.readSFixed64()));
+          break;
+        case UINT32:
+          out.ascii(Integer.toUnsignedString(in.readUInt32()));
+          break;
+        case FIXED32:
+          out.ascii(Integer.toUnsignedString(in.readFixed32()));
+          break;
+        case UINT64:
+          out.ascii(Long.toUnsignedString(in.readUInt64()));
+          break;
+        case FIXED64:
+          out.ascii(Long.toUnsignedString(in.readFixed64()));
+          break;
+        case FLOAT:
+          out.ascii(Float.toString(in.readFloat()));
+          break;
+        case DOUBLE:
+          out.ascii(Double.toString(in.readDouble()));
+          break;
+        case BOOL:
+          out.ascii(in.readBool() ? "true" : "false");
+          break;
+        case STRING:
+          out.string(in.readStringRequireUtf8());
+          break;
+        case BYTES:
+          bytes(field, in.readByteArray());
+          break;
+        case ENUM:
+          EnumDescriptor enumType = descriptor.getEnumType();
+          out.write('"');
+          out.text(enumType.findValueByNumberCreatingIfUnknown(in.readEnum()).getName());
+          out.write('"');
+          break;
+        case MESSAGE:
+        case GROUP:
+          if (descriptor.getMessageType() == Transaction.getDescriptor()) {
+            transaction(in.readByteArray());
+          } else if (descriptor.getMessageType() == Transaction.raw.getDescriptor()) {
+            raw(in.readByteArray());
+          } else {
+            int limit = in.pushLimit(in.readRawVarint32());
+            out.write('{');
+            fields(field.message(), in);
+            out.write('}');
+            in.popLimit(limit);
+          }
+          break;
+        default:
+          in.skipField(WireFormat.makeTag(descriptor.getNumber(),
+              descriptor.getLiteType().getWireType()));
+      }
+      return true;
+    }
+
+    private void bytes(FieldWriter field, byte[] value) throws IOException {
+      if (selfType && field.address) {
+        out.write('"');
+        out.ascii(StringUtil.encode58Check(value));
+        out.write('"');
+      } else if (selfType && field.nameString) {
+        out.write('"');
+        out.text(JsonFormat.escapeBytesSelfType(ByteString.copyFrom(value),
+            field.descriptor.getFullName()));
+        out.write('"');
+      } else {
+        out.hexString(value);
+      }
+    }
+  }
+
+  /**
+   * A buffered utf-8 writer of json text.
+   */
+  private static final class JsonOutput {
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private JsonOutput(OutputStream out) {
+      this.out = out;
+    }
+
+    private void write(int b) throws IOException {
+      if (position == buffer.length) {
+        flushBuffer();
+      }
+      buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+      if (bytes.length > buffer.length - position) {
+        flushBuffer();
+        if (bytes.length > buffer.length) {
+          out.write(bytes);
+          return;
+        }
+      }
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    private void ascii(String text) throws IOException {
+      for (int i = 0; i < text.length(); i++) {
+        write(text.charAt(i));
+      }
+    }
+
+    private void text(String text) throws IOException {
+      write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void string(String text) throws IOException {
+      write('"');
+      text(JsonFormat.escapeText(text));
+      write('"');
+    }
+
+    private void hexString(byte[] bytes) throws IOException {
+      write('"');
+      for (byte b : bytes) {
+        write(HEX[(b >> 4) & 0x0f]);
+        write(HEX[b & 0x0f]);
+      }
+      write('"');
+    }
+
+    private void flushBuffer() throws IOException {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+
+    private void flush() throws IOException {
+      flushBuffer();
+      out.flush();
+    }
+  }
+}
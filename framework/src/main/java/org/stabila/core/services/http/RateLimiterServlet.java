@@ -13,22 +13,29 @@ import org.stabila.common.parameter.RateLimiterInitialization;
 import org.stabila.core.config.args.Args;
 import org.stabila.core.services.ratelimiter.RateLimiterContainer;
 import org.stabila.core.services.ratelimiter.RuntimeData;
+import org.stabila.core.services.ratelimiter.adapter.CostWeightedRateLimiterAdapter;
 import org.stabila.core.services.ratelimiter.adapter.DefaultBaseQqsAdapter;
 import org.stabila.core.services.ratelimiter.adapter.GlobalPreemptibleAdapter;
+import org.stabila.core.services.ratelimiter.adapter.ICostRateLimiter;
 import org.stabila.core.services.ratelimiter.adapter.IPQPSRateLimiterAdapter;
 import org.stabila.core.services.ratelimiter.adapter.IPreemptibleRateLimiter;
 import org.stabila.core.services.ratelimiter.adapter.IRateLimiter;
 import org.stabila.core.services.ratelimiter.adapter.QpsRateLimiterAdapter;
+import org.stabila.core.services.ratelimiter.strategy.CostWeightedStrategy;
 
 @Slf4j
 public abstract class RateLimiterServlet extends HttpServlet {
 
-  private static final String KEY_PREFIX_HTTP = "http_";
+  private static final String KEY_PREFIX_HTTP = RateLimiterContainer.KEY_PREFIX_HTTP;
   private static final String ADAPTER_PREFIX = "org.stabila.core.services.ratelimiter.adapter.";
+  private static final int SC_TOO_MANY_REQUESTS = 429;
 
   @Autowired
   private RateLimiterContainer container;
 
+  @Autowired
+  private AsyncServletExecutor asyncServletExecutor;
+
   @PostConstruct
   private void addRateContainer() {
 
@@ -54,6 +61,11 @@ public abstract class RateLimiterServlet extends HttpServlet {
           obj = constructor.newInstance(params);
           container.add(KEY_PREFIX_HTTP, getClass().getSimpleName(), (IRateLimiter) obj);
 
+        } else if (c == CostWeightedRateLimiterAdapter.class) {
+          constructor = c.getConstructor(String.class, CostWeightedStrategy.class);
+          obj = constructor.newInstance(params, container.getCostStrategy());
+          container.add(KEY_PREFIX_HTTP, getClass().getSimpleName(), (IRateLimiter) obj);
+
         } else {
           constructor = c.getConstructor();
           obj = constructor.newInstance();
@@ -86,6 +98,17 @@ public abstract class RateLimiterServlet extends HttpServlet {
   @Override
   protected void service(HttpServletRequest req, HttpServletResponse resp)
       throws ServletException, IOException {
+    String name = getClass().getSimpleName();
+    if (asyncServletExecutor != null && asyncServletExecutor.isAsync(name)
+        && req.isAsyncSupported()) {
+      asyncServletExecutor.execute(name, req, resp, () -> limitAndService(req, resp));
+    } else {
+      limitAndService(req, resp);
+    }
+  }
+
+  private void limitAndService(HttpServletRequest req, HttpServletResponse resp)
+      throws ServletException, IOException {
     IRateLimiter rateLimiter = container.get(KEY_PREFIX_HTTP, getClass().getSimpleName());
 
     boolean acquireResource = true;
@@ -95,9 +118,21 @@ public abstract class RateLimiterServlet extends HttpServlet {
     }
 
     try {
-      if (acquireResource) {
+      if (rateLimiter instanceof ICostRateLimiter && acquireResource) {
+        long cpuTime = CostWeightedRateLimiterAdapter.currentThreadCpuTime();
+        try {
+          super.service(req, resp);
+        } finally {
+          ((ICostRateLimiter) rateLimiter)
+              .complete(CostWeightedRateLimiterAdapter.currentThreadCpuTime() - cpuTime);
+        }
+      } else if (acquireResource) {
         super.service(req, resp);
       } else {
+        if (rateLimiter instanceof ICostRateLimiter) {
+          // shed by the cpu budget, the client may retry later
+          resp.setStatus(SC_TOO_MANY_REQUESTS);
+        }
         resp.getWriter()
             .println(Util.printErrorMsg(new IllegalAccessException("lack of computing resources")));
       }
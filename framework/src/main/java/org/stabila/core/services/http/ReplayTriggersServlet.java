@@ -0,0 +1,91 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import java.net.InetAddress;
+import java.util.Objects;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.core.services.TriggerReplayService;
+
+/**
+ * GET returns the state of the last trigger replay, POST {"fromBlock": n, "toBlock": m} starts
+ * replaying the triggers of those blocks, up to the latest solidified one, and POST
+ * {"cancel": true} stops the running replay.
+ *
+ * <p>A replay sends the triggers of every block in its range to the plugins again, so the servlet
+ * is mounted only with event.subscribe.replay.enable and answers callers on this host only.
+ */
+@Component
+@Slf4j(topic = "API")
+public class ReplayTriggersServlet extends RateLimiterServlet {
+
+  @Autowired
+  private TriggerReplayService triggerReplayService;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    if (!isLocal(request)) {
+      refuse(response);
+      return;
+    }
+    try {
+      printReplay(triggerReplayService.getReplay(), response);
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    if (!isLocal(request)) {
+      refuse(response);
+      return;
+    }
+    try {
+      PostParams params = PostParams.getPostParams(request);
+      JSONObject json = JSON.parseObject(params.getParams());
+      if (json.getBooleanValue("cancel")) {
+        triggerReplayService.cancel();
+        printReplay(triggerReplayService.getReplay(), response);
+        return;
+      }
+      printReplay(triggerReplayService.start(json.getLongValue("fromBlock"),
+          json.getLongValue("toBlock")), response);
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+
+  private static boolean isLocal(HttpServletRequest request) {
+    String remoteAddr = request.getRemoteAddr();
+    try {
+      return Objects.nonNull(remoteAddr) && InetAddress.getByName(remoteAddr).isLoopbackAddress();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static void refuse(HttpServletResponse response) {
+    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+    Util.processError(new SecurityException("trigger replay is open to local callers only"),
+        response);
+  }
+
+  private void printReplay(TriggerReplayService.Replay replay, HttpServletResponse response)
+      throws Exception {
+    if (Objects.isNull(replay)) {
+      response.getWriter().println("{}");
+      return;
+    }
+    JSONObject json = new JSONObject(true);
+    json.put("fromBlock", replay.getFromBlock());
+    json.put("toBlock", replay.getToBlock());
+    json.put("lastBlock", replay.getLastBlock());
+    json.put("failed", replay.getFailed());
+    json.put("done", replay.isDone());
+    json.put("cancelled", replay.isCancelled());
+    response.getWriter().println(json.toJSONString());
+  }
+}
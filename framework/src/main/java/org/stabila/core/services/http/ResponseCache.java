@@ -0,0 +1,124 @@
+package org.stabila.core.services.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.Objects;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.exception.BadItemException;
+
+/**
+ * The serialized responses of queries on solidified blocks and transactions. Such data never
+ * changes, so the json is kept as bytes, sent with an ETag and answered with 304 when the client
+ * already holds it. The full node, solidity and PBFT variants of an endpoint share their entries.
+ * Disabled when node.http.responseCacheSize is 0.
+ */
+@Slf4j(topic = "API")
+@Component
+public class ResponseCache {
+
+  private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+  private final Cache<String, Entry> cache;
+
+  @Autowired
+  private ChainBaseManager chainBaseManager;
+
+  public ResponseCache() {
+    this(CommonParameter.getInstance().getHttpResponseCacheSize());
+  }
+
+  ResponseCache(long maxBytes) {
+    this.cache = maxBytes <= 0 ? null : CacheBuilder.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher((String key, Entry entry) -> key.length() + entry.body.length)
+        .build();
+  }
+
+  public static String key(String endpoint, String id, boolean visible) {
+    return endpoint + "/" + id + (visible ? "/v" : "");
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  public boolean isSolidified(long blockNum) {
+    return isEnabled() && blockNum >= 0
+        && blockNum <= chainBaseManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
+  }
+
+  public boolean isSolidified(ByteString txId) {
+    if (!isEnabled()) {
+      return false;
+    }
+    try {
+      return isSolidified(chainBaseManager.getTransactionStore()
+          .getBlockNumber(txId.toByteArray()));
+    } catch (BadItemException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Answers the request from the cache.
+   *
+   * @return false when the response is not cached and has to be built
+   */
+  public boolean serve(String key, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!isEnabled()) {
+      return false;
+    }
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      return false;
+    }
+    write(entry, request, response);
+    return true;
+  }
+
+  /**
+   * Writes a response built for the request, keeping it when its data is solidified.
+   */
+  public void write(String key, byte[] body, boolean solidified, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    if (!solidified || !isEnabled()) {
+      response.getOutputStream().write(body);
+      return;
+    }
+    Entry entry = new Entry(body);
+    cache.put(key, entry);
+    write(entry, request, response);
+  }
+
+  private void write(Entry entry, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setHeader("ETag", entry.etag);
+    response.setHeader("Cache-Control", CACHE_CONTROL);
+    if (Objects.equals(entry.etag, request.getHeader("If-None-Match"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    response.getOutputStream().write(entry.body);
+  }
+
+  private static class Entry {
+
+    private final byte[] body;
+    private final String etag;
+
+    private Entry(byte[] body) {
+      this.body = body;
+      this.etag = "\"" + Hashing.murmur3_128().hashBytes(body) + "\"";
+    }
+  }
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
@@ -432,6 +433,20 @@ public class Util {
     }
   }
 
+  /**
+   * Writes the error through the output stream, for the servlets printing their response to it:
+   * once the output stream of a response is taken, its writer is not available any more.
+   */
+  public static void processStreamError(Exception e, HttpServletResponse response) {
+    logger.debug("Exception: {}", e.getMessage());
+    try {
+      response.getOutputStream()
+          .write((Util.printErrorMsg(e) + "\n").getBytes(StandardCharsets.UTF_8));
+    } catch (IOException ioe) {
+      logger.debug("IOException: {}", ioe.getMessage());
+    }
+  }
+
   public static String convertOutput(Account account) {
     if (account.getAssetIssuedID().isEmpty()) {
       return JsonFormat.printToString(account, false);
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 import org.stabila.common.application.Service;
 import org.stabila.common.parameter.CommonParameter;
 import org.stabila.core.config.args.Args;
+import org.stabila.core.services.http.AsyncServletExecutor;
 import org.stabila.core.services.http.FullNodeHttpApiService;
 import org.stabila.core.services.http.GetAccountByIdServlet;
 import org.stabila.core.services.http.GetAccountServlet;
@@ -246,6 +247,7 @@ public class SolidityNodeHttpApiService implements Service {
         server.addBean(new ConnectionLimit(maxHttpConnectNumber, server));
       }
 
+      AsyncServletExecutor.enableAsync(context);
       server.start();
     } catch (Exception e) {
       logger.debug("IOException: {}", e.getMessage());
@@ -15,6 +15,7 @@ import org.stabila.api.GrpcAPI.AddressPrKeyPairMessage;
 import org.stabila.api.GrpcAPI.AssetIssueList;
 import org.stabila.api.GrpcAPI.BlockExtention;
 import org.stabila.api.GrpcAPI.BlockReference;
+import org.stabila.api.GrpcAPI.BlockSubscription;
 import org.stabila.api.GrpcAPI.BytesMessage;
 import org.stabila.api.GrpcAPI.DecryptNotesTRC20;
 import org.stabila.api.GrpcAPI.DelegatedResourceList;
@@ -39,6 +40,8 @@ import org.stabila.common.utils.StringUtil;
 import org.stabila.common.utils.Utils;
 import org.stabila.core.config.args.Args;
 import org.stabila.core.services.RpcApiService;
+import org.stabila.core.services.SubscriptionService;
+import org.stabila.core.services.SubscriptionService.BlockSource;
 import org.stabila.core.services.filter.LiteFnQueryGrpcInterceptor;
 import org.stabila.core.services.ratelimiter.RateLimiterInterceptor;
 import org.stabila.protos.Protocol.Account;
@@ -69,6 +72,9 @@ public class RpcApiServiceOnPBFT implements Service {
   @Autowired
   private RpcApiService rpcApiService;
 
+  @Autowired
+  private SubscriptionService subscriptionService;
+
   @Autowired
   private RateLimiterInterceptor rateLimiterInterceptor;
 
@@ -496,5 +502,10 @@ public class RpcApiServiceOnPBFT implements Service {
       );
     }
 
+    @Override
+    public void subscribeBlocks(BlockSubscription request, StreamObserver<Block> responseObserver) {
+      subscriptionService.subscribeBlocks(request, BlockSource.PBFT, responseObserver);
+    }
+
   }
 }
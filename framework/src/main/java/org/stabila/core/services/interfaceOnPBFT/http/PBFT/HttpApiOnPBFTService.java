@@ -13,6 +13,7 @@ import org.stabila.common.application.Service;
 import org.stabila.common.parameter.CommonParameter;
 import org.stabila.core.config.args.Args;
 import org.stabila.core.services.filter.LiteFnQueryHttpFilter;
+import org.stabila.core.services.http.AsyncServletExecutor;
 import org.stabila.core.services.interfaceOnPBFT.http.GetAccountByIdOnPBFTServlet;
 import org.stabila.core.services.interfaceOnPBFT.http.GetAccountOnPBFTServlet;
 import org.stabila.core.services.interfaceOnPBFT.http.GetAssetIssueByIdOnPBFTServlet;
@@ -240,6 +241,7 @@ public class HttpApiOnPBFTService implements Service {
       context.addFilter(new FilterHolder(liteFnQueryHttpFilter), "/*",
           EnumSet.allOf(DispatcherType.class));
 
+      AsyncServletExecutor.enableAsync(context);
       server.start();
     } catch (Exception e) {
       logger.debug("IOException: {}", e.getMessage());
@@ -16,6 +16,7 @@ import org.stabila.api.GrpcAPI.AddressPrKeyPairMessage;
 import org.stabila.api.GrpcAPI.AssetIssueList;
 import org.stabila.api.GrpcAPI.BlockExtention;
 import org.stabila.api.GrpcAPI.BlockReference;
+import org.stabila.api.GrpcAPI.BlockSubscription;
 import org.stabila.api.GrpcAPI.BytesMessage;
 import org.stabila.api.GrpcAPI.DelegatedResourceList;
 import org.stabila.api.GrpcAPI.DelegatedResourceMessage;
@@ -492,5 +493,10 @@ public class RpcApiServiceOnSolidity implements Service {
       );
     }
 
+    @Override
+    public void subscribeBlocks(BlockSubscription request, StreamObserver<Block> responseObserver) {
+      rpcApiService.getWalletSolidityApi().subscribeBlocks(request, responseObserver);
+    }
+
   }
 }
@@ -13,6 +13,7 @@ import org.stabila.common.application.Service;
 import org.stabila.common.parameter.CommonParameter;
 import org.stabila.core.config.args.Args;
 import org.stabila.core.services.filter.LiteFnQueryHttpFilter;
+import org.stabila.core.services.http.AsyncServletExecutor;
 import org.stabila.core.services.interfaceOnSolidity.http.GetAccountByIdOnSolidityServlet;
 import org.stabila.core.services.interfaceOnSolidity.http.GetAccountOnSolidityServlet;
 import org.stabila.core.services.interfaceOnSolidity.http.GetAssetIssueByIdOnSolidityServlet;
@@ -254,6 +255,7 @@ public class HttpApiOnSolidityService implements Service {
       if (maxHttpConnectNumber > 0) {
         server.addBean(new ConnectionLimit(maxHttpConnectNumber, server));
       }
+      AsyncServletExecutor.enableAsync(context);
       server.start();
     } catch (Exception e) {
       logger.debug("IOException: {}", e.getMessage());
@@ -1,16 +1,83 @@
 package org.stabila.core.services.ratelimiter;
 
-import java.util.HashMap;
+import java.io.File;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.stabila.common.parameter.RateLimiterInitialization;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.services.ratelimiter.adapter.CostWeightedRateLimiterAdapter;
 import org.stabila.core.services.ratelimiter.adapter.IRateLimiter;
+import org.stabila.core.services.ratelimiter.strategy.CostWeightedStrategy;
 
+@Slf4j
 @Component
 public class RateLimiterContainer {
 
+  public static final String KEY_PREFIX_HTTP = "http_";
+  public static final String KEY_PREFIX_RPC = "rpc_";
+
+  @Getter
+  private Map<String, IRateLimiter> map = new ConcurrentHashMap<>();
+
+  // the cpu budget shared by the apis limited by CostWeightedRateLimiterAdapter
   @Getter
-  private Map<String, IRateLimiter> map = new HashMap<>();
+  private CostWeightedStrategy costStrategy = new CostWeightedStrategy(costParams());
+
+  private ScheduledExecutorService reloadExecutor;
+
+  private long confModified;
+
+  private static String costParams() {
+    RateLimiterInitialization initialization = Args.getInstance()
+        .getRateLimiterInitialization();
+    return initialization == null ? "" : initialization.getCostParams();
+  }
+
+  /**
+   * Checks the config file every rate.limiter.reloadInterval seconds and reloads the cost limits
+   * when the file changed.
+   */
+  @PostConstruct
+  public void init() {
+    RateLimiterInitialization initialization = Args.getInstance()
+        .getRateLimiterInitialization();
+    File confFile = Args.getConfFile();
+    if (initialization == null || initialization.getReloadInterval() <= 0
+        || Objects.isNull(confFile)) {
+      return;
+    }
+    confModified = confFile.lastModified();
+    int interval = initialization.getReloadInterval();
+    reloadExecutor = Executors.newSingleThreadScheduledExecutor(
+        r -> new Thread(r, "rate-limiter-reload"));
+    reloadExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        long modified = confFile.lastModified();
+        if (modified != confModified) {
+          confModified = modified;
+          reload(Args.loadRateLimiterInitialization());
+        }
+      } catch (Exception e) {
+        logger.warn("failure to reload the rate limiter config: {}", e.getMessage());
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (Objects.nonNull(reloadExecutor)) {
+      reloadExecutor.shutdownNow();
+    }
+  }
 
   public void add(String prefix, String method, IRateLimiter rateLimiter) {
     map.put(prefix + method, rateLimiter);
@@ -20,4 +87,33 @@ public class RateLimiterContainer {
     return map.get(prefix + method);
   }
 
-}
\ No newline at end of file
+  /**
+   * Applies new limits to the cpu budget at runtime. The limiters of the apis are kept, see
+   * {@link #reload} for their weights.
+   */
+  public void reloadCostLimits(String paramString) {
+    costStrategy.reload(paramString);
+  }
+
+  /**
+   * Applies the cost limits and the api weights of a new rate limiter config. Only apis already
+   * limited by CostWeightedRateLimiterAdapter take their new weight, the other strategies and a
+   * change of strategy need a restart.
+   */
+  public void reload(RateLimiterInitialization initialization) {
+    reloadCostLimits(initialization.getCostParams());
+    initialization.getHttpMap().values().forEach(item ->
+        reloadWeight(KEY_PREFIX_HTTP, item.getComponent(), item.getStrategy(), item.getParams()));
+    initialization.getRpcMap().values().forEach(item ->
+        reloadWeight(KEY_PREFIX_RPC, item.getComponent(), item.getStrategy(), item.getParams()));
+  }
+
+  private void reloadWeight(String prefix, String component, String strategy, String params) {
+    IRateLimiter rateLimiter = get(prefix, component);
+    if (rateLimiter instanceof CostWeightedRateLimiterAdapter
+        && CostWeightedRateLimiterAdapter.class.getSimpleName().equals(strategy)) {
+      ((CostWeightedRateLimiterAdapter) rateLimiter).reload(params);
+    }
+  }
+
+}
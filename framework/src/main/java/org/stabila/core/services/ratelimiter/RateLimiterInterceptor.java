@@ -20,8 +20,10 @@ import org.stabila.common.parameter.RateLimiterInitialization.RpcRateLimiterItem
 import org.stabila.core.config.args.Args;
 import org.stabila.core.metrics.MetricsKey;
 import org.stabila.core.metrics.MetricsUtil;
+import org.stabila.core.services.ratelimiter.adapter.CostWeightedRateLimiterAdapter;
 import org.stabila.core.services.ratelimiter.adapter.DefaultBaseQqsAdapter;
 import org.stabila.core.services.ratelimiter.adapter.GlobalPreemptibleAdapter;
+import org.stabila.core.services.ratelimiter.adapter.ICostRateLimiter;
 import org.stabila.core.services.ratelimiter.adapter.IPQPSRateLimiterAdapter;
 import org.stabila.core.services.ratelimiter.adapter.IPreemptibleRateLimiter;
 import org.stabila.core.services.ratelimiter.adapter.IRateLimiter;
@@ -32,7 +34,7 @@ import org.stabila.core.services.ratelimiter.adapter.QpsRateLimiterAdapter;
 @Component
 public class RateLimiterInterceptor implements ServerInterceptor {
 
-  private static final String KEY_PREFIX_RPC = "rpc_";
+  private static final String KEY_PREFIX_RPC = RateLimiterContainer.KEY_PREFIX_RPC;
 
   @Autowired
   private RateLimiterContainer container;
@@ -88,6 +90,10 @@ public class RateLimiterInterceptor implements ServerInterceptor {
             obj = constructor.newInstance(params);
             container.add(KEY_PREFIX_RPC, component, (IRateLimiter) obj);
             break;
+          case "CostWeightedRateLimiterAdapter":
+            container.add(KEY_PREFIX_RPC, component,
+                new CostWeightedRateLimiterAdapter(params, container.getCostStrategy()));
+            break;
           default:
             throw new Exception("undefined rate limiter adaptor");
         }
@@ -125,19 +131,50 @@ public class RateLimiterInterceptor implements ServerInterceptor {
         Listener<ReqT> delegate = next.startCall(call, headers);
 
         listener = new SimpleForwardingServerCallListener<ReqT>(delegate) {
+          // the cpu time of the call so far, the callbacks of a call are run one at a time
+          private long cpuNanos;
+
           @Override
-          public void onComplete() {
-            // must release the permit to avoid the leak of permit.
-            if (rateLimiter instanceof IPreemptibleRateLimiter) {
-              ((IPreemptibleRateLimiter) rateLimiter).release();
+          public void onMessage(ReqT message) {
+            long cpuTime = CostWeightedRateLimiterAdapter.currentThreadCpuTime();
+            try {
+              super.onMessage(message);
+            } finally {
+              cpuNanos += CostWeightedRateLimiterAdapter.currentThreadCpuTime() - cpuTime;
+            }
+          }
+
+          @Override
+          public void onHalfClose() {
+            // unary calls are served here, on the thread of the call
+            long cpuTime = CostWeightedRateLimiterAdapter.currentThreadCpuTime();
+            try {
+              super.onHalfClose();
+            } finally {
+              cpuNanos += CostWeightedRateLimiterAdapter.currentThreadCpuTime() - cpuTime;
             }
           }
 
+          @Override
+          public void onComplete() {
+            complete();
+          }
+
           @Override
           public void onCancel() {
-            // must release the permit to avoid the leak of permit.
-            if (rateLimiter instanceof IPreemptibleRateLimiter) {
-              ((IPreemptibleRateLimiter) rateLimiter).release();
+            complete();
+          }
+
+          private void complete() {
+            try {
+              if (rateLimiter instanceof ICostRateLimiter) {
+                ((ICostRateLimiter) rateLimiter).complete(cpuNanos);
+              }
+            } finally {
+              // must release the permit to avoid the leak of permit.
+              if (rateLimiter instanceof IPreemptibleRateLimiter) {
+                ((IPreemptibleRateLimiter) rateLimiter).release();
+              }
             }
           }
         };
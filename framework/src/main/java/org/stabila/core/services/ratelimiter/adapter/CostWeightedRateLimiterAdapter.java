@@ -0,0 +1,57 @@
+package org.stabila.core.services.ratelimiter.adapter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.stabila.core.services.ratelimiter.RuntimeData;
+import org.stabila.core.services.ratelimiter.strategy.CostWeightedStrategy;
+import org.stabila.core.services.ratelimiter.strategy.EndpointCostStrategy;
+
+public class CostWeightedRateLimiterAdapter implements ICostRateLimiter {
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_SUPPORTED =
+      THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+
+  private EndpointCostStrategy strategy;
+
+  private CostWeightedStrategy budget;
+
+  public CostWeightedRateLimiterAdapter(String paramString, CostWeightedStrategy budget) {
+    this.strategy = new EndpointCostStrategy(paramString);
+    this.budget = budget;
+  }
+
+  /**
+   * The cpu time of the current thread, or the wall time when the jvm does not measure it.
+   */
+  public static long currentThreadCpuTime() {
+    return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+  }
+
+  /**
+   * The ip of a remote address, without the port a grpc address carries.
+   */
+  static String ip(String remoteAddr) {
+    int slash = remoteAddr.indexOf('/');
+    if (slash < 0) {
+      return remoteAddr;
+    }
+    String address = remoteAddr.substring(slash + 1);
+    int colon = address.lastIndexOf(':');
+    return colon < 0 ? address : address.substring(0, colon);
+  }
+
+  public void reload(String paramString) {
+    strategy.reload(paramString);
+  }
+
+  @Override
+  public boolean acquire(RuntimeData data) {
+    return budget.acquire(ip(data.getRemoteAddr()), strategy.cost());
+  }
+
+  @Override
+  public void complete(long cpuNanos) {
+    strategy.record(cpuNanos);
+  }
+}
@@ -0,0 +1,9 @@
+package org.stabila.core.services.ratelimiter.adapter;
+
+public interface ICostRateLimiter extends IRateLimiter {
+
+  /**
+   * Reports the cpu time a call let through by acquire took.
+   */
+  void complete(long cpuNanos);
+}
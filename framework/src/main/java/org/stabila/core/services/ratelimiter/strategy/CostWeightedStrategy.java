@@ -0,0 +1,138 @@
+package org.stabila.core.services.ratelimiter.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The cpu budget shared by the apis limited by their cost. Each call is charged the cpu time it
+ * is expected to take, against the bucket of its ip and against the budget of the node, both kept
+ * as the theoretical arrival time of a generic cell rate algorithm: one long, advanced by cost /
+ * share and updated with a compare and set. A call passes while the time its bucket is ahead of
+ * now is within burst.
+ *
+ * <p>ipShare and globalShare are the cpu seconds per second granted to an ip and to all of them,
+ * burst the seconds of budget a caller may spend ahead. Ips are hashed into a table of tableSize
+ * buckets, ips sharing a bucket share its budget.
+ */
+@Slf4j
+public class CostWeightedStrategy extends Strategy {
+
+  public static final String STRATEGY_PARAM_IP_SHARE = "ipShare";
+  public static final String STRATEGY_PARAM_GLOBAL_SHARE = "globalShare";
+  public static final String STRATEGY_PARAM_BURST = "burst";
+  public static final String STRATEGY_PARAM_TABLE_SIZE = "tableSize";
+  public static final Double DEFAULT_IP_SHARE = 0.1D;
+  public static final Double DEFAULT_BURST = 2D;
+  public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+  // the arrival times are counted from here, so that buckets start empty at zero
+  private final long origin = System.nanoTime();
+
+  private volatile Limits limits;
+
+  public CostWeightedStrategy(String paramString) {
+    super(paramString);
+    limits = new Limits(mapParams, null);
+  }
+
+  /**
+   * Applies new params to the calls to come, keeping the buckets when the table size is the same.
+   */
+  public synchronized void reload(String paramString) {
+    limits = new Limits(parseStrategyParams(paramString), limits);
+    logger.info("cost rate limiter reloaded, ipShare: {}, globalShare: {}, burst: {}s",
+        limits.ipShare, limits.globalShare, limits.burstNanos / 1e9);
+  }
+
+  // define the default strategy params.
+  @Override
+  protected Map<String, ParamItem> defaultParam() {
+    Map<String, ParamItem> map = new HashMap<>();
+    map.put(STRATEGY_PARAM_IP_SHARE, new ParamItem(Double.class, DEFAULT_IP_SHARE));
+    map.put(STRATEGY_PARAM_GLOBAL_SHARE, new ParamItem(Double.class,
+        Runtime.getRuntime().availableProcessors() * 0.75D));
+    map.put(STRATEGY_PARAM_BURST, new ParamItem(Double.class, DEFAULT_BURST));
+    map.put(STRATEGY_PARAM_TABLE_SIZE, new ParamItem(Integer.class, DEFAULT_TABLE_SIZE));
+    return map;
+  }
+
+  /**
+   * Charges the cost, in cpu nanoseconds, to the ip and to the node.
+   *
+   * @return false when either has no budget left, nothing is charged then
+   */
+  public boolean acquire(String ip, long costNanos) {
+    Limits current = limits;
+    long now = System.nanoTime() - origin;
+    int slot = (ip.hashCode() * 0x9E3779B9) >>> (32 - current.tableBits);
+    long ipIncrement = (long) (costNanos / current.ipShare);
+    if (!charge(current.ipTat, slot, now, ipIncrement, current.burstNanos)) {
+      return false;
+    }
+    long globalIncrement = (long) (costNanos / current.globalShare);
+    if (!charge(current.globalTat, now, globalIncrement, current.burstNanos)) {
+      current.ipTat.addAndGet(slot, -ipIncrement);
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean charge(AtomicLongArray tats, int slot, long now, long increment,
+      long burst) {
+    while (true) {
+      long tat = tats.get(slot);
+      long start = Math.max(tat, now);
+      if (start - now > burst) {
+        return false;
+      }
+      long next = start + increment;
+      if (tats.compareAndSet(slot, tat, next)) {
+        return true;
+      }
+    }
+  }
+
+  private static boolean charge(AtomicLong tat, long now, long increment, long burst) {
+    while (true) {
+      long current = tat.get();
+      long start = Math.max(current, now);
+      if (start - now > burst) {
+        return false;
+      }
+      long next = start + increment;
+      if (tat.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  private static class Limits {
+
+    private final double ipShare;
+    private final double globalShare;
+    private final long burstNanos;
+    private final int tableBits;
+    private final AtomicLongArray ipTat;
+    private final AtomicLong globalTat;
+
+    private Limits(Map<String, ParamItem> params, Limits previous) {
+      ipShare = (Double) params.get(STRATEGY_PARAM_IP_SHARE).value;
+      globalShare = (Double) params.get(STRATEGY_PARAM_GLOBAL_SHARE).value;
+      burstNanos = (long) ((Double) params.get(STRATEGY_PARAM_BURST).value
+          * TimeUnit.SECONDS.toNanos(1));
+      int size = Math.max(2, (Integer) params.get(STRATEGY_PARAM_TABLE_SIZE).value);
+      tableBits = 32 - Integer.numberOfLeadingZeros(size - 1);
+      if (previous != null && previous.tableBits == tableBits) {
+        ipTat = previous.ipTat;
+        globalTat = previous.globalTat;
+      } else {
+        ipTat = new AtomicLongArray(1 << tableBits);
+        globalTat = previous == null ? new AtomicLong() : previous.globalTat;
+      }
+    }
+  }
+}
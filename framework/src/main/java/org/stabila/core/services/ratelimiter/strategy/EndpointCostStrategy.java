@@ -0,0 +1,58 @@
+package org.stabila.core.services.ratelimiter.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The cost model of an api: the moving average of the cpu time its calls took, times weight.
+ * weight marks apis costlier than their cpu time shows, such as ones reading much from disk.
+ */
+public class EndpointCostStrategy extends Strategy {
+
+  public static final String STRATEGY_PARAM_WEIGHT = "weight";
+  public static final Double DEFAULT_WEIGHT = 1D;
+
+  // seeded with one millisecond until calls are measured
+  private final AtomicLong averageNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(1));
+
+  private volatile double weight;
+
+  public EndpointCostStrategy(String paramString) {
+    super(paramString);
+    weight = (Double) mapParams.get(STRATEGY_PARAM_WEIGHT).value;
+  }
+
+  /**
+   * Applies a new weight to the calls to come, keeping the average measured so far.
+   */
+  public synchronized void reload(String paramString) {
+    weight = (Double) parseStrategyParams(paramString).get(STRATEGY_PARAM_WEIGHT).value;
+  }
+
+  // define the default strategy params.
+  @Override
+  protected Map<String, ParamItem> defaultParam() {
+    Map<String, ParamItem> map = new HashMap<>();
+    map.put(STRATEGY_PARAM_WEIGHT, new ParamItem(Double.class, DEFAULT_WEIGHT));
+    return map;
+  }
+
+  /**
+   * The cpu nanoseconds the next call is expected to take.
+   */
+  public long cost() {
+    return (long) (averageNanos.get() * weight);
+  }
+
+  /**
+   * Folds the cpu time of a call into the average, with a weight of 1/8.
+   */
+  public void record(long cpuNanos) {
+    long average;
+    do {
+      average = averageNanos.get();
+    } while (!averageNanos.compareAndSet(average, average + ((cpuNanos - average) >> 3)));
+  }
+}
@@ -2,6 +2,17 @@ package org.stabila.program;
 
 import static org.stabila.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERVAL;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +40,9 @@ import org.stabila.protos.Protocol.Block;
 @Slf4j(topic = "app")
 public class SolidityNode {
 
+  // fetches of a block failing validation before its batch is given up
+  private static final int MAX_INVALID_FETCHES = 3;
+
   private Manager dbManager;
 
   private ChainBaseManager chainBaseManager;
@@ -39,18 +53,31 @@ public class SolidityNode {
 
   private AtomicLong remoteBlockNum = new AtomicLong();
 
-  private LinkedBlockingDeque<Block> blockQueue = new LinkedBlockingDeque(100);
+  private LinkedBlockingDeque<BlockCapsule> blockQueue = new LinkedBlockingDeque<>(100);
+
+  private int fetchWindow = Math.max(1, Args.getInstance().getSolidityFetchWindow());
+
+  private int fetchBatchSize = Math.max(1, Args.getInstance().getSolidityFetchBatchSize());
+
+  private ExecutorService fetchExecutor = Executors.newFixedThreadPool(fetchWindow,
+      new ThreadFactoryBuilder().setNameFormat("solid-fetch-%d").setDaemon(true).build());
+
+  private volatile boolean rangeSupported = true;
 
   private int exceptionSleepTime = 1000;
 
   private volatile boolean flag = true;
 
   public SolidityNode(Manager dbManager) {
+    this(dbManager, new DatabaseGrpcClient(Args.getInstance().getTrustNodeAddr()));
+  }
+
+  SolidityNode(Manager dbManager, DatabaseGrpcClient databaseGrpcClient) {
     this.dbManager = dbManager;
     this.chainBaseManager = dbManager.getChainBaseManager();
     resolveCompatibilityIssueIfUsingFullNodeDatabase();
     ID.set(chainBaseManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum());
-    databaseGrpcClient = new DatabaseGrpcClient(Args.getInstance().getTrustNodeAddr());
+    this.databaseGrpcClient = databaseGrpcClient;
     remoteBlockNum.set(getLastSolidityBlockNum());
   }
 
@@ -120,29 +147,145 @@ public class SolidityNode {
     }
   }
 
+  /**
+   * Keeps up to fetchWindow batches of blocks in flight and queues them in order, so that a node
+   * behind the trust node catches up without waiting on each round trip. A batch is queued when
+   * it links to the last block queued; a batch that does not, or fails, is fetched again with the
+   * batches after it.
+   */
   private void getBlock() {
-    long blockNum = ID.incrementAndGet();
+    Deque<Future<List<BlockCapsule>>> window = new ArrayDeque<>();
+    long blockNum = ID.get() + 1;
+    BlockCapsule tail = getLocalBlock(ID.get());
     while (flag) {
       try {
-        if (blockNum > remoteBlockNum.get()) {
-          sleep(BLOCK_PRODUCED_INTERVAL);
-          remoteBlockNum.set(getLastSolidityBlockNum());
+        while (window.size() < fetchWindow && blockNum <= remoteBlockNum.get()) {
+          long start = blockNum;
+          long end = Math.min(start + fetchBatchSize, remoteBlockNum.get() + 1);
+          window.add(fetchExecutor.submit(() -> fetchBlocks(start, end)));
+          blockNum = end;
+        }
+        if (window.isEmpty()) {
+          long remote = getLastSolidityBlockNum();
+          if (remote <= remoteBlockNum.get()) {
+            sleep(BLOCK_PRODUCED_INTERVAL);
+          }
+          remoteBlockNum.set(remote);
           continue;
         }
-        Block block = getBlockByNum(blockNum);
-        blockQueue.put(block);
-        blockNum = ID.incrementAndGet();
+        List<BlockCapsule> batch = window.peek().get();
+        if (!batch.isEmpty() && tail != null && !linksTo(batch.get(0), tail)) {
+          throw new IllegalStateException("block " + batch.get(0).getNum()
+              + " does not link to block " + tail.getBlockId().getString());
+        }
+        for (BlockCapsule block : batch) {
+          blockQueue.put(block);
+          ID.set(block.getNum());
+          tail = block;
+        }
+        window.poll();
       } catch (Exception e) {
-        logger.error("Failed to get block {}, reason: {}.", blockNum, e.getMessage());
+        logger.error("Failed to get block {}, reason: {}.", ID.get() + 1, e.getMessage());
+        window.forEach(future -> future.cancel(false));
+        window.clear();
+        blockNum = ID.get() + 1;
         sleep(exceptionSleepTime);
       }
     }
   }
 
+  /**
+   * Fetches the blocks of [start, end), parsed and checked against each other, in order. Throws
+   * when a block keeps failing validation, so that the batch is given up.
+   */
+  List<BlockCapsule> fetchBlocks(long start, long end) {
+    List<BlockCapsule> blocks = new ArrayList<>();
+    long blockNum = start;
+    int invalid = 0;
+    while (flag && blockNum < end) {
+      List<Block> fetched = rangeSupported
+          ? getBlocksByRange(blockNum, end) : Collections.emptyList();
+      if (fetched.isEmpty()) {
+        fetched = Collections.singletonList(getBlockByNum(blockNum));
+      }
+      for (Block b : fetched) {
+        BlockCapsule block = new BlockCapsule(b);
+        BlockCapsule parent = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (!isValid(block, blockNum, parent)) {
+          if (++invalid >= MAX_INVALID_FETCHES) {
+            throw new IllegalStateException("block " + blockNum + " failed validation "
+                + invalid + " times");
+          }
+          sleep(exceptionSleepTime);
+          break;
+        }
+        blocks.add(block);
+        blockNum++;
+        invalid = 0;
+      }
+    }
+    return blocks;
+  }
+
+  /**
+   * Checks what does not depend on state, before the block waits in the queue; the signature and
+   * the rest are left to the apply.
+   */
+  private boolean isValid(BlockCapsule block, long blockNum, BlockCapsule parent) {
+    if (block.getNum() != blockNum) {
+      logger.warn("Get block id not the same , {}, {}.", block.getNum(), blockNum);
+      return false;
+    }
+    if (parent != null && !linksTo(block, parent)) {
+      logger.warn("Block {} does not link to {}.", block.getBlockId().getString(),
+          parent.getBlockId().getString());
+      return false;
+    }
+    if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      logger.warn("The merkle root of block {} does not match.", block.getBlockId().getString());
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean linksTo(BlockCapsule block, BlockCapsule parent) {
+    return block.getParentHash().equals(parent.getBlockId());
+  }
+
+  private BlockCapsule getLocalBlock(long blockNum) {
+    try {
+      return chainBaseManager.getBlockByNum(blockNum);
+    } catch (Exception e) {
+      logger.warn("Local block {} is not found, the next block is not linked to it.", blockNum);
+      return null;
+    }
+  }
+
+  private List<Block> getBlocksByRange(long startNum, long endNum) {
+    List<Block> blocks = new ArrayList<>();
+    long time = System.currentTimeMillis();
+    try {
+      databaseGrpcClient.getBlocksByRange(startNum, endNum).forEachRemaining(blocks::add);
+    } catch (StatusRuntimeException e) {
+      if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+        rangeSupported = false;
+        logger.info("Trust node does not serve block ranges, get blocks one by one.");
+      } else {
+        logger.error("Failed to get blocks {} to {}, reason: {}.", startNum, endNum - 1,
+            e.getMessage());
+      }
+    }
+    if (!blocks.isEmpty()) {
+      logger.info("Success to get blocks: {} to {}, cost: {}ms.", startNum,
+          startNum + blocks.size() - 1, System.currentTimeMillis() - time);
+    }
+    return blocks;
+  }
+
   private void processBlock() {
     while (flag) {
       try {
-        Block block = blockQueue.take();
+        BlockCapsule block = blockQueue.take();
         loopProcessBlock(block);
       } catch (Exception e) {
         logger.error(e.getMessage());
@@ -151,19 +294,19 @@ public class SolidityNode {
     }
   }
 
-  private void loopProcessBlock(Block block) {
+  private void loopProcessBlock(BlockCapsule block) {
     while (flag) {
-      long blockNum = block.getBlockHeader().getRawData().getNumber();
+      long blockNum = block.getNum();
       try {
-        dbManager.pushVerifiedBlock(new BlockCapsule(block));
+        dbManager.pushVerifiedBlock(block);
         chainBaseManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(blockNum);
         logger
             .info("Success to process block: {}, blockQueueSize: {}.", blockNum, blockQueue.size());
         return;
       } catch (Exception e) {
-        logger.error("Failed to process block {}.", new BlockCapsule(block), e);
+        logger.error("Failed to process block {}.", block, e);
         sleep(exceptionSleepTime);
-        block = getBlockByNum(blockNum);
+        block = new BlockCapsule(getBlockByNum(blockNum));
       }
     }
   }
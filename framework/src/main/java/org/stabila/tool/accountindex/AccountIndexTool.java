@@ -0,0 +1,120 @@
+package org.stabila.tool.accountindex;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.rocksdb.RocksDBException;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.ByteArray;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.exception.BadItemException;
+import org.stabila.core.store.AccountTransactionIndexStore;
+import org.stabila.core.utils.TransactionRegister;
+import org.stabila.tool.litefullnode.DbTool;
+import org.stabila.tool.litefullnode.db.DBInterface;
+
+/**
+ * Rebuilds the account transaction index of a stopped node from its block store, for nodes that
+ * turn storage.accountIndex.switch on after syncing, or to repair the index.
+ */
+@Slf4j(topic = "tool")
+public class AccountIndexTool {
+
+  private static final String BLOCK_DB_NAME = "block";
+  private static final String BLOCK_INDEX_DB_NAME = "block-index";
+  private static final String ENGINE_FILE = "engine.properties";
+  private static final long LOG_INTERVAL = 100_000;
+
+  private void run(Args argv) throws IOException, RocksDBException, BadItemException {
+    if (StringUtils.isBlank(argv.fnDataPath)) {
+      throw new ParameterException("fnDataPath can't be null");
+    }
+    if (argv.startBlock < 0 || (argv.endBlock >= 0 && argv.endBlock < argv.startBlock)) {
+      throw new ParameterException("bad block range: " + argv.startBlock + " - " + argv.endBlock);
+    }
+    // a new index is opened with the engine of the block store
+    File indexDir = new File(argv.fnDataPath, AccountTransactionIndexStore.DB_NAME);
+    File engineFile = Paths.get(argv.fnDataPath, BLOCK_DB_NAME, ENGINE_FILE).toFile();
+    if (!indexDir.exists() && engineFile.exists()) {
+      Files.createDirectories(indexDir.toPath());
+      Files.copy(engineFile.toPath(), new File(indexDir, ENGINE_FILE).toPath());
+    }
+
+    DBInterface blockIndexDb = DbTool.getDB(argv.fnDataPath, BLOCK_INDEX_DB_NAME);
+    DBInterface blockDb = DbTool.getDB(argv.fnDataPath, BLOCK_DB_NAME);
+    DBInterface indexDb = DbTool.getDB(argv.fnDataPath, AccountTransactionIndexStore.DB_NAME);
+    long n = argv.startBlock;
+    for (; argv.endBlock < 0 || n <= argv.endBlock; n++) {
+      byte[] blockId = blockIndexDb.get(ByteArray.fromLong(n));
+      if (blockId == null) {
+        break;
+      }
+      AccountTransactionIndexStore.index(new BlockCapsule(blockDb.get(blockId)), indexDb::put);
+      if (n % LOG_INTERVAL == 0) {
+        logger.info("-- indexed block {}", n);
+      }
+    }
+    logger.info("-- indexed blocks {} to {}", argv.startBlock, n - 1);
+    DbTool.close();
+  }
+
+  /**
+   * main.
+   */
+  public static void main(String[] args) {
+    Args argv = new Args();
+    CommonParameter.getInstance().setValidContractProtoThreadNum(1);
+    TransactionRegister.registerActuator();
+    AccountIndexTool tool = new AccountIndexTool();
+    JCommander jct = JCommander.newBuilder()
+            .addObject(argv)
+            .build();
+    jct.setProgramName("account index tool");
+    try {
+      jct.parse(args);
+      if (argv.help) {
+        jct.usage();
+      } else {
+        tool.run(argv);
+      }
+    } catch (ParameterException parameterException) {
+      logger.error(parameterException.toString());
+      jct.usage();
+    } catch (IOException | RocksDBException | BadItemException e) {
+      logger.error("rebuild account index failed", e);
+      DbTool.close();
+      System.exit(1);
+    }
+  }
+
+  static class Args {
+    @Parameter(
+            names = {"--fn-data-path"},
+            help = true, required = true,
+            description = "the fullnode database path,"
+                    + " defined as ${storage.db.directory} in config.conf",
+            order = 1)
+    private String fnDataPath;
+    @Parameter(
+            names = {"--start-block"},
+            description = "the first block to index",
+            order = 2)
+    private long startBlock = 0;
+    @Parameter(
+            names = {"--end-block"},
+            description = "the last block to index, the head block by default",
+            order = 3)
+    private long endBlock = -1;
+    @Parameter(
+            names = "--help",
+            help = true,
+            order = 4)
+    private boolean help;
+  }
+}
@@ -29,8 +29,12 @@ import org.stabila.common.utils.PropUtil;
 import org.stabila.core.Constant;
 import org.stabila.core.capsule.BlockCapsule;
 import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.capsule.TransactionRetCapsule;
 import org.stabila.core.db2.core.SnapshotManager;
 import org.stabila.core.exception.BadItemException;
+import org.stabila.core.store.AccountTransactionIndexStore;
+import org.stabila.core.store.ShieldedBlockIndexStore;
+import org.stabila.core.utils.TransactionRegister;
 import org.stabila.tool.litefullnode.db.DBInterface;
 import org.stabila.tool.litefullnode.iterator.DBIterator;
 
@@ -57,7 +61,10 @@ public class LiteFullNodeTool {
       BLOCK_INDEX_DB_NAME,
       "trans",
       "transactionRetStore",
-      "transactionHistoryStore");
+      "transactionHistoryStore",
+      "log-bloom",
+      AccountTransactionIndexStore.DB_NAME,
+      ShieldedBlockIndexStore.DB_NAME);
   private static List<String> minimumDbsForLiteNode = Arrays.asList(
       "DelegatedResource",
       "DelegatedResourceAccountIndex",
@@ -83,6 +90,7 @@ public class LiteFullNodeTool {
       //TRANS_CACHE_DB_NAME,
       //"tree-block-index",
       "votes",
+      "vote-delta",
       "witness",
       "witness_schedule"
   );
@@ -417,6 +425,13 @@ public class LiteFullNodeTool {
     DBInterface blockDb = DbTool.getDB(databaseDir, BLOCK_DB_NAME);
     DBInterface transDb = DbTool.getDB(databaseDir, "trans");
     DBInterface tranRetDb = DbTool.getDB(databaseDir, "transactionRetStore");
+    DBInterface logBloomDb = DbTool.getDB(databaseDir, "log-bloom");
+    DBInterface accountIndexDb = Files.exists(
+        Paths.get(databaseDir, AccountTransactionIndexStore.DB_NAME))
+        ? DbTool.getDB(databaseDir, AccountTransactionIndexStore.DB_NAME) : null;
+    DBInterface shieldedIndexDb = Files.exists(
+        Paths.get(databaseDir, ShieldedBlockIndexStore.DB_NAME))
+        ? DbTool.getDB(databaseDir, ShieldedBlockIndexStore.DB_NAME) : null;
     for (long n = blockNumInfo.getHistoryBlkNum(); n > blockNumInfo.getSnapshotBlkNum(); n--) {
       byte[] blockIdHash = blockIndexDb.get(ByteArray.fromLong(n));
       BlockCapsule block = new BlockCapsule(blockDb.get(blockIdHash));
@@ -424,8 +439,19 @@ public class LiteFullNodeTool {
       for (TransactionCapsule e : block.getTransactions()) {
         transDb.delete(e.getTransactionId().getBytes());
       }
+      // delete shielded block index, whose keys come from the transaction result
+      if (shieldedIndexDb != null) {
+        byte[] result = tranRetDb.get(ByteArray.fromLong(n));
+        ShieldedBlockIndexStore.index(block,
+            result == null ? null : new TransactionRetCapsule(result), shieldedIndexDb::delete);
+      }
       // delete transaction result
       tranRetDb.delete(ByteArray.fromLong(n));
+      logBloomDb.delete(ByteArray.fromLong(n));
+      // delete account transaction index
+      if (accountIndexDb != null) {
+        AccountTransactionIndexStore.index(block, (key, value) -> accountIndexDb.delete(key));
+      }
       // delete block
       blockDb.delete(blockIdHash);
       // delete block index
@@ -514,6 +540,7 @@ public class LiteFullNodeTool {
   public static void main(String[] args) {
     Args argv = new Args();
     CommonParameter.getInstance().setValidContractProtoThreadNum(1);
+    TransactionRegister.registerActuator();
     LiteFullNodeTool tool = new LiteFullNodeTool();
     JCommander jct = JCommander.newBuilder()
             .addObject(argv)
@@ -0,0 +1,64 @@
+package org.stabila.common.logsfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.common.crypto.Hash;
+import org.stabila.common.runtime.TvmTestUtils;
+import org.stabila.protos.contract.SmartContractOuterClass.SmartContract.ABI;
+
+public class EventDecoderTest {
+
+  private static final String TRANSFER_ABI = "[{\"anonymous\":false,\"inputs\":[{\"indexed\":"
+      + "true,\"name\":\"from\",\"type\":\"address\"},{\"indexed\":true,\"name\":\"to\",\"type\":"
+      + "\"address\"},{\"indexed\":false,\"name\":\"value\",\"type\":\"uint256\"}],\"name\":"
+      + "\"Transfer\",\"type\":\"event\"},{\"anonymous\":true,\"inputs\":[],\"name\":\"Hidden\","
+      + "\"type\":\"event\"}]";
+
+  private static final String APPROVAL_ABI = "[{\"anonymous\":false,\"inputs\":[{\"indexed\":"
+      + "false,\"name\":\"\",\"type\":\"uint256\"}],\"name\":\"Approval\",\"type\":\"event\"}]";
+
+  @Test
+  public void findBySignatureHash() {
+    byte[] address = new byte[]{0x41, 1, 2, 3};
+    ABI abi = TvmTestUtils.jsonStr2Abi(TRANSFER_ABI);
+    EventDecoder decoder = EventDecoder.get(address, abi);
+
+    EventDecoder.Event event = decoder
+        .find(Hash.sha3("Transfer(address,address,uint256)".getBytes()));
+    Assert.assertNotNull(event);
+    Assert.assertEquals("Transfer", event.getName());
+    Assert.assertEquals("Transfer(address from,address to,uint256 value)",
+        event.getSignatureFull());
+    // anonymous events are never matched by topic0
+    Assert.assertNull(decoder.find(Hash.sha3("Hidden()".getBytes())));
+
+    // the same abi, parsed again, reuses the compiled decoder
+    Assert.assertSame(decoder, EventDecoder.get(address, TvmTestUtils.jsonStr2Abi(TRANSFER_ABI)));
+
+    // a different abi for the address rebuilds it
+    EventDecoder replaced = EventDecoder.get(address, TvmTestUtils.jsonStr2Abi(APPROVAL_ABI));
+    Assert.assertNotSame(decoder, replaced);
+    Assert.assertEquals("Approval(uint256)",
+        replaced.find(Hash.sha3("Approval(uint256)".getBytes())).getSignatureFull());
+
+    EventDecoder.invalidate(address);
+    Assert.assertNotSame(replaced,
+        EventDecoder.get(address, TvmTestUtils.jsonStr2Abi(APPROVAL_ABI)));
+  }
+
+  @Test
+  public void abisOfSameSizeToldApart() {
+    byte[] address = new byte[]{0x41, 4, 5, 6};
+    ABI abiA = TvmTestUtils.jsonStr2Abi(APPROVAL_ABI.replace("\"name\":\"\"",
+        "\"name\":\"a\""));
+    ABI abiB = TvmTestUtils.jsonStr2Abi(APPROVAL_ABI.replace("\"name\":\"\"",
+        "\"name\":\"b\""));
+    Assert.assertEquals(abiA.getSerializedSize(), abiB.getSerializedSize());
+
+    byte[] topic0 = Hash.sha3("Approval(uint256)".getBytes());
+    Assert.assertEquals("Approval(uint256 a)",
+        EventDecoder.get(address, abiA).find(topic0).getSignatureFull());
+    Assert.assertEquals("Approval(uint256 b)",
+        EventDecoder.get(address, abiB).find(topic0).getSignatureFull());
+  }
+}
@@ -6,13 +6,17 @@ import static org.stabila.common.logsfilter.FilterQuery.parseToBlockNumber;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
 import org.stabila.common.logsfilter.capsule.ContractEventTriggerCapsule;
+import org.stabila.common.logsfilter.trigger.ContractTrigger;
 import org.stabila.common.runtime.LogEventWrapper;
+import org.stabila.common.runtime.vm.DataWord;
+import org.stabila.common.runtime.vm.LogInfo;
 import org.stabila.protos.contract.SmartContractOuterClass.SmartContract.ABI.Entry;
 
 public class FilterQueryTest {
@@ -85,4 +89,43 @@ public class FilterQueryTest {
       Assert.assertEquals(true, matchFilter(capsule.getContractEventTrigger()));
     }
   }
+
+  @Test
+  public synchronized void testMatchAnyFilter() {
+    DataWord transfer = new DataWord(
+        "ddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef");
+    ContractTrigger trigger = new ContractTrigger();
+    trigger.setBlockNumber(150L);
+    trigger.setContractAddress("address2");
+    trigger.setLogInfo(new LogInfo(new byte[20], Collections.singletonList(transfer),
+        new byte[0]));
+
+    FilterQuery byAddress = new FilterQuery();
+    byAddress.setFromBlock(FilterQuery.EARLIEST_BLOCK_NUM);
+    byAddress.setToBlock(FilterQuery.LATEST_BLOCK_NUM);
+    byAddress.setContractAddressList(Arrays.asList("address1", "ADDRESS2"));
+
+    FilterQuery byTopic = new FilterQuery();
+    byTopic.setFromBlock(200);
+    byTopic.setToBlock(FilterQuery.LATEST_BLOCK_NUM);
+    byTopic.setContractTopicList(Collections.singletonList(transfer.toHexString()));
+
+    try {
+      EventPluginLoader.getInstance().setFilterQueries(Arrays.asList(byAddress, byTopic));
+      Assert.assertTrue(matchFilter(trigger));
+
+      trigger.setContractAddress("address3");
+      Assert.assertFalse(matchFilter(trigger));
+
+      // the topic filter matches the raw log once in range
+      trigger.setBlockNumber(250L);
+      Assert.assertTrue(matchFilter(trigger));
+
+      trigger.setLogInfo(new LogInfo(new byte[20], Collections.singletonList(new DataWord(1)),
+          new byte[0]));
+      Assert.assertFalse(matchFilter(trigger));
+    } finally {
+      EventPluginLoader.getInstance().setFilterQuery(null);
+    }
+  }
 }
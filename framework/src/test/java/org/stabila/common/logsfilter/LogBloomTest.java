@@ -0,0 +1,79 @@
+package org.stabila.common.logsfilter;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.Collections;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.common.utils.StringUtil;
+import org.stabila.core.Constant;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+public class LogBloomTest {
+
+  private static final byte[] TRANSFER = Hex.decode(
+      "ddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef");
+
+  private static final byte[] APPROVAL = Hex.decode(
+      "8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925");
+
+  @Test
+  public void testBloomOfLogs() {
+    byte[] contract = new byte[20];
+    Arrays.fill(contract, (byte) 7);
+    TransactionInfo info = TransactionInfo.newBuilder()
+        .addLog(TransactionInfo.Log.newBuilder()
+            .setAddress(ByteString.copyFrom(contract))
+            .addTopics(ByteString.copyFrom(TRANSFER)))
+        .build();
+    LogBloom bloom = LogBloom.of(Collections.singletonList(info));
+
+    Assert.assertFalse(bloom.isEmpty());
+    Assert.assertTrue(bloom.contains(LogBloom.bits(contract)));
+    Assert.assertTrue(bloom.contains(LogBloom.bits(TRANSFER)));
+    Assert.assertFalse(bloom.contains(LogBloom.bits(APPROVAL)));
+    Assert.assertEquals(bloom, new LogBloom(bloom.getData().clone()));
+
+    // a stabila address matches the 20 bytes logs carry
+    byte[] stabilaAddress = new byte[21];
+    stabilaAddress[0] = Constant.ADD_PRE_FIX_BYTE_MAINNET;
+    System.arraycopy(contract, 0, stabilaAddress, 1, 20);
+    Assert.assertTrue(bloom.contains(LogBloom.bits(LogBloom.address(stabilaAddress))));
+    Assert.assertTrue(new LogBloom().isEmpty());
+  }
+
+  @Test
+  public void testEventFilterMayMatch() {
+    byte[] contract = new byte[21];
+    contract[0] = Constant.ADD_PRE_FIX_BYTE_MAINNET;
+    contract[20] = 1;
+    LogBloom bloom = new LogBloom();
+    bloom.add(LogBloom.bits(LogBloom.address(contract)));
+    bloom.add(LogBloom.bits(TRANSFER));
+
+    FilterQuery byAddress = new FilterQuery();
+    byAddress.setFromBlock(FilterQuery.EARLIEST_BLOCK_NUM);
+    byAddress.setToBlock(FilterQuery.LATEST_BLOCK_NUM);
+    byAddress.setContractAddressList(
+        Collections.singletonList(StringUtil.encode58Check(contract)));
+    Assert.assertTrue(new EventFilter(Collections.singletonList(byAddress)).mayMatch(1, bloom));
+    Assert.assertFalse(new EventFilter(Collections.singletonList(byAddress))
+        .mayMatch(1, new LogBloom()));
+
+    FilterQuery byTopic = new FilterQuery();
+    byTopic.setFromBlock(100);
+    byTopic.setToBlock(FilterQuery.LATEST_BLOCK_NUM);
+    byTopic.setContractTopicList(Collections.singletonList(Hex.toHexString(APPROVAL)));
+    EventFilter filter = new EventFilter(Collections.singletonList(byTopic));
+    Assert.assertFalse(filter.mayMatch(150, bloom));
+    bloom.add(LogBloom.bits(APPROVAL));
+    Assert.assertTrue(filter.mayMatch(150, bloom));
+    Assert.assertFalse(filter.mayMatch(50, bloom));
+
+    // decoded topic values are not in the bloom, the block can not be ruled out
+    byTopic.setContractTopicList(Collections.singletonList("transfer"));
+    Assert.assertTrue(new EventFilter(Collections.singletonList(byTopic))
+        .mayMatch(150, new LogBloom()));
+  }
+}
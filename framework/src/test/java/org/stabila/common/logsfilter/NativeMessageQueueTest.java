@@ -1,11 +1,21 @@
 package org.stabila.common.logsfilter;
 
+import com.google.common.primitives.Longs;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 import org.stabila.common.logsfilter.nativequeue.NativeMessageQueue;
+import org.stabila.common.logsfilter.nativequeue.TriggerEncoder;
+import org.stabila.common.logsfilter.trigger.ContractLogTrigger;
+import org.stabila.protos.Event.TriggerMessage;
 import org.zeromq.SocketType;
 import org.zeromq.ZContext;
 import org.zeromq.ZMQ;
+import org.zeromq.ZMQException;
 
 public class NativeMessageQueueTest {
 
@@ -53,6 +63,92 @@ public class NativeMessageQueueTest {
     NativeMessageQueue.getInstance().stop();
   }
 
+  @Test
+  public void publishShardedWithSequence() throws Exception {
+    int shards = 2;
+    Assert.assertTrue(NativeMessageQueue.getInstance().start(bindPort, 0, shards, true));
+    String contract = "SPnNh8bE4CKjjNKdqgzsfT5i5ARaUSYAz1";
+    int shard = NativeMessageQueue.shard(contract, shards);
+    byte[] contractData = "contract".getBytes(StandardCharsets.UTF_8);
+    byte[] blockData = "block".getBytes(StandardCharsets.UTF_8);
+
+    ZContext context = new ZContext();
+    try {
+      List<ZMQ.Socket> subscribers = new ArrayList<>();
+      for (int i = 0; i < shards; i++) {
+        ZMQ.Socket subscriber = context.createSocket(SocketType.SUB);
+        subscriber.connect(String.format("tcp://localhost:%d", bindPort + i));
+        subscriber.subscribe(topic);
+        subscriber.setReceiveTimeOut(1000);
+        subscribers.add(subscriber);
+      }
+      Thread.sleep(1000);
+
+      NativeMessageQueue.getInstance().publishTrigger(topic, contract, contractData);
+      NativeMessageQueue.getInstance().publishTrigger(topic, null, blockData);
+
+      // a keyless trigger is published once, on shard 0
+      for (int i = 0; i < shards; i++) {
+        List<byte[]> expected = new ArrayList<>();
+        if (i == shard) {
+          expected.add(contractData);
+        }
+        if (i == 0) {
+          expected.add(blockData);
+        }
+        ZMQ.Socket subscriber = subscribers.get(i);
+        for (int sequence = 1; sequence <= expected.size(); sequence++) {
+          Assert.assertEquals(topic, subscriber.recvStr());
+          Assert.assertArrayEquals(expected.get(sequence - 1), subscriber.recv());
+          Assert.assertEquals(sequence, Longs.fromByteArray(subscriber.recv()));
+        }
+        Assert.assertNull(subscriber.recvStr());
+      }
+    } finally {
+      context.close();
+      NativeMessageQueue.getInstance().stop();
+    }
+  }
+
+  @Test
+  public void startClosesBoundShardsOnFailure() {
+    ZContext context = new ZContext();
+    try {
+      ZMQ.Socket taken = context.createSocket(SocketType.PUB);
+      taken.bind(String.format("tcp://*:%d", bindPort + 1));
+      try {
+        Assert.assertFalse(NativeMessageQueue.getInstance().start(bindPort, 0, 2, false));
+      } catch (ZMQException e) {
+        // the bind failure may surface as an exception instead
+      }
+      // the port of shard 0 was released
+      Assert.assertTrue(NativeMessageQueue.getInstance().start(bindPort, 0));
+    } finally {
+      NativeMessageQueue.getInstance().stop();
+      context.close();
+    }
+  }
+
+  @Test
+  public void encodeProtobuf() throws Exception {
+    ContractLogTrigger trigger = new ContractLogTrigger();
+    trigger.setTimeStamp(1000L);
+    trigger.setContractAddress("SPnNh8bE4CKjjNKdqgzsfT5i5ARaUSYAz1");
+    trigger.setBlockNumber(12L);
+    trigger.setTopicList(Arrays.asList("ddf252ad", "0001"));
+    trigger.setData("00ff");
+
+    TriggerMessage message = TriggerMessage.parseDelimitedFrom(
+        new ByteArrayInputStream(TriggerEncoder.encode(trigger)));
+    Assert.assertEquals(trigger.getTriggerName(), message.getTriggerName());
+    Assert.assertEquals(1000L, message.getTimestamp());
+    Assert.assertEquals(12L, message.getContractLog().getContract().getBlockNumber());
+    Assert.assertEquals(trigger.getContractAddress(),
+        message.getContractLog().getContract().getContractAddress());
+    Assert.assertEquals(trigger.getTopicList(), message.getContractLog().getTopicListList());
+    Assert.assertEquals("00ff", message.getContractLog().getData());
+  }
+
   public void startSubscribeThread() {
     Thread thread = new Thread(() -> {
       ZContext context = new ZContext();
@@ -0,0 +1,50 @@
+package org.stabila.common.logsfilter;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.common.logsfilter.capsule.TriggerCapsule;
+
+public class TriggerPipelineTest {
+
+  private static final int TRIGGERS = 500;
+
+  @Test
+  public void deliverInSubmissionOrder() throws InterruptedException {
+    List<Integer> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(TRIGGERS);
+    Random random = new Random(1);
+    TriggerPipeline pipeline = new TriggerPipeline(8, 64);
+    try {
+      for (int i = 0; i < TRIGGERS; i++) {
+        int seq = i;
+        int delay = random.nextInt(3);
+        pipeline.submit(new TriggerCapsule() {
+          @Override
+          public Runnable prepareTrigger() {
+            try {
+              // workers finish out of order
+              Thread.sleep(delay);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return () -> {
+              delivered.add(seq);
+              done.countDown();
+            };
+          }
+        });
+      }
+      Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+    } finally {
+      pipeline.shutdown();
+    }
+    for (int i = 0; i < TRIGGERS; i++) {
+      Assert.assertEquals(i, delivered.get(i).intValue());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.stabila.common.logsfilter;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TriggerSpoolTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void resumeAfterRestart() throws Exception {
+    File dir = temporaryFolder.newFolder("spool");
+    List<String> delivered = new CopyOnWriteArrayList<>();
+
+    TriggerSpool spool = new TriggerSpool(dir, 1024, 1024 * 1024);
+    for (int i = 0; i < 100; i++) {
+      spool.append("block", null, ("{\"blockNumber\":" + i + "}").getBytes());
+    }
+    spool.subscribe("indexer", (name, key, data) -> delivered.add(new String(data)));
+    await(delivered, 100);
+    spool.close();
+
+    // the segments written by the first spool rolled and the cursor survives the restart
+    Assert.assertTrue(dir.list((d, name) -> name.endsWith(".seg")).length > 0);
+    spool = new TriggerSpool(dir, 1024, 1024 * 1024);
+    for (int i = 100; i < 150; i++) {
+      spool.append("block", null, ("{\"blockNumber\":" + i + "}").getBytes());
+    }
+    spool.subscribe("indexer", (name, key, data) -> delivered.add(new String(data)));
+    await(delivered, 150);
+    spool.close();
+
+    Assert.assertEquals(150, delivered.size());
+    for (int i = 0; i < 150; i++) {
+      Assert.assertEquals("{\"blockNumber\":" + i + "}", delivered.get(i));
+    }
+  }
+
+  @Test
+  public void retryFailedDelivery() throws Exception {
+    List<String> delivered = new CopyOnWriteArrayList<>();
+    AtomicInteger failures = new AtomicInteger(2);
+    TriggerSpool spool = new TriggerSpool(temporaryFolder.newFolder("retry"), 1024, 4096);
+    spool.subscribe("plugin", (name, key, data) -> {
+      if (failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("consumer down");
+      }
+      delivered.add(name + ":" + key + ":" + new String(data));
+    });
+    spool.append("transaction", "TXa", "a".getBytes());
+    spool.append("transaction", null, "b".getBytes());
+    await(delivered, 2);
+    spool.close();
+
+    Assert.assertEquals("transaction:TXa:a", delivered.get(0));
+    Assert.assertEquals("transaction:null:b", delivered.get(1));
+    Assert.assertEquals(0, spool.getLag("plugin"));
+  }
+
+  private static void await(List<String> delivered, int size) throws InterruptedException {
+    for (int i = 0; i < 100 && delivered.size() < size; i++) {
+      Thread.sleep(100);
+    }
+  }
+}
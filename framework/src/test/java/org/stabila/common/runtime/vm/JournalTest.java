@@ -0,0 +1,64 @@
+package org.stabila.common.runtime.vm;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.core.vm.program.Storage;
+import org.stabila.core.vm.repository.Journal;
+
+public class JournalTest {
+
+  @Test
+  public void revertNestedFrames() {
+    Journal journal = new Journal();
+    Map<String, String> cache = new HashMap<>();
+
+    journal.record(cache, "a");
+    cache.put("a", "root");
+
+    int outer = journal.checkpoint();
+    journal.record(cache, "a");
+    cache.put("a", "outer");
+    journal.record(cache, "b");
+    cache.put("b", "outer");
+
+    int inner = journal.checkpoint();
+    journal.record(cache, "b");
+    cache.put("b", "inner");
+    journal.record(cache, "c");
+    cache.put("c", "inner");
+
+    journal.revert(inner);
+    Assert.assertEquals("outer", cache.get("a"));
+    Assert.assertEquals("outer", cache.get("b"));
+    Assert.assertFalse(cache.containsKey("c"));
+
+    journal.revert(outer);
+    Assert.assertEquals("root", cache.get("a"));
+    Assert.assertFalse(cache.containsKey("b"));
+
+    // reverting an already reverted frame is a no-op
+    journal.revert(inner);
+    Assert.assertEquals("root", cache.get("a"));
+  }
+
+  @Test
+  public void revertStorageRows() {
+    Journal journal = new Journal();
+    Storage storage = new Storage(new byte[21], null);
+    storage.setJournal(journal);
+    DataWord key1 = new DataWord(1);
+    DataWord key2 = new DataWord(2);
+
+    storage.put(key1, new DataWord(10));
+    int checkpoint = journal.checkpoint();
+    storage.put(key1, new DataWord(11));
+    storage.put(key2, new DataWord(20));
+    Assert.assertEquals(new DataWord(11), storage.getValue(key1));
+
+    journal.revert(checkpoint);
+    Assert.assertEquals(new DataWord(10), storage.getValue(key1));
+    Assert.assertFalse(storage.getRowCache().containsKey(key2));
+  }
+}
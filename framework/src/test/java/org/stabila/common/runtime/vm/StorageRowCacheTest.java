@@ -0,0 +1,84 @@
+package org.stabila.common.runtime.vm;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.core.capsule.StorageRowCapsule;
+import org.stabila.core.db.StorageRowCache;
+import org.stabila.core.db2.ISession;
+import org.stabila.core.store.StorageRowStore;
+import org.stabila.core.vm.program.Storage;
+
+public class StorageRowCacheTest extends VMTestBase {
+
+  @Test
+  public void sharedAcrossTransactions() {
+    StorageRowStore store = manager.getChainBaseManager().getStorageRowStore();
+    StorageRowCache cache = manager.getChainBaseManager().getStorageRowCache();
+    byte[] address = Hex.decode(OWNER_ADDRESS);
+    DataWord key = new DataWord(1);
+
+    cache.begin();
+    try {
+      Storage first = new Storage(address, store);
+      first.setBlockCache(cache);
+      Assert.assertNull(first.getValue(key));
+      first.put(key, new DataWord(42));
+      first.commit();
+
+      // a later transaction of the same block sees the committed row
+      Storage second = new Storage(address, store);
+      second.setBlockCache(cache);
+      Assert.assertEquals(new DataWord(42), second.getValue(key));
+
+      // rows handed out are private copies
+      second.put(key, new DataWord(7));
+      Storage third = new Storage(address, store);
+      third.setBlockCache(cache);
+      Assert.assertEquals(new DataWord(42), third.getValue(key));
+
+      third.put(key, new DataWord(0));
+      third.commit();
+      Storage fourth = new Storage(address, store);
+      fourth.setBlockCache(cache);
+      Assert.assertNull(fourth.getValue(key));
+    } finally {
+      cache.end();
+    }
+  }
+
+  @Test
+  public void clearedOnRevoke() {
+    StorageRowStore store = manager.getChainBaseManager().getStorageRowStore();
+    StorageRowCache cache = manager.getChainBaseManager().getStorageRowCache();
+    byte[] address = Hex.decode(OWNER_ADDRESS);
+    DataWord key = new DataWord(3);
+
+    cache.begin();
+    try {
+      try (ISession session = manager.getRevokingStore().buildSession()) {
+        Storage first = new Storage(address, store);
+        first.setBlockCache(cache);
+        first.put(key, new DataWord(42));
+        first.commit();
+      }
+
+      // the session that wrote the row is revoked, the row must not be served any more
+      Storage second = new Storage(address, store);
+      second.setBlockCache(cache);
+      Assert.assertNull(second.getValue(key));
+    } finally {
+      cache.end();
+    }
+  }
+
+  @Test
+  public void inactiveOutsideBlock() {
+    StorageRowStore store = manager.getChainBaseManager().getStorageRowStore();
+    StorageRowCache cache = manager.getChainBaseManager().getStorageRowCache();
+    byte[] rowKey = new DataWord(2).getData();
+
+    cache.put(rowKey, new StorageRowCapsule(new DataWord(5).getData()));
+    Assert.assertNull(cache.get(rowKey, store));
+  }
+}
@@ -0,0 +1,162 @@
+package org.stabila.common.runtime.vm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.stabila.common.utils.ByteUtil;
+
+/**
+ * Differential fuzz test of UInt256 against the DataWord semantics the VM relied on.
+ */
+@Slf4j
+public class UInt256Test {
+
+  private static final int ROUNDS = 50000;
+
+  private final Random random = new Random(0x5157AB11AL);
+  private final UInt256 scratch = new UInt256();
+
+  private DataWord randomWord() {
+    BigInteger v;
+    switch (random.nextInt(8)) {
+      case 0:
+        v = BigInteger.ZERO;
+        break;
+      case 1:
+        v = BigInteger.valueOf(random.nextInt(5));
+        break;
+      case 2:
+        v = DataWord.MAX_VALUE.subtract(BigInteger.valueOf(random.nextInt(3)));
+        break;
+      case 3:
+        v = BigInteger.ONE.shiftLeft(random.nextInt(256));
+        break;
+      case 4:
+        v = new BigInteger(64, random);
+        break;
+      case 5:
+        v = new BigInteger(1 + random.nextInt(256), random).setBit(255);
+        break;
+      default:
+        v = new BigInteger(1 + random.nextInt(256), random);
+        break;
+    }
+    return new DataWord(ByteUtil.copyToArray(v));
+  }
+
+  private DataWord randomShift() {
+    return random.nextBoolean() ? new DataWord(random.nextInt(300)) : randomWord();
+  }
+
+  private static UInt256 u(DataWord word) {
+    return new UInt256().load(word);
+  }
+
+  private static void check(String op, DataWord a, DataWord b, DataWord expected, UInt256 actual) {
+    assertArrayEquals(op + " " + a + " " + b, expected.getData(), actual.toDataWord().getData());
+  }
+
+  @Test
+  public void testArithmetic() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord b = randomWord();
+
+      DataWord expected = a.clone();
+      expected.add(b);
+      check("add", a, b, expected, u(a).add(u(b)));
+
+      expected = a.clone();
+      expected.sub(b);
+      check("sub", a, b, expected, u(a).sub(u(b)));
+
+      expected = a.clone();
+      expected.mul(b);
+      check("mul", a, b, expected, u(a).mul(u(b)));
+
+      expected = a.clone();
+      expected.div(b);
+      check("div", a, b, expected, u(a).div(u(b)));
+
+      expected = a.clone();
+      expected.sDiv(b);
+      check("sdiv", a, b, expected, u(a).sdiv(u(b), scratch));
+
+      expected = a.clone();
+      expected.mod(b);
+      check("mod", a, b, expected, u(a).mod(u(b)));
+
+      expected = a.clone();
+      expected.sMod(b);
+      check("smod", a, b, expected, u(a).smod(u(b), scratch));
+
+      if (i % 10 == 0) {
+        expected = a.clone();
+        expected.exp(b);
+        check("exp", a, b, expected, u(a).exp(u(b), scratch));
+      }
+    }
+  }
+
+  @Test
+  public void testModularArithmetic() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord b = randomWord();
+      DataWord m = randomWord();
+
+      DataWord expected = a.clone();
+      expected.addmod(b, m);
+      check("addmod", a, b, expected, u(a).addmod(u(b), u(m)));
+
+      expected = a.clone();
+      expected.mulmod(b, m);
+      check("mulmod", a, b, expected, u(a).mulmod(u(b), u(m)));
+    }
+  }
+
+  @Test
+  public void testShifts() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord shift = randomShift();
+
+      check("shl", a, shift, a.shiftLeft(shift), u(a).shiftLeft(u(shift)));
+      check("shr", a, shift, a.shiftRight(shift), u(a).shiftRight(u(shift)));
+      check("sar", a, shift, a.shiftRightSigned(shift), u(a).shiftRightSigned(u(shift)));
+    }
+  }
+
+  @Test
+  public void testComparisons() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord b = random.nextInt(10) == 0 ? a.clone() : randomWord();
+
+      assertEquals(a.value().compareTo(b.value()),
+          Integer.signum(u(a).compareUnsigned(u(b))));
+      assertEquals(a.sValue().compareTo(b.sValue()),
+          Integer.signum(u(a).compareSigned(u(b))));
+      assertEquals(a.equals(b), u(a).equalsValue(u(b)));
+      assertEquals(a.isZero(), u(a).isZero());
+    }
+  }
+
+  @Test
+  public void testStoreInPlace() {
+    DataWord word = new DataWord(7);
+    byte[] backing = word.getData();
+    new UInt256().load(word).add(new UInt256(5)).store(word);
+    assertEquals(12, word.intValue());
+    assertEquals(backing, word.getData());
+
+    DataWord empty = new DataWord((byte[]) null);
+    new UInt256(1).store(empty);
+    assertEquals(DataWord.WORD_SIZE, empty.getData().length);
+    assertEquals(1, empty.intValue());
+  }
+}
@@ -0,0 +1,70 @@
+package org.stabila.common.runtime.vm;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.stabila.core.vm.OpCode;
+import org.stabila.core.vm.trace.VMProfiler;
+import org.stabila.core.vm.trace.VMProfiler.ContractStat;
+import org.stabila.core.vm.trace.VMProfiler.OpStat;
+
+public class VMProfilerTest {
+
+  private final VMProfiler profiler = VMProfiler.getInstance();
+
+  @Before
+  public void reset() {
+    profiler.reset();
+  }
+
+  @Test
+  public void mergeOnOutermostExit() throws InterruptedException {
+    VMProfiler.Recorder recorder = profiler.recorder();
+    byte[] caller = new byte[]{0x41, 1};
+    byte[] callee = new byte[]{0x41, 2};
+
+    VMProfiler.Frame outer = recorder.enter();
+    recorder.count(OpCode.ADD.val());
+    recorder.record(OpCode.ADD.val(), 100);
+
+    VMProfiler.Frame inner = recorder.enter();
+    recorder.count(OpCode.MUL.val());
+    Thread.sleep(20);
+    recorder.exit(inner, callee, 30);
+    // nothing is published until the outermost frame returns
+    Assert.assertTrue(profiler.getOpStats().isEmpty());
+
+    recorder.exit(outer, caller, 50);
+
+    List<OpStat> ops = profiler.getOpStats();
+    Assert.assertEquals(2, ops.size());
+    OpStat add = ops.get(0);
+    Assert.assertEquals("ADD", add.getOp());
+    Assert.assertEquals(2, add.getCount());
+    Assert.assertEquals(1, add.getSamples());
+    Assert.assertEquals(100, add.getAvgNanos());
+    Assert.assertEquals(1, add.getHistogram()[7]);
+
+    List<ContractStat> top = profiler.getTopContractsByCpu(10);
+    Assert.assertEquals(2, top.size());
+    ContractStat first = top.get(0);
+    Assert.assertEquals("4102", first.getAddress());
+    Assert.assertEquals(30, first.getEnergy());
+    ContractStat second = top.get(1);
+    Assert.assertEquals("4101", second.getAddress());
+    // the caller is charged for its own work only
+    Assert.assertEquals(20, second.getEnergy());
+    Assert.assertTrue(second.getCpuNanos() < first.getCpuNanos());
+  }
+
+  @Test
+  public void boundedContracts() {
+    VMProfiler.Recorder recorder = profiler.recorder();
+    for (int i = 0; i < 1500; i++) {
+      VMProfiler.Frame frame = recorder.enter();
+      recorder.exit(frame, new byte[]{0x41, (byte) (i >> 8), (byte) i}, 1);
+    }
+    Assert.assertTrue(profiler.getTopContractsByCpu(2000).size() <= 1000);
+  }
+}
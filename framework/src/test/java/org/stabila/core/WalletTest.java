@@ -40,6 +40,8 @@ import org.stabila.api.GrpcAPI.AssetIssueList;
 import org.stabila.api.GrpcAPI.BlockList;
 import org.stabila.api.GrpcAPI.ExchangeList;
 import org.stabila.api.GrpcAPI.ProposalList;
+import org.stabila.api.GrpcAPI.TransactionIdList;
+import org.stabila.api.GrpcAPI.TransactionInfoList;
 import org.stabila.common.application.StabilaApplicationContext;
 import org.stabila.common.crypto.ECKey;
 import org.stabila.common.utils.ByteArray;
@@ -53,6 +55,7 @@ import org.stabila.core.capsule.TransactionCapsule;
 import org.stabila.core.capsule.TransactionInfoCapsule;
 import org.stabila.core.config.DefaultConfig;
 import org.stabila.core.config.args.Args;
+import org.stabila.core.exception.BadItemException;
 import org.stabila.core.store.DynamicPropertiesStore;
 import org.stabila.protos.Protocol;
 import org.stabila.protos.Protocol.Block;
@@ -401,6 +404,30 @@ public class WalletTest {
         ByteString.copyFrom(transaction5.getRawData().toByteArray()));
   }
 
+  @Test
+  public void getTransactionInfosByIds() throws BadItemException {
+    TransactionIdList ids = TransactionIdList.newBuilder()
+        .addTxId(ByteArray.toHexString(transaction1.getRawData().toByteArray()))
+        .addTxId("00")
+        .addTxId(ByteArray.toHexString(transaction3.getRawData().toByteArray()))
+        .build();
+    TransactionInfoList infos = wallet.getTransactionInfosByIds(ids);
+    assertEquals(2, infos.getTransactionInfoCount());
+    assertEquals(transaction1.getRawData().toByteString(), infos.getTransactionInfo(0).getId());
+    assertEquals(transaction3.getRawData().toByteString(), infos.getTransactionInfo(1).getId());
+
+    int maxSize = Args.getInstance().getBatchQueryMaxSize();
+    Args.getInstance().setBatchQueryMaxSize(2);
+    try {
+      wallet.getTransactionInfosByIds(ids);
+      Assert.fail();
+    } catch (BadItemException e) {
+      assertEquals("a batch holds at most 2 items", e.getMessage());
+    } finally {
+      Args.getInstance().setBatchQueryMaxSize(maxSize);
+    }
+  }
+
   @Ignore
   @Test
   public void getTransactionById() {
@@ -0,0 +1,134 @@
+package org.stabila.core.consensus;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.consensus.dpos.MaintenanceManager;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.AccountCapsule;
+import org.stabila.core.capsule.VotesCapsule;
+import org.stabila.core.capsule.WitnessCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
+import org.stabila.core.db2.ISession;
+import org.stabila.core.store.VoteDeltaStore;
+import org.stabila.core.store.VotesStore;
+import org.stabila.protos.Protocol.AccountType;
+import org.stabila.protos.Protocol.Vote;
+
+public class MaintenanceManagerTest {
+
+  private static final ByteString VOTER_A = ByteString.copyFromUtf8("voter_a");
+  private static final ByteString VOTER_B = ByteString.copyFromUtf8("voter_b");
+  private static final ByteString WITNESS_1 = ByteString.copyFromUtf8("witness_1");
+  private static final ByteString WITNESS_2 = ByteString.copyFromUtf8("witness_2");
+  private static final ByteString WITNESS_3 = ByteString.copyFromUtf8("witness_3");
+  private static final List<ByteString> WITNESSES = Arrays.asList(WITNESS_1, WITNESS_2,
+      WITNESS_3);
+  private static final long INITIAL_VOTES = 100;
+  private static String dbPath = "output_MaintenanceManager_test";
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static MaintenanceManager maintenanceManager;
+  private static VotesStore votesStore;
+  private static VoteDeltaStore voteDeltaStore;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    dbManager = context.getBean(Manager.class);
+    context.getBean(ConsensusService.class).start();
+    maintenanceManager = context.getBean(MaintenanceManager.class);
+    votesStore = dbManager.getChainBaseManager().getVotesStore();
+    voteDeltaStore = dbManager.getChainBaseManager().getVoteDeltaStore();
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testTallyMatchesScan() {
+    // a new database counts the votes by reading the vote changes, the tally is kept after
+    Assert.assertFalse(voteDeltaStore.isTallied());
+    Map<ByteString, Long> scanned = voteAndMaintain();
+    Assert.assertTrue(voteDeltaStore.isTallied());
+    Map<ByteString, Long> tallied = voteAndMaintain();
+
+    Assert.assertEquals(scanned, tallied);
+    Assert.assertEquals(INITIAL_VOTES - 4, (long) tallied.get(WITNESS_1));
+    Assert.assertEquals(INITIAL_VOTES + 10, (long) tallied.get(WITNESS_2));
+    Assert.assertEquals(INITIAL_VOTES, (long) tallied.get(WITNESS_3));
+  }
+
+  /**
+   * a votes for 1 then moves its votes to 2, b takes back its votes for 1 and votes for 3. A
+   * fork where a votes for 3 is revoked after its maintenance block, then b moves its votes
+   * to 2 and the maintenance counts the votes.
+   */
+  private static Map<ByteString, Long> voteAndMaintain() {
+    WITNESSES.forEach(witness -> {
+      dbManager.getAccountStore().put(witness.toByteArray(),
+          new AccountCapsule(witness, witness, AccountType.Normal));
+      dbManager.getWitnessStore().put(witness.toByteArray(),
+          new WitnessCapsule(witness, INITIAL_VOTES, ""));
+    });
+
+    vote(VOTER_A, Collections.emptyList(), WITNESS_1, 10);
+    vote(VOTER_A, Collections.emptyList(), WITNESS_2, 7);
+    List<Vote> oldVotesB = Collections.singletonList(
+        Vote.newBuilder().setVoteAddress(WITNESS_1).setVoteCount(4).build());
+    vote(VOTER_B, oldVotesB, WITNESS_3, 5);
+
+    long epoch = voteDeltaStore.getEpoch();
+    boolean tallied = voteDeltaStore.isTallied();
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      vote(VOTER_A, Collections.emptyList(), WITNESS_3, 100);
+      maintenanceManager.doMaintenance();
+      Assert.assertEquals(INITIAL_VOTES + 105, getVoteCount(WITNESS_3));
+    }
+    Assert.assertEquals(epoch, voteDeltaStore.getEpoch());
+    Assert.assertEquals(tallied, voteDeltaStore.isTallied());
+    Assert.assertEquals(INITIAL_VOTES, getVoteCount(WITNESS_3));
+
+    vote(VOTER_B, oldVotesB, WITNESS_2, 3);
+    maintenanceManager.doMaintenance();
+
+    Map<ByteString, Long> voteCounts = new HashMap<>();
+    WITNESSES.forEach(witness -> voteCounts.put(witness, getVoteCount(witness)));
+    return voteCounts;
+  }
+
+  private static void vote(ByteString voter, List<Vote> oldVotes, ByteString witness,
+      long count) {
+    VotesCapsule votes = votesStore.get(voter.toByteArray());
+    if (votes == null) {
+      votes = new VotesCapsule(voter, oldVotes);
+    }
+    votes.clearNewVotes();
+    votes.addNewVotes(witness, count);
+    votesStore.put(voter.toByteArray(), votes);
+  }
+
+  private static long getVoteCount(ByteString witness) {
+    return dbManager.getWitnessStore().get(witness.toByteArray()).getVoteCount();
+  }
+}
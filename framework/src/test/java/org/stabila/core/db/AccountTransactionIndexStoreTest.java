@@ -0,0 +1,116 @@
+package org.stabila.core.db;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.List;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.common.utils.Sha256Hash;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.store.AccountTransactionIndexStore;
+import org.stabila.core.store.AccountTransactionIndexStore.Entry;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
+import org.stabila.protos.contract.BalanceContract.TransferContract;
+
+public class AccountTransactionIndexStoreTest {
+
+  private static final byte[] OWNER = Hex.decode("41abd4b9367799eaa3197fecb144eb71de1e049abc");
+  private static final byte[] TO = Hex.decode("41548794500882809695a8a687866e76d4271a1abc");
+  private static final byte[] OTHER = Hex.decode("41ed783fd0fd8f4f4d1b6d1dcb5b6fd38a4a5e3fdc");
+  private static String dbPath = "output_AccountTransactionIndexStore_test";
+  private static StabilaApplicationContext context;
+  private static AccountTransactionIndexStore store;
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @BeforeClass
+  public static void init() {
+    Args.getInstance().getStorage().setAccountIndexSwitch("on");
+    store = context.getBean(AccountTransactionIndexStore.class);
+    for (long num = 1; num <= 3; num++) {
+      BlockCapsule block = new BlockCapsule(num, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY);
+      block.addTransaction(transfer(OWNER, TO, num));
+      block.addTransaction(transferAsset(OTHER, OWNER, num));
+      block.addTransaction(transfer(OTHER, TO, num));
+      store.put(block);
+    }
+  }
+
+  @Test
+  public void testGetTransactions() {
+    List<Entry> entries = store.getTransactions(OWNER, 0, 0, 10);
+    Assert.assertEquals(6, entries.size());
+    long[] blocks = {1, 1, 2, 2, 3, 3};
+    int[] indexes = {0, 1, 0, 1, 0, 1};
+    for (int i = 0; i < entries.size(); i++) {
+      Assert.assertEquals(blocks[i], entries.get(i).getBlockNum());
+      Assert.assertEquals(indexes[i], entries.get(i).getIndex());
+    }
+    Assert.assertArrayEquals(new TransactionCapsule(transferAsset(OTHER, OWNER, 2))
+        .getTransactionId().getBytes(), entries.get(3).getTxId());
+
+    // resumes from a position, the position included
+    entries = store.getTransactions(OWNER, 2, 1, 2);
+    Assert.assertEquals(2, entries.size());
+    Assert.assertEquals(2, entries.get(0).getBlockNum());
+    Assert.assertEquals(1, entries.get(0).getIndex());
+    Assert.assertEquals(3, entries.get(1).getBlockNum());
+
+    // the last account in key order does not run into the entries of the next one
+    Assert.assertEquals(6, store.getTransactions(OTHER, 0, 0, 100).size());
+    Assert.assertEquals(6, store.getTransactions(TO, 0, 0, 100).size());
+    Assert.assertTrue(store.getTransactions(OWNER, 4, 0, 10).isEmpty());
+    Assert.assertTrue(store.getTransactions(OWNER, 0, 0, 0).isEmpty());
+
+    // the value is the transaction id only, the position is read from the key
+    Assert.assertArrayEquals(entries.get(0).getTxId(),
+        store.getUnchecked(AccountTransactionIndexStore.key(OWNER, 2, 1)).getData());
+  }
+
+  @Test
+  public void testGetAddresses() {
+    Assert.assertEquals(2,
+        AccountTransactionIndexStore.getAddresses(transfer(OWNER, TO, 1)).size());
+    Assert.assertTrue(AccountTransactionIndexStore.getAddresses(transferAsset(OTHER, OWNER, 1))
+        .contains(ByteString.copyFrom(OWNER)));
+  }
+
+  private static Transaction transfer(byte[] owner, byte[] to, long amount) {
+    return Transaction.newBuilder().setRawData(Transaction.raw.newBuilder()
+        .addContract(Transaction.Contract.newBuilder().setType(ContractType.TransferContract)
+            .setParameter(Any.pack(TransferContract.newBuilder()
+                .setOwnerAddress(ByteString.copyFrom(owner))
+                .setToAddress(ByteString.copyFrom(to)).setAmount(amount).build())))).build();
+  }
+
+  private static Transaction transferAsset(byte[] owner, byte[] to, long amount) {
+    return Transaction.newBuilder().setRawData(Transaction.raw.newBuilder()
+        .addContract(Transaction.Contract.newBuilder().setType(ContractType.TransferAssetContract)
+            .setParameter(Any.pack(TransferAssetContract.newBuilder()
+                .setAssetName(ByteString.copyFromUtf8("1000001"))
+                .setOwnerAddress(ByteString.copyFrom(owner))
+                .setToAddress(ByteString.copyFrom(to)).setAmount(amount).build())))).build();
+  }
+}
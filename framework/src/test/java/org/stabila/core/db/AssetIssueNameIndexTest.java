@@ -0,0 +1,104 @@
+package org.stabila.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.AssetIssueCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db2.ISession;
+import org.stabila.core.store.AssetIssueStore;
+import org.stabila.protos.contract.AssetIssueContractOuterClass.AssetIssueContract;
+
+public class AssetIssueNameIndexTest {
+
+  private static String dbPath = "output_AssetIssueNameIndex_test";
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static AssetIssueStore assetIssueStore;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    dbManager = context.getBean(Manager.class);
+    assetIssueStore = dbManager.getChainBaseManager().getAssetIssueStore();
+    putAsset("delta");
+    putAsset("alpha");
+    putAsset("echo");
+    putAsset("charlie");
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testPaginated() {
+    assertSameAsSort();
+    Assert.assertNull(assetIssueStore.getAssetIssuesPaginated(-1, 2));
+    Assert.assertNull(assetIssueStore.getAssetIssuesPaginated(100, 2));
+  }
+
+  @Test
+  public void testRevoke() {
+    List<String> before = names(assetIssueStore.getAssetIssuesPaginated(0, 100));
+
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      assetIssueStore.delete("delta".getBytes());
+      try (ISession inner = dbManager.getRevokingStore().buildSession()) {
+        putAsset("bravo");
+        inner.merge();
+      }
+      List<String> page = names(assetIssueStore.getAssetIssuesPaginated(0, 100));
+      Assert.assertTrue(page.contains("bravo"));
+      Assert.assertFalse(page.contains("delta"));
+      assertSameAsSort();
+    }
+
+    Assert.assertEquals(before, names(assetIssueStore.getAssetIssuesPaginated(0, 100)));
+    assertSameAsSort();
+  }
+
+  private static void putAsset(String name) {
+    AssetIssueCapsule assetIssue = new AssetIssueCapsule(AssetIssueContract.newBuilder()
+        .setName(ByteString.copyFromUtf8(name))
+        .setTotalSupply(1000)
+        .build());
+    assetIssueStore.put(assetIssue.createDbKey(), assetIssue);
+  }
+
+  /**
+   * Every page of the index is the page of all assets sorted by name.
+   */
+  private static void assertSameAsSort() {
+    List<String> sorted = names(assetIssueStore.getAllAssetIssues()).stream()
+        .sorted()
+        .collect(Collectors.toList());
+    for (int offset = 0; offset < sorted.size(); offset++) {
+      int end = Math.min(sorted.size(), offset + 2);
+      Assert.assertEquals(sorted.subList(offset, end),
+          names(assetIssueStore.getAssetIssuesPaginated(offset, 2)));
+    }
+  }
+
+  private static List<String> names(List<AssetIssueCapsule> assetIssues) {
+    return assetIssues.stream()
+        .map(assetIssue -> assetIssue.getName().toStringUtf8())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,143 @@
+package org.stabila.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.MarketOrderCapsule;
+import org.stabila.core.capsule.MarketOrderIdListCapsule;
+import org.stabila.core.capsule.utils.MarketUtils;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db2.ISession;
+import org.stabila.core.exception.ItemNotFoundException;
+import org.stabila.core.store.MarketOrderStore;
+import org.stabila.core.store.MarketPairPriceToOrderStore;
+import org.stabila.protos.contract.MarketContract.MarketSellAssetContract;
+
+public class MarketOrderBookTest {
+
+  private static final byte[] SELL_TOKEN = "_".getBytes();
+  private static final byte[] BUY_TOKEN = "1000001".getBytes();
+  private static final byte[] HEAD_KEY = MarketUtils.getPairPriceHeadKey(SELL_TOKEN, BUY_TOKEN);
+  private static final byte[] PRICE_1 = MarketUtils.createPairPriceKey(SELL_TOKEN, BUY_TOKEN,
+      100, 200);
+  private static final byte[] PRICE_2 = MarketUtils.createPairPriceKey(SELL_TOKEN, BUY_TOKEN,
+      100, 300);
+  private static final byte[] PRICE_3 = MarketUtils.createPairPriceKey(SELL_TOKEN, BUY_TOKEN,
+      100, 100);
+  private static String dbPath = "output_MarketOrderBook_test";
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static MarketPairPriceToOrderStore pairPriceToOrderStore;
+  private static MarketOrderStore orderStore;
+  private static int orderCount;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() throws ItemNotFoundException {
+    dbManager = context.getBean(Manager.class);
+    pairPriceToOrderStore = dbManager.getChainBaseManager().getMarketPairPriceToOrderStore();
+    orderStore = dbManager.getChainBaseManager().getMarketOrderStore();
+    pairPriceToOrderStore.put(HEAD_KEY, new MarketOrderIdListCapsule());
+    addOrder(PRICE_1);
+    addOrder(PRICE_1);
+    addOrder(PRICE_1);
+    addOrder(PRICE_2);
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testRevoke() throws ItemNotFoundException {
+    List<byte[]> priceKeys = pairPriceToOrderStore.getPriceKeysList(SELL_TOKEN, BUY_TOKEN, 10);
+    Assert.assertEquals(2, priceKeys.size());
+    Assert.assertEquals(3, pairPriceToOrderStore.getOrderIdList(PRICE_1, 10).size());
+    assertSameAsStore();
+
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      // a middle order goes, then the whole of a price, and a new price comes
+      MarketOrderIdListCapsule orderIdList = pairPriceToOrderStore.get(PRICE_1);
+      byte[] middle = orderIdList.getOrderByIndex(1, orderStore).getID().toByteArray();
+      orderIdList.removeOrder(orderStore.get(middle), orderStore, PRICE_1,
+          pairPriceToOrderStore);
+      orderIdList = pairPriceToOrderStore.get(PRICE_2);
+      orderIdList.removeOrder(orderIdList.getHeadOrder(orderStore), orderStore, PRICE_2,
+          pairPriceToOrderStore);
+      pairPriceToOrderStore.delete(PRICE_2);
+      try (ISession inner = dbManager.getRevokingStore().buildSession()) {
+        addOrder(PRICE_3);
+        addOrder(PRICE_1);
+        inner.merge();
+      }
+
+      Assert.assertEquals(3, pairPriceToOrderStore.getOrderIdList(PRICE_1, 10).size());
+      Assert.assertEquals(1, pairPriceToOrderStore.getOrderIdList(PRICE_3, 10).size());
+      Assert.assertTrue(pairPriceToOrderStore.getOrderIdList(PRICE_2, 10).isEmpty());
+      Assert.assertFalse(toStrings(pairPriceToOrderStore.getOrderIdList(PRICE_1, 10))
+          .contains(ByteString.copyFrom(middle)));
+      assertSameAsStore();
+    }
+
+    Assert.assertEquals(2, pairPriceToOrderStore.getPriceKeysList(SELL_TOKEN, BUY_TOKEN, 10)
+        .size());
+    Assert.assertTrue(pairPriceToOrderStore.getOrderIdList(PRICE_3, 10).isEmpty());
+    assertSameAsStore();
+  }
+
+  private static void addOrder(byte[] priceKey) throws ItemNotFoundException {
+    byte[] orderId = ("order" + orderCount++).getBytes();
+    MarketOrderCapsule order = new MarketOrderCapsule(orderId,
+        MarketSellAssetContract.newBuilder()
+            .setSellTokenId(ByteString.copyFrom(SELL_TOKEN))
+            .setBuyTokenId(ByteString.copyFrom(BUY_TOKEN))
+            .setSellTokenQuantity(100)
+            .setBuyTokenQuantity(200).build());
+    orderStore.put(orderId, order);
+    MarketOrderIdListCapsule orderIdList = pairPriceToOrderStore.getUnchecked(priceKey);
+    if (orderIdList == null) {
+      orderIdList = new MarketOrderIdListCapsule();
+    }
+    orderIdList.addOrder(order, orderStore);
+    pairPriceToOrderStore.put(priceKey, orderIdList);
+  }
+
+  /**
+   * The order book tells what a walk over the store tells.
+   */
+  private static void assertSameAsStore() throws ItemNotFoundException {
+    List<byte[]> priceKeys = pairPriceToOrderStore.getPriceKeysList(SELL_TOKEN, BUY_TOKEN, 10);
+    List<byte[]> storeKeys = pairPriceToOrderStore.getKeysNext(HEAD_KEY, priceKeys.size() + 2);
+    Assert.assertEquals(toStrings(storeKeys.subList(1, storeKeys.size())), toStrings(priceKeys));
+    for (byte[] priceKey : priceKeys) {
+      List<byte[]> storeIds = new ArrayList<>();
+      for (MarketOrderCapsule order : pairPriceToOrderStore.get(priceKey)
+          .getAllOrder(orderStore, 10)) {
+        storeIds.add(order.getID().toByteArray());
+      }
+      Assert.assertEquals(toStrings(storeIds),
+          toStrings(pairPriceToOrderStore.getOrderIdList(priceKey, 10)));
+    }
+  }
+
+  private static List<ByteString> toStrings(List<byte[]> keys) {
+    return keys.stream().map(ByteString::copyFrom).collect(Collectors.toList());
+  }
+}
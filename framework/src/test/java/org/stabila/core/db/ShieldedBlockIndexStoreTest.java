@@ -0,0 +1,107 @@
+package org.stabila.core.db;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Arrays;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.common.utils.Sha256Hash;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.capsule.TransactionRetCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.store.ShieldedBlockIndexStore;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.Protocol.TransactionInfo;
+import org.stabila.protos.contract.ShieldContract.ShieldedTransferContract;
+
+public class ShieldedBlockIndexStoreTest {
+
+  private static final byte[] CONTRACT = Hex.decode("548794500882809695a8a687866e76d4271a1abc");
+  private static final byte[] OTHER = Hex.decode("ed783fd0fd8f4f4d1b6d1dcb5b6fd38a4a5e3fdc");
+  private static String dbPath = "output_ShieldedBlockIndexStore_test";
+  private static StabilaApplicationContext context;
+  private static ShieldedBlockIndexStore store;
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @BeforeClass
+  public static void init() {
+    Args.getInstance().setFullNodeAllowShieldedTransactionArgs(true);
+    store = context.getBean(ShieldedBlockIndexStore.class);
+    // the index is kept from block 10 on
+    store.put(block(10, false, null));
+    store.put(block(12, true, null));
+    store.put(block(13, false, CONTRACT));
+    store.put(block(14, true, OTHER));
+    store.put(block(15, false, CONTRACT));
+  }
+
+  @Test
+  public void testGetBlocks() {
+    Assert.assertEquals(Arrays.asList(12L, 14L), store.getShieldedTransferBlocks(10, 20));
+    Assert.assertEquals(Arrays.asList(13L), store.getShieldedTrc20Blocks(CONTRACT, 10, 15));
+    Assert.assertEquals(Arrays.asList(13L, 15L), store.getShieldedTrc20Blocks(CONTRACT, 13, 16));
+    Assert.assertEquals(Arrays.asList(14L), store.getShieldedTrc20Blocks(OTHER, 10, 1000));
+    // blocks before the index are all scanned
+    Assert.assertEquals(Arrays.asList(8L, 9L, 12L), store.getShieldedTransferBlocks(8, 13));
+
+    // the block number is read from the key, the value does not repeat it
+    Assert.assertEquals(1, store.getUnchecked(Bytes.concat(CONTRACT, Longs.toByteArray(13)))
+        .getData().length);
+  }
+
+  @Test
+  public void testShieldedTrc20Log() {
+    Assert.assertTrue(ShieldedBlockIndexStore.isShieldedTrc20Log(log(CONTRACT)));
+    Assert.assertFalse(ShieldedBlockIndexStore.isShieldedTrc20Log(TransactionInfo.Log
+        .newBuilder().setAddress(ByteString.copyFrom(CONTRACT))
+        .addTopics(ByteString.copyFrom(new byte[32])).build()));
+  }
+
+  private static BlockCapsule block(long num, boolean shieldedTransfer, byte[] logAddress) {
+    BlockCapsule block = new BlockCapsule(num, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY);
+    Transaction.Contract.Builder contract = Transaction.Contract.newBuilder();
+    if (shieldedTransfer) {
+      contract.setType(ContractType.ShieldedTransferContract)
+          .setParameter(Any.pack(ShieldedTransferContract.getDefaultInstance()));
+    } else {
+      contract.setType(ContractType.TriggerSmartContract);
+    }
+    block.addTransaction(new TransactionCapsule(Transaction.newBuilder()
+        .setRawData(Transaction.raw.newBuilder().addContract(contract)).build()));
+    TransactionRetCapsule result = new TransactionRetCapsule();
+    if (logAddress != null) {
+      result.addTransactionInfo(TransactionInfo.newBuilder().addLog(log(logAddress)).build());
+    }
+    block.setResult(result);
+    return block;
+  }
+
+  private static TransactionInfo.Log log(byte[] address) {
+    return TransactionInfo.Log.newBuilder().setAddress(ByteString.copyFrom(address))
+        .addTopics(ByteString.copyFrom(ShieldedBlockIndexStore.SHIELDED_TRC20_LOG_TOPICS_MINT))
+        .build();
+  }
+}
@@ -0,0 +1,96 @@
+package org.stabila.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.VotesCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db2.ISession;
+import org.stabila.core.store.VoteDeltaStore;
+import org.stabila.core.store.VotesStore;
+import org.stabila.protos.Protocol.Vote;
+
+public class VoteDeltaStoreTest {
+
+  private static final ByteString VOTER_A = ByteString.copyFromUtf8("voter_a");
+  private static final ByteString VOTER_B = ByteString.copyFromUtf8("voter_b");
+  private static final ByteString WITNESS_1 = ByteString.copyFromUtf8("witness_1");
+  private static final ByteString WITNESS_2 = ByteString.copyFromUtf8("witness_2");
+  private static final ByteString WITNESS_3 = ByteString.copyFromUtf8("witness_3");
+  private static String dbPath = "output_VoteDeltaStore_test";
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static VotesStore votesStore;
+  private static VoteDeltaStore voteDeltaStore;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    dbManager = context.getBean(Manager.class);
+    votesStore = dbManager.getChainBaseManager().getVotesStore();
+    voteDeltaStore = dbManager.getChainBaseManager().getVoteDeltaStore();
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testTally() {
+    voteDeltaStore.takeVotes();
+    long epoch = voteDeltaStore.getEpoch();
+
+    // a votes for 1, then moves the votes to 2; b takes back its votes for 1 and 3
+    VotesCapsule votesA = new VotesCapsule(VOTER_A, Collections.emptyList());
+    votesA.addNewVotes(WITNESS_1, 10);
+    votesStore.put(VOTER_A.toByteArray(), votesA);
+    votesA = votesStore.get(VOTER_A.toByteArray());
+    votesA.clearNewVotes();
+    votesA.addNewVotes(WITNESS_2, 7);
+    votesStore.put(VOTER_A.toByteArray(), votesA);
+    VotesCapsule votesB = new VotesCapsule(VOTER_B, Collections.singletonList(
+        Vote.newBuilder().setVoteAddress(WITNESS_1).setVoteCount(4).build()));
+    votesB.addOldVotes(WITNESS_3, 2);
+    votesStore.put(VOTER_B.toByteArray(), votesB);
+
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      votesA = votesStore.get(VOTER_A.toByteArray());
+      votesA.clearNewVotes();
+      votesStore.put(VOTER_A.toByteArray(), votesA);
+    }
+
+    Map<ByteString, Long> votes = voteDeltaStore.takeVotes();
+    Assert.assertEquals(3, votes.size());
+    Assert.assertEquals(-4L, (long) votes.get(WITNESS_1));
+    Assert.assertEquals(7L, (long) votes.get(WITNESS_2));
+    Assert.assertEquals(-2L, (long) votes.get(WITNESS_3));
+
+    // the changes of the epoch before are counted and read as absent
+    Assert.assertEquals(epoch + 1, voteDeltaStore.getEpoch());
+    Assert.assertNull(votesStore.get(VOTER_A.toByteArray()));
+    Assert.assertFalse(votesStore.has(VOTER_B.toByteArray()));
+    votesA = new VotesCapsule(VOTER_A, Collections.singletonList(
+        Vote.newBuilder().setVoteAddress(WITNESS_2).setVoteCount(7).build()));
+    votesA.addNewVotes(WITNESS_2, 9);
+    votesStore.put(VOTER_A.toByteArray(), votesA);
+    votes = voteDeltaStore.takeVotes();
+    Assert.assertEquals(1, votes.size());
+    Assert.assertEquals(2L, (long) votes.get(WITNESS_2));
+  }
+}
@@ -0,0 +1,125 @@
+package org.stabila.core.services;
+
+import java.io.File;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.runtime.ProgramResult;
+import org.stabila.common.runtime.TvmTestUtils;
+import org.stabila.common.storage.DepositImpl;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.Constant;
+import org.stabila.core.Wallet;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
+import org.stabila.core.exception.ContractExeException;
+import org.stabila.protos.Protocol.AccountType;
+
+public class ConstantCallServiceTest {
+
+  private static final long TIMEOUT = 500;
+  private static final long FEE_LIMIT = 1000_000_000L;
+  private static String dbPath = "output_ConstantCallService_test";
+  private static String ownerAddress;
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static ConstantCallService constantCallService;
+  private static byte[] contractAddress;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    CommonParameter parameter = CommonParameter.getInstance();
+    parameter.setConstantCallThreads(1);
+    parameter.setConstantCallTimeout(TIMEOUT);
+    parameter.setConstantCallCacheSize(1024 * 1024);
+    // no cpu limit, only the deadline of the call ends the loop
+    parameter.setDebug(true);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() throws Exception {
+    dbManager = context.getBean(Manager.class);
+    constantCallService = context.getBean(ConstantCallService.class);
+    ownerAddress = Wallet.getAddressPreFixString() + "abd4b9367799eaa3197fecb144eb71de1e049abc";
+    DepositImpl deposit = DepositImpl.createRoot(dbManager);
+    deposit.createAccount(Hex.decode(ownerAddress), AccountType.Normal);
+    deposit.addBalance(Hex.decode(ownerAddress), 30_000_000_000_000L);
+    deposit.commit();
+    contractAddress = deployEndlessLoopContract();
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testTimeoutFreesWorker() throws Exception {
+    long start = System.currentTimeMillis();
+    try {
+      ProgramResult result = call("setVote(uint256)",
+          "0000000000000000000000000000000000000000000000000000000000000003");
+      Assert.assertNotNull(result.getException());
+    } catch (ContractExeException e) {
+      Assert.assertTrue(e.getMessage().contains("timeout"));
+    }
+    Assert.assertTrue(System.currentTimeMillis() - start < TIMEOUT * 4);
+
+    // the only worker is free again, a call after the looping one gets its result
+    ProgramResult result = call("getVote()", "");
+    Assert.assertNull(result.getException());
+  }
+
+  @Test
+  public void testResultCached() throws Exception {
+    ProgramResult first = call("getVote()", "");
+    ProgramResult second = call("getVote()", "");
+    ProgramResult third = call("getVote()", "");
+    Assert.assertNull(first.getException());
+    Assert.assertArrayEquals(first.getHReturn(), second.getHReturn());
+    // the later calls are served from the cache without entering the vm
+    Assert.assertSame(second, third);
+  }
+
+  private static ProgramResult call(String method, String params) throws Exception {
+    byte[] data = TvmTestUtils.parseAbi(method, params);
+    TransactionCapsule trxCap = new TransactionCapsule(TvmTestUtils
+        .generateTriggerSmartContractAndGetTransaction(Hex.decode(ownerAddress), contractAddress,
+            data, 0, FEE_LIMIT));
+    BlockCapsule headBlock = dbManager.getChainBaseManager().getHead();
+    return constantCallService.call(headBlock, trxCap);
+  }
+
+  // the EndlessLoopContract of EnergyWhenTimeoutStyleTest, setVote loops forever
+  private static byte[] deployEndlessLoopContract() throws Exception {
+    String contractName = "EndlessLoopContract";
+    String ABI = "[{\"constant\":true,\"inputs\":[],\"name\":\"getVote\",\"outputs\":[{\"name\""
+        + ":\"_vote\",\"type\":\"uint256\"}],\"payable\":false,\"stateMutability\":\"view\","
+        + "\"type\":\"function\"},{\"constant\":false,\"inputs\":[{\"name\":\"_vote\",\"type\":"
+        + "\"uint256\"}],\"name\":\"setVote\",\"outputs\":[],\"payable\":false,\"stateMutability\""
+        + ":\"nonpayable\",\"type\":\"function\"},{\"inputs\":[],\"payable\":false,"
+        + "\"stateMutability\":\"nonpayable\",\"type\":\"constructor\"}]";
+
+    String code = "608060405234801561001057600080fd5b506000808190555060fa806100266000396000f3006080"
+        + "604052600436106049576000357c010000000000000000000000000000000000000000000000000000000090"
+        + "0463ffffffff1680630242f35114604e578063230796ae146076575b600080fd5b348015605957600080fd5b"
+        + "50606060a0565b6040518082815260200191505060405180910390f35b348015608157600080fd5b50609e60"
+        + "04803603810190808035906020019092919050505060a9565b005b60008054905090565b806000819055505b"
+        + "60011560cb576001600080828254019250508190555060b1565b505600a165627a7a72305820290a38c9bbaf"
+        + "ccaf6c7f752ab56d229e354da767efb72715ee9fdb653b9f4b6c0029";
+
+    return TvmTestUtils.deployContractAndReturnTvmTestResult(contractName,
+        Hex.decode(ownerAddress), ABI, code, 0, FEE_LIMIT, 0, null, dbManager, null)
+        .getContractAddress();
+  }
+}
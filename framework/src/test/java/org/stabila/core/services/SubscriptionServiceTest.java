@@ -0,0 +1,196 @@
+package org.stabila.core.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.stabila.api.GrpcAPI.AddressList;
+import org.stabila.api.GrpcAPI.BlockSubscription;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.capsule.TransactionCapsule;
+import org.stabila.core.services.SubscriptionService.BlockSource;
+import org.stabila.core.store.DynamicPropertiesStore;
+import org.stabila.protos.Protocol.Block;
+import org.stabila.protos.Protocol.BlockHeader;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.contract.BalanceContract.TransferContract;
+
+public class SubscriptionServiceTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(
+      Hex.decode("41abd4b9367799eaa3197fecb144eb71de1e049abc"));
+  private static final ByteString TO = ByteString.copyFrom(
+      Hex.decode("41548794500882809695a8a687866e76d4271a1abc"));
+  private static final ByteString OTHER = ByteString.copyFrom(
+      Hex.decode("41ed783fd0fd8f4f4d1b6d1dcb5b6fd38a4a5e3fdc"));
+
+  private SubscriptionService service;
+  private ChainBaseManager chainBaseManager;
+  private DynamicPropertiesStore dynamicPropertiesStore;
+
+  @Before
+  public void init() throws Exception {
+    CommonParameter.getInstance().setMaxSubscriptions(10);
+    CommonParameter.getInstance().setSubscriptionBufferSize(2);
+    service = new SubscriptionService();
+    chainBaseManager = mock(ChainBaseManager.class);
+    dynamicPropertiesStore = mock(DynamicPropertiesStore.class);
+    when(chainBaseManager.getDynamicPropertiesStore()).thenReturn(dynamicPropertiesStore);
+    Field field = SubscriptionService.class.getDeclaredField("chainBaseManager");
+    field.setAccessible(true);
+    field.set(service, chainBaseManager);
+  }
+
+  @After
+  public void destroy() {
+    CommonParameter.getInstance().setMaxSubscriptions(0);
+    CommonParameter.getInstance().setSubscriptionBufferSize(0);
+  }
+
+  @Test
+  public void testResumeBlocks() throws Exception {
+    for (long num = 1; num <= 4; num++) {
+      when(chainBaseManager.getBlockByNum(num)).thenReturn(new BlockCapsule(block(num)));
+    }
+    when(dynamicPropertiesStore.getLatestBlockHeaderNumber()).thenReturn(3L);
+    ServerCallStreamObserver<Block> observer = observer(true);
+    service.subscribeBlocks(BlockSubscription.newBuilder().setFromBlock(2).build(),
+        BlockSource.HEAD, observer);
+    verify(observer, timeout(1000)).onNext(block(3));
+
+    when(dynamicPropertiesStore.getLatestBlockHeaderNumber()).thenReturn(4L);
+    service.onBlock();
+    verify(observer, timeout(1000)).onNext(block(4));
+    InOrder inOrder = inOrder(observer);
+    inOrder.verify(observer).onNext(block(2));
+    inOrder.verify(observer).onNext(block(3));
+    inOrder.verify(observer).onNext(block(4));
+    verify(observer, never()).onNext(block(1));
+  }
+
+  @Test
+  public void testPendingTransactions() {
+    ServerCallStreamObserver<Transaction> observer = observer(true);
+    service.subscribePendingTransactions(AddressList.newBuilder().addAddresses(TO).build(),
+        observer);
+    Transaction toSubscriber = transfer(OWNER, TO);
+    Transaction other = transfer(OWNER, OTHER);
+    service.onPendingTransaction(new TransactionCapsule(other));
+    service.onPendingTransaction(new TransactionCapsule(toSubscriber));
+    verify(observer, timeout(1000)).onNext(toSubscriber);
+    verify(observer, never()).onNext(other);
+  }
+
+  @Test
+  public void testPendingTransactionsOfManySubscribers() {
+    ServerCallStreamObserver<Transaction> toObserver = observer(true);
+    ServerCallStreamObserver<Transaction> otherObserver = observer(true);
+    ServerCallStreamObserver<Transaction> allObserver = observer(true);
+    service.subscribePendingTransactions(AddressList.newBuilder().addAddresses(TO).build(),
+        toObserver);
+    service.subscribePendingTransactions(AddressList.newBuilder().addAddresses(OTHER).build(),
+        otherObserver);
+    service.subscribePendingTransactions(AddressList.getDefaultInstance(), allObserver);
+    Transaction toOther = transfer(TO, OTHER);
+    service.onPendingTransaction(new TransactionCapsule(toOther));
+    verify(toObserver, timeout(1000)).onNext(toOther);
+    verify(otherObserver, timeout(1000)).onNext(toOther);
+    verify(allObserver, timeout(1000)).onNext(toOther);
+  }
+
+  @Test
+  public void testConcurrentSubscriptionsCapped() throws Exception {
+    int threads = 40;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<ServerCallStreamObserver<Transaction>> observers = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        ServerCallStreamObserver<Transaction> observer = observer(false);
+        observers.add(observer);
+        executor.execute(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          service.subscribePendingTransactions(AddressList.getDefaultInstance(), observer);
+        });
+      }
+      start.countDown();
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(10, service.getSubscriberCount());
+    int refused = 0;
+    for (ServerCallStreamObserver<Transaction> observer : observers) {
+      refused += mockingDetails(observer).getInvocations().stream()
+          .filter(invocation -> invocation.getMethod().getName().equals("onError")).count();
+    }
+    Assert.assertEquals(threads - 10, refused);
+  }
+
+  @Test
+  public void testSlowSubscriberDisconnected() {
+    ServerCallStreamObserver<Transaction> observer = observer(false);
+    service.subscribePendingTransactions(AddressList.getDefaultInstance(), observer);
+    Assert.assertEquals(1, service.getSubscriberCount());
+    for (int i = 0; i < 3; i++) {
+      service.onPendingTransaction(new TransactionCapsule(transfer(OWNER, TO)));
+    }
+    ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+    verify(observer, timeout(1000)).onError(error.capture());
+    Assert.assertEquals(Status.Code.RESOURCE_EXHAUSTED,
+        ((StatusRuntimeException) error.getValue()).getStatus().getCode());
+    Assert.assertEquals(0, service.getSubscriberCount());
+    verify(observer, never()).onNext(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> ServerCallStreamObserver<T> observer(boolean ready) {
+    ServerCallStreamObserver<T> observer = mock(ServerCallStreamObserver.class);
+    when(observer.isReady()).thenReturn(ready);
+    return observer;
+  }
+
+  private static Block block(long num) {
+    return Block.newBuilder().setBlockHeader(BlockHeader.newBuilder()
+        .setRawData(BlockHeader.raw.newBuilder().setNumber(num))).build();
+  }
+
+  private static Transaction transfer(ByteString owner, ByteString to) {
+    return Transaction.newBuilder().setRawData(Transaction.raw.newBuilder()
+        .addContract(Transaction.Contract.newBuilder().setType(ContractType.TransferContract)
+            .setParameter(Any.pack(TransferContract.newBuilder().setOwnerAddress(owner)
+                .setToAddress(to).setAmount(1).build())))).build();
+  }
+}
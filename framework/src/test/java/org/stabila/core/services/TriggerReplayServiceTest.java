@@ -0,0 +1,204 @@
+package org.stabila.core.services;
+
+import com.alibaba.fastjson.JSON;
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.logsfilter.EventPluginConfig;
+import org.stabila.common.logsfilter.EventPluginLoader;
+import org.stabila.common.logsfilter.TriggerConfig;
+import org.stabila.common.logsfilter.TriggerPipeline;
+import org.stabila.common.logsfilter.capsule.BlockLogTriggerCapsule;
+import org.stabila.common.logsfilter.trigger.Trigger;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
+import org.stabila.core.services.TriggerReplayService.Replay;
+import org.zeromq.SocketType;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+
+public class TriggerReplayServiceTest {
+
+  private static final int BIND_PORT = 5566;
+  private static final long HEAD = 20;
+  private static final long SOLIDIFIED = 15;
+  private static final long LIVE_BLOCK = 1000;
+  private static final int LIVE_BLOCKS = 50;
+  private static String dbPath = "output_TriggerReplayService_test";
+  private static StabilaApplicationContext context;
+  private static Manager dbManager;
+  private static TriggerReplayService triggerReplayService;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    dbManager = context.getBean(Manager.class);
+    triggerReplayService = context.getBean(TriggerReplayService.class);
+    ChainBaseManager chainBaseManager = dbManager.getChainBaseManager();
+    ByteString parentHash = chainBaseManager.getGenesisBlockId().getByteString();
+    for (long num = 1; num <= HEAD; num++) {
+      BlockCapsule block = new BlockCapsule(num * 3000, parentHash, num, Collections.emptyList());
+      chainBaseManager.getBlockStore().put(block.getBlockId().getBytes(), block);
+      chainBaseManager.getBlockIndexStore().put(block.getBlockId());
+      parentHash = block.getBlockId().getByteString();
+    }
+    chainBaseManager.getDynamicPropertiesStore().saveLatestBlockHeaderNumber(HEAD);
+    chainBaseManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(SOLIDIFIED);
+
+    EventPluginConfig config = new EventPluginConfig();
+    config.setUseNativeQueue(true);
+    config.setBindPort(BIND_PORT);
+    config.setSendQueueLength(1000);
+    config.setProcessThreads(4);
+    config.setProcessQueueSize(16);
+    TriggerConfig blockTrigger = new TriggerConfig();
+    blockTrigger.setTriggerName(EventPluginConfig.BLOCK_TRIGGER_NAME);
+    blockTrigger.setEnabled(true);
+    config.setTriggerConfigList(Collections.singletonList(blockTrigger));
+    Args.getInstance().eventPluginConfig = config;
+    Assert.assertTrue(EventPluginLoader.getInstance().start(config));
+    dbManager.eventPluginLoaded = true;
+  }
+
+  @AfterClass
+  public static void destroy() {
+    triggerReplayService.cancel();
+    EventPluginLoader.getInstance().stopPlugin();
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testRange() {
+    assertInvalidRange(-1, 3);
+    assertInvalidRange(5, 3);
+    // blocks above the latest solidified one are not replayed, even below the head
+    assertInvalidRange(1, SOLIDIFIED + 1);
+    assertInvalidRange(1, HEAD);
+
+    dbManager.eventPluginLoaded = false;
+    try {
+      triggerReplayService.start(1, 3);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains("not enabled"));
+    } finally {
+      dbManager.eventPluginLoaded = true;
+    }
+  }
+
+  @Test
+  public void testReplayInOrder() throws Exception {
+    ZContext zContext = new ZContext();
+    try {
+      ZMQ.Socket subscriber = subscribe(zContext);
+      Replay replay = triggerReplayService.start(1, SOLIDIFIED);
+      List<Long> blocks = receive(subscriber, (int) SOLIDIFIED);
+      awaitDone(replay);
+
+      Assert.assertEquals(range(1, SOLIDIFIED), blocks);
+      Assert.assertNull(subscriber.recvStr());
+      Assert.assertEquals(SOLIDIFIED, replay.getLastBlock());
+      Assert.assertEquals(0, replay.getFailed());
+      Assert.assertFalse(replay.isCancelled());
+    } finally {
+      zContext.close();
+    }
+  }
+
+  @Test
+  public void testReplayAlongLiveSequencer() throws Exception {
+    TriggerPipeline live = new TriggerPipeline(4, 16);
+    ZContext zContext = new ZContext();
+    try {
+      ZMQ.Socket subscriber = subscribe(zContext);
+      Replay replay = triggerReplayService.start(1, SOLIDIFIED);
+      ByteString parentHash = ByteString.copyFrom(new byte[32]);
+      for (long num = LIVE_BLOCK; num < LIVE_BLOCK + LIVE_BLOCKS; num++) {
+        live.submit(new BlockLogTriggerCapsule(
+            new BlockCapsule(num * 3000, parentHash, num, Collections.emptyList())));
+      }
+      List<Long> blocks = receive(subscriber, (int) SOLIDIFIED + LIVE_BLOCKS);
+      awaitDone(replay);
+
+      // each sequencer delivers its blocks in order, interleaved with the other one
+      Assert.assertEquals(range(1, SOLIDIFIED), blocks.stream()
+          .filter(num -> num < LIVE_BLOCK)
+          .collect(Collectors.toList()));
+      Assert.assertEquals(range(LIVE_BLOCK, LIVE_BLOCK + LIVE_BLOCKS - 1), blocks.stream()
+          .filter(num -> num >= LIVE_BLOCK)
+          .collect(Collectors.toList()));
+      Assert.assertNull(subscriber.recvStr());
+
+      // a new replay is taken once the last one is done
+      Replay next = triggerReplayService.start(1, 1);
+      awaitDone(next);
+      Assert.assertEquals(1, next.getLastBlock());
+    } finally {
+      live.shutdown();
+      zContext.close();
+    }
+  }
+
+  private static void assertInvalidRange(long fromBlock, long toBlock) {
+    try {
+      triggerReplayService.start(fromBlock, toBlock);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("invalid range"));
+    }
+  }
+
+  private static ZMQ.Socket subscribe(ZContext zContext) throws InterruptedException {
+    ZMQ.Socket subscriber = zContext.createSocket(SocketType.SUB);
+    subscriber.connect(String.format("tcp://localhost:%d", BIND_PORT));
+    subscriber.subscribe(Trigger.BLOCK_TRIGGER_NAME);
+    subscriber.setReceiveTimeOut(3000);
+    Thread.sleep(1000);
+    return subscriber;
+  }
+
+  private static List<Long> receive(ZMQ.Socket subscriber, int count) {
+    List<Long> blocks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(Trigger.BLOCK_TRIGGER_NAME, subscriber.recvStr());
+      String data = new String(subscriber.recv(), StandardCharsets.UTF_8);
+      blocks.add(JSON.parseObject(data).getLongValue("blockNumber"));
+    }
+    return blocks;
+  }
+
+  private static void awaitDone(Replay replay) throws InterruptedException {
+    for (int i = 0; i < 100 && !replay.isDone(); i++) {
+      Thread.sleep(100);
+    }
+    Assert.assertTrue(replay.isDone());
+  }
+
+  private static List<Long> range(long from, long to) {
+    List<Long> range = new ArrayList<>();
+    for (long num = from; num <= to; num++) {
+      range.add(num);
+    }
+    return range;
+  }
+}
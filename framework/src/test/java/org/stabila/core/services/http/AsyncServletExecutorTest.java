@@ -0,0 +1,131 @@
+package org.stabila.core.services.http;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.stabila.common.parameter.AsyncServletItem;
+import org.stabila.common.parameter.CommonParameter;
+
+public class AsyncServletExecutorTest {
+
+  private static final String SERVLET = "TriggerConstantContractServlet";
+
+  private AsyncServletExecutor executor;
+
+  @Before
+  public void init() {
+    CommonParameter.getInstance().setHttpAsyncServlets(Collections.singletonList(
+        new AsyncServletItem(SERVLET, 1, 1, 10_000L)));
+    executor = new AsyncServletExecutor();
+  }
+
+  @After
+  public void destroy() {
+    executor.shutdown();
+    CommonParameter.getInstance().setHttpAsyncServlets(new ArrayList<>());
+  }
+
+  @Test
+  public void testQueueLimit() throws Exception {
+    Assert.assertTrue(executor.isAsync(SERVLET));
+    Assert.assertFalse(executor.isAsync("GetNowBlockServlet"));
+
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncContext first = context();
+    HttpServletResponse firstResponse = response(new StringWriter());
+    executor.execute(SERVLET, request(first, firstResponse), firstResponse, () -> {
+      running.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    Assert.assertTrue(running.await(1, TimeUnit.SECONDS));
+
+    // one request waits in the queue, the next one is turned away
+    AsyncContext queued = context();
+    HttpServletResponse queuedResponse = response(new StringWriter());
+    executor.execute(SERVLET, request(queued, queuedResponse), queuedResponse, () -> {
+    });
+    AsyncContext rejected = context();
+    StringWriter rejectedBody = new StringWriter();
+    HttpServletResponse rejectedResponse = response(rejectedBody);
+    executor.execute(SERVLET, request(rejected, rejectedResponse), rejectedResponse, () -> {
+    });
+    verify(rejectedResponse).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    verify(rejected).complete();
+    Assert.assertTrue(rejectedBody.toString().contains("too many queued requests"));
+    Assert.assertEquals(1, executor.getPoolInfos().get(0).getQueueSize());
+
+    release.countDown();
+    verify(first, timeout(1000)).complete();
+    verify(queued, timeout(1000)).complete();
+    verify(queuedResponse, never()).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+  }
+
+  @Test
+  public void testQueueTimeout() throws Exception {
+    CommonParameter.getInstance().setHttpAsyncServlets(Collections.singletonList(
+        new AsyncServletItem(SERVLET, 1, 1, 1L)));
+    AsyncServletExecutor shortWait = new AsyncServletExecutor();
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      HttpServletResponse firstResponse = response(new StringWriter());
+      shortWait.execute(SERVLET, request(context(), firstResponse), firstResponse, () -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      AsyncContext queued = context();
+      HttpServletResponse queuedResponse = response(new StringWriter());
+      AtomicBoolean served = new AtomicBoolean();
+      shortWait.execute(SERVLET, request(queued, queuedResponse), queuedResponse,
+          () -> served.set(true));
+      Thread.sleep(20);
+      release.countDown();
+      verify(queued, timeout(1000)).complete();
+      verify(queuedResponse).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      Assert.assertFalse(served.get());
+    } finally {
+      shortWait.shutdown();
+    }
+  }
+
+  private static AsyncContext context() {
+    return mock(AsyncContext.class);
+  }
+
+  private static HttpServletRequest request(AsyncContext context, HttpServletResponse response) {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.startAsync(request, response)).thenReturn(context);
+    when(context.getResponse()).thenReturn(response);
+    return request;
+  }
+
+  private static HttpServletResponse response(StringWriter body) throws Exception {
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getWriter()).thenReturn(new PrintWriter(body, true));
+    return response;
+  }
+}
@@ -0,0 +1,101 @@
+package org.stabila.core.services.http;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.google.protobuf.ByteString;
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.function.Consumer;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.stabila.api.GrpcAPI.LogResult;
+import org.stabila.common.parameter.CommonParameter;
+import org.stabila.common.utils.ReflectUtils;
+import org.stabila.core.Wallet;
+import org.stabila.core.exception.BadItemException;
+import org.stabila.protos.Protocol.TransactionInfo;
+
+public class GetLogsServletTest {
+
+  private static final String FILTER = "{\"fromBlock\": 1, \"toBlock\": 10}";
+
+  private GetLogsServlet servlet;
+  private Wallet wallet;
+  private int maxMessageSize;
+
+  @Before
+  public void init() {
+    maxMessageSize = CommonParameter.getInstance().getMaxMessageSize();
+    CommonParameter.getInstance().setMaxMessageSize(1024);
+    wallet = mock(Wallet.class);
+    servlet = new GetLogsServlet();
+    ReflectUtils.setFieldValue(servlet, "wallet", wallet);
+  }
+
+  @After
+  public void destroy() {
+    CommonParameter.getInstance().setMaxMessageSize(maxMessageSize);
+  }
+
+  @Test
+  public void testLogs() throws Exception {
+    doAnswer(invocation -> {
+      Consumer<LogResult> consumer = invocation.getArgument(1);
+      consumer.accept(log(1));
+      consumer.accept(log(2));
+      return null;
+    }).when(wallet).getLogs(any(), any());
+    JSONArray logs = JSON.parseArray(post());
+    Assert.assertEquals(2, logs.size());
+    Assert.assertEquals(2, logs.getJSONObject(1).getLongValue("blockNumber"));
+  }
+
+  @Test
+  public void testFailureBeforeLogs() throws Exception {
+    doAnswer(invocation -> {
+      throw new BadItemException("invalid range");
+    }).when(wallet).getLogs(any(), any());
+    Assert.assertTrue(JSON.parseObject(post()).getString("Error").contains("invalid range"));
+  }
+
+  @Test
+  public void testFailureAmidLogs() throws Exception {
+    doAnswer(invocation -> {
+      Consumer<LogResult> consumer = invocation.getArgument(1);
+      consumer.accept(log(1));
+      throw new BadItemException("bad transaction infos");
+    }).when(wallet).getLogs(any(), any());
+    // the array started is ended with the error, the body stays valid json
+    JSONArray logs = JSON.parseArray(post());
+    Assert.assertEquals(2, logs.size());
+    Assert.assertEquals(1, logs.getJSONObject(0).getLongValue("blockNumber"));
+    Assert.assertTrue(logs.getJSONObject(1).getString("Error").contains("bad transaction infos"));
+  }
+
+  private String post() throws Exception {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getReader()).thenReturn(new BufferedReader(new StringReader(FILTER)));
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    StringWriter body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body, true));
+    servlet.doPost(request, response);
+    return body.toString();
+  }
+
+  private static LogResult log(long blockNumber) {
+    return LogResult.newBuilder().setBlockNumber(blockNumber)
+        .setLog(TransactionInfo.Log.newBuilder().setAddress(ByteString.copyFrom(new byte[20])))
+        .build();
+  }
+}
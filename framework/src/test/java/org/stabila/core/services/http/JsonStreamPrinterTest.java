@@ -0,0 +1,144 @@
+package org.stabila.core.services.http;
+
+import com.alibaba.fastjson.JSON;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.stabila.api.GrpcAPI.BlockList;
+import org.stabila.core.actuator.TransactionFactory;
+import org.stabila.protos.Protocol.Block;
+import org.stabila.protos.Protocol.BlockHeader;
+import org.stabila.protos.Protocol.Transaction;
+import org.stabila.protos.Protocol.Transaction.Contract.ContractType;
+import org.stabila.protos.Protocol.Transaction.Result.contractResult;
+import org.stabila.protos.contract.BalanceContract.TransferContract;
+import org.stabila.protos.contract.SmartContractOuterClass.CreateSmartContract;
+import org.stabila.protos.contract.SmartContractOuterClass.SmartContract;
+import org.stabila.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+@Slf4j
+public class JsonStreamPrinterTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(
+      Hex.decode("41abd4b9367799eaa3197fecb144eb71de1e049abc"));
+  private static final ByteString TO = ByteString.copyFrom(
+      Hex.decode("41548794500882809695a8a687866e76d4271a1abc"));
+
+  @BeforeClass
+  public static void init() {
+    TransactionFactory.register(ContractType.TransferContract, null, TransferContract.class);
+  }
+
+  @Test
+  public void testPrintBlockLikeUtil() throws IOException {
+    Block block = block(3);
+    for (boolean visible : new boolean[]{true, false}) {
+      Assert.assertEquals(JSON.parseObject(Util.printBlock(block, visible)),
+          JSON.parseObject(print(out -> JsonStreamPrinter.printBlock(block, visible, out))));
+      BlockList list = BlockList.newBuilder().addBlock(block).addBlock(block(0)).build();
+      Assert.assertEquals(JSON.parseObject(Util.printBlockList(list, visible)),
+          JSON.parseObject(print(out -> JsonStreamPrinter.printBlockList(list, visible, out))));
+    }
+    Assert.assertEquals(JSON.parseObject(Util.printBlockList(BlockList.getDefaultInstance(), true)),
+        JSON.parseObject(print(out -> JsonStreamPrinter.printBlockList(
+            BlockList.getDefaultInstance(), true, out))));
+  }
+
+  @Test
+  public void testPrintTransactionLikeUtil() throws IOException {
+    Transaction create = transaction(ContractType.CreateSmartContract,
+        CreateSmartContract.newBuilder().setOwnerAddress(OWNER).setNewContract(
+            SmartContract.newBuilder().setName("token").setOriginAddress(OWNER)).build(), 2);
+    Assert.assertEquals(JSON.parseObject(Util.printTransaction(create, true)),
+        JSON.parseObject(print(out -> JsonStreamPrinter.printTransaction(create, true, out))));
+
+    // a parameter of another type is left out, as Any.unpack fails on it
+    Transaction mismatch = create.toBuilder().setRawData(create.getRawData().toBuilder()
+        .setContract(0, create.getRawData().getContract(0).toBuilder()
+            .setType(ContractType.TransferContract))).build();
+    Assert.assertEquals(JSON.parseObject(Util.printTransaction(mismatch, false)),
+        JSON.parseObject(print(out -> JsonStreamPrinter.printTransaction(mismatch, false, out))));
+  }
+
+  @Ignore
+  @Test
+  public void benchmark() throws IOException {
+    Block block = block(2000);
+    OutputStream sink = new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+      }
+    };
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < 20; i++) {
+        sink.write(Util.printBlock(block, true).getBytes(StandardCharsets.UTF_8));
+      }
+      long util = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < 20; i++) {
+        JsonStreamPrinter.printBlock(block, true, sink);
+      }
+      long stream = System.nanoTime() - start;
+      logger.info("block of 2000 transactions, Util.printBlock: {} ms, JsonStreamPrinter: {} ms",
+          util / 20_000_000, stream / 20_000_000);
+    }
+  }
+
+  private static Block block(int transactions) {
+    Block.Builder builder = Block.newBuilder().setBlockHeader(BlockHeader.newBuilder()
+        .setRawData(BlockHeader.raw.newBuilder().setNumber(100).setTimestamp(1_600_000_000_000L)
+            .setWitnessAddress(OWNER).setParentHash(ByteString.copyFrom(new byte[32])))
+        .setWitnessSignature(ByteString.copyFrom(new byte[65])));
+    for (int i = 0; i < transactions; i++) {
+      if (i % 2 == 0) {
+        builder.addTransactions(transaction(ContractType.TransferContract,
+            TransferContract.newBuilder().setOwnerAddress(OWNER).setToAddress(TO)
+                .setAmount(i + 1).build(), 0));
+      } else {
+        builder.addTransactions(transaction(ContractType.TriggerSmartContract,
+            TriggerSmartContract.newBuilder().setOwnerAddress(OWNER).setContractAddress(TO)
+                .setData(ByteString.copyFrom(new byte[68])).build(), 3));
+      }
+    }
+    return builder.build();
+  }
+
+  private static Transaction transaction(ContractType type, com.google.protobuf.Message contract,
+      int permissionId) {
+    return Transaction.newBuilder()
+        .setRawData(Transaction.raw.newBuilder()
+            .setRefBlockBytes(ByteString.copyFrom(new byte[]{1, 2}))
+            .setExpiration(1_600_000_060_000L)
+            .setFeeLimit(10_000_000L)
+            .addContract(Transaction.Contract.newBuilder().setType(type)
+                .setParameter(Any.pack(contract)).setPermissionId(permissionId)))
+        .addSignature(ByteString.copyFrom(new byte[65]))
+        .addRet(Transaction.Result.newBuilder().setContractRet(contractResult.SUCCESS))
+        .build();
+  }
+
+  private static String print(Print print) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    print.to(out);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private interface Print {
+
+    void to(OutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,144 @@
+package org.stabila.core.services.http;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.google.protobuf.ByteString;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.stabila.common.application.StabilaApplicationContext;
+import org.stabila.common.logsfilter.EventPluginConfig;
+import org.stabila.common.utils.FileUtil;
+import org.stabila.core.ChainBaseManager;
+import org.stabila.core.Constant;
+import org.stabila.core.capsule.BlockCapsule;
+import org.stabila.core.config.DefaultConfig;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
+
+public class ReplayTriggersServletTest {
+
+  private static final long HEAD = 5;
+  private static final long SOLIDIFIED = 3;
+  private static String dbPath = "output_ReplayTriggersServlet_test";
+  private static StabilaApplicationContext context;
+  private static ReplayTriggersServlet servlet;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new StabilaApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    Manager dbManager = context.getBean(Manager.class);
+    servlet = context.getBean(ReplayTriggersServlet.class);
+    ChainBaseManager chainBaseManager = dbManager.getChainBaseManager();
+    ByteString parentHash = chainBaseManager.getGenesisBlockId().getByteString();
+    for (long num = 1; num <= HEAD; num++) {
+      BlockCapsule block = new BlockCapsule(num * 3000, parentHash, num, Collections.emptyList());
+      chainBaseManager.getBlockStore().put(block.getBlockId().getBytes(), block);
+      chainBaseManager.getBlockIndexStore().put(block.getBlockId());
+      parentHash = block.getBlockId().getByteString();
+    }
+    chainBaseManager.getDynamicPropertiesStore().saveLatestBlockHeaderNumber(HEAD);
+    chainBaseManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(SOLIDIFIED);
+    Args.getInstance().eventPluginConfig = new EventPluginConfig();
+    dbManager.eventPluginLoaded = true;
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testInvalidRange() throws Exception {
+    String body = post("{\"fromBlock\": 2, \"toBlock\": " + HEAD + "}");
+    Assert.assertTrue(body, body.contains("invalid range [2, " + HEAD + "]"));
+    Assert.assertTrue(body, body.contains("latest solidified block is " + SOLIDIFIED));
+
+    body = post("{\"fromBlock\": 3, \"toBlock\": 1}");
+    Assert.assertTrue(body, body.contains("invalid range [3, 1]"));
+  }
+
+  @Test
+  public void testReplay() throws Exception {
+    JSONObject started = JSON.parseObject(post("{\"fromBlock\": 1, \"toBlock\": "
+        + SOLIDIFIED + "}"));
+    Assert.assertEquals(1L, started.getLongValue("fromBlock"));
+    Assert.assertEquals(SOLIDIFIED, started.getLongValue("toBlock"));
+
+    JSONObject state = JSON.parseObject(get());
+    for (int i = 0; i < 100 && !state.getBooleanValue("done"); i++) {
+      Thread.sleep(100);
+      state = JSON.parseObject(get());
+    }
+    Assert.assertTrue(state.getBooleanValue("done"));
+    Assert.assertEquals(SOLIDIFIED, state.getLongValue("lastBlock"));
+    Assert.assertEquals(0L, state.getLongValue("failed"));
+
+    JSONObject cancelled = JSON.parseObject(post("{\"cancel\": true}"));
+    Assert.assertTrue(cancelled.getBooleanValue("cancelled"));
+  }
+
+  @Test
+  public void testRemoteCallerRefused() throws Exception {
+    for (String remoteAddr : new String[]{"10.0.0.1", "192.168.1.2", null}) {
+      HttpServletRequest request = request("{\"fromBlock\": 1, \"toBlock\": 1}");
+      when(request.getRemoteAddr()).thenReturn(remoteAddr);
+      StringWriter body = new StringWriter();
+      HttpServletResponse response = response(body);
+      servlet.doPost(request, response);
+      verify(response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+      verify(request, never()).getReader();
+      Assert.assertTrue(body.toString(), body.toString().contains("local callers only"));
+
+      body = new StringWriter();
+      servlet.doGet(request, response(body));
+      Assert.assertTrue(body.toString(), body.toString().contains("local callers only"));
+    }
+  }
+
+  private static String get() throws Exception {
+    StringWriter body = new StringWriter();
+    servlet.doGet(request(""), response(body));
+    return body.toString();
+  }
+
+  private static String post(String params) throws Exception {
+    HttpServletRequest request = request(params);
+    StringWriter body = new StringWriter();
+    servlet.doPost(request, response(body));
+    return body.toString();
+  }
+
+  private static HttpServletRequest request(String params) throws Exception {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+    when(request.getReader()).thenReturn(new BufferedReader(new StringReader(params)));
+    return request;
+  }
+
+  private static HttpServletResponse response(StringWriter body) throws Exception {
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getWriter()).thenReturn(new PrintWriter(body, true));
+    return response;
+  }
+}
@@ -0,0 +1,93 @@
+package org.stabila.core.services.http;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ResponseCacheTest {
+
+  private static final byte[] BODY = "{\"blockID\":\"00\"}\n".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  public void testServeFromCache() throws IOException {
+    ResponseCache cache = new ResponseCache(1024);
+    String key = ResponseCache.key("getblockbynum", "1", true);
+    Assert.assertFalse(cache.serve(key, mock(HttpServletRequest.class),
+        mock(HttpServletResponse.class)));
+
+    HttpServletResponse first = response(new ByteArrayOutputStream());
+    cache.write(key, BODY, true, mock(HttpServletRequest.class), first);
+    ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+    verify(first).setHeader(eq("ETag"), etag.capture());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Assert.assertTrue(cache.serve(key, mock(HttpServletRequest.class), response(out)));
+    Assert.assertArrayEquals(BODY, out.toByteArray());
+    // the other visible flag is another entry
+    Assert.assertFalse(cache.serve(ResponseCache.key("getblockbynum", "1", false),
+        mock(HttpServletRequest.class), response(new ByteArrayOutputStream())));
+
+    HttpServletRequest conditional = mock(HttpServletRequest.class);
+    when(conditional.getHeader("If-None-Match")).thenReturn(etag.getValue());
+    out = new ByteArrayOutputStream();
+    HttpServletResponse notModified = response(out);
+    Assert.assertTrue(cache.serve(key, conditional, notModified));
+    verify(notModified).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    Assert.assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testUnsolidifiedNotCached() throws IOException {
+    ResponseCache cache = new ResponseCache(1024);
+    String key = ResponseCache.key("gettransactionbyid", "ab", false);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HttpServletResponse response = response(out);
+    cache.write(key, BODY, false, mock(HttpServletRequest.class), response);
+    Assert.assertArrayEquals(BODY, out.toByteArray());
+    verify(response, never()).setHeader(eq("ETag"), anyString());
+    Assert.assertFalse(cache.serve(key, mock(HttpServletRequest.class),
+        response(new ByteArrayOutputStream())));
+
+    ResponseCache disabled = new ResponseCache(0);
+    Assert.assertFalse(disabled.isEnabled());
+    Assert.assertFalse(disabled.isSolidified(1));
+    disabled.write(key, BODY, true, mock(HttpServletRequest.class),
+        response(new ByteArrayOutputStream()));
+    Assert.assertFalse(disabled.serve(key, mock(HttpServletRequest.class),
+        response(new ByteArrayOutputStream())));
+  }
+
+  private static HttpServletResponse response(ByteArrayOutputStream out) throws IOException {
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+      }
+
+      @Override
+      public void write(int b) {
+        out.write(b);
+      }
+    });
+    return response;
+  }
+}
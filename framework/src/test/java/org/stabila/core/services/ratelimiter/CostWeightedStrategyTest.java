@@ -0,0 +1,62 @@
+package org.stabila.core.services.ratelimiter;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.common.utils.ReflectUtils;
+import org.stabila.core.services.ratelimiter.strategy.CostWeightedStrategy;
+import org.stabila.core.services.ratelimiter.strategy.EndpointCostStrategy;
+
+public class CostWeightedStrategyTest {
+
+  private static final long COST = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  public void testIpLimit() {
+    // a call costs the ip one second of budget, a second may be spent ahead
+    CostWeightedStrategy strategy = new CostWeightedStrategy(
+        "ipShare=0.1 globalShare=100 burst=1");
+    Assert.assertTrue(strategy.acquire("1.2.3.4", COST));
+    Assert.assertTrue(strategy.acquire("1.2.3.4", COST));
+    Assert.assertFalse(strategy.acquire("1.2.3.4", COST));
+    Assert.assertTrue(strategy.acquire("5.6.7.8", COST));
+  }
+
+  @Test
+  public void testGlobalShedding() {
+    CostWeightedStrategy strategy = new CostWeightedStrategy(
+        "ipShare=10 globalShare=0.1 burst=1");
+    Assert.assertTrue(strategy.acquire("1.2.3.4", COST));
+    Assert.assertTrue(strategy.acquire("5.6.7.8", COST));
+    Assert.assertFalse(strategy.acquire("9.10.11.12", COST));
+  }
+
+  @Test
+  public void testReload() {
+    CostWeightedStrategy strategy = new CostWeightedStrategy(
+        "ipShare=0.1 globalShare=100 burst=1");
+    strategy.acquire("1.2.3.4", COST);
+    strategy.acquire("1.2.3.4", COST);
+    Assert.assertFalse(strategy.acquire("1.2.3.4", COST));
+
+    strategy.reload("ipShare=0.1 globalShare=100 burst=5");
+    Assert.assertTrue(strategy.acquire("1.2.3.4", COST));
+
+    // a bad param string falls back to the defaults
+    strategy.reload("ipShare=-1");
+    Object ipShare = ReflectUtils.getFieldValue(
+        strategy.getMapParams().get(CostWeightedStrategy.STRATEGY_PARAM_IP_SHARE), "value");
+    Assert.assertEquals(CostWeightedStrategy.DEFAULT_IP_SHARE, ipShare);
+  }
+
+  @Test
+  public void testEndpointCost() {
+    EndpointCostStrategy strategy = new EndpointCostStrategy("weight=2");
+    Assert.assertEquals(2 * TimeUnit.MILLISECONDS.toNanos(1), strategy.cost());
+    for (int i = 0; i < 200; i++) {
+      strategy.record(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    Assert.assertEquals(2 * TimeUnit.MILLISECONDS.toNanos(10), strategy.cost(),
+        TimeUnit.MICROSECONDS.toNanos(20));
+  }
+}
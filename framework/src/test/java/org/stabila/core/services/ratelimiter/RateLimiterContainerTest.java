@@ -0,0 +1,116 @@
+package org.stabila.core.services.ratelimiter;
+
+import com.typesafe.config.ConfigFactory;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.stabila.common.parameter.RateLimiterInitialization;
+import org.stabila.common.parameter.RateLimiterInitialization.HttpRateLimiterItem;
+import org.stabila.common.utils.ReflectUtils;
+import org.stabila.core.Constant;
+import org.stabila.core.config.args.Args;
+import org.stabila.core.services.ratelimiter.adapter.CostWeightedRateLimiterAdapter;
+import org.stabila.core.services.ratelimiter.adapter.QpsRateLimiterAdapter;
+import org.stabila.core.services.ratelimiter.strategy.EndpointCostStrategy;
+
+public class RateLimiterContainerTest {
+
+  private static final String SERVLET = "GetNowBlockServlet";
+  private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private RateLimiterContainer container;
+  private File confFile;
+
+  @After
+  public void destroy() throws Exception {
+    if (container != null) {
+      container.destroy();
+    }
+    if (confFile != null) {
+      Files.deleteIfExists(confFile.toPath());
+    }
+    Args.getInstance().shellConfFileName = "";
+    Args.clearParam();
+  }
+
+  @Test
+  public void testReload() {
+    container = new RateLimiterContainer();
+    CostWeightedRateLimiterAdapter adapter = new CostWeightedRateLimiterAdapter("weight=1",
+        container.getCostStrategy());
+    container.add(RateLimiterContainer.KEY_PREFIX_HTTP, SERVLET, adapter);
+    container.add(RateLimiterContainer.KEY_PREFIX_HTTP, "GetAccountServlet",
+        new QpsRateLimiterAdapter("qps=1"));
+    Assert.assertTrue(container.getCostStrategy().acquire("1.2.3.4", cost(adapter)));
+    Assert.assertTrue(container.getCostStrategy().acquire("1.2.3.4", cost(adapter)));
+
+    RateLimiterInitialization initialization = new RateLimiterInitialization();
+    initialization.setHttpMap(Collections.singletonList(
+        item(SERVLET, "CostWeightedRateLimiterAdapter", "weight=4")));
+    initialization.setCostParams("ipShare=0.001 globalShare=100 burst=1");
+    container.reload(initialization);
+
+    // a call now costs the ip four seconds of budget, one second may be spent ahead
+    Assert.assertEquals(4 * MILLI, cost(adapter));
+    Assert.assertTrue(container.getCostStrategy().acquire("5.6.7.8", cost(adapter)));
+    Assert.assertFalse(container.getCostStrategy().acquire("5.6.7.8", cost(adapter)));
+
+    // an api moved to another strategy keeps its limiter until a restart
+    initialization = new RateLimiterInitialization();
+    initialization.setHttpMap(Collections.singletonList(
+        item(SERVLET, "QpsRateLimiterAdapter", "qps=1")));
+    container.reload(initialization);
+    Assert.assertSame(adapter, container.get(RateLimiterContainer.KEY_PREFIX_HTTP, SERVLET));
+    Assert.assertEquals(4 * MILLI, cost(adapter));
+  }
+
+  @Test
+  public void testReloadConfFile() throws Exception {
+    confFile = File.createTempFile("config-reload", ".conf");
+    writeConf(1);
+    Args.setParam(new String[]{"-c", confFile.getAbsolutePath()}, Constant.TEST_CONF);
+    Assert.assertEquals(1, Args.getInstance().getRateLimiterInitialization()
+        .getReloadInterval());
+
+    container = new RateLimiterContainer();
+    CostWeightedRateLimiterAdapter adapter = new CostWeightedRateLimiterAdapter("weight=1",
+        container.getCostStrategy());
+    container.add(RateLimiterContainer.KEY_PREFIX_HTTP, SERVLET, adapter);
+    container.init();
+
+    writeConf(3);
+    Assert.assertTrue(confFile.setLastModified(confFile.lastModified() + 2000));
+    for (int i = 0; i < 50 && cost(adapter) != 3 * MILLI; i++) {
+      Thread.sleep(100);
+    }
+    Assert.assertEquals(3 * MILLI, cost(adapter));
+  }
+
+  private void writeConf(int weight) throws Exception {
+    String conf = new String(Files.readAllBytes(Paths.get(getClass().getClassLoader()
+        .getResource(Constant.TEST_CONF).toURI())), StandardCharsets.UTF_8);
+    conf += "\nrate.limiter = {\n"
+        + "  http = [{component = \"" + SERVLET + "\", "
+        + "strategy = \"CostWeightedRateLimiterAdapter\", paramString = \"weight=" + weight
+        + "\"}]\n"
+        + "  rpc = []\n"
+        + "  reloadInterval = 1\n"
+        + "}\n";
+    Files.write(confFile.toPath(), conf.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static HttpRateLimiterItem item(String component, String strategy, String params) {
+    return new HttpRateLimiterItem(ConfigFactory.parseString("component = \"" + component
+        + "\", strategy = \"" + strategy + "\", paramString = \"" + params + "\"").root());
+  }
+
+  private static long cost(CostWeightedRateLimiterAdapter adapter) {
+    return ((EndpointCostStrategy) ReflectUtils.getFieldValue(adapter, "strategy")).cost();
+  }
+}
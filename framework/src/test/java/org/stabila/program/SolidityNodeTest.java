@@ -1,6 +1,23 @@
 package org.stabila.program;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -10,12 +27,16 @@ import org.stabila.common.application.Application;
 import org.stabila.common.application.ApplicationFactory;
 import org.stabila.common.application.StabilaApplicationContext;
 import org.stabila.common.overlay.client.DatabaseGrpcClient;
+import org.stabila.common.utils.ReflectUtils;
 import org.stabila.core.Constant;
+import org.stabila.core.capsule.BlockCapsule;
 import org.stabila.core.config.DefaultConfig;
 import org.stabila.core.config.args.Args;
+import org.stabila.core.db.Manager;
 import org.stabila.core.services.RpcApiService;
 import org.stabila.protos.Protocol.Block;
 import org.stabila.protos.Protocol.DynamicProperties;
+import org.stabila.protos.Protocol.Transaction;
 
 @Slf4j
 public class SolidityNodeTest {
@@ -93,6 +114,189 @@ public class SolidityNodeTest {
     Block genesisBlock = databaseGrpcClient.getBlock(0);
     Assert.assertNotNull(genesisBlock);
     Assert.assertFalse(genesisBlock.getTransactionsList().isEmpty());
+
+    // a solidity node does not serve the wallet api, so its peers get blocks one by one
+    try {
+      databaseGrpcClient.getBlocksByRange(0, 1).hasNext();
+      Assert.fail();
+    } catch (StatusRuntimeException e) {
+      Assert.assertEquals(Status.Code.UNIMPLEMENTED, e.getStatus().getCode());
+    }
+  }
+
+  @Test
+  public void testFetchWindowInOrder() throws Exception {
+    List<Block> chain = chain(40);
+    DatabaseGrpcClient client = client(40);
+    Random random = new Random(1);
+    when(client.getBlocksByRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+      // batches are answered out of order
+      Thread.sleep(random.nextInt(50));
+      return chain.subList(invocation.<Long>getArgument(0).intValue(),
+          invocation.<Long>getArgument(1).intValue()).iterator();
+    });
+
+    SolidityNode node = solidityNode(client, 4, 5);
+    try {
+      startGetBlock(node);
+      Assert.assertEquals(range(1, 40), take(node, 40));
+    } finally {
+      ReflectUtils.setFieldValue(node, "flag", false);
+    }
+  }
+
+  @Test
+  public void testBatchFallback() {
+    List<Block> chain = chain(20);
+    DatabaseGrpcClient client = client(20);
+    when(client.getBlocksByRange(anyLong(), anyLong()))
+        .thenThrow(new StatusRuntimeException(Status.UNIMPLEMENTED));
+    when(client.getBlock(anyLong()))
+        .thenAnswer(invocation -> chain.get(invocation.<Long>getArgument(0).intValue()));
+
+    SolidityNode node = solidityNode(client, 2, 10);
+    Assert.assertEquals(range(1, 10), nums(node.fetchBlocks(1, 11)));
+    Assert.assertEquals(range(11, 20), nums(node.fetchBlocks(11, 21)));
+    // the trust node is asked for a range once, blocks are then got one by one
+    verify(client, times(1)).getBlocksByRange(anyLong(), anyLong());
+    verify(client, times(20)).getBlock(anyLong());
+  }
+
+  @Test
+  public void testRejectBadMerkleRoot() {
+    List<Block> chain = chain(10);
+    Block block = chain.get(3);
+    chain.set(3, block.toBuilder().setBlockHeader(block.getBlockHeader().toBuilder()
+        .setRawData(block.getBlockHeader().getRawData().toBuilder()
+            .setTxTrieRoot(ByteString.copyFrom(new byte[32])))).build());
+    assertRejected(chain, 3);
+  }
+
+  @Test
+  public void testRejectBadParent() {
+    List<Block> chain = chain(10);
+    chain.set(3, block(3, ByteString.copyFrom(new byte[32])));
+    assertRejected(chain, 3);
+  }
+
+  @Test
+  public void testRejectBatchNotLinked() throws Exception {
+    List<Block> chain = chain(15);
+    // blocks 6 to 10 of another chain, linked to each other but not to block 5
+    List<Block> fork = new ArrayList<>(chain);
+    ByteString parentHash = ByteString.copyFrom(new byte[32]);
+    for (int num = 6; num <= 10; num++) {
+      fork.set(num, block(num, parentHash));
+      parentHash = new BlockCapsule(fork.get(num)).getBlockId().getByteString();
+    }
+    AtomicBoolean forked = new AtomicBoolean(true);
+    DatabaseGrpcClient client = client(15);
+    when(client.getBlocksByRange(anyLong(), anyLong())).thenAnswer(invocation ->
+        (forked.get() ? fork : chain).subList(invocation.<Long>getArgument(0).intValue(),
+            invocation.<Long>getArgument(1).intValue()).iterator());
+
+    SolidityNode node = solidityNode(client, 2, 5);
+    try {
+      startGetBlock(node);
+      Assert.assertEquals(range(1, 5), take(node, 5));
+      // the batch is fetched again instead of being queued
+      verify(client, timeout(5000).atLeast(2)).getBlocksByRange(6, 11);
+      Assert.assertTrue(queue(node).isEmpty());
+
+      forked.set(false);
+      Assert.assertEquals(range(6, 15), take(node, 10));
+    } finally {
+      ReflectUtils.setFieldValue(node, "flag", false);
+    }
+  }
+
+  private static void assertRejected(List<Block> chain, long blockNum) {
+    DatabaseGrpcClient client = client(chain.size() - 1);
+    when(client.getBlocksByRange(anyLong(), anyLong())).thenAnswer(invocation ->
+        chain.subList(invocation.<Long>getArgument(0).intValue(),
+            invocation.<Long>getArgument(1).intValue()).iterator());
+    SolidityNode node = solidityNode(client, 2, 5);
+    try {
+      node.fetchBlocks(1, 6);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().startsWith("block " + blockNum + " failed validation"));
+    }
+  }
+
+  private static DatabaseGrpcClient client(long lastSolidityBlockNum) {
+    DatabaseGrpcClient client = mock(DatabaseGrpcClient.class);
+    when(client.getDynamicProperties()).thenReturn(DynamicProperties.newBuilder()
+        .setLastSolidityBlockNum(lastSolidityBlockNum).build());
+    return client;
   }
 
+  private static SolidityNode solidityNode(DatabaseGrpcClient client, int fetchWindow,
+      int fetchBatchSize) {
+    Args.getInstance().setSolidityFetchWindow(fetchWindow);
+    Args.getInstance().setSolidityFetchBatchSize(fetchBatchSize);
+    SolidityNode node = new SolidityNode(context.getBean(Manager.class), client);
+    ReflectUtils.setFieldValue(node, "exceptionSleepTime", 10);
+    return node;
+  }
+
+  private static void startGetBlock(SolidityNode node) {
+    Thread thread = new Thread(() -> ReflectUtils.invokeMethod(node, "getBlock"));
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private static BlockingQueue<BlockCapsule> queue(SolidityNode node) {
+    return ReflectUtils.getFieldValue(node, "blockQueue");
+  }
+
+  private static List<Long> take(SolidityNode node, int count) throws InterruptedException {
+    List<Long> nums = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      BlockCapsule block = queue(node).poll(10, TimeUnit.SECONDS);
+      Assert.assertNotNull(block);
+      nums.add(block.getNum());
+    }
+    return nums;
+  }
+
+  /**
+   * Blocks 0 to length, block 0 being the local genesis block.
+   */
+  private static List<Block> chain(int length) {
+    List<Block> chain = new ArrayList<>();
+    BlockCapsule genesis = context.getBean(Manager.class).getChainBaseManager()
+        .getGenesisBlock();
+    chain.add(genesis.getInstance());
+    ByteString parentHash = genesis.getBlockId().getByteString();
+    for (int num = 1; num <= length; num++) {
+      Block block = block(num, parentHash);
+      chain.add(block);
+      parentHash = new BlockCapsule(block).getBlockId().getByteString();
+    }
+    return chain;
+  }
+
+  private static Block block(long num, ByteString parentHash) {
+    Transaction transaction = Transaction.newBuilder()
+        .setRawData(Transaction.raw.newBuilder().setTimestamp(num)).build();
+    BlockCapsule block = new BlockCapsule(num * 3000, parentHash, num,
+        Collections.singletonList(transaction));
+    block.setMerkleRoot();
+    return block.getInstance();
+  }
+
+  private static List<Long> nums(List<BlockCapsule> blocks) {
+    List<Long> nums = new ArrayList<>();
+    blocks.forEach(block -> nums.add(block.getNum()));
+    return nums;
+  }
+
+  private static List<Long> range(long from, long to) {
+    List<Long> range = new ArrayList<>();
+    for (long num = from; num <= to; num++) {
+      range.add(num);
+    }
+    return range;
+  }
 }